@@ -0,0 +1,37 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.slf4j.LoggerFactory;
+
+public final class BenchmarkUtil {
+
+    /**
+     * Reduces the log output of Apus to warnings, so logging does not distort the measurements.
+     */
+    public static void quietLogging() {
+        ((Logger) LoggerFactory.getLogger("swiss.fihlon.apus")).setLevel(Level.WARN);
+    }
+
+    private BenchmarkUtil() {
+        throw new IllegalStateException("Utility classes can't be instantiated!");
+    }
+
+}
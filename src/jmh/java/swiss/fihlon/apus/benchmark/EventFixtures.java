@@ -0,0 +1,276 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.benchmark;
+
+import net.datafaker.Faker;
+import org.jetbrains.annotations.NotNull;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import swiss.fihlon.apus.event.Language;
+import swiss.fihlon.apus.event.Room;
+import swiss.fihlon.apus.event.Session;
+import swiss.fihlon.apus.event.Speaker;
+import swiss.fihlon.apus.event.Track;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * <p>Creates synthetic conference schedules of any size and writes them in the formats of the event APIs.</p>
+ *
+ * <p>The sessions are distributed evenly over the rooms and take place today from 7 am on, so the event service
+ * does not filter them out. The data is random, but the same for every run, because the faker uses a fixed seed.</p>
+ */
+public final class EventFixtures {
+
+    /**
+     * The timezone of the schedules, the plugins must be configured to use it.
+     */
+    public static final @NotNull ZoneId TIMEZONE = ZoneId.of("Europe/Zurich");
+
+    private static final @NotNull LocalTime FIRST_SLOT = LocalTime.of(7, 0);
+    private static final int MINUTES_PER_DAY = 16 * 60;
+    private static final long SEED = 42;
+
+    // the topics of the Java Forum Stuttgart, which have a track icon
+    private static final @NotNull List<@NotNull String> TOPICS = List.of(
+            "Architektur & Sicherheit", "Microservices, Container & Cloud", "Core Java & JVM-Sprachen",
+            "Enterprise Java & Frameworks", "Frontend-Entwicklung", "IDE & Tools", "Methodik & Praxis",
+            "Open Source & Community", "Test & Betrieb", "Trends & neue Technologien (KI o.a.)");
+
+    private static final @NotNull List<@NotNull Track> TRACKS = List.of(
+            Track.ARCHITECTURE, Track.CLOUD, Track.CORE, Track.INFRASTRUCTURE, Track.SECURITY, Track.TOOLS);
+
+    /**
+     * Creates a schedule with the given number of sessions in the given number of rooms.
+     */
+    public static @NotNull Schedule schedule(final int sessions, final int rooms) {
+        final var faker = new Faker(new Random(SEED));
+        final var roomNames = Stream.generate(() -> faker.space().planet() + " " + faker.number().digits(3))
+                .distinct()
+                .limit(rooms)
+                .toList();
+        final var speakers = Stream.generate(() -> faker.name().fullName())
+                .limit(Math.max(1, sessions * 3L / 4))
+                .toList();
+
+        final var slotsPerRoom = (sessions + rooms - 1) / rooms;
+        final var slotMinutes = Math.max(1, MINUTES_PER_DAY / slotsPerRoom);
+        final var sessionMinutes = Math.max(1, slotMinutes * 3 / 4);
+        final var fixtureSessions = new ArrayList<FixtureSession>(sessions);
+        for (int i = 0; i < sessions; i++) {
+            final var start = FIRST_SLOT.plusMinutes((long) (i / rooms) * slotMinutes);
+            final var speakerIds = faker.random().nextBoolean()
+                    ? List.of(faker.random().nextInt(speakers.size()))
+                    : List.of(faker.random().nextInt(speakers.size()), faker.random().nextInt(speakers.size()));
+            fixtureSessions.add(new FixtureSession(i + 1, start, start.plusMinutes(sessionMinutes), roomNames.get(i % rooms),
+                    faker.book().title(), speakerIds, faker.random().nextBoolean(), i % TOPICS.size()));
+        }
+        return new Schedule(LocalDate.now(TIMEZONE), fixtureSessions, speakers);
+    }
+
+    /**
+     * Writes the given content to a file in the given directory and returns its location as file URL.
+     */
+    public static @NotNull String write(final @NotNull Path directory, final @NotNull String fileName, final @NotNull String content) {
+        try {
+            return Files.writeString(directory.resolve(fileName), content).toUri().toString();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Deletes the given directory including all files in it.
+     */
+    public static void delete(final @NotNull Path directory) {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (final var path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * A session of the synthetic schedule, referencing its speakers and topic by index.
+     */
+    public record FixtureSession(int id, @NotNull LocalTime start, @NotNull LocalTime end, @NotNull String room,
+                                 @NotNull String title, @NotNull List<@NotNull Integer> speakerIds, boolean english, int topic) { }
+
+    /**
+     * A synthetic schedule, which can be converted to the formats of the event APIs.
+     */
+    public record Schedule(@NotNull LocalDate date, @NotNull List<FixtureSession> fixtureSessions, @NotNull List<@NotNull String> speakers) {
+
+        /**
+         * Returns the sessions like delivered by the event plugins.
+         */
+        public @NotNull List<@NotNull Session> sessions() {
+            return fixtureSessions.stream()
+                    .map(session -> new Session("BENCH:%d".formatted(session.id()),
+                            dateTime(session.start()), dateTime(session.end()), new Room(session.room()), session.title(),
+                            session.speakerIds().stream().map(id -> new Speaker(speakers.get(id))).toList(),
+                            session.english() ? Language.EN : Language.DE, TRACKS.get(session.topic() % TRACKS.size())))
+                    .toList();
+        }
+
+        /**
+         * Returns the sessions in the format of the Sessionize "All" API.
+         */
+        public @NotNull String sessionizeSessions() {
+            final var sessions = new JSONArray();
+            for (final var session : fixtureSessions) {
+                final var category = new JSONObject()
+                        .put("name", "Language")
+                        .put("categoryItems", new JSONArray().put(new JSONObject().put("name", session.english() ? "English" : "German")));
+                sessions.put(new JSONObject()
+                        .put("id", Integer.toString(session.id()))
+                        .put("title", session.title())
+                        .put("startsAt", date.atTime(session.start()).toString())
+                        .put("endsAt", date.atTime(session.end()).toString())
+                        .put("room", session.room())
+                        .put("speakers", new JSONArray(session.speakerIds().stream()
+                                .map(id -> new JSONObject().put("id", Integer.toString(id)))
+                                .toList()))
+                        .put("categories", new JSONArray().put(category)));
+            }
+            return new JSONArray().put(new JSONObject().put("sessions", sessions)).toString();
+        }
+
+        /**
+         * Returns the speakers in the format of the Sessionize "Speakers" API.
+         */
+        public @NotNull String sessionizeSpeakers() {
+            final var speakerArray = new JSONArray();
+            for (int id = 0; id < speakers.size(); id++) {
+                speakerArray.put(new JSONObject()
+                        .put("id", Integer.toString(id))
+                        .put("fullName", speakers.get(id))
+                        .put("profilePicture", "https://sessionize.com/image/%d.jpg".formatted(id)));
+            }
+            return speakerArray.toString();
+        }
+
+        /**
+         * Returns the sessions in the format of the DOAG schedule API.
+         */
+        public @NotNull String doag() {
+            final var rooms = new JSONObject();
+            for (final var session : fixtureSessions) {
+                final var language = session.english() ? "en" : "de";
+                final var duration = Duration.between(session.start(), session.end());
+                final var slot = new JSONObject()
+                        .put("id", session.id())
+                        .put("type", "lecture")
+                        .put("language", new JSONArray().put(language))
+                        .put("title", new JSONObject().put(language, session.title()))
+                        .put("date", dateTime(session.start()).toOffsetDateTime().toString())
+                        .put("duration", "%02d:%02d".formatted(duration.toHours(), duration.toMinutesPart()))
+                        .put("persons", new JSONArray(session.speakerIds().stream()
+                                .map(id -> new JSONObject().put("public_name", speakers.get(id)))
+                                .toList()));
+                if (!rooms.has(session.room())) {
+                    rooms.put(session.room(), new JSONArray());
+                }
+                rooms.getJSONArray(session.room()).put(slot);
+            }
+            final var day = new JSONObject().put("rooms", rooms);
+            final var conference = new JSONObject().put("acronym", "BENCH").put("days", new JSONArray().put(day));
+            return new JSONObject().put("schedule", new JSONObject().put("conference", conference)).toString();
+        }
+
+        /**
+         * Returns the sessions in the format of the Devoxx schedule API, using the given URLs for the track images.
+         */
+        public @NotNull String devoxx(final @NotNull List<@NotNull String> trackImageUrls) {
+            final var sessions = new JSONArray();
+            for (final var session : fixtureSessions) {
+                final var proposal = new JSONObject()
+                        .put("title", session.title())
+                        .put("speakers", new JSONArray(session.speakerIds().stream()
+                                .map(id -> new JSONObject()
+                                        .put("fullName", speakers.get(id))
+                                        .put("imageUrl", "https://devoxx.be/image/%d.jpg".formatted(id)))
+                                .toList()))
+                        .put("track", new JSONObject().put("imageURL", trackImageUrls.get(session.topic() % trackImageUrls.size())));
+                sessions.put(new JSONObject()
+                        .put("id", session.id())
+                        .put("fromDate", dateTime(session.start()).toOffsetDateTime().toString())
+                        .put("toDate", dateTime(session.end()).toOffsetDateTime().toString())
+                        .put("room", new JSONObject().put("name", session.room()))
+                        .put("proposal", proposal));
+            }
+            return sessions.toString();
+        }
+
+        /**
+         * Writes the SVG track images for the Devoxx schedule to the given directory and returns their URLs.
+         */
+        public @NotNull List<@NotNull String> devoxxTrackImages(final @NotNull Path directory) {
+            final var urls = new ArrayList<String>();
+            for (int i = 0; i < TRACKS.size(); i++) {
+                urls.add(write(directory, "track-%d.svg".formatted(i), TRACKS.get(i).svgCode()));
+            }
+            return urls;
+        }
+
+        /**
+         * Returns the sessions in the format of the Java Forum Stuttgart JSON export.
+         */
+        public @NotNull String javaForumStuttgart() {
+            final var talks = new JSONArray();
+            for (final var session : fixtureSessions) {
+                talks.put(new JSONObject()
+                        .put("id", session.id())
+                        .put("title", session.title())
+                        .put("room", session.room())
+                        .put("topic", TOPICS.get(session.topic()))
+                        .put("timeSlot", "%s - %s Uhr".formatted(session.start(), session.end()))
+                        .put("isInEnglish", session.english())
+                        .put("speakers", new JSONArray(session.speakerIds().stream()
+                                .map(id -> new JSONObject().put("id", id).put("name", speakers.get(id)))
+                                .toList())));
+            }
+            return talks.toString();
+        }
+
+        private @NotNull ZonedDateTime dateTime(final @NotNull LocalTime time) {
+            return date.atTime(time).atZone(TIMEZONE);
+        }
+    }
+
+    private EventFixtures() {
+        throw new IllegalStateException("Utility classes can't be instantiated!");
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.benchmark;
+
+import org.jetbrains.annotations.NotNull;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import swiss.fihlon.apus.social.Post;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>Creates social media fixtures of any size from sample API responses.</p>
+ *
+ * <p>The samples are repeated until the requested number of posts is reached. Every copy gets a unique ID
+ * and an older timestamp, so the posts are sorted newest first like in the real API responses.</p>
+ */
+public final class SocialFixtures {
+
+    private static final @NotNull ZonedDateTime NEWEST = ZonedDateTime.of(2025, 6, 24, 9, 30, 0, 0, ZoneOffset.UTC);
+    private static final long MASTODON_NEWEST_ID = 113_498_300_000_000_000L;
+
+    /**
+     * Returns Mastodon statuses like returned by the hashtag timeline API.
+     */
+    public static @NotNull JSONArray mastodonStatuses(final int count) {
+        final var samples = load("/fixtures/mastodon-statuses.json");
+        final var statuses = new JSONArray();
+        for (int i = 0; i < count; i++) {
+            final var status = new JSONObject(samples.getJSONObject(i % samples.length()).toString());
+            status.put("id", Long.toString(MASTODON_NEWEST_ID - i));
+            status.put("created_at", timestamp(i));
+            statuses.put(status);
+        }
+        return statuses;
+    }
+
+    /**
+     * Returns BlueSky posts like returned by the searchPosts API.
+     */
+    public static @NotNull JSONArray blueSkyPosts(final int count) {
+        final var samples = load("/fixtures/bluesky-posts.json");
+        final var posts = new JSONArray();
+        for (int i = 0; i < count; i++) {
+            final var post = new JSONObject(samples.getJSONObject(i % samples.length()).toString());
+            post.put("uri", post.getString("uri") + i);
+            post.getJSONObject("record").put("createdAt", timestamp(i));
+            post.put("indexedAt", timestamp(i));
+            posts.put(post);
+        }
+        return posts;
+    }
+
+    /**
+     * Returns posts based on the Mastodon samples, as delivered by the social plugins.
+     */
+    public static @NotNull List<@NotNull Post> posts(final int count) {
+        final var statuses = mastodonStatuses(count);
+        final var posts = new ArrayList<Post>(count);
+        for (int i = 0; i < statuses.length(); i++) {
+            final var status = statuses.getJSONObject(i);
+            final var account = status.getJSONObject("account");
+            final var images = new ArrayList<String>();
+            final var mediaAttachments = status.getJSONArray("media_attachments");
+            for (int j = 0; j < mediaAttachments.length(); j++) {
+                images.add(mediaAttachments.getJSONObject(j).getString("preview_url"));
+            }
+            posts.add(new Post(status.getString("id"), ZonedDateTime.parse(status.getString("created_at")),
+                    account.getString("display_name"), account.getString("avatar"), account.getString("acct"),
+                    status.getString("content"), images, !status.isNull("in_reply_to_id"), status.getBoolean("sensitive"), ""));
+        }
+        return posts;
+    }
+
+    private static @NotNull String timestamp(final int index) {
+        return NEWEST.minusSeconds(30L * index).format(DateTimeFormatter.ISO_INSTANT);
+    }
+
+    private static @NotNull JSONArray load(final @NotNull String resource) {
+        try (InputStream inputStream = SocialFixtures.class.getResourceAsStream(resource)) {
+            if (inputStream == null) {
+                throw new IllegalStateException("Fixture '%s' not found".formatted(resource));
+            }
+            return new JSONArray(new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private SocialFixtures() {
+        throw new IllegalStateException("Utility classes can't be instantiated!");
+    }
+
+}
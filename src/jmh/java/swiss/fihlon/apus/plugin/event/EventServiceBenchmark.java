@@ -0,0 +1,133 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.plugin.event;
+
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.scheduling.support.NoOpTaskScheduler;
+import swiss.fihlon.apus.ApplicationI18NProvider;
+import swiss.fihlon.apus.benchmark.BenchmarkUtil;
+import swiss.fihlon.apus.benchmark.EventFixtures;
+import swiss.fihlon.apus.configuration.AppConfig;
+import swiss.fihlon.apus.event.Room;
+import swiss.fihlon.apus.event.Session;
+import swiss.fihlon.apus.http.FetchExecutor;
+
+import java.time.Duration;
+import java.time.Period;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static swiss.fihlon.apus.http.HttpTestUtil.HTTP_CONFIG;
+
+/**
+ * Measures sorting the sessions of all plugins and grouping them by room.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventServiceBenchmark {
+
+    private static final @NotNull FetchExecutor FETCH_EXECUTOR = new FetchExecutor(HTTP_CONFIG);
+
+    @Param({"50", "500", "5000"})
+    public int sessions;
+
+    @Param({"10", "200"})
+    public int rooms;
+
+    private AppConfig appConfig;
+    private ApplicationI18NProvider i18nProvider;
+    private List<@NotNull EventPlugin> plugins;
+    private EventService eventService;
+
+    @Setup
+    public void setUp() {
+        BenchmarkUtil.quietLogging();
+        appConfig = mock(AppConfig.class);
+        when(appConfig.timezone()).thenReturn(EventFixtures.TIMEZONE);
+        when(appConfig.locale()).thenReturn(Locale.ENGLISH);
+        when(appConfig.demoMode()).thenReturn(false);
+        when(appConfig.event()).thenReturn(new EventConfig(Period.ZERO, Duration.ZERO, "", 60, true, true, 0));
+        i18nProvider = new ApplicationI18NProvider(appConfig);
+        plugins = List.of(new FixturePlugin(EventFixtures.schedule(sessions, rooms).sessions()));
+        eventService = new EventService(new NoOpTaskScheduler(), FETCH_EXECUTOR, appConfig, i18nProvider, plugins);
+    }
+
+    /**
+     * Loads the sessions from the plugin and groups them by room, as done when the service is created.
+     */
+    @Benchmark
+    public @NotNull EventService updateSessions() {
+        return new EventService(new NoOpTaskScheduler(), FETCH_EXECUTOR, appConfig, i18nProvider, plugins);
+    }
+
+    @Benchmark
+    public @NotNull Map<@NotNull Room, @NotNull List<@NotNull Session>> getRoomsWithSessions() {
+        return eventService.getRoomsWithSessions();
+    }
+
+    /**
+     * Looks up the running or next session of every room, as done by every event view once per minute.
+     */
+    @Benchmark
+    public int getCurrentOrNextSessions() {
+        final var schedule = eventService.getSchedule();
+        final var now = ZonedDateTime.now(EventFixtures.TIMEZONE);
+        var count = 0;
+        for (final var room : schedule.getRooms()) {
+            if (schedule.getCurrentOrNextSession(room, now) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private record FixturePlugin(@NotNull List<@NotNull Session> sessions) implements EventPlugin {
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+
+        @Override
+        public @NotNull Stream<@NotNull Session> getSessions() {
+            return sessions.stream();
+        }
+    }
+
+}
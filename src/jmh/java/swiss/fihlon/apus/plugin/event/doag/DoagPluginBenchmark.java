@@ -0,0 +1,91 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.plugin.event.doag;
+
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import swiss.fihlon.apus.benchmark.BenchmarkUtil;
+import swiss.fihlon.apus.benchmark.EventFixtures;
+import swiss.fihlon.apus.configuration.AppConfig;
+import swiss.fihlon.apus.event.Session;
+import swiss.fihlon.apus.http.HttpService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static swiss.fihlon.apus.http.HttpTestUtil.HTTP_CONFIG;
+
+/**
+ * Measures the import of a DOAG schedule.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DoagPluginBenchmark {
+
+    @Param({"50", "500", "5000"})
+    public int sessions;
+
+    @Param({"10", "200"})
+    public int rooms;
+
+    private Path directory;
+    private DoagPlugin plugin;
+
+    @Setup
+    public void setUp() throws IOException {
+        BenchmarkUtil.quietLogging();
+        directory = Files.createTempDirectory("apus-benchmark-");
+        final var schedule = EventFixtures.schedule(sessions, rooms);
+        final var config = new DoagConfig(1, EventFixtures.write(directory, "doag.json", schedule.doag()));
+        final var appConfig = mock(AppConfig.class);
+        when(appConfig.timezone()).thenReturn(EventFixtures.TIMEZONE);
+        when(appConfig.doag()).thenReturn(config);
+        plugin = new DoagPlugin(appConfig, new HttpService(HTTP_CONFIG));
+    }
+
+    @TearDown
+    public void tearDown() {
+        EventFixtures.delete(directory);
+    }
+
+    @Benchmark
+    public @NotNull List<@NotNull Session> getSessions() {
+        return plugin.getSessions().toList();
+    }
+
+}
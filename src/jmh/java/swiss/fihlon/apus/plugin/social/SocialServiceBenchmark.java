@@ -0,0 +1,165 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.plugin.social;
+
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.scheduling.support.NoOpTaskScheduler;
+import swiss.fihlon.apus.benchmark.BenchmarkUtil;
+import swiss.fihlon.apus.benchmark.SocialFixtures;
+import swiss.fihlon.apus.configuration.AppConfig;
+import swiss.fihlon.apus.configuration.FilterConfig;
+import swiss.fihlon.apus.configuration.SocialConfig;
+import swiss.fihlon.apus.http.FetchExecutor;
+import swiss.fihlon.apus.social.Post;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static swiss.fihlon.apus.http.HttpTestUtil.HTTP_CONFIG;
+
+/**
+ * Measures the filter chain of the {@link SocialService} and the sorting and merging of the posts of all plugins.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SocialServiceBenchmark {
+
+    private static final @NotNull FetchExecutor FETCH_EXECUTOR = new FetchExecutor(HTTP_CONFIG);
+
+    private static final @NotNull List<@NotNull String> FILTER_WORDS = List.of(
+            "spam", "crypto", "giveaway", "follow back", "nsfw", "casino", "free followers", "airdrop", "onlyfans", "promo code");
+
+    private static @NotNull AppConfig createAppConfig() {
+        final var appConfig = mock(AppConfig.class);
+        when(appConfig.demoMode()).thenReturn(false);
+        when(appConfig.social()).thenReturn(new SocialConfig("apus", "", 3, true, 1, false,
+                new FilterConfig(500, true, true, FILTER_WORDS)));
+        return appConfig;
+    }
+
+    /**
+     * One plugin delivering all posts, filtered by {@link #filterPosts(FilterState)}.
+     */
+    @State(Scope.Benchmark)
+    public static class FilterState {
+
+        @Param({"100", "1000", "10000"})
+        public int posts;
+
+        private FixturePlugin plugin;
+
+        @Setup
+        public void setUp() {
+            BenchmarkUtil.quietLogging();
+            plugin = new FixturePlugin(SocialFixtures.posts(posts));
+            new SocialService(new NoOpTaskScheduler(), FETCH_EXECUTOR, createAppConfig(), List.of(plugin));
+        }
+    }
+
+    /**
+     * Many plugins with the maximum number of posts each, merged by {@link #getPosts(MergeState)}.
+     */
+    @State(Scope.Benchmark)
+    public static class MergeState {
+
+        @Param({"100", "1000", "10000"})
+        public int posts;
+
+        private SocialService socialService;
+
+        @Setup
+        public void setUp() {
+            BenchmarkUtil.quietLogging();
+            final var pluginCount = Math.max(1, posts / 50); // the social service keeps at most 50 posts per plugin
+            final var allPosts = SocialFixtures.posts(posts);
+            final var plugins = new ArrayList<SocialPlugin>();
+            for (int i = 0; i < pluginCount; i++) {
+                final var pluginIndex = i;
+                // spread the posts over the plugins, so every plugin delivers posts of the whole time range
+                plugins.add(new FixturePlugin(IntStream.range(0, allPosts.size())
+                        .filter(index -> index % pluginCount == pluginIndex)
+                        .mapToObj(allPosts::get)
+                        .toList()));
+            }
+            socialService = new SocialService(new NoOpTaskScheduler(), FETCH_EXECUTOR, createAppConfig(), plugins);
+        }
+    }
+
+    /**
+     * Runs the filter chain, using a warm render cache like in production.
+     */
+    @Benchmark
+    public void filterPosts(final @NotNull FilterState state) {
+        state.plugin.postsChangedListener.run();
+    }
+
+    @Benchmark
+    public @NotNull List<@NotNull Post> getPosts(final @NotNull MergeState state) {
+        return state.socialService.getPosts(0);
+    }
+
+    private static final class FixturePlugin implements SocialPlugin {
+
+        private final @NotNull List<@NotNull Post> posts;
+        private @NotNull Runnable postsChangedListener = () -> { };
+
+        private FixturePlugin(final @NotNull List<@NotNull Post> posts) {
+            this.posts = posts;
+        }
+
+        @Override
+        public @NotNull String getServiceName() {
+            return "Fixture";
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+
+        @Override
+        public @NotNull Stream<@NotNull Post> getPosts(final @NotNull List<@NotNull String> hashtags) {
+            return posts.stream();
+        }
+
+        @Override
+        public void setPostsChangedListener(final @NotNull Runnable listener) {
+            postsChangedListener = listener;
+        }
+    }
+
+}
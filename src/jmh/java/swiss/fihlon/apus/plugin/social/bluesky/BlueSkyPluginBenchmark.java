@@ -0,0 +1,93 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.plugin.social.bluesky;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.json.JSONArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import swiss.fihlon.apus.benchmark.BenchmarkUtil;
+import swiss.fihlon.apus.benchmark.SocialFixtures;
+import swiss.fihlon.apus.configuration.AppConfig;
+import swiss.fihlon.apus.http.FetchExecutor;
+import swiss.fihlon.apus.social.Post;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static swiss.fihlon.apus.http.HttpTestUtil.HTTP_CONFIG;
+
+/**
+ * Measures the mapping of BlueSky posts to posts, including merging them into the post window.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BlueSkyPluginBenchmark {
+
+    private static final @NotNull FetchExecutor FETCH_EXECUTOR = new FetchExecutor(HTTP_CONFIG);
+
+    @Param({"100", "1000", "10000"})
+    public int posts;
+
+    private BlueSkyPlugin blueSkyPlugin;
+
+    @Setup
+    public void setUp() {
+        BenchmarkUtil.quietLogging();
+        final var appConfig = mock(AppConfig.class);
+        when(appConfig.blueSky()).thenReturn(new BlueSkyConfig("api.bsky.app", "https://${instance}/${hashtag}", "", "", posts));
+        blueSkyPlugin = new BlueSkyPlugin(new FixtureLoader(SocialFixtures.blueSkyPosts(posts)), appConfig, FETCH_EXECUTOR);
+    }
+
+    @Benchmark
+    public @NotNull List<@NotNull Post> createPosts() {
+        return blueSkyPlugin.getPosts(List.of("apus")).toList();
+    }
+
+    private record FixtureLoader(@NotNull JSONArray posts) implements BlueSkyLoader {
+
+        @Override
+        public @NotNull JSONArray getPostsWithHashtag(final @NotNull String instance, final @NotNull String hashtag,
+                                                      final @NotNull String hashtagUrl, final int postLimit, final @Nullable String since) {
+            return posts;
+        }
+
+        @Override
+        public @NotNull JSONArray getPostsWithMention(final @NotNull String instance, final @NotNull String profile,
+                                                      final @NotNull String mentionsUrl, final int postLimit, final @Nullable String since) {
+            return new JSONArray();
+        }
+    }
+
+}
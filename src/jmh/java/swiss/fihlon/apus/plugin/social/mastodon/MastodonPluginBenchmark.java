@@ -0,0 +1,108 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.plugin.social.mastodon;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.json.JSONArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import swiss.fihlon.apus.benchmark.BenchmarkUtil;
+import swiss.fihlon.apus.benchmark.SocialFixtures;
+import swiss.fihlon.apus.configuration.AppConfig;
+import swiss.fihlon.apus.http.FetchExecutor;
+import swiss.fihlon.apus.http.ServerSentEvent;
+import swiss.fihlon.apus.social.Post;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static swiss.fihlon.apus.http.HttpTestUtil.HTTP_CONFIG;
+
+/**
+ * Measures the mapping of Mastodon statuses to posts, including merging them into the post window.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MastodonPluginBenchmark {
+
+    private static final @NotNull FetchExecutor FETCH_EXECUTOR = new FetchExecutor(HTTP_CONFIG);
+
+    @Param({"100", "1000", "10000"})
+    public int posts;
+
+    private MastodonPlugin mastodonPlugin;
+
+    @Setup
+    public void setUp() {
+        BenchmarkUtil.quietLogging();
+        final var appConfig = mock(AppConfig.class);
+        when(appConfig.mastodon()).thenReturn(new MastodonConfig("ijug.social", "", "", "https://${instance}/${hashtag}", posts, ""));
+        mastodonPlugin = new MastodonPlugin(new FixtureLoader(SocialFixtures.mastodonStatuses(posts)), appConfig, FETCH_EXECUTOR);
+    }
+
+    @Benchmark
+    public @NotNull List<@NotNull Post> createPosts() {
+        return mastodonPlugin.getPosts(List.of("apus")).toList();
+    }
+
+    private record FixtureLoader(@NotNull JSONArray statuses) implements MastodonLoader {
+
+        @Override
+        public @NotNull JSONArray getPosts(final @NotNull String instance, final @NotNull String hashtag, final @NotNull String postAPI,
+                                           final int postLimit, final @Nullable String sinceId) {
+            return statuses;
+        }
+
+        @Override
+        public @NotNull JSONArray getNotifications(final @NotNull String instance, final @NotNull String notificationAPI,
+                                                   final @NotNull String accessToken, final int postLimit, final @Nullable String sinceId) {
+            return new JSONArray();
+        }
+
+        @Override
+        public void streamHashtag(final @NotNull String instance, final @NotNull String streamingAPI, final @NotNull String hashtag,
+                                  final @Nullable String accessToken, final @NotNull Runnable onOpen,
+                                  final @NotNull Consumer<@NotNull ServerSentEvent> onEvent) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void streamNotifications(final @NotNull String instance, final @NotNull String streamingAPI, final @NotNull String accessToken,
+                                        final @NotNull Runnable onOpen, final @NotNull Consumer<@NotNull ServerSentEvent> onEvent) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+}
@@ -20,6 +20,7 @@ package swiss.fihlon.apus.configuration;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.bind.ConstructorBinding;
+import swiss.fihlon.apus.http.HttpConfig;
 import swiss.fihlon.apus.plugin.event.EventConfig;
 import swiss.fihlon.apus.plugin.event.devoxx.DevoxxConfig;
 import swiss.fihlon.apus.plugin.event.doag.DoagConfig;
@@ -34,7 +35,7 @@ import java.util.Locale;
 @ConfigurationProperties(prefix = "apus")
 public record AppConfig(@NotNull String version, @NotNull String language, @NotNull ZoneId timezone, @NotNull String password,
                         @NotNull Boolean demoMode, @NotNull String styles, @NotNull EventConfig event, @NotNull SocialConfig social,
-                        @NotNull DevoxxConfig devoxx, @NotNull DoagConfig doag, @NotNull JavaForumStuttgartConfig jfs,
+                        @NotNull HttpConfig http, @NotNull DevoxxConfig devoxx, @NotNull DoagConfig doag, @NotNull JavaForumStuttgartConfig jfs,
                         @NotNull SessionizeConfig sessionize, @NotNull BlueSkyConfig blueSky, @NotNull MastodonConfig mastodon) {
 
     @ConstructorBinding
@@ -20,4 +20,4 @@ package swiss.fihlon.apus.configuration;
 import org.jetbrains.annotations.NotNull;
 
 public record SocialConfig(@NotNull String hashtags, @NotNull String headline, int numberOfColumns, boolean imagesEnabled, int imageLimit,
-                           @NotNull FilterConfig filter) { }
+                           boolean lightweightPosts, @NotNull FilterConfig filter) { }
@@ -25,10 +25,6 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URL;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Objects;
@@ -68,17 +64,4 @@ public record Track(String svgCode) {
         return new Track(svgCode);
     }
 
-    public static @NotNull Track fromURI(final @NotNull URI uri) throws IOException, InterruptedException {
-        try (var client = HttpClient.newHttpClient()) {
-            final var request = HttpRequest.newBuilder()
-                    .uri(uri)
-                    .GET()
-                    .build();
-
-            final var response = client.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
-            final var  svgCode = response.body();
-            return new Track(svgCode);
-        }
-    }
-
 }
@@ -0,0 +1,89 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.event;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * <p>Canonicalizes the rooms, speakers and tracks of sessions, so equal values share one instance.</p>
+ *
+ * <p>Every import creates new value objects for every session, which duplicates the same rooms, speakers and
+ * multi-kilobyte track icons thousands of times. Interned values are shared across plugins and imports, and
+ * comparing them takes the identity fast path of {@code equals}. The values are referenced weakly, so values no
+ * longer used by any session are garbage collected.</p>
+ */
+public final class ValueInterner {
+
+    private final @NotNull Pool<@NotNull Room> rooms = new Pool<>();
+    private final @NotNull Pool<@NotNull Speaker> speakers = new Pool<>();
+    private final @NotNull Pool<@NotNull Track> tracks = new Pool<>();
+
+    public @NotNull Room intern(final @NotNull Room room) {
+        return rooms.intern(room);
+    }
+
+    public @NotNull Speaker intern(final @NotNull Speaker speaker) {
+        return speakers.intern(speaker);
+    }
+
+    public @NotNull Track intern(final @NotNull Track track) {
+        return tracks.intern(track);
+    }
+
+    /**
+     * Returns the session with interned room, speakers and track, or the session itself if they are interned already.
+     */
+    public @NotNull Session intern(final @NotNull Session session) {
+        final var room = intern(session.room());
+        final var track = intern(session.track());
+        var changed = room != session.room() || track != session.track();
+        final var sessionSpeakers = new ArrayList<Speaker>(session.speakers().size());
+        for (final var speaker : session.speakers()) {
+            final var internedSpeaker = intern(speaker);
+            changed |= internedSpeaker != speaker;
+            sessionSpeakers.add(internedSpeaker);
+        }
+        if (!changed) {
+            return session;
+        }
+        return new Session(session.id(), session.startDate(), session.endDate(), room, session.title(),
+                List.copyOf(sessionSpeakers), session.language(), track);
+    }
+
+    private static final class Pool<T> {
+
+        private final @NotNull Map<T, WeakReference<T>> values = new WeakHashMap<>();
+
+        private synchronized @NotNull T intern(final @NotNull T value) {
+            final var reference = values.get(value);
+            final var canonical = reference != null ? reference.get() : null;
+            if (canonical != null) {
+                return canonical;
+            }
+            values.put(value, new WeakReference<>(value));
+            return value;
+        }
+    }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.http;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * <p>A remote resource which is only downloaded and parsed again when it has changed.</p>
+ *
+ * <p>The first call always downloads the content. Subsequent calls send a conditional request and
+ * return the previously parsed value if the server answers with 304 Not Modified. The validators are kept
+ * together with the value they belong to: if parsing fails, both stay unchanged, so the next call downloads
+ * the full content again. Concurrent calls wait for the running download, so the content is never downloaded
+ * twice at the same time. A {@link BodyParser} reads the content while it is being received, without holding
+ * the whole document in memory.</p>
+ *
+ * @param <T> the type of the parsed content
+ */
+public final class CachedResource<T> {
+
+    private final @NotNull HttpService httpService;
+    private final @NotNull String location;
+    private final @Nullable String accessToken;
+    private final @NotNull BodyParser<T> parser;
+
+    private @Nullable T value;
+    private @NotNull Validators validators = Validators.NONE;
+
+    public CachedResource(final @NotNull HttpService httpService,
+                          final @NotNull String location,
+                          final @NotNull Function<@NotNull String, @NotNull T> parser) {
+        this(httpService, location, null, parser);
+    }
+
+    public CachedResource(final @NotNull HttpService httpService,
+                          final @NotNull String location,
+                          final @Nullable String accessToken,
+                          final @NotNull Function<@NotNull String, @NotNull T> parser) {
+        this(httpService, location, accessToken, (BodyParser<T>) body -> parser.apply(readString(body)));
+    }
+
+    private CachedResource(final @NotNull HttpService httpService,
+                           final @NotNull String location,
+                           final @Nullable String accessToken,
+                           final @NotNull BodyParser<T> parser) {
+        this.httpService = httpService;
+        this.location = location;
+        this.accessToken = accessToken;
+        this.parser = parser;
+    }
+
+    /**
+     * Creates a resource which parses the content while it is being received.
+     */
+    public static <T> @NotNull CachedResource<T> streaming(final @NotNull HttpService httpService,
+                                                           final @NotNull String location,
+                                                           final @NotNull BodyParser<T> parser) {
+        return new CachedResource<>(httpService, location, null, parser);
+    }
+
+    public synchronized @NotNull T get() throws IOException, InterruptedException {
+        final var cachedValue = value;
+        final var response = httpService.getIfModified(location, accessToken, cachedValue == null ? null : validators, parser);
+        final var parsedValue = response.content();
+        if (parsedValue == null) {
+            return Objects.requireNonNull(cachedValue);
+        }
+        value = parsedValue;
+        validators = response.validators();
+        return parsedValue;
+    }
+
+    private static @NotNull String readString(final @NotNull Reader reader) throws IOException {
+        final var writer = new StringWriter();
+        reader.transferTo(writer);
+        return writer.toString();
+    }
+
+}
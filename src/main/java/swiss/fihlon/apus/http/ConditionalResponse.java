@@ -0,0 +1,42 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.http;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Optional;
+
+/**
+ * The result of a conditional request.
+ *
+ * @param content the new content, {@code null} if the server answered with 304 Not Modified
+ * @param validators the validators to send with the next conditional request for this content
+ * @param <T> the type of the content
+ */
+public record ConditionalResponse<T>(@Nullable T content, @NotNull Validators validators) {
+
+    public boolean isModified() {
+        return content != null;
+    }
+
+    public @NotNull Optional<T> getContent() {
+        return Optional.ofNullable(content);
+    }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.http;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.CharArrayReader;
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * <p>Parses the content only if it has changed since the last call.</p>
+ *
+ * <p>Some servers send neither an ETag nor a Last-Modified header, so every download is a full download. This
+ * parser reads the content into a buffer and computes its SHA-256 hash chunk by chunk while reading. If the hash
+ * equals the hash of the last parsed content, the wrapped parser is not called at all and the previous result is
+ * returned, so callers keep working with the same instance. Otherwise the wrapped parser reads the same buffer.</p>
+ *
+ * @param <T> the type of the parsed content
+ */
+public final class ContentHashParser<T> implements BodyParser<T> {
+
+    private static final int CHUNK_SIZE = 8192;
+
+    private final @NotNull BodyParser<T> parser;
+
+    private byte @Nullable [] lastHash;
+    private @Nullable T lastValue;
+
+    public ContentHashParser(final @NotNull BodyParser<T> parser) {
+        this.parser = parser;
+    }
+
+    @Override
+    public synchronized @NotNull T parse(final @NotNull Reader body) throws IOException, InterruptedException {
+        final var digest = sha256();
+        final var content = new Content();
+        final var chunk = new char[CHUNK_SIZE];
+        final var bytes = new byte[CHUNK_SIZE * Character.BYTES];
+        int count;
+        while ((count = body.read(chunk)) >= 0) {
+            for (int i = 0; i < count; i++) {
+                bytes[2 * i] = (byte) (chunk[i] >> 8);
+                bytes[2 * i + 1] = (byte) chunk[i];
+            }
+            digest.update(bytes, 0, count * Character.BYTES);
+            content.write(chunk, 0, count);
+        }
+        final var hash = digest.digest();
+
+        final var previousValue = lastValue;
+        if (previousValue != null && MessageDigest.isEqual(hash, lastHash)) {
+            return previousValue;
+        }
+        final var value = parser.parse(content.reader());
+        lastHash = hash;
+        lastValue = value;
+        return value;
+    }
+
+    private static @NotNull MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * A buffer which is read without copying it.
+     */
+    private static final class Content extends CharArrayWriter {
+
+        private @NotNull Reader reader() {
+            return new CharArrayReader(buf, 0, count);
+        }
+    }
+
+}
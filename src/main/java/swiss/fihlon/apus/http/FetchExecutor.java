@@ -0,0 +1,238 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.http;
+
+import jakarta.annotation.PreDestroy;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import swiss.fihlon.apus.configuration.AppConfig;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * <p>Runs the blocking downloads of the plugins on virtual threads.</p>
+ *
+ * <p>Downloads wait for the network most of the time, running them on the common pool would starve everything else
+ * using it. The number of concurrent fetches per plugin is limited, so a plugin with many hashtags can't flood its
+ * server. Every fetch has a deadline starting when the fetch is submitted, so the time waiting for a free slot of its
+ * plugin counts as well. A fetch exceeding its deadline is interrupted and replaced by a fallback, so a slow server
+ * can't stall the updates of the other plugins. Fetches started by another fetch get at most half of its remaining
+ * time, so they exceed their deadline and fall back before the outer fetch does.</p>
+ *
+ * <p>The limits and deadlines only apply to {@link #fetch(String, Supplier, Supplier)} and
+ * {@link #fetchAll(String, List, Function, Function)}. Tasks passed to {@link #runAll(Collection)} or
+ * {@link #execute(Runnable)} run without a limit per plugin and without a deadline.</p>
+ */
+@Service
+public final class FetchExecutor implements Executor {
+
+    private static final @NotNull Logger LOGGER = LoggerFactory.getLogger(FetchExecutor.class);
+
+    private final @NotNull ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("apus-fetch-", 0).factory());
+    private final @NotNull Map<@NotNull String, @NotNull Semaphore> permits = new ConcurrentHashMap<>();
+    private final @NotNull ThreadLocal<Long> runningDeadline = new ThreadLocal<>();
+    private final int fetchConcurrency;
+    private final @NotNull Duration fetchTimeout;
+
+    @Autowired
+    public FetchExecutor(final @NotNull AppConfig appConfig) {
+        this(appConfig.http());
+    }
+
+    public FetchExecutor(final @NotNull HttpConfig httpConfig) {
+        this.fetchConcurrency = Math.max(1, httpConfig.fetchConcurrency());
+        this.fetchTimeout = httpConfig.fetchTimeout();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs the task on a virtual thread without waiting for it.
+     */
+    @Override
+    public void execute(final @NotNull Runnable task) {
+        executor.execute(task);
+    }
+
+    /**
+     * Runs the tasks concurrently and waits until all of them are finished. The tasks have no limit per plugin and no
+     * deadline, they are never interrupted and this method waits as long as the slowest task takes. The tasks are
+     * expected to do their downloads using {@link #fetchAll(String, List, Function, Function)}, which applies both.
+     */
+    @SuppressWarnings("java:S2142") // the interrupt flag is restored
+    public void runAll(final @NotNull Collection<? extends @NotNull Runnable> tasks) {
+        final List<Future<?>> futures = tasks.stream()
+                .<Future<?>>map(executor::submit)
+                .toList();
+        for (final var future : futures) {
+            try {
+                future.get();
+            } catch (final InterruptedException e) {
+                futures.forEach(task -> task.cancel(true));
+                Thread.currentThread().interrupt();
+                return;
+            } catch (final ExecutionException e) {
+                LOGGER.error("Task failed: {}", e.getCause().getMessage(), e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Fetches a single result, see {@link #fetchAll(String, List, Function, Function)}.
+     */
+    public <T> T fetch(final @NotNull String plugin, final @NotNull Supplier<T> fetch, final @NotNull Supplier<T> fallback) {
+        return fetchAll(plugin, List.of(fetch), Supplier::get, ignored -> fallback.get()).getFirst();
+    }
+
+    /**
+     * <p>Fetches the results for all inputs concurrently and returns them in the order of the inputs.</p>
+     *
+     * <p>At most the configured number of fetches of the same plugin run at the same time. If a fetch exceeds its
+     * deadline, including the time waiting for a free slot, it is interrupted and the fallback is used as its result.
+     * Exceptions of a fetch are rethrown.</p>
+     */
+    public <I, T> @NotNull List<T> fetchAll(final @NotNull String plugin,
+                                            final @NotNull List<I> inputs,
+                                            final @NotNull Function<I, T> fetch,
+                                            final @NotNull Function<I, T> fallback) {
+        final var semaphore = permits.computeIfAbsent(plugin, key -> new Semaphore(fetchConcurrency));
+        final var deadline = getDeadline();
+        final var fetches = inputs.stream()
+                .map(input -> submit(semaphore, deadline, () -> fetch.apply(input)))
+                .toList();
+        try {
+            final var results = new ArrayList<T>(inputs.size());
+            for (int i = 0; i < inputs.size(); i++) {
+                results.add(await(plugin, inputs.get(i), fetches.get(i).result(), fallback));
+            }
+            return results;
+        } finally {
+            fetches.forEach(Fetch::cancel);
+        }
+    }
+
+    /**
+     * Returns the latest point in time (in nanos) the fetches may end, or {@code null} if only the fetch timeout
+     * applies. Inside of a running fetch this is the middle of its remaining time.
+     */
+    private @Nullable Long getDeadline() {
+        final var outerDeadline = runningDeadline.get();
+        if (outerDeadline == null) {
+            return null;
+        }
+        final var now = System.nanoTime();
+        return now + (outerDeadline - now) / 2;
+    }
+
+    @SuppressWarnings("java:S1181") // every failure has to complete the result, not only the deadline
+    private <T> @NotNull Fetch<T> submit(final @NotNull Semaphore semaphore,
+                                         final @Nullable Long deadline,
+                                         final @NotNull Supplier<T> supplier) {
+        final var start = System.nanoTime();
+        final var timeout = deadline == null ? fetchTimeout.toNanos()
+                : Math.max(0, Math.min(fetchTimeout.toNanos(), deadline - start));
+        final var result = new CompletableFuture<T>();
+        result.orTimeout(timeout, TimeUnit.NANOSECONDS);
+        final var task = executor.submit(() -> {
+            try {
+                if (!semaphore.tryAcquire(start + timeout - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    result.completeExceptionally(new TimeoutException("No free slot within the deadline"));
+                    return;
+                }
+            } catch (final InterruptedException e) {
+                result.completeExceptionally(e);
+                return;
+            }
+            try {
+                runningDeadline.set(start + timeout);
+                result.complete(supplier.get());
+            } catch (final Throwable e) {
+                result.completeExceptionally(e);
+            } finally {
+                runningDeadline.remove();
+                semaphore.release();
+            }
+        });
+        result.whenComplete((value, throwable) -> {
+            if (throwable instanceof TimeoutException) {
+                task.cancel(true); // interrupts the blocking download
+            }
+        });
+        return new Fetch<>(task, result);
+    }
+
+    @SuppressWarnings("java:S2142") // the interrupt flag is restored
+    private <I, T> T await(final @NotNull String plugin,
+                           final I input,
+                           final @NotNull CompletableFuture<T> result,
+                           final @NotNull Function<I, T> fallback) {
+        try {
+            return result.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return fallback.apply(input);
+        } catch (final ExecutionException e) {
+            final var cause = e.getCause();
+            if (cause instanceof TimeoutException) {
+                LOGGER.warn("Fetch of '{}' from plugin '{}' exceeded its deadline", input, plugin);
+                return fallback.apply(input);
+            }
+            if (cause instanceof InterruptedException) {
+                return fallback.apply(input);
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private record Fetch<T>(@NotNull Future<?> task, @NotNull CompletableFuture<T> result) {
+
+        private void cancel() {
+            task.cancel(true);
+        }
+    }
+
+}
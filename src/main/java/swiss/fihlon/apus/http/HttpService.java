@@ -0,0 +1,348 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.http;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import swiss.fihlon.apus.configuration.AppConfig;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * <p>Central HTTP client used by all plugins and loaders.</p>
+ *
+ * <p>A single {@link HttpClient} is shared for the lifetime of the application,
+ * so connections (including TLS sessions) are pooled and reused between polls
+ * instead of being established again for every request.</p>
+ *
+ * <p>The read timeout limits the wait for the response headers and, for downloads,
+ * every single read of the response body, so a server stalling in the middle of
+ * a response can't block a fetch. Server-Sent Events streams are only limited by
+ * the wait for the response headers, servers may be silent for a long time.</p>
+ *
+ * <p>All HTTP requests pass a {@link RateGovernor}, which paces them per remote host
+ * once the host has sent rate limit headers. The wait counts against the deadline
+ * of the calling fetch. Concurrent requests for the same normalized location are
+ * coalesced into a single request.</p>
+ */
+@Service
+public final class HttpService {
+
+    private static final @NotNull Logger LOGGER = LoggerFactory.getLogger(HttpService.class);
+    private static final int HTTP_NOT_MODIFIED = 304;
+    private static final int HTTP_PORT = 80;
+    private static final int HTTPS_PORT = 443;
+    private static final @NotNull String DEFAULT_EVENT = "message";
+    private static final @NotNull ScheduledExecutorService READ_TIMEOUTS = createReadTimeoutScheduler();
+
+    private final @NotNull HttpClient httpClient;
+    private final @NotNull Duration readTimeout;
+    private final @NotNull RateGovernor rateGovernor;
+    private final @NotNull SingleFlight<@NotNull FlightKey, @NotNull ConditionalResponse<String>> inFlight = new SingleFlight<>();
+
+    @Autowired
+    public HttpService(final @NotNull AppConfig appConfig) {
+        this(appConfig.http());
+    }
+
+    public HttpService(final @NotNull HttpConfig httpConfig) {
+        this.readTimeout = httpConfig.readTimeout();
+        this.rateGovernor = new RateGovernor(Clock.systemUTC(), readTimeout);
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(httpConfig.connectTimeout())
+                .build();
+    }
+
+    public @NotNull String getString(final @NotNull String location)
+            throws IOException, InterruptedException {
+        return fetch(location, Map.of(), null).getContent().orElseThrow();
+    }
+
+    public @NotNull String getString(final @NotNull String location, final @NotNull String accessToken)
+            throws IOException, InterruptedException {
+        return fetch(location, authorization(accessToken), null).getContent().orElseThrow();
+    }
+
+    /**
+     * <p>Downloads the content only if it has changed since the download the validators belong to.</p>
+     *
+     * <p>The validators are sent as If-None-Match and If-Modified-Since, {@code null} downloads the content
+     * unconditionally. If the server answers with 304 Not Modified, the response has no content and the caller
+     * should keep using its previous result. The caller keeps the returned validators for its next request.</p>
+     */
+    public @NotNull ConditionalResponse<String> getStringIfModified(final @NotNull String location,
+                                                                  final @Nullable String accessToken,
+                                                                  final @Nullable Validators validators)
+            throws IOException, InterruptedException {
+        return fetch(location, authorization(accessToken), validators);
+    }
+
+    /**
+     * <p>Downloads the content and hands it to the parser while it is still being received.</p>
+     *
+     * <p>Large documents are never held in memory as a whole. Requests using a parser are not coalesced,
+     * callers sharing a parsed result should use a {@link CachedResource}.</p>
+     */
+    public <T> @NotNull T get(final @NotNull String location,
+                              final @Nullable String accessToken,
+                              final @NotNull BodyParser<T> parser)
+            throws IOException, InterruptedException {
+        return download(location, authorization(accessToken), null, parseWith(parser)).getContent().orElseThrow();
+    }
+
+    /**
+     * Like {@link #get(String, String, BodyParser)}, but only if the content has changed since the download the
+     * validators belong to, see {@link #getStringIfModified(String, String, Validators)}.
+     */
+    public <T> @NotNull ConditionalResponse<T> getIfModified(final @NotNull String location,
+                                                             final @Nullable String accessToken,
+                                                             final @Nullable Validators validators,
+                                                             final @NotNull BodyParser<T> parser)
+            throws IOException, InterruptedException {
+        return download(location, authorization(accessToken), validators, parseWith(parser));
+    }
+
+    /**
+     * <p>Connects to a Server-Sent Events stream and calls {@code onEvent} for every event received.</p>
+     *
+     * <p>This method blocks until the server closes the connection. {@code onOpen} is called as soon as the
+     * server accepted the connection. Interrupting the calling thread stops reading with the next line
+     * received, servers usually send heartbeat comments frequently enough for this.</p>
+     */
+    public void stream(final @NotNull String location,
+                       final @Nullable String accessToken,
+                       final @NotNull Runnable onOpen,
+                       final @NotNull Consumer<@NotNull ServerSentEvent> onEvent)
+            throws IOException, InterruptedException {
+        final var requestBuilder = HttpRequest.newBuilder(toURI(location))
+                .timeout(readTimeout)
+                .header("Accept", "text/event-stream")
+                .GET();
+        authorization(accessToken).forEach(requestBuilder::header);
+
+        final var response = send(requestBuilder.build());
+        try (var reader = new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+            if (response.statusCode() >= 400) {
+                throw new IOException("Server returned HTTP status %d for '%s'".formatted(response.statusCode(), location));
+            }
+            onOpen.run();
+
+            var event = DEFAULT_EVENT;
+            final var data = new StringBuilder();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException("Stream '%s' was interrupted".formatted(location));
+                }
+                if (line.isEmpty()) {
+                    if (!data.isEmpty()) {
+                        onEvent.accept(new ServerSentEvent(event, data.toString()));
+                    }
+                    event = DEFAULT_EVENT;
+                    data.setLength(0);
+                } else if (!line.startsWith(":")) { // lines starting with a colon are comments (heartbeats)
+                    final var colon = line.indexOf(':');
+                    final var field = colon < 0 ? line : line.substring(0, colon);
+                    var value = colon < 0 ? "" : line.substring(colon + 1);
+                    if (value.startsWith(" ")) {
+                        value = value.substring(1);
+                    }
+                    if (field.equals("event")) {
+                        event = value;
+                    } else if (field.equals("data")) {
+                        if (!data.isEmpty()) {
+                            data.append('\n');
+                        }
+                        data.append(value);
+                    }
+                }
+            }
+        }
+    }
+
+    private @NotNull ConditionalResponse<String> fetch(final @NotNull String location,
+                                                       final @NotNull Map<@NotNull String, @NotNull String> headers,
+                                                       final @Nullable Validators validators)
+            throws IOException, InterruptedException {
+        final var key = new FlightKey(normalize(location), headers, validators);
+        return inFlight.execute(key, () -> download(location, headers, validators, HttpService::readString));
+    }
+
+    private <T> @NotNull ConditionalResponse<T> download(final @NotNull String location,
+                                                         final @NotNull Map<@NotNull String, @NotNull String> headers,
+                                                         final @Nullable Validators knownValidators,
+                                                         final @NotNull StreamParser<T> parser)
+            throws IOException, InterruptedException {
+        final URI uri = toURI(location);
+        if (!isHttp(uri)) {
+            // local files and other protocols are read directly (used for tests and offline setups)
+            try (InputStream in = uri.toURL().openStream()) {
+                return new ConditionalResponse<>(parser.parse(in), Validators.NONE);
+            }
+        }
+
+        final var requestBuilder = HttpRequest.newBuilder(uri)
+                .timeout(readTimeout)
+                .header("Accept-Encoding", "gzip, deflate")
+                .GET();
+        headers.forEach(requestBuilder::header);
+        if (knownValidators != null) {
+            if (knownValidators.eTag() != null) {
+                requestBuilder.header("If-None-Match", knownValidators.eTag());
+            }
+            if (knownValidators.lastModified() != null) {
+                requestBuilder.header("If-Modified-Since", knownValidators.lastModified());
+            }
+        }
+
+        final var response = send(requestBuilder.build());
+        try (InputStream body = new ReadTimeoutInputStream(response.body(), READ_TIMEOUTS, readTimeout, location)) {
+            // the status is checked first, error and not modified responses may have an empty body of any encoding
+            if (response.statusCode() == HTTP_NOT_MODIFIED) {
+                if (knownValidators == null || knownValidators.isEmpty()) {
+                    throw new IOException("Server returned HTTP status 304 for '%s' without a conditional request".formatted(location));
+                }
+                LOGGER.debug("Content of '{}' not modified", location);
+                return new ConditionalResponse<>(null, knownValidators);
+            }
+            if (response.statusCode() >= 400) {
+                throw new IOException("Server returned HTTP status %d for '%s'".formatted(response.statusCode(), location));
+            }
+            try (InputStream in = decode(response, body)) {
+                return new ConditionalResponse<>(parser.parse(in), validatorsOf(response));
+            }
+        }
+    }
+
+    private @NotNull HttpResponse<InputStream> send(final @NotNull HttpRequest request)
+            throws IOException, InterruptedException {
+        final var host = Objects.requireNonNullElse(request.uri().getAuthority(), request.uri().toString());
+        final var wait = rateGovernor.acquire(host);
+        if (wait.isPositive()) {
+            LOGGER.debug("Waiting {} ms for the rate limit of '{}'", wait.toMillis(), host);
+            Thread.sleep(wait);
+        }
+        final var response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        rateGovernor.update(host, response.statusCode(), response.headers());
+        return response;
+    }
+
+    private static @NotNull Validators validatorsOf(final @NotNull HttpResponse<?> response) {
+        final var eTag = response.headers().firstValue("ETag").orElse(null);
+        final var lastModified = response.headers().firstValue("Last-Modified").orElse(null);
+        return eTag == null && lastModified == null ? Validators.NONE : new Validators(eTag, lastModified);
+    }
+
+    private static @NotNull Map<@NotNull String, @NotNull String> authorization(final @Nullable String accessToken) {
+        return accessToken == null ? Map.of() : Map.of("Authorization", "Bearer " + accessToken);
+    }
+
+    private static @NotNull String readString(final @NotNull InputStream in) throws IOException {
+        return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    private static <T> @NotNull StreamParser<T> parseWith(final @NotNull BodyParser<T> parser) {
+        return in -> parser.parse(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    private static @NotNull URI toURI(final @NotNull String location) throws IOException {
+        try {
+            return new URI(location);
+        } catch (final URISyntaxException e) {
+            throw new IOException("Invalid location '%s': %s".formatted(location, e.getMessage()), e);
+        }
+    }
+
+    /**
+     * Normalizes a location, so equivalent locations of concurrent requests are recognized as the same.
+     */
+    static @NotNull String normalize(final @NotNull String location) {
+        try {
+            final var uri = new URI(location.trim()).normalize();
+            if (!isHttp(uri) || uri.getHost() == null) {
+                return uri.toString();
+            }
+            final var scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+            final var defaultPort = scheme.equals("https") ? HTTPS_PORT : HTTP_PORT;
+            final var port = uri.getPort() < 0 || uri.getPort() == defaultPort ? "" : ":" + uri.getPort();
+            final var path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+            final var query = uri.getRawQuery() == null ? "" : "?" + uri.getRawQuery();
+            return scheme + "://" + uri.getHost().toLowerCase(Locale.ROOT) + port + path + query;
+        } catch (final URISyntaxException e) {
+            return location;
+        }
+    }
+
+    private static boolean isHttp(final @NotNull URI uri) {
+        final var scheme = uri.getScheme();
+        return "http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme);
+    }
+
+    private static @NotNull ScheduledExecutorService createReadTimeoutScheduler() {
+        final var scheduler = new ScheduledThreadPoolExecutor(1, Thread.ofPlatform().name("apus-read-timeout").daemon().factory());
+        scheduler.setRemoveOnCancelPolicy(true); // almost every read completes in time
+        return scheduler;
+    }
+
+    private static @NotNull InputStream decode(final @NotNull HttpResponse<InputStream> response,
+                                               final @NotNull InputStream body) throws IOException {
+        final var contentEncoding = response.headers().firstValue("Content-Encoding")
+                .orElse("")
+                .trim()
+                .toLowerCase(Locale.ROOT);
+        return switch (contentEncoding) {
+            case "gzip", "x-gzip" -> new GZIPInputStream(body);
+            case "deflate" -> new InflaterInputStream(body);
+            default -> body;
+        };
+    }
+
+    @FunctionalInterface
+    private interface StreamParser<T> {
+        @NotNull T parse(@NotNull InputStream in) throws IOException, InterruptedException;
+    }
+
+    private record FlightKey(@NotNull String location, @NotNull Map<@NotNull String, @NotNull String> headers,
+                             @Nullable Validators validators) { }
+
+}
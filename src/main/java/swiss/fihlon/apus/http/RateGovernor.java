@@ -0,0 +1,229 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.http;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.http.HttpHeaders;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>Paces the requests to remote hosts which announce a rate limit.</p>
+ *
+ * <p>Hosts are not paced until they send rate limit information. A host sending {@code X-RateLimit-*} headers
+ * (Mastodon) or {@code RateLimit-*} headers (BlueSky and the IETF draft) gets a token bucket sized by the reported
+ * limit, the remaining requests are spread evenly until the limit resets. When the limit has been reset, the host is
+ * not paced until the next response tells the new limit. {@code Retry-After}, an exhausted limit, and
+ * {@code 429 Too Many Requests} block the host completely. A request which would have to wait longer than the
+ * maximum wait is not sent at all, the caller keeps using its previous data.</p>
+ *
+ * <p>The caller waits before sending the request, so the wait counts against the deadline of the fetch it belongs
+ * to, see {@link FetchExecutor}. The maximum wait keeps it below the read timeout.</p>
+ */
+final class RateGovernor {
+
+    private static final @NotNull Logger LOGGER = LoggerFactory.getLogger(RateGovernor.class);
+
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final double MIN_RATE = 0.01; // requests per second
+    private static final @NotNull Duration DEFAULT_RETRY_AFTER = Duration.ofMinutes(1);
+    private static final long EPOCH_SECONDS_THRESHOLD = 1_000_000_000L; // larger values are timestamps, not delays
+
+    private final @NotNull Clock clock;
+    private final @NotNull Duration maxWait;
+    private final @NotNull Map<@NotNull String, @NotNull Bucket> buckets = new ConcurrentHashMap<>();
+
+    RateGovernor(final @NotNull Clock clock, final @NotNull Duration maxWait) {
+        this.clock = clock;
+        this.maxWait = maxWait;
+    }
+
+    /**
+     * Takes a token for a request to the host and returns how long to wait before sending the request.
+     *
+     * @throws IOException if the request would have to wait longer than the maximum wait
+     */
+    @NotNull Duration acquire(final @NotNull String host) throws IOException {
+        final var bucket = buckets.get(host);
+        if (bucket == null) {
+            return Duration.ZERO; // the host did not announce any rate limit yet
+        }
+        final var wait = bucket.acquire(clock.instant(), maxWait);
+        if (wait == null) {
+            throw new IOException("Request to '%s' deferred because of its rate limit".formatted(host));
+        }
+        return wait;
+    }
+
+    /**
+     * Adapts the bucket of the host to the rate limit information of a response.
+     */
+    void update(final @NotNull String host, final int statusCode, final @NotNull HttpHeaders headers) {
+        final var now = clock.instant();
+
+        final var retryAfter = headers.firstValue("Retry-After").map(value -> parseRetryAfter(value, now));
+        if (retryAfter.isPresent()) {
+            LOGGER.warn("Server '{}' asked to wait until {}", host, retryAfter.get());
+            bucket(host).block(retryAfter.get());
+        }
+
+        final var remaining = firstValue(headers, "X-RateLimit-Remaining", "RateLimit-Remaining").map(RateGovernor::parseNumber);
+        final var reset = firstValue(headers, "X-RateLimit-Reset", "RateLimit-Reset").map(value -> parseReset(value, now));
+        if (remaining.isPresent() && remaining.get() != null && reset.isPresent() && reset.get() != null) {
+            final var limit = firstValue(headers, "X-RateLimit-Limit", "RateLimit-Limit").map(RateGovernor::parseNumber);
+            bucket(host).limit(remaining.get(), limit.orElse(null), reset.get(), now);
+            if (remaining.get() <= 0) {
+                LOGGER.warn("Rate limit of server '{}' exhausted until {}", host, reset.get());
+            }
+        } else if (statusCode == TOO_MANY_REQUESTS && retryAfter.isEmpty()) {
+            LOGGER.warn("Server '{}' refused the request because of its rate limit", host);
+            bucket(host).block(now.plus(DEFAULT_RETRY_AFTER));
+        }
+    }
+
+    private @NotNull Bucket bucket(final @NotNull String host) {
+        return buckets.computeIfAbsent(host, key -> new Bucket(clock.instant()));
+    }
+
+    private static @NotNull Optional<String> firstValue(final @NotNull HttpHeaders headers,
+                                                        final @NotNull String name,
+                                                        final @NotNull String alternativeName) {
+        return headers.firstValue(name).or(() -> headers.firstValue(alternativeName));
+    }
+
+    private static @Nullable Long parseNumber(final @NotNull String value) {
+        try {
+            // the IETF draft allows parameters after the value, e.g. "100;w=60"
+            final var separator = value.indexOf(';');
+            return Long.parseLong((separator < 0 ? value : value.substring(0, separator)).trim());
+        } catch (final NumberFormatException e) {
+            return null;
+        }
+    }
+
+    static @Nullable Instant parseReset(final @NotNull String value, final @NotNull Instant now) {
+        final var number = parseNumber(value);
+        if (number != null) {
+            return number > EPOCH_SECONDS_THRESHOLD ? Instant.ofEpochSecond(number) : now.plusSeconds(number);
+        }
+        try {
+            return OffsetDateTime.parse(value.trim()).toInstant();
+        } catch (final DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    static @Nullable Instant parseRetryAfter(final @NotNull String value, final @NotNull Instant now) {
+        final var seconds = parseNumber(value);
+        if (seconds != null) {
+            return now.plusSeconds(seconds);
+        }
+        try {
+            return ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+        } catch (final DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Blocks a host on request and paces it while a rate limit is known, that is until {@code resetAt}.
+     */
+    private static final class Bucket {
+
+        private double capacity;
+        private double rate;
+        private double tokens;
+        private @NotNull Instant lastRefill;
+        private @Nullable Instant resetAt;
+        private @NotNull Instant blockedUntil = Instant.MIN;
+
+        private Bucket(final @NotNull Instant now) {
+            this.lastRefill = now;
+        }
+
+        private synchronized @Nullable Duration acquire(final @NotNull Instant now, final @NotNull Duration maxWait) {
+            refill(now);
+            var wait = blockedUntil.isAfter(now) ? Duration.between(now, blockedUntil) : Duration.ZERO;
+            final var reset = resetAt;
+            if (reset != null && tokens < 1) {
+                // all requests are available again when the limit resets
+                final var untilReset = Duration.between(now, reset);
+                final var refillTime = rate > 0 ? Duration.ofMillis(Math.round((1 - tokens) / rate * 1000)) : untilReset;
+                final var tokenWait = refillTime.compareTo(untilReset) < 0 ? refillTime : untilReset;
+                if (tokenWait.compareTo(wait) > 0) {
+                    wait = tokenWait;
+                }
+            }
+            if (wait.compareTo(maxWait) > 0) {
+                return null;
+            }
+            if (reset != null) {
+                tokens -= 1; // may become negative, so later requests queue up behind this one
+            }
+            return wait;
+        }
+
+        private synchronized void block(final @NotNull Instant until) {
+            if (until.isAfter(blockedUntil)) {
+                blockedUntil = until;
+            }
+        }
+
+        private synchronized void limit(final long remaining, final @Nullable Long limit,
+                                        final @NotNull Instant reset, final @NotNull Instant now) {
+            refill(now);
+            capacity = limit != null && limit > 0 ? limit : Math.max(capacity, remaining);
+            final var known = Math.max(0, remaining);
+            tokens = resetAt == null ? known : Math.min(tokens, known);
+            if (remaining <= 0) {
+                block(reset);
+            } else {
+                final var secondsUntilReset = Math.max(1, Duration.between(now, reset).toSeconds());
+                rate = Math.max(MIN_RATE, (double) remaining / secondsUntilReset);
+            }
+            resetAt = reset;
+        }
+
+        private void refill(final @NotNull Instant now) {
+            if (resetAt != null && !now.isBefore(resetAt)) {
+                // the rate limit window is over, the server will tell the new limit with the next response
+                resetAt = null;
+                rate = 0;
+            }
+            final var elapsed = Duration.between(lastRefill, now).toMillis() / 1000.0;
+            if (elapsed > 0) {
+                tokens = Math.min(capacity, tokens + elapsed * rate);
+                lastRefill = now;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.http;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Limits how long a single read of a response body may block.</p>
+ *
+ * <p>The request timeout of the HTTP client only covers the wait for the response headers. A server stalling
+ * in the middle of the body would block the reading thread forever, so every read schedules the stream to be
+ * closed when it takes longer than the read timeout. Closing the stream wakes up the blocked read, which then
+ * fails with a {@link HttpTimeoutException}.</p>
+ */
+final class ReadTimeoutInputStream extends FilterInputStream {
+
+    private final @NotNull ScheduledExecutorService scheduler;
+    private final @NotNull Duration readTimeout;
+    private final @NotNull String location;
+    private volatile boolean timedOut;
+
+    ReadTimeoutInputStream(final @NotNull InputStream in,
+                           final @NotNull ScheduledExecutorService scheduler,
+                           final @NotNull Duration readTimeout,
+                           final @NotNull String location) {
+        super(in);
+        this.scheduler = scheduler;
+        this.readTimeout = readTimeout;
+        this.location = location;
+    }
+
+    @Override
+    public int read() throws IOException {
+        final var timeout = scheduleTimeout();
+        try {
+            return super.read();
+        } catch (final IOException e) {
+            throw timedOut ? timeoutException(e) : e;
+        } finally {
+            timeout.cancel(false);
+        }
+    }
+
+    @Override
+    public int read(final byte @NotNull [] buffer, final int offset, final int length) throws IOException {
+        final var timeout = scheduleTimeout();
+        try {
+            return super.read(buffer, offset, length);
+        } catch (final IOException e) {
+            throw timedOut ? timeoutException(e) : e;
+        } finally {
+            timeout.cancel(false);
+        }
+    }
+
+    private @NotNull ScheduledFuture<?> scheduleTimeout() throws IOException {
+        if (timedOut) {
+            throw timeoutException(null);
+        }
+        return scheduler.schedule(this::expire, readTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void expire() {
+        timedOut = true;
+        try {
+            in.close();
+        } catch (final IOException e) {
+            // the blocked read fails anyway
+        }
+    }
+
+    private @NotNull HttpTimeoutException timeoutException(final @Nullable IOException cause) {
+        final var exception = new HttpTimeoutException("Reading the response of '%s' timed out".formatted(location));
+        if (cause != null) {
+            exception.initCause(cause);
+        }
+        return exception;
+    }
+
+}
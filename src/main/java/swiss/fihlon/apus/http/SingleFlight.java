@@ -0,0 +1,88 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.http;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * <p>Coalesces concurrent calls with the same key into a single call.</p>
+ *
+ * <p>The first caller for a key executes the call, all callers arriving while it is in flight wait for
+ * and share its result or exception. As soon as the call completes the key is released, so later
+ * callers execute the call again.</p>
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the results
+ */
+public final class SingleFlight<K, V> {
+
+    private final @NotNull Map<@NotNull K, @NotNull CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    public @NotNull V execute(final @NotNull K key, final @NotNull Call<V> call) throws IOException, InterruptedException {
+        final var future = new CompletableFuture<V>();
+        final var running = inFlight.putIfAbsent(key, future);
+        if (running != null) {
+            return join(running);
+        }
+        try {
+            final var result = call.call();
+            future.complete(result);
+            return result;
+        } catch (final IOException | InterruptedException | RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    private @NotNull V join(final @NotNull CompletableFuture<V> running) throws IOException, InterruptedException {
+        try {
+            return running.get();
+        } catch (final ExecutionException e) {
+            final var cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error; // not a failed download, the callers must not handle it like one
+            }
+            throw new IOException("Shared call failed: " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * A call which may fail like a download.
+     *
+     * @param <V> the type of the result
+     */
+    @FunctionalInterface
+    public interface Call<V> {
+        @NotNull V call() throws IOException, InterruptedException;
+    }
+
+}
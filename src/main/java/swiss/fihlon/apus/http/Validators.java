@@ -0,0 +1,43 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.http;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * <p>The validators of a downloaded content, sent back with the next conditional request.</p>
+ *
+ * <p>The validators belong to whoever keeps the content, so a 304 Not Modified answer always refers to content
+ * its receiver has actually parsed.</p>
+ *
+ * @param eTag the value of the ETag header, sent back as If-None-Match
+ * @param lastModified the value of the Last-Modified header, sent back as If-Modified-Since
+ */
+public record Validators(@Nullable String eTag, @Nullable String lastModified) {
+
+    /**
+     * Validators of a content the server sent no validators for, a conditional request downloads it again.
+     */
+    public static final @NotNull Validators NONE = new Validators(null, null);
+
+    public boolean isEmpty() {
+        return eTag == null && lastModified == null;
+    }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.plugin;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * <p>Polls a single plugin with an interval adapting to its activity.</p>
+ *
+ * <p>After a poll with changes the interval is halved, down to the minimum interval. After a poll without changes it
+ * grows by half and after a failed poll (e.g. the server answered with 429 or 5xx) it doubles, up to the maximum
+ * interval. Every delay is randomized by up to 20 percent, so walls started at the same time don't poll in lockstep.</p>
+ *
+ * <p>The task scheduler only triggers the polls, they run on the given executor, so a slow plugin doesn't delay
+ * the polls of other plugins.</p>
+ */
+public final class AdaptivePoller {
+
+    private static final @NotNull Logger LOGGER = LoggerFactory.getLogger(AdaptivePoller.class);
+    private static final double JITTER = 0.2;
+
+    /**
+     * The outcome of a single poll.
+     */
+    public enum Result { CHANGED, UNCHANGED, FAILED }
+
+    private final @NotNull TaskScheduler taskScheduler;
+    private final @NotNull Executor executor;
+    private final @NotNull String name;
+    private final @NotNull Duration minInterval;
+    private final @NotNull Duration maxInterval;
+    private final @NotNull Supplier<@NotNull Result> poll;
+    private @NotNull Duration interval;
+    private @Nullable ScheduledFuture<?> nextPoll;
+    private boolean stopped;
+
+    public AdaptivePoller(final @NotNull TaskScheduler taskScheduler,
+                          final @NotNull Executor executor,
+                          final @NotNull String name,
+                          final @NotNull Duration interval,
+                          final @NotNull Duration minInterval,
+                          final @NotNull Duration maxInterval,
+                          final @NotNull Supplier<@NotNull Result> poll) {
+        this.taskScheduler = taskScheduler;
+        this.executor = executor;
+        this.name = name;
+        this.interval = interval;
+        this.minInterval = minInterval;
+        this.maxInterval = maxInterval;
+        this.poll = poll;
+    }
+
+    public synchronized void start() {
+        stopped = false;
+        scheduleNextPoll();
+    }
+
+    public synchronized void stop() {
+        stopped = true;
+        if (nextPoll != null) {
+            nextPoll.cancel(false);
+            nextPoll = null;
+        }
+    }
+
+    /**
+     * Drops the interval to the minimum and reschedules a pending poll, e.g. when the plugin can no longer stream.
+     * A poll already running adapts the interval from the minimum when it is finished.
+     */
+    public synchronized void reset() {
+        interval = minInterval;
+        LOGGER.debug("Poller of '{}' reset, polling again in {}", name, interval);
+        if (nextPoll != null && nextPoll.cancel(false)) {
+            scheduleNextPoll();
+        }
+    }
+
+    public synchronized @NotNull Duration getInterval() {
+        return interval;
+    }
+
+    synchronized void adapt(final @NotNull Result result) {
+        final var factor = switch (result) {
+            case CHANGED -> 0.5;
+            case UNCHANGED -> 1.5;
+            case FAILED -> 2.0;
+        };
+        interval = Duration.ofMillis(Math.clamp(Math.round(interval.toMillis() * factor), minInterval.toMillis(), maxInterval.toMillis()));
+        LOGGER.debug("Poll of '{}' {}, polling again in {}", name, result, interval);
+    }
+
+    private synchronized void scheduleNextPoll() {
+        if (!stopped) {
+            final var delay = Duration.ofMillis(Math.round(interval.toMillis() * ThreadLocalRandom.current().nextDouble(1 - JITTER, 1 + JITTER)));
+            nextPoll = taskScheduler.schedule(() -> executor.execute(this::poll), Instant.now().plus(delay));
+        }
+    }
+
+    private void poll() {
+        var result = Result.FAILED;
+        try {
+            result = poll.get();
+        } catch (final RuntimeException e) {
+            LOGGER.error("Unable to poll '{}': {}", name, e.getMessage(), e);
+        }
+        adapt(result);
+        scheduleNextPoll();
+    }
+
+}
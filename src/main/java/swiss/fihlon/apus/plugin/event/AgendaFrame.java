@@ -0,0 +1,42 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.plugin.event;
+
+import org.jetbrains.annotations.NotNull;
+import swiss.fihlon.apus.event.RoomStyle;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * <p>The agenda of all rooms at one point in time, with all texts ready to be displayed.</p>
+ *
+ * <p>The {@link EventService} computes one frame per minute and shares it with all event views, so the work
+ * does not grow with the number of connected screens.</p>
+ *
+ * @param time the time the frame was computed for
+ * @param rooms the rooms to be displayed
+ * @param legend the legend for the room styles in use, in the order of the room styles
+ * @param scheduleEmpty {@code true} if there are no sessions today
+ */
+public record AgendaFrame(@NotNull ZonedDateTime time, @NotNull List<@NotNull RoomAgenda> rooms,
+                          @NotNull List<@NotNull LegendItem> legend, boolean scheduleEmpty) {
+
+    public record LegendItem(@NotNull RoomStyle roomStyle, @NotNull String label) { }
+
+}
@@ -24,10 +24,18 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Service;
+import swiss.fihlon.apus.ApplicationI18NProvider;
 import swiss.fihlon.apus.configuration.AppConfig;
 import swiss.fihlon.apus.event.Room;
+import swiss.fihlon.apus.event.RoomStyle;
 import swiss.fihlon.apus.event.Session;
 import swiss.fihlon.apus.event.SessionImportException;
+import swiss.fihlon.apus.event.Speaker;
+import swiss.fihlon.apus.event.ValueInterner;
+import swiss.fihlon.apus.http.FetchExecutor;
+import swiss.fihlon.apus.plugin.AdaptivePoller;
+import swiss.fihlon.apus.plugin.AdaptivePoller.Result;
+import swiss.fihlon.apus.plugin.event.AgendaFrame.LegendItem;
 import swiss.fihlon.apus.plugin.event.demo.EventDemoPlugin;
 
 import java.time.Duration;
@@ -36,87 +44,154 @@ import java.time.LocalDate;
 import java.time.Period;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ScheduledFuture;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Service
 public final class EventService {
 
     private static final @NotNull Logger LOGGER = LoggerFactory.getLogger(EventService.class);
+    private static final int MAX_BACKOFF = 4;
+    private static final @NotNull Duration AGENDA_FREQUENCY = Duration.ofMinutes(1);
 
+    private final @NotNull FetchExecutor fetchExecutor;
     private final @NotNull List<@NotNull EventPlugin> eventPlugins;
-    private final @Nullable ScheduledFuture<?> updateScheduler;
+    private final @NotNull Map<@NotNull EventPlugin, @NotNull List<@NotNull Session>> sessionsByPlugin = new ConcurrentHashMap<>();
+    private final @NotNull List<@NotNull AdaptivePoller> pollers = new ArrayList<>();
+    private final @NotNull ValueInterner valueInterner = new ValueInterner();
     private final @NotNull Period dateAdjust;
     private final @NotNull Duration timeAdjust;
     private final @NotNull ZoneId timezone;
-    private @NotNull Map<@NotNull Room, @NotNull List<@NotNull Session>> roomsWithSessions = new TreeMap<>();
+    private final @NotNull Duration nextSessionTimeout;
+    private final boolean showEmptyRooms;
+    private final @NotNull ApplicationI18NProvider i18nProvider;
+    private final @NotNull List<@NotNull Consumer<@NotNull AgendaFrame>> agendaListeners = new CopyOnWriteArrayList<>();
+    private @Nullable ScheduledFuture<?> agendaTicker;
+    private volatile @NotNull AgendaFrame agendaFrame;
+    private @NotNull Schedule schedule = Schedule.EMPTY;
+    private @Nullable LocalDate scheduleDate;
 
     public EventService(final @NotNull TaskScheduler taskScheduler,
+                        final @NotNull FetchExecutor fetchExecutor,
                         final @NotNull AppConfig appConfig,
+                        final @NotNull ApplicationI18NProvider i18nProvider,
                         final @NotNull List<@NotNull EventPlugin> eventPlugins) {
+        this.fetchExecutor = fetchExecutor;
         final var demoMode = appConfig.demoMode();
         this.eventPlugins = demoMode ? List.of(new EventDemoPlugin(appConfig)) : eventPlugins;
         this.dateAdjust = demoMode ? Period.ZERO : appConfig.event().dateAdjust();
         this.timeAdjust = demoMode ? Duration.ZERO : appConfig.event().timeAdjust();
         this.timezone = appConfig.timezone();
+        this.nextSessionTimeout = Duration.ofMinutes(appConfig.event().nextSessionTimeout());
+        this.showEmptyRooms = appConfig.event().showEmptyRooms();
+        this.i18nProvider = i18nProvider;
         if (isEnabled()) {
-            updateSessions();
+            final var enabledPlugins = this.eventPlugins.stream()
+                    .filter(EventPlugin::isEnabled)
+                    .toList();
+            fetchExecutor.runAll(enabledPlugins.stream()
+                    .<Runnable>map(plugin -> () -> loadSessions(plugin))
+                    .toList());
+            rebuildSchedule();
             final var updateFrequency = Duration.ofMinutes(appConfig.event().updateFrequency());
             if (updateFrequency.isPositive()) {
-                final var startTime = Instant.now().plus(updateFrequency);
-                updateScheduler = taskScheduler.scheduleAtFixedRate(this::updateSessions, startTime, updateFrequency);
-            } else {
-                updateScheduler = null;
+                // event data changes rarely, so polls are never more frequent than configured
+                enabledPlugins.forEach(plugin -> pollers.add(new AdaptivePoller(taskScheduler, fetchExecutor,
+                        plugin.getClass().getSimpleName(), updateFrequency, updateFrequency, updateFrequency.multipliedBy(MAX_BACKOFF),
+                        () -> updateSessions(plugin))));
+                pollers.forEach(AdaptivePoller::start);
             }
+            final var nextMinute = Instant.now().truncatedTo(ChronoUnit.MINUTES).plus(AGENDA_FREQUENCY);
+            agendaTicker = taskScheduler.scheduleAtFixedRate(this::publishAgenda, nextMinute, AGENDA_FREQUENCY);
         } else {
             LOGGER.warn("No event plugin is enabled. No agenda will be displayed.");
-            updateScheduler = null;
         }
+        agendaFrame = createAgendaFrame();
     }
 
     @PreDestroy
     public void stopUpdateScheduler() {
-        if (updateScheduler != null) {
-            updateScheduler.cancel(true);
+        pollers.forEach(AdaptivePoller::stop);
+        if (agendaTicker != null) {
+            agendaTicker.cancel(true);
         }
     }
 
-    private void updateSessions() {
-        try {
-            final var sessions = eventPlugins.parallelStream()
-                    .filter(EventPlugin::isEnabled)
-                    .flatMap(EventPlugin::getSessions)
-                    .map(this::dateAdjust)
-                    .sorted()
-                    .toList();
-
-            final LocalDate today = ZonedDateTime.now(timezone).toLocalDate();
-            final Map<Room, List<Session>> newRoomsWithSessions = new TreeMap<>();
-            final List<Session> runningAndNextSessions = sessions.stream()
-                    .filter(session -> session.endDate().toLocalDate().isEqual(today))
-                    .toList();
-            for (final Session session : runningAndNextSessions) {
-                final var roomWithSessions = newRoomsWithSessions.get(session.room());
-                if (roomWithSessions != null) {
-                    roomWithSessions.add(session);
-                } else {
-                    newRoomsWithSessions.put(session.room(), new ArrayList<>(List.of(session)));
-                }
-            }
-
-            newRoomsWithSessions.entrySet().removeIf(entry -> entry.getValue().isEmpty());
+    private @NotNull Result updateSessions(final @NotNull EventPlugin plugin) {
+        final var previousSessions = sessionsByPlugin.getOrDefault(plugin, List.of());
+        final var result = loadSessions(plugin);
+        if (result == Result.CHANGED) {
+            updateSchedule(previousSessions, sessionsByPlugin.getOrDefault(plugin, List.of()));
+            publishAgenda();
+        }
+        return result;
+    }
 
-            synchronized (this) {
-                roomsWithSessions = newRoomsWithSessions;
-            }
+    private @NotNull Result loadSessions(final @NotNull EventPlugin plugin) {
+        try {
+            final var sessions = fetchExecutor.fetch(plugin.getClass().getSimpleName(),
+                    () -> plugin.getSessions().map(valueInterner::intern).toList(),
+                    () -> {
+                        throw new SessionImportException("Loading sessions with '%s' exceeded the deadline"
+                                .formatted(plugin.getClass().getSimpleName()));
+                    });
+            final var previousSessions = sessionsByPlugin.put(plugin, sessions);
+            return sessions.equals(previousSessions) ? Result.UNCHANGED : Result.CHANGED;
         } catch (final SessionImportException e) {
             LOGGER.error("Failed to import sessions: {}", e.getMessage());
+            return Result.FAILED;
+        }
+    }
+
+    private void rebuildSchedule() {
+        final var today = LocalDate.now(timezone);
+        final var sessions = todaysSessions(sessionsByPlugin.values().stream()
+                .flatMap(List::stream)
+                .toList(), today);
+        synchronized (this) {
+            schedule = Schedule.of(sessions);
+            scheduleDate = today;
         }
     }
 
+    /**
+     * Applies only the differences between the previous and the current sessions of a plugin to the schedule.
+     */
+    private synchronized void updateSchedule(final @NotNull List<@NotNull Session> previousSessions,
+                                             final @NotNull List<@NotNull Session> currentSessions) {
+        final var today = LocalDate.now(timezone);
+        if (!today.equals(scheduleDate)) {
+            rebuildSchedule();
+            return;
+        }
+        final var previous = new HashSet<>(todaysSessions(previousSessions, today));
+        final var current = new HashSet<>(todaysSessions(currentSessions, today));
+        final var removed = previous.stream()
+                .filter(session -> !current.contains(session))
+                .toList();
+        final var added = current.stream()
+                .filter(session -> !previous.contains(session))
+                .toList();
+        schedule = schedule.update(removed, added);
+    }
+
+    private @NotNull List<@NotNull Session> todaysSessions(final @NotNull List<@NotNull Session> sessions, final @NotNull LocalDate today) {
+        return sessions.stream()
+                .map(this::dateAdjust)
+                .filter(session -> session.endDate().toLocalDate().isEqual(today))
+                .toList();
+    }
+
     private @NotNull Session dateAdjust(final @NotNull Session session) {
         if (dateAdjust.isZero() && timeAdjust.isZero()) {
             return session;
@@ -137,10 +212,109 @@ public final class EventService {
         );
     }
 
+    /**
+     * Returns the current schedule, which is rebuilt when the day has changed.
+     */
+    public synchronized @NotNull Schedule getSchedule() {
+        if (!LocalDate.now(timezone).equals(scheduleDate)) {
+            rebuildSchedule();
+        }
+        return schedule;
+    }
+
     public @NotNull Map<@NotNull Room, @NotNull List<@NotNull Session>> getRoomsWithSessions() {
-        synchronized (this) {
-            return new TreeMap<>(roomsWithSessions);
+        return getSchedule().getRoomsWithSessions();
+    }
+
+    /**
+     * Returns the latest agenda frame.
+     */
+    public @NotNull AgendaFrame getAgendaFrame() {
+        return agendaFrame;
+    }
+
+    /**
+     * Registers a listener which receives every new agenda frame, once per minute and whenever the sessions changed.
+     */
+    public void addAgendaListener(final @NotNull Consumer<@NotNull AgendaFrame> listener) {
+        agendaListeners.add(listener);
+    }
+
+    public void removeAgendaListener(final @NotNull Consumer<@NotNull AgendaFrame> listener) {
+        agendaListeners.remove(listener);
+    }
+
+    private synchronized void publishAgenda() {
+        final var frame = createAgendaFrame();
+        agendaFrame = frame;
+        agendaListeners.forEach(listener -> {
+            try {
+                listener.accept(frame);
+            } catch (final RuntimeException e) {
+                LOGGER.error("Unable to notify listener about the agenda: {}", e.getMessage(), e);
+            }
+        });
+    }
+
+    private @NotNull AgendaFrame createAgendaFrame() {
+        final var currentSchedule = getSchedule();
+        final var time = ZonedDateTime.now(timezone);
+        final var now = time.withSecond(59).withNano(999);
+        final var today = time.toLocalDate();
+        final var timeLimitNextSession = time.plus(nextSessionTimeout);
+        final var rooms = new ArrayList<RoomAgenda>();
+        final var roomStylesInUse = EnumSet.noneOf(RoomStyle.class);
+        for (final var room : currentSchedule.getRooms()) {
+            final var session = currentSchedule.getCurrentOrNextSession(room, now);
+            final RoomAgenda roomAgenda;
+            if (session != null
+                    && session.startDate().toLocalDate().isEqual(today)
+                    && session.startDate().isBefore(timeLimitNextSession)) {
+                roomAgenda = createRoomAgenda(session, now);
+            } else {
+                roomAgenda = new RoomAgenda(room, RoomStyle.EMPTY, null, translate("event.room.empty"), "", "");
+            }
+            if (!showEmptyRooms && roomAgenda.roomStyle() == RoomStyle.EMPTY) {
+                continue; // don't show empty rooms when configured to do so
+            }
+            roomStylesInUse.add(roomAgenda.roomStyle());
+            rooms.add(roomAgenda);
+        }
+        // iterating over the enum keeps the order of the legend items predictable
+        final var legend = Arrays.stream(RoomStyle.values())
+                .filter(roomStylesInUse::contains)
+                .map(roomStyle -> new LegendItem(roomStyle, translate(roomStyle.getTranslationKey())))
+                .toList();
+        return new AgendaFrame(time, List.copyOf(rooms), legend, currentSchedule.getRooms().isEmpty());
+    }
+
+    private @NotNull RoomAgenda createRoomAgenda(final @NotNull Session session, final @NotNull ZonedDateTime now) {
+        final String time;
+        final RoomStyle roomStyle;
+        if (session.startDate().isAfter(now)) { // next session
+            time = "%s - %s".formatted(
+                    session.startDate().withZoneSameInstant(timezone).toLocalTime(),
+                    session.endDate().withZoneSameInstant(timezone).toLocalTime());
+            roomStyle = RoomStyle.NEXT;
+        } else { // running session
+            final int minutesLeft = Math.round(Duration.between(now, session.endDate()).toSeconds() / 60f);
+            if (minutesLeft <= 0) {
+                time = translate("event.session.countdown.now");
+            } else if (minutesLeft == 1) {
+                time = translate("event.session.countdown.one-minute");
+            } else {
+                time = translate("event.session.countdown.minutes", minutesLeft);
+            }
+            roomStyle = RoomStyle.RUNNING;
         }
+        final var speakers = session.speakers().stream()
+                .map(Speaker::fullName)
+                .collect(Collectors.joining(", "));
+        return new RoomAgenda(session.room(), roomStyle, session, session.title(), speakers, time);
+    }
+
+    private @NotNull String translate(final @NotNull String key, final @NotNull Object... params) {
+        return i18nProvider.getTranslation(key, i18nProvider.getLocale(), params);
     }
 
     public boolean isEnabled() {
@@ -0,0 +1,37 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.plugin.event;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import swiss.fihlon.apus.event.Room;
+import swiss.fihlon.apus.event.RoomStyle;
+import swiss.fihlon.apus.event.Session;
+
+/**
+ * The state of a room in an {@link AgendaFrame}.
+ *
+ * @param room the room
+ * @param roomStyle the style of the room, {@link RoomStyle#EMPTY} if no session is shown
+ * @param session the running or next session, {@code null} if the room is empty
+ * @param title the title of the session or the text for an empty room
+ * @param speakers the names of the speakers, separated by commas
+ * @param time the time of the next session or the countdown of the running session
+ */
+public record RoomAgenda(@NotNull Room room, @NotNull RoomStyle roomStyle, @Nullable Session session,
+                         @NotNull String title, @NotNull String speakers, @NotNull String time) { }
@@ -0,0 +1,147 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.plugin.event;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import swiss.fihlon.apus.event.Room;
+import swiss.fihlon.apus.event.Session;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * <p>An immutable snapshot of the sessions of all rooms.</p>
+ *
+ * <p>The sessions of every room are indexed by their end date, so the running or next session of a room is found
+ * without scanning its sessions. Updates create a new snapshot which shares the sessions of all unchanged rooms
+ * with the previous one, so snapshots can be handed out to every view without copying them.</p>
+ */
+public final class Schedule {
+
+    public static final @NotNull Schedule EMPTY = new Schedule(new TreeMap<>());
+
+    private final @NotNull SortedMap<@NotNull Room, @NotNull RoomSchedule> rooms;
+    private final @NotNull Map<@NotNull Room, @NotNull List<@NotNull Session>> roomsWithSessions;
+
+    private Schedule(final @NotNull TreeMap<@NotNull Room, @NotNull RoomSchedule> rooms) {
+        this.rooms = Collections.unmodifiableSortedMap(rooms);
+        final var sessionsByRoom = new TreeMap<Room, List<Session>>();
+        rooms.forEach((room, roomSchedule) -> sessionsByRoom.put(room, roomSchedule.sessions()));
+        this.roomsWithSessions = Collections.unmodifiableSortedMap(sessionsByRoom);
+    }
+
+    /**
+     * Creates a new schedule from the given sessions.
+     */
+    static @NotNull Schedule of(final @NotNull Collection<@NotNull Session> sessions) {
+        return EMPTY.update(List.of(), sessions);
+    }
+
+    /**
+     * Returns a new schedule with the removed sessions taken out and the added sessions put in.
+     */
+    @NotNull Schedule update(final @NotNull Collection<@NotNull Session> removed, final @NotNull Collection<@NotNull Session> added) {
+        if (removed.isEmpty() && added.isEmpty()) {
+            return this;
+        }
+        final var changedRooms = new TreeMap<Room, TreeMap<SessionKey, Session>>();
+        for (final var session : removed) {
+            changedRooms.computeIfAbsent(session.room(), this::copySessions).remove(SessionKey.of(session));
+        }
+        for (final var session : added) {
+            changedRooms.computeIfAbsent(session.room(), this::copySessions).put(SessionKey.of(session), session);
+        }
+        final var newRooms = new TreeMap<>(rooms);
+        changedRooms.forEach((room, sessions) -> {
+            if (sessions.isEmpty()) {
+                newRooms.remove(room);
+            } else {
+                newRooms.put(room, RoomSchedule.of(sessions));
+            }
+        });
+        return new Schedule(newRooms);
+    }
+
+    private @NotNull TreeMap<SessionKey, Session> copySessions(final @NotNull Room room) {
+        final var roomSchedule = rooms.get(room);
+        return roomSchedule == null ? new TreeMap<>() : new TreeMap<>(roomSchedule.sessionsByEnd());
+    }
+
+    public @NotNull Set<@NotNull Room> getRooms() {
+        return rooms.keySet();
+    }
+
+    /**
+     * Returns the sessions of every room, sorted by their start date.
+     */
+    public @NotNull Map<@NotNull Room, @NotNull List<@NotNull Session>> getRoomsWithSessions() {
+        return roomsWithSessions;
+    }
+
+    /**
+     * Returns the session of the room which is running at the given time, or the next one if none is running.
+     */
+    public @Nullable Session getCurrentOrNextSession(final @NotNull Room room, final @NotNull ZonedDateTime time) {
+        final var roomSchedule = rooms.get(room);
+        if (roomSchedule == null) {
+            return null;
+        }
+        final var entry = roomSchedule.sessionsByEnd().ceilingEntry(SessionKey.endingAfter(time));
+        return entry != null ? entry.getValue() : null;
+    }
+
+    private record RoomSchedule(@NotNull NavigableMap<SessionKey, Session> sessionsByEnd, @NotNull List<@NotNull Session> sessions) {
+        private static @NotNull RoomSchedule of(final @NotNull TreeMap<SessionKey, Session> sessionsByEnd) {
+            final var sessions = sessionsByEnd.values().stream()
+                    .sorted()
+                    .toList();
+            return new RoomSchedule(Collections.unmodifiableNavigableMap(sessionsByEnd), sessions);
+        }
+    }
+
+    private record SessionKey(@NotNull Instant endDate, @NotNull String id) implements Comparable<SessionKey> {
+
+        private static final @NotNull Comparator<SessionKey> ORDER = Comparator.comparing(SessionKey::endDate)
+                .thenComparing(SessionKey::id);
+
+        private static @NotNull SessionKey of(final @NotNull Session session) {
+            return new SessionKey(session.endDate().toInstant(), session.id());
+        }
+
+        private static @NotNull SessionKey endingAfter(final @NotNull ZonedDateTime time) {
+            // the smallest key with an end date after the given time
+            return new SessionKey(time.toInstant().plusNanos(1), "");
+        }
+
+        @Override
+        public int compareTo(final @NotNull SessionKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+}
@@ -18,11 +18,13 @@
 package swiss.fihlon.apus.plugin.event.devoxx;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import swiss.fihlon.apus.configuration.AppConfig;
 import swiss.fihlon.apus.event.Language;
@@ -31,15 +33,24 @@ import swiss.fihlon.apus.event.Session;
 import swiss.fihlon.apus.event.SessionImportException;
 import swiss.fihlon.apus.event.Speaker;
 import swiss.fihlon.apus.event.Track;
+import swiss.fihlon.apus.http.CachedResource;
+import swiss.fihlon.apus.http.FetchExecutor;
+import swiss.fihlon.apus.http.HttpService;
 import swiss.fihlon.apus.plugin.event.EventPlugin;
-import swiss.fihlon.apus.util.DownloadUtil;
+import swiss.fihlon.apus.util.JsonReader;
 import swiss.fihlon.apus.util.TemplateUtil;
 
 import java.io.IOException;
-import java.net.URI;
-import java.net.URISyntaxException;
+import java.io.Reader;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.time.format.TextStyle;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -54,14 +65,56 @@ public final class DevoxxPlugin implements EventPlugin {
                 <image href="${PNG_URL}" x="0" y="0" width="40" height="40"/>
             </svg>""";
 
+    private static final @NotNull Duration OTHER_DAYS_REFRESH = Duration.ofHours(1);
+
     private final @NotNull String eventApi;
     private final @NotNull String eventId;
     private final @NotNull String weekday;
+    private final @NotNull ZoneId timezone;
+    private final @NotNull HttpService httpService;
+    private final @NotNull FetchExecutor fetchExecutor;
+    private final @NotNull Clock clock;
+    private final @NotNull TrackImageCache trackImageCache;
+    private final @NotNull List<@NotNull Day> days;
+
+    @Autowired
+    public DevoxxPlugin(final @NotNull AppConfig configuration,
+                        final @NotNull HttpService httpService,
+                        final @NotNull FetchExecutor fetchExecutor) {
+        this(configuration, httpService, fetchExecutor, Clock.systemUTC());
+    }
+
+    DevoxxPlugin(final @NotNull AppConfig configuration,
+                 final @NotNull HttpService httpService,
+                 final @NotNull FetchExecutor fetchExecutor,
+                 final @NotNull Clock clock) {
+        this(configuration, httpService, fetchExecutor, clock, new TrackImageCache(httpService, clock));
+    }
 
-    public DevoxxPlugin(final @NotNull AppConfig configuration) {
+    DevoxxPlugin(final @NotNull AppConfig configuration,
+                 final @NotNull HttpService httpService,
+                 final @NotNull FetchExecutor fetchExecutor,
+                 final @NotNull Clock clock,
+                 final @NotNull TrackImageCache trackImageCache) {
         this.eventApi = configuration.devoxx().eventApi();
         this.eventId = configuration.devoxx().eventId();
         this.weekday = configuration.devoxx().weekday();
+        this.timezone = configuration.timezone();
+        this.httpService = httpService;
+        this.fetchExecutor = fetchExecutor;
+        this.clock = clock;
+        this.trackImageCache = trackImageCache;
+        this.days = Arrays.stream(weekday.split(","))
+                .map(day -> day.trim().toLowerCase(Locale.ROOT))
+                .filter(day -> !day.isEmpty())
+                .distinct()
+                .map(this::createDay)
+                .toList();
+    }
+
+    private @NotNull Day createDay(final @NotNull String day) {
+        final var url = TemplateUtil.replaceVariables(eventApi, Map.of("event", eventId, "weekday", day));
+        return new Day(day, CachedResource.streaming(httpService, url, json -> parseSessions(json, day)));
     }
 
     @Override
@@ -72,19 +125,37 @@ public final class DevoxxPlugin implements EventPlugin {
         return eventApiOk && eventIdOk && weekdayOk;
     }
 
-
+    /**
+     * <p>Returns the sessions of all configured days.</p>
+     *
+     * <p>The days are downloaded concurrently and cached separately. Today is refreshed with every call, the other
+     * days only once per hour, so the agenda of the whole conference is available without multiplying the requests.
+     * A day failing to load keeps its last sessions, the import only fails if no outdated day could be loaded.</p>
+     */
     @Override
-    @SuppressWarnings("java:S2142") // InterruptedException is caught and stops session loading
     public @NotNull Stream<@NotNull Session> getSessions() {
-        final var sessions = new ArrayList<Session>();
+        final var now = clock.instant();
+        final var today = LocalDate.ofInstant(now, timezone).getDayOfWeek().getDisplayName(TextStyle.FULL, Locale.ENGLISH)
+                .toLowerCase(Locale.ROOT);
+        final var outdatedDays = days.stream()
+                .filter(day -> day.isOutdated(today, now))
+                .toList();
+        final var refreshed = fetchExecutor.fetchAll("Devoxx", outdatedDays, day -> day.refresh(now), day -> false);
+        if (!outdatedDays.isEmpty() && !refreshed.contains(true)) {
+            throw new SessionImportException("Error loading sessions for event ID %s on %s".formatted(eventId, outdatedDays));
+        }
+        return days.stream()
+                .flatMap(day -> day.getSessions().stream());
+    }
+
+    private @NotNull List<@NotNull ParsedSession> parseSessions(final @NotNull Reader json, final @NotNull String day) {
+        final var sessions = new ArrayList<ParsedSession>();
         var lastSessionId = "";
         try {
-            final var url = TemplateUtil.replaceVariables(
-                    eventApi, Map.of("event", eventId, "weekday", weekday.toLowerCase(Locale.getDefault())));
-            final var json = DownloadUtil.getString(url);
-            final var devoxxSessions = new JSONArray(json);
-            for (int counter = 0; counter < devoxxSessions.length(); counter++) {
-                final var sessionData = devoxxSessions.getJSONObject(counter);
+            final var reader = new JsonReader(json);
+            reader.beginArray();
+            while (reader.hasNext()) {
+                final var sessionData = reader.nextObject();
                 if (sessionData.isNull("proposal")) {
                     continue;
                 }
@@ -98,14 +169,14 @@ public final class DevoxxPlugin implements EventPlugin {
                         proposal.getString("title"),
                         getSpeakers(proposal.getJSONArray("speakers")),
                         Language.UNKNOWN, // TODO parse language #292
-                        getTrack(proposal));
-                sessions.add(session);
+                        Track.NONE);
+                sessions.add(new ParsedSession(session, getTrackImageURL(proposal)));
             }
-            LOGGER.info("Successfully loaded {} sessions for event ID {} on {}", sessions.size(), eventId, weekday);
-        } catch (final IOException | URISyntaxException | JSONException | InterruptedException e) {
+            LOGGER.info("Successfully loaded {} sessions for event ID {} on {}", sessions.size(), eventId, day);
+        } catch (final JSONException e) {
             throw new SessionImportException("Error parsing session %s: %s".formatted(lastSessionId, e.getMessage()), e);
         }
-        return sessions.stream();
+        return List.copyOf(sessions);
     }
 
     private @NotNull List<@NotNull Speaker> getSpeakers(final @NotNull JSONArray speakersData) {
@@ -117,36 +188,99 @@ public final class DevoxxPlugin implements EventPlugin {
         return speakers;
     }
 
-    private @NotNull Track getTrack(final @NotNull JSONObject proposal) throws IOException, InterruptedException {
-        if (proposal.has("track")) {
-            if (!proposal.isNull("track")) {
-                final var trackData = proposal.getJSONObject("track");
-                if (trackData.has("imageURL")) {
-                    if (!trackData.isNull("imageURL")) {
-                        final var imageURL = trackData.getString("imageURL");
-                        if (imageURL.length() > 4) {
-                            final var extension = imageURL.substring(imageURL.length() - 4).toLowerCase(Locale.getDefault());
-                            return switch (extension) {
-                                case ".png" -> trackWithPNG(imageURL);
-                                case ".svg" -> trackWithSVG(imageURL);
-                                default -> Track.NONE;
-                            };
-                        }
-                    }
-                }
+    private static @Nullable String getTrackImageURL(final @NotNull JSONObject proposal) {
+        if (proposal.has("track") && !proposal.isNull("track")) {
+            final var trackData = proposal.getJSONObject("track");
+            if (trackData.has("imageURL") && !trackData.isNull("imageURL")) {
+                return trackData.getString("imageURL");
             }
         }
+        return null;
+    }
+
+    /**
+     * Adds the track icons to the sessions. The icons are looked up with every refresh of a day, not while parsing
+     * the schedule, so a changed icon is picked up even if the schedule itself did not change. An icon failing to
+     * load is left out, the session is kept without a track.
+     */
+    private @NotNull List<@NotNull Session> resolveTracks(final @NotNull List<@NotNull ParsedSession> parsedSessions)
+            throws InterruptedException {
+        final var sessions = new ArrayList<Session>(parsedSessions.size());
+        for (final var parsedSession : parsedSessions) {
+            final var session = parsedSession.session();
+            final var track = getTrack(parsedSession.trackImageURL());
+            sessions.add(new Session(session.id(), session.startDate(), session.endDate(), session.room(), session.title(),
+                    session.speakers(), session.language(), track));
+        }
+        return List.copyOf(sessions);
+    }
+
+    private @NotNull Track getTrack(final @Nullable String imageURL) throws InterruptedException {
+        if (imageURL != null && imageURL.length() > 4) {
+            final var extension = imageURL.substring(imageURL.length() - 4).toLowerCase(Locale.getDefault());
+            return switch (extension) {
+                case ".png" -> trackWithPNG(imageURL);
+                case ".svg" -> trackWithSVG(imageURL);
+                default -> Track.NONE;
+            };
+        }
         return Track.NONE;
     }
 
     private @NotNull Track trackWithPNG(final @NotNull String imageURL) {
         final var svgCode = TemplateUtil.replaceVariables(PNG_SVG_WRAPPER_TEMPLATE, Map.of("PNG_URL", imageURL));
-        return new Track(svgCode);
+        return trackImageCache.intern(svgCode);
     }
 
-    private @NotNull Track trackWithSVG(final @NotNull String imageURL) throws IOException, InterruptedException {
-        final URI uri = URI.create(imageURL);
-        return Track.fromURI(uri);
+    private @NotNull Track trackWithSVG(final @NotNull String imageURL) throws InterruptedException {
+        try {
+            return trackImageCache.get(imageURL);
+        } catch (final IOException e) {
+            LOGGER.error("Error loading track icon '{}' for event ID {}: {}", imageURL, eventId, e.getMessage());
+            return Track.NONE;
+        }
+    }
+
+    private final class Day {
+
+        private final @NotNull String name;
+        private final @NotNull CachedResource<List<ParsedSession>> sessionResource;
+
+        private volatile @NotNull List<@NotNull Session> sessions = List.of();
+        private volatile @Nullable Instant loadedAt;
+
+        private Day(final @NotNull String name, final @NotNull CachedResource<List<ParsedSession>> sessionResource) {
+            this.name = name;
+            this.sessionResource = sessionResource;
+        }
+
+        private boolean isOutdated(final @NotNull String today, final @NotNull Instant now) {
+            final var lastLoad = loadedAt;
+            return lastLoad == null || name.equals(today) || !lastLoad.plus(OTHER_DAYS_REFRESH).isAfter(now);
+        }
+
+        @SuppressWarnings("java:S2142") // InterruptedException is caught and stops session loading
+        private boolean refresh(final @NotNull Instant now) {
+            try {
+                sessions = resolveTracks(sessionResource.get());
+                loadedAt = now;
+                return true;
+            } catch (final IOException | InterruptedException | SessionImportException e) {
+                LOGGER.error("Error loading sessions for event ID {} on {}: {}", eventId, name, e.getMessage());
+                return false;
+            }
+        }
+
+        private @NotNull List<@NotNull Session> getSessions() {
+            return sessions;
+        }
+
+        @Override
+        public @NotNull String toString() {
+            return name;
+        }
     }
 
+    private record ParsedSession(@NotNull Session session, @Nullable String trackImageURL) { }
+
 }
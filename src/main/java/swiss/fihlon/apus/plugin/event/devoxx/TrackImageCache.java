@@ -0,0 +1,182 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.plugin.event.devoxx;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import swiss.fihlon.apus.event.Track;
+import swiss.fihlon.apus.event.ValueInterner;
+import swiss.fihlon.apus.http.HttpService;
+import swiss.fihlon.apus.http.SingleFlight;
+import swiss.fihlon.apus.http.Validators;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>Caches the SVG track icons of the Devoxx schedule by their URL.</p>
+ *
+ * <p>Many sessions share a few track icons, so every icon is downloaded only once and revalidated with a conditional
+ * request at most once per hour. The icons are stored together with their ETag in the {@code ~/.apus} directory,
+ * so they are available right after a restart and only downloaded again when their ETag has changed. Icons with
+ * the same content share one {@link Track} instance, which is held weakly, so the icons of removed tracks don't
+ * pile up.</p>
+ */
+final class TrackImageCache {
+
+    private static final @NotNull Logger LOGGER = LoggerFactory.getLogger(TrackImageCache.class);
+    private static final @NotNull Duration REVALIDATE_INTERVAL = Duration.ofHours(1);
+
+    private final @NotNull HttpService httpService;
+    private final @NotNull Path directory;
+    private final @NotNull Clock clock;
+
+    private final @NotNull Map<@NotNull String, @NotNull CachedTrack> tracksByUrl = new ConcurrentHashMap<>();
+    private final @NotNull ValueInterner valueInterner = new ValueInterner();
+    private final @NotNull SingleFlight<@NotNull String, @NotNull Track> inFlight = new SingleFlight<>();
+
+    TrackImageCache(final @NotNull HttpService httpService, final @NotNull Clock clock) {
+        this(httpService, Path.of(System.getProperty("user.home"), ".apus", "cache", "tracks"), clock);
+    }
+
+    TrackImageCache(final @NotNull HttpService httpService, final @NotNull Path directory, final @NotNull Clock clock) {
+        this.httpService = httpService;
+        this.directory = directory;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the track of the SVG icon at the given URL, downloading it only if it is unknown or has changed.
+     */
+    @NotNull Track get(final @NotNull String imageURL) throws IOException, InterruptedException {
+        final var cachedTrack = tracksByUrl.get(imageURL);
+        if (cachedTrack != null && cachedTrack.isValid(clock.instant())) {
+            return cachedTrack.track();
+        }
+        return inFlight.execute(imageURL, () -> load(imageURL));
+    }
+
+    /**
+     * Returns the one track instance for the given SVG code.
+     */
+    @NotNull Track intern(final @NotNull String svgCode) {
+        return valueInterner.intern(new Track(svgCode));
+    }
+
+    private @NotNull Track load(final @NotNull String imageURL) throws IOException, InterruptedException {
+        final var now = clock.instant();
+        var cachedTrack = tracksByUrl.get(imageURL);
+        if (cachedTrack != null && cachedTrack.isValid(now)) {
+            return cachedTrack.track();
+        }
+        if (cachedTrack == null && isRemote(imageURL)) {
+            cachedTrack = readFromDisk(imageURL);
+        }
+        try {
+            final var validators = cachedTrack == null ? null : cachedTrack.validators();
+            final var response = httpService.getStringIfModified(imageURL, null, validators);
+            final var svgCode = response.content();
+            final Track track;
+            if (svgCode != null) {
+                track = intern(svgCode);
+                if (isRemote(imageURL)) {
+                    writeToDisk(imageURL, svgCode, response.validators());
+                }
+            } else {
+                track = Objects.requireNonNull(cachedTrack).track();
+            }
+            tracksByUrl.put(imageURL, new CachedTrack(track, response.validators(), now));
+            return track;
+        } catch (final IOException e) {
+            if (cachedTrack == null) {
+                throw e;
+            }
+            LOGGER.warn("Unable to revalidate track icon '{}', using the cached one: {}", imageURL, e.getMessage());
+            tracksByUrl.put(imageURL, new CachedTrack(cachedTrack.track(), cachedTrack.validators(), now));
+            return cachedTrack.track();
+        }
+    }
+
+    private @Nullable CachedTrack readFromDisk(final @NotNull String imageURL) {
+        final var svgFile = directory.resolve(fileName(imageURL, "svg"));
+        final var eTagFile = directory.resolve(fileName(imageURL, "etag"));
+        try {
+            if (Files.exists(svgFile)) {
+                final var track = intern(Files.readString(svgFile));
+                final var validators = Files.exists(eTagFile)
+                        ? new Validators(Files.readString(eTagFile), null)
+                        : Validators.NONE;
+                return new CachedTrack(track, validators, Instant.MIN);
+            }
+        } catch (final IOException e) {
+            LOGGER.error("Unable to read cached track icon from file '{}': {}", svgFile, e.getMessage());
+        }
+        return null;
+    }
+
+    private void writeToDisk(final @NotNull String imageURL, final @NotNull String svgCode, final @NotNull Validators validators) {
+        final var svgFile = directory.resolve(fileName(imageURL, "svg"));
+        final var eTagFile = directory.resolve(fileName(imageURL, "etag"));
+        try {
+            Files.createDirectories(directory);
+            Files.writeString(svgFile, svgCode);
+            final var eTag = validators.eTag();
+            if (eTag != null) {
+                Files.writeString(eTagFile, eTag);
+            } else {
+                Files.deleteIfExists(eTagFile);
+            }
+        } catch (final IOException e) {
+            LOGGER.error("Unable to save track icon to file '{}': {}", svgFile, e.getMessage());
+        }
+    }
+
+    private static boolean isRemote(final @NotNull String imageURL) {
+        // local files are fast enough and need no copy on disk
+        return imageURL.startsWith("http:") || imageURL.startsWith("https:");
+    }
+
+    private static @NotNull String fileName(final @NotNull String imageURL, final @NotNull String extension) {
+        try {
+            final var hash = MessageDigest.getInstance("SHA-256").digest(imageURL.getBytes(StandardCharsets.UTF_8));
+            return "%s.%s".formatted(HexFormat.of().formatHex(hash), extension);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record CachedTrack(@NotNull Track track, @NotNull Validators validators, @NotNull Instant validatedAt) {
+        private boolean isValid(final @NotNull Instant now) {
+            return validatedAt.plus(REVALIDATE_INTERVAL).isAfter(now);
+        }
+    }
+
+}
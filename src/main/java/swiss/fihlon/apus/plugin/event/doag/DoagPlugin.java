@@ -18,6 +18,7 @@
 package swiss.fihlon.apus.plugin.event.doag;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -31,19 +32,21 @@ import swiss.fihlon.apus.event.Session;
 import swiss.fihlon.apus.event.SessionImportException;
 import swiss.fihlon.apus.event.Speaker;
 import swiss.fihlon.apus.event.Track;
+import swiss.fihlon.apus.http.CachedResource;
+import swiss.fihlon.apus.http.HttpService;
 import swiss.fihlon.apus.plugin.event.EventPlugin;
-import swiss.fihlon.apus.util.DownloadUtil;
+import swiss.fihlon.apus.util.JsonReader;
 import swiss.fihlon.apus.util.TemplateUtil;
 
 import java.io.IOException;
-import java.net.URISyntaxException;
+import java.io.Reader;
 import java.time.Duration;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Stream;
 
 @Service
@@ -52,11 +55,12 @@ public final class DoagPlugin implements EventPlugin {
     private static final @NotNull Logger LOGGER = LoggerFactory.getLogger(DoagPlugin.class);
 
     private final int eventId;
-    private final @NotNull String eventApi;
+    private final @NotNull CachedResource<List<Session>> sessionResource;
 
-    public DoagPlugin(final @NotNull AppConfig appConfig) {
+    public DoagPlugin(final @NotNull AppConfig appConfig, final @NotNull HttpService httpService) {
         this.eventId = appConfig.doag().eventId();
-        this.eventApi = TemplateUtil.replaceVariables(appConfig.doag().eventApi(), Map.of("event", Integer.toString(eventId)));
+        final var eventApi = TemplateUtil.replaceVariables(appConfig.doag().eventApi(), Map.of("event", Integer.toString(eventId)));
+        this.sessionResource = CachedResource.streaming(httpService, eventApi, this::parseSessions);
     }
 
     @Override
@@ -65,47 +69,92 @@ public final class DoagPlugin implements EventPlugin {
     }
 
     @Override
+    @SuppressWarnings("java:S2142") // InterruptedException is caught and stops session loading
     public @NotNull Stream<@NotNull Session> getSessions() {
-        final ArrayList<Session> sessions = new ArrayList<>();
-        int lastSlotId = 0;
         try {
-            final String json = DownloadUtil.getString(eventApi);
-            final JSONObject jsonObject = new JSONObject(json);
-            final JSONObject schedule = jsonObject.getJSONObject("schedule");
-            final JSONObject conference = schedule.getJSONObject("conference");
-            final String acronym = conference.getString("acronym");
-            final JSONArray days = conference.getJSONArray("days");
-            for (int dayCounter = 0; dayCounter < days.length(); dayCounter++) {
-                final JSONObject day = days.getJSONObject(dayCounter);
-
-                final JSONObject rooms = day.getJSONObject("rooms");
-                final Iterator<String> roomKeys = rooms.keys();
-                while (roomKeys.hasNext()) {
-                    final String roomName = roomKeys.next();
-                    final JSONArray slots = rooms.getJSONArray(roomName);
-                    for (int slotCounter = 0; slotCounter < slots.length(); slotCounter++) {
-                        final JSONObject slot = slots.getJSONObject(slotCounter);
-                        lastSlotId = slot.getInt("id");
-                        final Session session = createSession(slot, acronym, roomName);
-                        if (checkSkipSession(slot, session)) {
-                            continue;
-                        }
-                        sessions.add(session);
+            return sessionResource.get().stream();
+        } catch (final IOException | InterruptedException e) {
+            throw new SessionImportException("Error loading sessions for event ID %d: %s".formatted(eventId, e.getMessage()), e);
+        }
+    }
+
+    private @NotNull List<@NotNull Session> parseSessions(final @NotNull Reader json) {
+        final var conference = new Conference();
+        try {
+            final var reader = new JsonReader(json);
+            reader.beginObject();
+            if (!reader.skipTo("schedule")) {
+                throw new JSONException("No schedule found");
+            }
+            reader.beginObject();
+            if (!reader.skipTo("conference")) {
+                throw new JSONException("No conference found");
+            }
+            readConference(reader, conference);
+            if (conference.acronym == null) {
+                throw new JSONException("No acronym found");
+            }
+            LOGGER.info("Successfully loaded {} sessions for event ID {}", conference.sessions.size(), eventId);
+        } catch (final JSONException e) {
+            throw new SessionImportException("Error parsing slot %d: %s".formatted(conference.lastSlotId, e.getMessage()), e);
+        }
+        return List.copyOf(conference.sessions);
+    }
+
+    /**
+     * Maps the lecture slots of all days to sessions while they are read, every other slot is dropped.
+     */
+    private void readConference(final @NotNull JsonReader reader, final @NotNull Conference conference) {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "acronym" -> conference.setAcronym(reader.nextString());
+                case "days" -> readDays(reader, conference);
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private void readDays(final @NotNull JsonReader reader, final @NotNull Conference conference) {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (reader.nextName().equals("rooms")) {
+                    readRooms(reader, conference);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        reader.endArray();
+    }
+
+    private void readRooms(final @NotNull JsonReader reader, final @NotNull Conference conference) {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            final String roomName = reader.nextName();
+            reader.beginArray();
+            while (reader.hasNext()) {
+                final JSONObject slot = reader.nextObject();
+                if (slot.getString("type").equalsIgnoreCase("lecture")) {
+                    conference.lastSlotId = slot.getInt("id");
+                    final Session session = createSession(slot, Objects.requireNonNullElse(conference.acronym, ""), roomName);
+                    if (!checkSkipSession(session)) {
+                        conference.sessions.add(session);
                     }
                 }
             }
-            LOGGER.info("Successfully loaded {} sessions for event ID {}", sessions.size(), eventId);
-        } catch (IOException | URISyntaxException | JSONException e) {
-            throw new SessionImportException("Error parsing slot %d: %s".formatted(lastSlotId, e.getMessage()), e);
+            reader.endArray();
         }
-        return sessions.stream();
+        reader.endObject();
     }
 
-    private static boolean checkSkipSession(final @NotNull JSONObject slot, final @NotNull Session session) {
-        final var type = slot.getString("type");
+    private static boolean checkSkipSession(final @NotNull Session session) {
         final var roomName = session.room().name();
-        return !type.equalsIgnoreCase("lecture")
-                || roomName.contains("Burger Bär")
+        return roomName.contains("Burger Bär")
                 || roomName.contains("Flammkuchenstand")
                 || roomName.contains("Gelateria")
                 || roomName.contains("Heinrich Mack")
@@ -172,4 +221,24 @@ public final class DoagPlugin implements EventPlugin {
         final var minutes = values[1];
         return Duration.ofHours(Long.parseLong(hours)).plusMinutes(Long.parseLong(minutes));
     }
+
+    /**
+     * The sessions of the conference mapped so far.
+     */
+    private static final class Conference {
+
+        private final @NotNull List<@NotNull Session> sessions = new ArrayList<>();
+        private @Nullable String acronym;
+        private int lastSlotId;
+
+        private void setAcronym(final @NotNull String acronym) {
+            this.acronym = acronym;
+            // the acronym usually precedes the days, sessions mapped before it get their prefix now
+            sessions.replaceAll(session -> new Session(
+                    "%s%s".formatted(acronym, session.id()),
+                    session.startDate(), session.endDate(), session.room(), session.title(),
+                    session.speakers(), session.language(), session.track()));
+        }
+    }
+
 }
@@ -18,10 +18,11 @@
 package swiss.fihlon.apus.plugin.event.jfs;
 
 import org.jetbrains.annotations.NotNull;
-import org.json.JSONArray;
 import org.json.JSONException;
+import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import swiss.fihlon.apus.configuration.AppConfig;
 import swiss.fihlon.apus.event.Language;
@@ -30,25 +31,21 @@ import swiss.fihlon.apus.event.Session;
 import swiss.fihlon.apus.event.SessionImportException;
 import swiss.fihlon.apus.event.Speaker;
 import swiss.fihlon.apus.event.Track;
+import swiss.fihlon.apus.http.CachedResource;
+import swiss.fihlon.apus.http.HttpService;
 import swiss.fihlon.apus.plugin.event.EventPlugin;
+import swiss.fihlon.apus.util.JsonReader;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.net.URI;
-import java.net.URL;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.io.Reader;
+import java.time.Clock;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.ZoneId;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 @Service
@@ -58,10 +55,19 @@ public final class JavaForumStuttgartPlugin implements EventPlugin {
 
     private final @NotNull String jsonUrl;
     private final @NotNull ZoneId timezone;
+    private final @NotNull Clock clock;
+    private final @NotNull CachedResource<List<ParsedTalk>> talkResource;
 
-    public JavaForumStuttgartPlugin(final @NotNull AppConfig appConfig) {
+    @Autowired
+    public JavaForumStuttgartPlugin(final @NotNull AppConfig appConfig, final @NotNull HttpService httpService) {
+        this(appConfig, httpService, Clock.systemUTC());
+    }
+
+    JavaForumStuttgartPlugin(final @NotNull AppConfig appConfig, final @NotNull HttpService httpService, final @NotNull Clock clock) {
         jsonUrl = appConfig.jfs().jsonUrl();
         timezone = appConfig.timezone();
+        this.clock = clock;
+        talkResource = CachedResource.streaming(httpService, jsonUrl, this::parseTalks);
     }
 
     @Override
@@ -70,157 +76,89 @@ public final class JavaForumStuttgartPlugin implements EventPlugin {
     }
 
     @Override
+    @SuppressWarnings("java:S2142") // InterruptedException is caught and stops the download
     public @NotNull Stream<@NotNull Session> getSessions() {
-        List<Talk> allTalks = List.of();
-        Map<String, List<String>> allAssignments = Map.of();
-        Map<String, Speaker> allSpeakers = Map.of();
-        final Map<String, Track> allTracks = getTracks();
-
-        final Path jsonFile = downloadJsonFile();
-
-        try (BufferedReader reader = Files.newBufferedReader(jsonFile)) {
-            final var content = reader.lines().collect(Collectors.joining(System.lineSeparator()));
-            final var jsonArray = new JSONArray(content);
-
-            allTalks = getTalks(jsonArray);
-
-            if (allTalks.isEmpty()) {
-                throw new SessionImportException(
-                        "Error importing session data for Java Forum Stuttgart: No talks found in '%s' from '%s'! "
-                                .formatted(jsonFile, jsonUrl));
-            }
-
-            allAssignments = getAssignments(jsonArray);
-            allSpeakers = getSpeakers(jsonArray);
-
-        } catch (final IOException e) {
-            LOGGER.error("IO error: {}", e.getMessage());
-        } catch (final JSONException e) {
-            LOGGER.error("JSON error: {}", e.getMessage());
-        } finally {
-            try {
-                Files.delete(jsonFile);
-                LOGGER.info("Successfully deleted temporary database file: {}", jsonFile);
-            } catch (final IOException ioe) {
-                LOGGER.warn("Unable to delete temporary database file '{}' : {}", jsonFile, ioe.getMessage());
-            }
+        try {
+            final var talks = talkResource.get();
+            // the talks contain only times, so they are dated again on every call and stay valid after midnight
+            final var today = LocalDate.ofInstant(clock.instant(), timezone);
+            final var allTracks = getTracks();
+            return talks.stream()
+                    .map(parsedTalk -> mapToSession(parsedTalk, allTracks, today));
+        } catch (final IOException | InterruptedException e) {
+            throw new SessionImportException(
+                    "Error downloading JSON file from '%s': %s".formatted(jsonUrl, e.getMessage()), e);
         }
-
-        LOGGER.info("Successfully imported {} sessions for Java Forum Stuttgart", allTalks.size());
-        final var finalAllAssignments = allAssignments;
-        final var finalAllSpeakers = allSpeakers;
-        return allTalks.stream().map(talk -> mapToSession(talk, finalAllAssignments, finalAllSpeakers, allTracks));
     }
 
-    private @NotNull Path downloadJsonFile() {
+    /**
+     * Reads every talk in a single pass over the array, its speakers are read from the talk itself.
+     */
+    private @NotNull List<@NotNull ParsedTalk> parseTalks(final @NotNull Reader json) {
+        final ArrayList<ParsedTalk> talks = new ArrayList<>();
         try {
-            final Path temporaryJsonFile = Files.createTempFile("jfs-", ".json");
-            LOGGER.info("Start downloading JSON from {} ...", jsonUrl);
-            final URI uri = URI.create(jsonUrl);
-            final URL url = uri.toURL();
-            try (InputStream is = url.openStream();
-                 OutputStream os = Files.newOutputStream(temporaryJsonFile)) {
-                is.transferTo(os);
+            final var reader = new JsonReader(json);
+            reader.beginArray();
+            while (reader.hasNext()) {
+                final var obj = reader.nextObject();
+                final var talk = getTalk(obj);
+                talks.add(new ParsedTalk(talk, getStartTime(talk), getEndTime(talk), getSpeakers(obj)));
             }
-            LOGGER.info("Successfully downloaded database to temporary file {}", temporaryJsonFile);
-            return temporaryJsonFile;
-        } catch (final IOException e) {
+        } catch (final JSONException e) {
             throw new SessionImportException(
-                    "Error downloading JSON file from '%s': %s".formatted(jsonUrl, e.getMessage()), e);
+                    "Error importing session data for Java Forum Stuttgart from '%s': %s".formatted(jsonUrl, e.getMessage()), e);
         }
-    }
 
-    private @NotNull List<@NotNull Talk> getTalks(final @NotNull JSONArray talksArray) {
-        final ArrayList<Talk> talks = new ArrayList<>();
-
-        for (int i = 0; i < talksArray.length(); i++) {
-            final var obj = talksArray.getJSONObject(i);
-
-            final String id = Integer.toString(obj.getInt("id"));
-            final String title = obj.getString("title");
-            final String room = obj.getString("room");
-            final String topic = obj.getString("topic");
-            final String timeSlot = obj.getString("timeSlot");
-            final boolean isInEnglish = obj.getBoolean("isInEnglish");
-
-            talks.add(new Talk(id, title, room, topic, timeSlot, isInEnglish));
+        if (talks.isEmpty()) {
+            throw new SessionImportException(
+                    "Error importing session data for Java Forum Stuttgart: No talks found in '%s'!".formatted(jsonUrl));
         }
-
-        return talks;
+        LOGGER.info("Successfully imported {} sessions for Java Forum Stuttgart", talks.size());
+        return List.copyOf(talks);
     }
 
-    private @NotNull Map<@NotNull String, @NotNull List<@NotNull String>> getAssignments(final @NotNull JSONArray array) {
-        final HashMap<String, List<String>> assignments = new HashMap<>();
-
-        for (int i = 0; i < array.length(); i++) {
-            final var obj = array.getJSONObject(i);
-            final var talkId = Integer.toString(obj.getInt("id"));
-
-            final ArrayList<String> speakers = new ArrayList<>();
-            final var speakersArray = obj.getJSONArray("speakers");
-            for (int j = 0; j < speakersArray.length(); j++) {
-                final var speaker = speakersArray.getJSONObject(j);
-                final var speakerId = Integer.toString(speaker.getInt("id"));
-                speakers.add(speakerId);
-            }
-
-            assignments.put(talkId, speakers);
-        }
-
-        return assignments;
+    private static @NotNull Talk getTalk(final @NotNull JSONObject obj) {
+        final String id = Integer.toString(obj.getInt("id"));
+        final String title = obj.getString("title");
+        final String room = obj.getString("room");
+        final String topic = obj.getString("topic");
+        final String timeSlot = obj.getString("timeSlot");
+        final boolean isInEnglish = obj.getBoolean("isInEnglish");
+        return new Talk(id, title, room, topic, timeSlot, isInEnglish);
     }
 
-    private @NotNull Map<@NotNull String, @NotNull Speaker> getSpeakers(final @NotNull JSONArray array) {
-        final HashMap<String, Speaker> speakers = new HashMap<>();
-
-        for (int i = 0; i < array.length(); i++) {
-            final var obj = array.getJSONObject(i);
-
-            final var speakersArray = obj.getJSONArray("speakers");
-            for (int j = 0; j < speakersArray.length(); j++) {
-                final var speaker = speakersArray.getJSONObject(j);
-                final var speakerId = Integer.toString(speaker.getInt("id"));
-                final var name = speaker.getString("name");
-                speakers.put(speakerId, new Speaker(name, null));
-            }
+    private static @NotNull List<@NotNull Speaker> getSpeakers(final @NotNull JSONObject obj) {
+        final var speakersArray = obj.getJSONArray("speakers");
+        final ArrayList<Speaker> speakers = new ArrayList<>(speakersArray.length());
+        for (int i = 0; i < speakersArray.length(); i++) {
+            final var speaker = speakersArray.getJSONObject(i);
+            speakers.add(new Speaker(speaker.getString("name"), null));
         }
-        return speakers;
+        return List.copyOf(speakers);
     }
 
-    private Session mapToSession(final @NotNull Talk talk,
-                                 final @NotNull Map<@NotNull String, @NotNull List<@NotNull String>> allAssignments,
-                                 final @NotNull Map<@NotNull String, @NotNull Speaker> allSpeakers,
-                                 final @NotNull Map<@NotNull String, @NotNull Track> allTracks) {
+    private Session mapToSession(final @NotNull ParsedTalk parsedTalk,
+                                 final @NotNull Map<@NotNull String, @NotNull Track> allTracks,
+                                 final @NotNull LocalDate date) {
+        final var talk = parsedTalk.talk();
         final var id = "JFS:%s".formatted(talk.id());
         final var room = new Room(talk.room());
         final var title = talk.title();
-        final var speakers = getSpeakersForTalk(talk, allAssignments, allSpeakers);
-        final var startDate = getStartDate(talk).atZone(timezone);
-        final var endDate = getEndDate(talk).atZone(timezone);
+        final var startDate = LocalDateTime.of(date, parsedTalk.startTime()).atZone(timezone);
+        final var endDate = LocalDateTime.of(date, parsedTalk.endTime()).atZone(timezone);
         final var track = getTrack(talk, allTracks);
         final var language = talk.isInEnglish() ? Language.EN : Language.DE;
-        return new Session(id, startDate, endDate, room, title, speakers, language, track);
-    }
-
-    private @NotNull List<@NotNull Speaker> getSpeakersForTalk(final @NotNull Talk talk,
-                                                               final @NotNull Map<@NotNull String, @NotNull List<@NotNull String>> allAssignments,
-                                                               final @NotNull Map<@NotNull String, @NotNull Speaker> allSpeakers) {
-        final var assignments = allAssignments.get(talk.id());
-        return assignments.stream()
-                .map(allSpeakers::get)
-                .toList();
+        return new Session(id, startDate, endDate, room, title, parsedTalk.speakers(), language, track);
     }
 
     @SuppressWarnings("StringSplitter") // safe to ignore here
-    private @NotNull LocalDateTime getStartDate(final @NotNull Talk talk) {
-        final var time = LocalTime.parse(talk.timeSlot().split("-")[0].trim());
-        return LocalDateTime.of(LocalDate.now(timezone), time);
+    private static @NotNull LocalTime getStartTime(final @NotNull Talk talk) {
+        return LocalTime.parse(talk.timeSlot().split("-")[0].trim());
     }
 
     @SuppressWarnings("StringSplitter") // safe to ignore here
-    private @NotNull LocalDateTime getEndDate(final @NotNull Talk talk) {
-        final var time = LocalTime.parse(talk.timeSlot().split("-")[1].replace("Uhr", "").trim());
-        return LocalDateTime.of(LocalDate.now(timezone), time);
+    private static @NotNull LocalTime getEndTime(final @NotNull Talk talk) {
+        return LocalTime.parse(talk.timeSlot().split("-")[1].replace("Uhr", "").trim());
     }
 
     private @NotNull Map<@NotNull String, @NotNull Track> getTracks() {
@@ -242,4 +180,7 @@ public final class JavaForumStuttgartPlugin implements EventPlugin {
         return allTracks.getOrDefault(talk.topic(), Track.NONE);
     }
 
+    private record ParsedTalk(@NotNull Talk talk, @NotNull LocalTime startTime, @NotNull LocalTime endTime,
+                              @NotNull List<@NotNull Speaker> speakers) { }
+
 }
@@ -31,20 +31,24 @@ import swiss.fihlon.apus.event.Session;
 import swiss.fihlon.apus.event.SessionImportException;
 import swiss.fihlon.apus.event.Speaker;
 import swiss.fihlon.apus.event.Track;
+import swiss.fihlon.apus.http.CachedResource;
+import swiss.fihlon.apus.http.ContentHashParser;
+import swiss.fihlon.apus.http.FetchExecutor;
+import swiss.fihlon.apus.http.HttpService;
 import swiss.fihlon.apus.plugin.event.EventPlugin;
-import swiss.fihlon.apus.util.DownloadUtil;
+import swiss.fihlon.apus.util.JsonReader;
 import swiss.fihlon.apus.util.TemplateUtil;
 
 import java.io.IOException;
-import java.net.URISyntaxException;
+import java.io.Reader;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Stream;
 
-
 @Service
 public final class SessionizePlugin implements EventPlugin {
     private static final @NotNull Logger LOGGER = LoggerFactory.getLogger(SessionizePlugin.class);
@@ -54,15 +58,24 @@ public final class SessionizePlugin implements EventPlugin {
     private static final String LANGUAGE_NAME_GERMAN = "German";
 
     private final @NotNull String eventId;
-    private final @NotNull String eventApi;
-    private final @NotNull String speakerApi;
     private final @NotNull ZoneId timezone;
+    private final @NotNull Download<List<SessionData>> sessionDownload;
+    private final @NotNull Download<Map<String, Speaker>> speakerDownload;
+    private final @NotNull FetchExecutor fetchExecutor;
 
-    public SessionizePlugin(final @NotNull AppConfig appConfig) {
+    public SessionizePlugin(final @NotNull AppConfig appConfig,
+                            final @NotNull HttpService httpService,
+                            final @NotNull FetchExecutor fetchExecutor) {
+        this.fetchExecutor = fetchExecutor;
         this.eventId = appConfig.sessionize().eventId();
-        this.eventApi = TemplateUtil.replaceVariables(appConfig.sessionize().eventApi(), Map.of("event", eventId));
-        this.speakerApi = TemplateUtil.replaceVariables(appConfig.sessionize().speakerApi(), Map.of("event", eventId));
+        final var eventApi = TemplateUtil.replaceVariables(appConfig.sessionize().eventApi(), Map.of("event", eventId));
+        final var speakerApi = TemplateUtil.replaceVariables(appConfig.sessionize().speakerApi(), Map.of("event", eventId));
         this.timezone = appConfig.timezone();
+        this.sessionDownload = new Download<>("sessions", CachedResource.streaming(httpService, eventApi, SessionizePlugin::parseSessionData));
+        // most of the speaker data are unused bios, the speakers are only parsed again if the content has changed,
+        // even if the server sends no validators
+        this.speakerDownload = new Download<>("speakers", CachedResource.streaming(httpService, speakerApi,
+                new ContentHashParser<>(this::parseSpeakers)));
     }
 
     @Override
@@ -70,54 +83,108 @@ public final class SessionizePlugin implements EventPlugin {
         return !eventId.equals("0");
     }
 
-
+    /**
+     * Returns the sessions with their speakers. The sessions and the speakers are downloaded concurrently, both
+     * downloads are limited and have a deadline like every other fetch of a plugin.
+     */
     @Override
+    @SuppressWarnings("unchecked") // the results are in the order of the downloads
     public @NotNull Stream<@NotNull Session> getSessions() {
-        final Map<String, Speaker> allSpeakers = getAllSpeakers();
-        final ArrayList<Session> sessions = new ArrayList<>();
+        final var results = fetchExecutor.fetchAll("Sessionize", List.<Download<?>>of(sessionDownload, speakerDownload),
+                this::download, download -> null);
+        if (results.contains(null)) {
+            throw new SessionImportException("Timeout downloading sessions or speakers for event ID %s".formatted(eventId));
+        }
+        final var allSessionData = (List<SessionData>) results.get(0);
+        final var allSpeakers = (Map<String, Speaker>) results.get(1);
+
+        final ArrayList<Session> sessions = new ArrayList<>(allSessionData.size());
+        for (final SessionData sessionData : allSessionData) {
+            sessions.add(getSession(sessionData, allSpeakers));
+        }
+        LOGGER.info("Successfully loaded {} sessions for event ID {}", sessions.size(), eventId);
+        return sessions.stream();
+    }
+
+    private @NotNull Object download(final @NotNull Download<?> download) {
+        try {
+            return download.resource().get();
+        } catch (final IOException e) {
+            throw new SessionImportException("Error downloading %s for event ID %s: %s".formatted(download.name(), eventId, e.getMessage()), e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SessionImportException("Downloading %s for event ID %s was interrupted".formatted(download.name(), eventId), e);
+        }
+    }
+
+    /**
+     * Reads the sessions of the first group only, the rest of the document is not parsed at all. Every session is
+     * reduced to the values used while it is read, the speakers are added when they are loaded.
+     */
+    private static @NotNull List<@NotNull SessionData> parseSessionData(final @NotNull Reader json) {
+        final var sessions = new ArrayList<SessionData>();
         String lastSessionId = "";
         try {
-            final String json = DownloadUtil.getString(eventApi);
-            final JSONObject jsonObject = new JSONArray(json).getJSONObject(0);
-            final JSONArray sessionizeSessions = jsonObject.getJSONArray("sessions");
-            for (int counter = 0; counter < sessionizeSessions.length(); counter++) {
-                final JSONObject sessionData = sessionizeSessions.getJSONObject(counter);
+            final var reader = new JsonReader(json);
+            reader.beginArray();
+            if (!reader.hasNext()) {
+                throw new JSONException("No session group found");
+            }
+            reader.beginObject();
+            if (!reader.skipTo("sessions")) {
+                throw new JSONException("No sessions found");
+            }
+            reader.beginArray();
+            while (reader.hasNext()) {
+                final JSONObject sessionData = reader.nextObject();
                 lastSessionId = sessionData.getString("id");
-                sessions.add(getSession(sessionData, allSpeakers));
+                sessions.add(toSessionData(sessionData));
             }
-            LOGGER.info("Successfully loaded {} sessions for event ID {}", sessions.size(), eventId);
-        } catch (IOException | URISyntaxException | JSONException e) {
+        } catch (final JSONException e) {
             throw new SessionImportException("Error parsing session %s: %s".formatted(lastSessionId, e.getMessage()), e);
         }
-        return sessions.stream();
+        return List.copyOf(sessions);
+    }
+
+    private static @NotNull SessionData toSessionData(final @NotNull JSONObject sessionData) {
+        final JSONArray speakersData = sessionData.getJSONArray("speakers");
+        final ArrayList<String> speakerIds = new ArrayList<>(speakersData.length());
+        for (int speakerCounter = 0; speakerCounter < speakersData.length(); speakerCounter++) {
+            speakerIds.add(speakersData.getJSONObject(speakerCounter).getString("id"));
+        }
+        return new SessionData(
+                sessionData.getString("id"),
+                LocalDateTime.parse(sessionData.getString("startsAt")),
+                LocalDateTime.parse(sessionData.getString("endsAt")),
+                sessionData.getString("room"),
+                sessionData.getString("title"),
+                List.copyOf(speakerIds),
+                getLanguage(sessionData));
     }
 
-    private @NotNull Map<@NotNull String, @NotNull Speaker> getAllSpeakers() {
+    private @NotNull Map<@NotNull String, @NotNull Speaker> parseSpeakers(final @NotNull Reader json) {
         final Map<String, Speaker> allSpeakers = new HashMap<>();
         String lastSpeakerId = "";
         try {
-            final String json = DownloadUtil.getString(speakerApi);
-            final JSONArray speakerArray = new JSONArray(json);
-            for (int counter = 0; counter < speakerArray.length(); counter++) {
-                final JSONObject speakerData = speakerArray.getJSONObject(counter);
+            final var reader = new JsonReader(json);
+            reader.beginArray();
+            while (reader.hasNext()) {
+                final JSONObject speakerData = reader.nextObject();
                 lastSpeakerId = speakerData.getString("id");
                 final String fullName = speakerData.getString("fullName");
                 final String profilePicture = speakerData.getString("profilePicture");
                 allSpeakers.put(lastSpeakerId, new Speaker(fullName, profilePicture));
             }
             LOGGER.info("Successfully loaded {} speakers for event ID {}", allSpeakers.size(), eventId);
-        } catch (final IOException | URISyntaxException | JSONException e) {
+        } catch (final JSONException e) {
             throw new SessionImportException("Error parsing speaker %s: %s".formatted(lastSpeakerId, e.getMessage()), e);
         }
         return allSpeakers;
     }
 
-    private @NotNull Session getSession(final @NotNull JSONObject sessionData, final @NotNull Map<@NotNull String, @NotNull Speaker> allSpeakers) {
-        final JSONArray speakersData = sessionData.getJSONArray("speakers");
-        final ArrayList<Speaker> speakers = new ArrayList<>(speakersData.length());
-        for (int speakerCounter = 0; speakerCounter < speakersData.length(); speakerCounter++) {
-            final JSONObject speakerData = speakersData.getJSONObject(speakerCounter);
-            final String speakerId = speakerData.getString("id");
+    private @NotNull Session getSession(final @NotNull SessionData sessionData, final @NotNull Map<@NotNull String, @NotNull Speaker> allSpeakers) {
+        final ArrayList<Speaker> speakers = new ArrayList<>(sessionData.speakerIds().size());
+        for (final String speakerId : sessionData.speakerIds()) {
             if (allSpeakers.containsKey(speakerId)) {
                 final Speaker speaker = allSpeakers.get(speakerId);
                 speakers.add(speaker);
@@ -126,21 +193,18 @@ public final class SessionizePlugin implements EventPlugin {
             }
         }
 
-        final var startsAt = LocalDateTime.parse(sessionData.getString("startsAt"));
-        final var endsAt = LocalDateTime.parse(sessionData.getString("endsAt"));
-
         return new Session(
-                "%s:%s".formatted(eventId, sessionData.getString("id")),
-                startsAt.atZone(timezone),
-                endsAt.atZone(timezone),
-                new Room(sessionData.getString("room")),
-                sessionData.getString("title"),
+                "%s:%s".formatted(eventId, sessionData.id()),
+                sessionData.startsAt().atZone(timezone),
+                sessionData.endsAt().atZone(timezone),
+                new Room(sessionData.room()),
+                sessionData.title(),
                 speakers,
-                getLanguage(sessionData),
+                sessionData.language(),
                 Track.NONE);
     }
 
-    private @NotNull Language getLanguage(final @NotNull JSONObject singleSession) {
+    private static @NotNull Language getLanguage(final @NotNull JSONObject singleSession) {
         final JSONArray categories = singleSession.getJSONArray("categories");
         for (int categoryCounter = 0; categoryCounter < categories.length(); categoryCounter++) {
             final JSONObject category = categories.getJSONObject(categoryCounter);
@@ -158,4 +222,11 @@ public final class SessionizePlugin implements EventPlugin {
         }
         return Language.UNKNOWN;
     }
+
+    private record Download<T>(@NotNull String name, @NotNull CachedResource<T> resource) { }
+
+    private record SessionData(@NotNull String id, @NotNull LocalDateTime startsAt, @NotNull LocalDateTime endsAt,
+                               @NotNull String room, @NotNull String title, @NotNull List<@NotNull String> speakerIds,
+                               @NotNull Language language) { }
+
 }
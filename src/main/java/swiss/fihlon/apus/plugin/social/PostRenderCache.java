@@ -0,0 +1,117 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.plugin.social;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.jetbrains.annotations.NotNull;
+import swiss.fihlon.apus.social.Post;
+import swiss.fihlon.apus.social.RenderedPost;
+import swiss.fihlon.apus.util.HtmlUtil;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>A bounded cache for the rendered representations of posts, keyed by post ID and content.</p>
+ *
+ * <p>Sanitizing and parsing the HTML of a post happens once for the lifetime of the post instead of
+ * once per poll and screen. An edited post has a different content and is rendered again. When the
+ * cache is full, the least recently used post is evicted.</p>
+ */
+public final class PostRenderCache implements MeterBinder {
+
+    private final int capacity;
+    private final @NotNull Map<@NotNull Key, @NotNull RenderedPost> cache;
+    private final @NotNull LongAdder hits = new LongAdder();
+    private final @NotNull LongAdder misses = new LongAdder();
+
+    public PostRenderCache(final int capacity) {
+        this.capacity = capacity;
+        this.cache = new LinkedHashMap<>(capacity, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final @NotNull Map.Entry<Key, RenderedPost> eldest) {
+                return size() > PostRenderCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the rendered post from the cache or renders and caches it.
+     */
+    public @NotNull RenderedPost get(final @NotNull Post post) {
+        final var key = new Key(post.id(), post.html());
+        synchronized (cache) {
+            final var renderedPost = cache.get(key);
+            if (renderedPost != null) {
+                hits.increment();
+                return renderedPost;
+            }
+        }
+        misses.increment();
+        final var renderedPost = render(post.html());
+        synchronized (cache) {
+            cache.put(key, renderedPost);
+        }
+        return renderedPost;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    /**
+     * Registers the hit and miss counters and the size of the cache with a meter registry.
+     */
+    @Override
+    public void bindTo(final @NotNull MeterRegistry registry) {
+        FunctionCounter.builder("apus.posts.render.cache", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .description("Number of posts found in the render cache")
+                .register(registry);
+        FunctionCounter.builder("apus.posts.render.cache", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .description("Number of posts which had to be rendered")
+                .register(registry);
+        Gauge.builder("apus.posts.render.cache.size", this, PostRenderCache::size)
+                .description("Number of posts in the render cache")
+                .register(registry);
+    }
+
+    private static @NotNull RenderedPost render(final @NotNull String html) {
+        final var text = HtmlUtil.extractText(html);
+        return new RenderedPost(HtmlUtil.sanitize(html), text, text.toLowerCase(Locale.getDefault()));
+    }
+
+    private record Key(@NotNull String id, @NotNull String html) { }
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.plugin.social;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import swiss.fihlon.apus.social.Post;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>A bounded window of the newest posts of one feed, used for incremental polling.</p>
+ *
+ * <p>The window remembers a cursor (e.g. the newest post ID) so plugins only need to request
+ * posts newer than the cursor and merge them in. Every {@code fullRefreshInterval} polls the
+ * cursor is withheld, so the plugin fetches the complete feed again and posts which were
+ * deleted or edited in the meantime are replaced.</p>
+ */
+public final class PostWindow {
+
+    private final int capacity;
+    private final int fullRefreshInterval;
+    private final @NotNull Map<@NotNull String, @NotNull Post> posts = new HashMap<>();
+
+    private @Nullable String cursor;
+    private int pollsSinceFullRefresh;
+
+    public PostWindow(final int capacity, final int fullRefreshInterval) {
+        this.capacity = capacity;
+        this.fullRefreshInterval = fullRefreshInterval;
+    }
+
+    /**
+     * Returns the cursor for the next poll or {@code null} if the complete feed should be fetched.
+     */
+    public synchronized @Nullable String nextCursor() {
+        if (cursor == null || pollsSinceFullRefresh >= fullRefreshInterval) {
+            return null;
+        }
+        return cursor;
+    }
+
+    /**
+     * Merges the result of a poll into the window and returns the posts of the window, newest first.
+     *
+     * @param requestCursor the cursor which was used for the poll ({@code null} for a full refresh)
+     * @param newCursor the cursor for the next poll ({@code null} to keep the current one)
+     * @param newPosts the posts returned by the poll
+     */
+    public synchronized @NotNull List<@NotNull Post> update(final @Nullable String requestCursor,
+                                                            final @Nullable String newCursor,
+                                                            final @NotNull List<@NotNull Post> newPosts) {
+        if (requestCursor == null) {
+            posts.clear();
+            pollsSinceFullRefresh = 0;
+        } else {
+            pollsSinceFullRefresh++;
+        }
+        if (newCursor != null) {
+            cursor = newCursor;
+        }
+        newPosts.forEach(post -> posts.put(post.id(), post));
+        final var sortedPosts = posts.values().stream()
+                .sorted()
+                .toList();
+        if (sortedPosts.size() <= capacity) {
+            return sortedPosts;
+        }
+        sortedPosts.subList(capacity, sortedPosts.size()).forEach(post -> posts.remove(post.id()));
+        return sortedPosts.subList(0, capacity);
+    }
+
+    /**
+     * Adds or replaces a single post, e.g. received from a streaming API.
+     *
+     * @param post the post to add
+     * @param newCursor the cursor for the next poll ({@code null} to keep the current one)
+     */
+    public synchronized void add(final @NotNull Post post, final @Nullable String newCursor) {
+        if (newCursor != null) {
+            cursor = newCursor;
+        }
+        posts.put(post.id(), post);
+        if (posts.size() > capacity) {
+            posts.values().stream()
+                    .sorted()
+                    .skip(capacity)
+                    .toList()
+                    .forEach(oldPost -> posts.remove(oldPost.id()));
+        }
+    }
+
+    /**
+     * Removes a post from the window and returns {@code true} if it was contained.
+     */
+    public synchronized boolean remove(final @NotNull String id) {
+        return posts.remove(id) != null;
+    }
+
+    /**
+     * Returns the posts of the window, newest first.
+     */
+    public synchronized @NotNull List<@NotNull Post> getPosts() {
+        return posts.values().stream()
+                .sorted()
+                .toList();
+    }
+
+}
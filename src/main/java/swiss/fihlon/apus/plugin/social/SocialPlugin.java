@@ -31,4 +31,14 @@ public interface SocialPlugin {
 
     @NotNull Stream<@NotNull Post> getPosts(@NotNull List<@NotNull String> hashtags);
 
+    /**
+     * Registers a listener which is called when the plugin received new posts without being polled (e.g. by streaming).
+     */
+    default void setPostsChangedListener(final @NotNull Runnable listener) { }
+
+    /**
+     * Registers a listener which is called when the plugin lost the stream it received new posts from and has to be polled again.
+     */
+    default void setStreamDisconnectedListener(final @NotNull Runnable listener) { }
+
 }
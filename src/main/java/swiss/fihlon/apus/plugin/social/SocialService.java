@@ -17,59 +17,75 @@
  */
 package swiss.fihlon.apus.plugin.social;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import jakarta.annotation.PreDestroy;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
-import org.jsoup.Jsoup;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Service;
 import swiss.fihlon.apus.configuration.AppConfig;
+import swiss.fihlon.apus.http.FetchExecutor;
+import swiss.fihlon.apus.plugin.AdaptivePoller;
+import swiss.fihlon.apus.plugin.AdaptivePoller.Result;
 import swiss.fihlon.apus.plugin.social.demo.SocialDemoPlugin;
 import swiss.fihlon.apus.social.Post;
-import swiss.fihlon.apus.util.HtmlUtil;
+import swiss.fihlon.apus.social.RenderedPost;
+import swiss.fihlon.apus.util.WordMatcher;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
-import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 @Service
-public final class SocialService {
+public final class SocialService implements MeterBinder {
+
+    /**
+     * The number of posts shown on the social wall, only changes of these posts are published.
+     */
+    public static final int MAX_VISIBLE_POSTS = 30;
 
     private static final @NotNull Duration UPDATE_FREQUENCY = Duration.ofSeconds(30);
-    private static final int MAX_POSTS = 50;
+    private static final @NotNull Duration MIN_UPDATE_FREQUENCY = Duration.ofSeconds(15);
+    private static final @NotNull Duration MAX_UPDATE_FREQUENCY = Duration.ofMinutes(5);
+    private static final int MAX_POSTS = 50; // per plugin, more than visible to replace hidden posts without a poll
+    private static final int RENDER_CACHE_SIZE = 2_000;
     private static final @NotNull Logger LOGGER = LoggerFactory.getLogger(SocialService.class);
 
-    private final @Nullable ScheduledFuture<?> updateScheduler;
+    private final @NotNull FetchExecutor fetchExecutor;
+    private final @NotNull List<@NotNull AdaptivePoller> pollers = new ArrayList<>();
     private final @NotNull List<@NotNull String> hashtags;
     private final int filterLength;
     private final boolean filterReplies;
     private final boolean filterSensitive;
-    private final @NotNull List<@NotNull String> filterWords;
+    private final @NotNull WordMatcher filterWords;
     private final boolean imagesEnabled;
     private final int imageLimit;
     private final @NotNull Set<@NotNull String> hiddenPosts = new HashSet<>();
     private final @NotNull Set<@NotNull String> blockedProfiles = new HashSet<>();
     private final @NotNull Map<@NotNull SocialPlugin, @NotNull List<@NotNull Post>> postsByPlugin = new HashMap<>();
+    private final @NotNull List<@NotNull Consumer<@NotNull List<@NotNull Post>>> postsChangedListeners = new CopyOnWriteArrayList<>();
+    private @NotNull List<@NotNull Post> publishedPosts = List.of();
+    private final @NotNull PostRenderCache renderCache = new PostRenderCache(RENDER_CACHE_SIZE);
 
     public SocialService(final @NotNull TaskScheduler taskScheduler,
+                         final @NotNull FetchExecutor fetchExecutor,
                          final @NotNull AppConfig appConfig,
                          final @NotNull List<@NotNull SocialPlugin> socialPlugins) {
+        this.fetchExecutor = fetchExecutor;
         final var demoMode = appConfig.demoMode();
         hashtags = Arrays.stream(appConfig.social().hashtags().split(","))
                 .filter(hashtag -> !hashtag.isBlank())
@@ -78,10 +94,10 @@ public final class SocialService {
         filterLength = appConfig.social().filter().length();
         filterReplies = appConfig.social().filter().replies();
         filterSensitive = appConfig.social().filter().sensitive();
-        filterWords = appConfig.social().filter().words().stream()
+        filterWords = new WordMatcher(appConfig.social().filter().words().stream()
                 .map(String::toLowerCase)
                 .map(String::trim)
-                .toList();
+                .toList());
         loadHiddenPostIds();
         loadBlockedProfiles();
         imagesEnabled = appConfig.social().imagesEnabled();
@@ -96,12 +112,19 @@ public final class SocialService {
         }
 
         if (!hashtags.isEmpty() && !postsByPlugin.isEmpty()) {
+            postsByPlugin.keySet().forEach(plugin -> {
+                final var poller = new AdaptivePoller(taskScheduler, fetchExecutor,
+                        plugin.getServiceName(), UPDATE_FREQUENCY, MIN_UPDATE_FREQUENCY, MAX_UPDATE_FREQUENCY,
+                        () -> updatePosts(plugin));
+                // streamed posts are handed off, so the thread reading the stream is not blocked by the update
+                plugin.setPostsChangedListener(() -> fetchExecutor.execute(() -> updatePosts(plugin)));
+                plugin.setStreamDisconnectedListener(poller::reset);
+                pollers.add(poller);
+            });
             updatePosts();
-            final var startTime = Instant.now().plus(UPDATE_FREQUENCY);
-            updateScheduler = taskScheduler.scheduleAtFixedRate(this::updatePosts, startTime, UPDATE_FREQUENCY);
+            pollers.forEach(AdaptivePoller::start);
         } else {
             LOGGER.warn("No social plugin is enabled. No posts will be displayed.");
-            updateScheduler = null;
         }
     }
 
@@ -115,37 +138,81 @@ public final class SocialService {
 
     @PreDestroy
     public void stopUpdateScheduler() {
-        if (updateScheduler != null) {
-            updateScheduler.cancel(true);
-        }
+        pollers.forEach(AdaptivePoller::stop);
+    }
+
+    /**
+     * Registers the metrics of the render cache, Spring Boot calls this for the application's meter registry.
+     */
+    @Override
+    public void bindTo(final @NotNull MeterRegistry registry) {
+        renderCache.bindTo(registry);
     }
 
     private void updatePosts() {
-        final var futures = postsByPlugin.keySet().stream()
-                .map(socialPlugin -> CompletableFuture.runAsync(() -> {
-                    try {
-                        final var posts = socialPlugin.getPosts(hashtags)
-                                .filter(post -> !hiddenPosts.contains(post.id()))
-                                .filter(post -> !blockedProfiles.contains(post.profile()))
-                                .filter(post -> !filterSensitive || !post.isSensitive())
-                                .filter(post -> !filterReplies || !post.isReply())
-                                .filter(post -> filterLength <= 0 || HtmlUtil.extractText(post.html()).length() <= filterLength)
-                                .filter(this::checkWordFilter)
-                                .sorted()
-                                .limit(MAX_POSTS)
-                                .map(this::checkImages)
-                                .toList();
-                        if (!posts.isEmpty()) {
-                            synchronized (postsByPlugin) {
-                                postsByPlugin.put(socialPlugin, List.copyOf(posts));
-                            }
-                        }
-                    } catch (final Exception e) {
-                        LOGGER.error("Unable to load posts from social plugin '{}': {}", socialPlugin, e.getMessage());
-                    }
-                }))
+        final List<Runnable> updates = postsByPlugin.keySet().stream()
+                .<Runnable>map(socialPlugin -> () -> updatePosts(socialPlugin))
                 .toList();
-        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        fetchExecutor.runAll(updates);
+    }
+
+    private @NotNull Result updatePosts(final @NotNull SocialPlugin socialPlugin) {
+        try {
+            final var posts = socialPlugin.getPosts(hashtags)
+                    .filter(post -> !hiddenPosts.contains(post.id()))
+                    .filter(post -> !blockedProfiles.contains(post.profile()))
+                    .filter(post -> !filterSensitive || !post.isSensitive())
+                    .filter(post -> !filterReplies || !post.isReply())
+                    .map(post -> new FilterablePost(post, renderCache.get(post)))
+                    .filter(this::checkLengthFilter)
+                    .filter(this::checkWordFilter)
+                    .map(FilterablePost::post)
+                    .sorted()
+                    .limit(MAX_POSTS)
+                    .map(this::checkImages)
+                    .toList();
+            if (posts.isEmpty()) {
+                return Result.UNCHANGED;
+            }
+            final List<Post> previousPosts;
+            synchronized (postsByPlugin) {
+                previousPosts = postsByPlugin.put(socialPlugin, List.copyOf(posts));
+            }
+            publishChanges();
+            return posts.equals(previousPosts) ? Result.UNCHANGED : Result.CHANGED;
+        } catch (final Exception e) {
+            LOGGER.error("Unable to load posts from social plugin '{}': {}", socialPlugin, e.getMessage());
+            return Result.FAILED;
+        }
+    }
+
+    /**
+     * Registers a listener which is called with the current posts whenever posts were added, removed, edited or reordered.
+     */
+    public void addPostsChangedListener(final @NotNull Consumer<@NotNull List<@NotNull Post>> listener) {
+        postsChangedListeners.add(listener);
+    }
+
+    public void removePostsChangedListener(final @NotNull Consumer<@NotNull List<@NotNull Post>> listener) {
+        postsChangedListeners.remove(listener);
+    }
+
+    private void publishChanges() {
+        final List<Post> posts;
+        synchronized (postsByPlugin) {
+            posts = List.copyOf(getPosts(MAX_VISIBLE_POSTS));
+            if (posts.equals(publishedPosts)) {
+                return;
+            }
+            publishedPosts = posts;
+        }
+        postsChangedListeners.forEach(listener -> {
+            try {
+                listener.accept(posts);
+            } catch (final RuntimeException e) {
+                LOGGER.error("Unable to notify listener about changed posts: {}", e.getMessage(), e);
+            }
+        });
     }
 
     private @NotNull Post checkImages(final @NotNull Post post) {
@@ -159,14 +226,19 @@ public final class SocialService {
         }
     }
 
-    private boolean checkWordFilter(final @NotNull Post post) {
-        final String postText = Jsoup.parse(post.html()).text().toLowerCase(Locale.getDefault());
-        for (final String filterWord : filterWords) {
-            if (postText.contains(filterWord)) {
-                return false;
-            }
-        }
-        return true;
+    private boolean checkLengthFilter(final @NotNull FilterablePost post) {
+        return filterLength <= 0 || post.rendered().text().length() <= filterLength;
+    }
+
+    private boolean checkWordFilter(final @NotNull FilterablePost post) {
+        return !filterWords.containsAny(post.rendered().searchText());
+    }
+
+    /**
+     * Returns the sanitized HTML and the text of a post, rendered only once per post and content.
+     */
+    public @NotNull RenderedPost getRenderedPost(final @NotNull Post post) {
+        return renderCache.get(post);
     }
 
     public @NotNull List<@NotNull Post> getPosts(final int limit) {
@@ -195,6 +267,7 @@ public final class SocialService {
         }
         hiddenPosts.add(postToHide.id());
         saveHiddenPostIds();
+        publishChanges();
     }
 
     public void blockProfile(final @NotNull Post postToHide) {
@@ -212,6 +285,7 @@ public final class SocialService {
         }
         blockedProfiles.add(postToHide.profile());
         saveBlockedProfiles();
+        publishChanges();
     }
 
     private @NotNull Path getConfigDir() {
@@ -269,4 +343,10 @@ public final class SocialService {
             LOGGER.info("No previously saved blocked profiles found.");
         }
     }
+
+    /**
+     * A post together with its text, which is extracted only once for all filters.
+     */
+    private record FilterablePost(@NotNull Post post, @NotNull RenderedPost rendered) { }
+
 }
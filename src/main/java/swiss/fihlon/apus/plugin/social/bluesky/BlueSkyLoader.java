@@ -18,14 +18,23 @@
 package swiss.fihlon.apus.plugin.social.bluesky;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.json.JSONArray;
 
 public interface BlueSkyLoader {
 
-    @NotNull JSONArray getPostsWithHashtag(@NotNull String instance, @NotNull String hashtag, @NotNull String hashtagUrl, int postLimit)
+    /**
+     * Searches posts with a hashtag. If {@code since} is set, only posts since this timestamp (inclusive) are returned.
+     */
+    @NotNull JSONArray getPostsWithHashtag(@NotNull String instance, @NotNull String hashtag, @NotNull String hashtagUrl, int postLimit,
+                                           @Nullable String since)
             throws BlueSkyException;
 
-    @NotNull JSONArray getPostsWithMention(@NotNull String instance, @NotNull String profile, @NotNull String mentionsUrl, int postLimit)
+    /**
+     * Searches posts mentioning a profile. If {@code since} is set, only posts since this timestamp (inclusive) are returned.
+     */
+    @NotNull JSONArray getPostsWithMention(@NotNull String instance, @NotNull String profile, @NotNull String mentionsUrl, int postLimit,
+                                           @Nullable String since)
             throws BlueSkyException;
 
 }
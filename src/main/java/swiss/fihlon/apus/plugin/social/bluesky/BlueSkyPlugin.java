@@ -18,18 +18,28 @@
 package swiss.fihlon.apus.plugin.social.bluesky;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.json.JSONArray;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import swiss.fihlon.apus.configuration.AppConfig;
+import swiss.fihlon.apus.http.FetchExecutor;
+import swiss.fihlon.apus.plugin.social.PostWindow;
 import swiss.fihlon.apus.plugin.social.SocialPlugin;
 import swiss.fihlon.apus.social.Post;
+import swiss.fihlon.apus.social.PostImportException;
 import swiss.fihlon.apus.util.JsonUtil;
 
+import java.time.Duration;
 import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 
 @Service
@@ -43,22 +53,32 @@ public final class BlueSkyPlugin implements SocialPlugin {
                 <path d="M111.8 62.2C170.2 105.9 233 194.7 256 242.4c23-47.6 85.8-136.4 144.2-180.2c42.1-31.6 110.3-56 110.3 21.8c0 15.5-8.9 130.5-14.1 149.2C478.2 298 412 314.6 353.1 304.5c102.9 17.5 129.1 75.5 72.5 133.5c-107.4 110.2-154.3-27.6-166.3-62.9l0 0c-1.7-4.9-2.6-7.8-3.3-7.8s-1.6 3-3.3 7.8l0 0c-12 35.3-59 173.1-166.3 62.9c-56.5-58-30.4-116 72.5-133.5C100 314.6 33.8 298 15.7 233.1C10.4 214.4 1.5 99.4 1.5 83.9c0-77.8 68.2-53.4 110.3-21.8z"/>
             </svg>""";
 
+    private static final int DEFAULT_WINDOW_SIZE = 25;
+    private static final int FULL_REFRESH_INTERVAL = 20;
+    static final @NotNull Duration CURSOR_OVERLAP = Duration.ofMinutes(2);
+
     private final @NotNull BlueSkyLoader blueSkyLoader;
+    private final @NotNull FetchExecutor fetchExecutor;
     private final @NotNull String instance;
     private final @NotNull String hashtagUrl;
     private final @NotNull String mentionsUrl;
     private final @NotNull String profile;
     private final int postLimit;
+    private final @NotNull Map<@NotNull String, @NotNull PostWindow> hashtagWindows = new ConcurrentHashMap<>();
+    private final @NotNull PostWindow mentionWindow;
 
     public BlueSkyPlugin(final @NotNull BlueSkyLoader blueSkyLoader,
-                         final @NotNull AppConfig appConfig) {
+                         final @NotNull AppConfig appConfig,
+                         final @NotNull FetchExecutor fetchExecutor) {
         this.blueSkyLoader = blueSkyLoader;
+        this.fetchExecutor = fetchExecutor;
         final var blueSkyConfig = appConfig.blueSky();
         this.instance = blueSkyConfig.instance();
         this.hashtagUrl = blueSkyConfig.hashtagUrl();
         this.mentionsUrl = blueSkyConfig.mentionsUrl();
         this.profile = blueSkyConfig.profile();
         this.postLimit = blueSkyConfig.postLimit();
+        this.mentionWindow = createWindow();
     }
 
     @Override
@@ -73,59 +93,105 @@ public final class BlueSkyPlugin implements SocialPlugin {
         return instanceOk && hashtagUrlOk;
     }
 
+    /**
+     * Returns the posts of all hashtags and the mentions. A download failing keeps its last posts, only if all
+     * downloads fail a {@link PostImportException} is thrown.
+     */
     @Override
     public @NotNull Stream<@NotNull Post> getPosts(final @NotNull List<@NotNull String> hashtags) {
-        return Stream.concat(
-                        hashtags.parallelStream()
-                                .filter(hashtag -> !hashtag.isBlank())
-                                .flatMap(this::getPostsWithHashtag),
-                        getPostsWithMention()
-                )
+        final var validHashtags = hashtags.stream()
+                .map(hashtag -> hashtag.strip().toLowerCase(Locale.ROOT)) // hashtags are case-insensitive
+                .filter(hashtag -> !hashtag.isBlank())
+                .distinct()
+                .toList();
+        final var loaded = new ArrayList<>(fetchExecutor.fetchAll(getServiceName(), validHashtags, this::loadPostsWithHashtag,
+                hashtag -> false));
+        if (isMentionEnabled()) {
+            loaded.add(fetchExecutor.fetch(getServiceName(), this::loadPostsWithMention, () -> false));
+        }
+        if (!loaded.isEmpty() && !loaded.contains(true)) {
+            throw new PostImportException("Unable to load any posts from BlueSky instance '%s'".formatted(instance));
+        }
+        return Stream.concat(validHashtags.stream().flatMap(hashtag -> getWindow(hashtag).getPosts().stream()),
+                        mentionWindow.getPosts().stream())
                 .distinct();
     }
 
-    private @NotNull Stream<@NotNull Post> getPostsWithHashtag(final @NotNull String hashtag) {
-        try {
-            final var posts = new ArrayList<Post>();
+    private @NotNull PostWindow createWindow() {
+        return new PostWindow(postLimit > 0 ? postLimit : DEFAULT_WINDOW_SIZE, FULL_REFRESH_INTERVAL);
+    }
+
+    private @NotNull PostWindow getWindow(final @NotNull String hashtag) {
+        return hashtagWindows.computeIfAbsent(hashtag, key -> createWindow());
+    }
 
+    private boolean loadPostsWithHashtag(final @NotNull String hashtag) {
+        final var window = getWindow(hashtag);
+        final var since = window.nextCursor();
+        try {
             LOGGER.info("Starting download of posts with hashtag '{}' from instance '{}'", hashtag, instance);
-            final var jsonPosts = blueSkyLoader.getPostsWithHashtag(instance, hashtag, hashtagUrl, postLimit);
+            final var jsonPosts = blueSkyLoader.getPostsWithHashtag(instance, hashtag, hashtagUrl, postLimit, since);
             LOGGER.info("Successfully downloaded {} posts with hashtag '{}' from instance '{}'", jsonPosts.length(), hashtag, instance);
 
-            for (var i = 0; i < jsonPosts.length(); i++) {
-                final var post = jsonPosts.getJSONObject(i);
-                posts.add(createPost(post));
-            }
-
-            return posts.stream();
+            window.update(since, getNewestTimestamp(jsonPosts), createPosts(jsonPosts));
+            return true;
         } catch (final BlueSkyException e) {
             LOGGER.error(e.getMessage(), e);
-            return Stream.of();
+            return false;
         }
     }
 
-    private @NotNull Stream<@NotNull Post> getPostsWithMention() {
-        if (mentionsUrl.isBlank() || profile.isBlank()) {
-            return Stream.of();
-        }
+    private boolean isMentionEnabled() {
+        return !mentionsUrl.isBlank() && !profile.isBlank();
+    }
 
+    private boolean loadPostsWithMention() {
+        final var since = mentionWindow.nextCursor();
         try {
-            final var posts = new ArrayList<Post>();
-
             LOGGER.info("Starting download of posts with mention '{}' from instance '{}'", profile, instance);
-            final var jsonPosts = blueSkyLoader.getPostsWithMention(instance, profile, mentionsUrl, postLimit);
+            final var jsonPosts = blueSkyLoader.getPostsWithMention(instance, profile, mentionsUrl, postLimit, since);
             LOGGER.info("Successfully downloaded {} posts with mention '{}' from instance '{}'", jsonPosts.length(), profile, instance);
 
-            for (var i = 0; i < jsonPosts.length(); i++) {
-                final var post = jsonPosts.getJSONObject(i);
-                posts.add(createPost(post));
-            }
-
-            return posts.stream();
+            mentionWindow.update(since, getNewestTimestamp(jsonPosts), createPosts(jsonPosts));
+            return true;
         } catch (final BlueSkyException e) {
             LOGGER.error(e.getMessage(), e);
-            return Stream.of();
+            return false;
+        }
+    }
+
+    private @NotNull List<@NotNull Post> createPosts(final @NotNull JSONArray jsonPosts) {
+        final var posts = new ArrayList<Post>();
+        for (var i = 0; i < jsonPosts.length(); i++) {
+            final var post = jsonPosts.getJSONObject(i);
+            posts.add(createPost(post));
+        }
+        return posts;
+    }
+
+    /**
+     * <p>Returns the cursor for the next poll: the newest sort time of the posts minus {@link #CURSOR_OVERLAP}.</p>
+     *
+     * <p>The search filters on the sort time, which is the earlier of the creation and the index time. A post created
+     * shortly before a poll may be indexed only after it, so the cursor overlaps the last poll. The posts returned
+     * again are already in the window.</p>
+     */
+    private static @Nullable String getNewestTimestamp(final @NotNull JSONArray jsonPosts) {
+        ZonedDateTime newestDate = null;
+        for (var i = 0; i < jsonPosts.length(); i++) {
+            final var post = jsonPosts.getJSONObject(i);
+            var date = ZonedDateTime.parse(post.getJSONObject("record").getString("createdAt"));
+            if (post.has("indexedAt")) {
+                final var indexedAt = ZonedDateTime.parse(post.getString("indexedAt"));
+                if (indexedAt.isBefore(date)) {
+                    date = indexedAt;
+                }
+            }
+            if (newestDate == null || date.isAfter(newestDate)) {
+                newestDate = date;
+            }
         }
+        return newestDate == null ? null : newestDate.minus(CURSOR_OVERLAP).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
     }
 
     private @NotNull Post createPost(final @NotNull JSONObject post) {
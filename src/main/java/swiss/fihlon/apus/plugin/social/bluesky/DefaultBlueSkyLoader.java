@@ -18,28 +18,44 @@
 package swiss.fihlon.apus.plugin.social.bluesky;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.springframework.stereotype.Service;
-import swiss.fihlon.apus.util.DownloadUtil;
+import swiss.fihlon.apus.http.CachedResource;
+import swiss.fihlon.apus.http.HttpService;
 import swiss.fihlon.apus.util.TemplateUtil;
 
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public final class DefaultBlueSkyLoader implements BlueSkyLoader {
 
+    private final @NotNull HttpService httpService;
+    private final @NotNull Map<@NotNull String, @NotNull CachedResource<JSONArray>> resources = new ConcurrentHashMap<>();
+
+    public DefaultBlueSkyLoader(final @NotNull HttpService httpService) {
+        this.httpService = httpService;
+    }
+
     @Override
     public @NotNull JSONArray getPostsWithHashtag(final @NotNull String instance,
                                                   final @NotNull String hashtag,
                                                   final @NotNull String hashtagUrl,
-                                                  final int limit)
+                                                  final int limit,
+                                                  final @Nullable String since)
             throws BlueSkyException {
         try {
             final var url = TemplateUtil.replaceVariables(
                     hashtagUrl, Map.of("instance", instance, "hashtag", hashtag, "limit", Integer.toString(limit)));
-            final var json = DownloadUtil.getString(url);
-            return new JSONObject(json).getJSONArray("posts");
+            return getPosts(url, since);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BlueSkyException("Loading posts with hashtag '%s' from BlueSky instance '%s' was interrupted".formatted(hashtag, instance), e);
         } catch (final Exception e) {
             throw new BlueSkyException("Unable to load posts with hashtag '%s' from BlueSky instance '%s'".formatted(hashtag, instance), e);
         }
@@ -49,16 +65,32 @@ public final class DefaultBlueSkyLoader implements BlueSkyLoader {
     public @NotNull JSONArray getPostsWithMention(final @NotNull String instance,
                                                   final @NotNull String profile,
                                                   final @NotNull String mentionsUrl,
-                                                  final int limit)
+                                                  final int limit,
+                                                  final @Nullable String since)
             throws BlueSkyException {
         try {
             final var url = TemplateUtil.replaceVariables(
                     mentionsUrl, Map.of("instance", instance, "profile", profile, "limit", Integer.toString(limit)));
-            final var json = DownloadUtil.getString(url);
-            return new JSONObject(json).getJSONArray("posts");
+            return getPosts(url, since);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BlueSkyException("Loading posts with profile '%s' from BlueSky instance '%s' was interrupted".formatted(profile, instance), e);
         } catch (final Exception e) {
             throw new BlueSkyException("Unable to load posts with profile '%s' from BlueSky instance '%s'".formatted(profile, instance), e);
         }
     }
 
+    private @NotNull JSONArray getPosts(final @NotNull String url, final @Nullable String since)
+            throws IOException, InterruptedException {
+        if (since != null) {
+            final var separator = url.contains("?") ? "&" : "?";
+            return parsePosts(httpService.getString(url + separator + "since=" + URLEncoder.encode(since, StandardCharsets.UTF_8)));
+        }
+        return resources.computeIfAbsent(url, key -> new CachedResource<>(httpService, url, DefaultBlueSkyLoader::parsePosts)).get();
+    }
+
+    private static @NotNull JSONArray parsePosts(final @NotNull String json) {
+        return new JSONObject(json).getJSONArray("posts");
+    }
+
 }
@@ -18,47 +18,110 @@
 package swiss.fihlon.apus.plugin.social.mastodon;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.json.JSONArray;
 import org.springframework.stereotype.Service;
-import swiss.fihlon.apus.util.DownloadUtil;
+import swiss.fihlon.apus.http.CachedResource;
+import swiss.fihlon.apus.http.HttpService;
+import swiss.fihlon.apus.http.ServerSentEvent;
 import swiss.fihlon.apus.util.TemplateUtil;
 
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 @Service
 public final class DefaultMastodonLoader implements MastodonLoader {
 
+    private final @NotNull HttpService httpService;
+    private final @NotNull Map<@NotNull String, @NotNull CachedResource<JSONArray>> resources = new ConcurrentHashMap<>();
+
+    public DefaultMastodonLoader(final @NotNull HttpService httpService) {
+        this.httpService = httpService;
+    }
+
     @Override
     public @NotNull JSONArray getPosts(final @NotNull String instance,
                                        final @NotNull String hashtag,
                                        final @NotNull String postAPI,
-                                       final int limit)
+                                       final int limit,
+                                       final @Nullable String sinceId)
             throws MastodonException {
         try {
             final var url = TemplateUtil.replaceVariables(
                     postAPI, Map.of("instance", instance, "hashtag", hashtag, "limit", Integer.toString(limit)));
-            final var json = DownloadUtil.getString(url);
-            return new JSONArray(json);
+            if (sinceId != null) {
+                return new JSONArray(httpService.getString(withSinceId(url, sinceId)));
+            }
+            return resources.computeIfAbsent(url, key -> new CachedResource<>(httpService, url, JSONArray::new)).get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MastodonException("Loading posts with hashtag '%s' from Mastodon instance '%s' was interrupted".formatted(hashtag, instance), e);
         } catch (final Exception e) {
             throw new MastodonException("Unable to load posts with hashtag '%s' from Mastodon instance '%s'".formatted(hashtag, instance), e);
         }
     }
 
     @Override
-    @SuppressWarnings("java:S2142")
     public @NotNull JSONArray getNotifications(final @NotNull String instance,
                                                final @NotNull String notificationAPI,
                                                final @NotNull String accessToken,
-                                               final int limit)
+                                               final int limit,
+                                               final @Nullable String sinceId)
             throws MastodonException {
         try {
             final var url = TemplateUtil.replaceVariables(
                     notificationAPI, Map.of("instance", instance, "limit", Integer.toString(limit)));
-            final var json = DownloadUtil.getString(url, accessToken);
-            return new JSONArray(json);
+            if (sinceId != null) {
+                return new JSONArray(httpService.getString(withSinceId(url, sinceId), accessToken));
+            }
+            return resources.computeIfAbsent(url, key -> new CachedResource<>(httpService, url, accessToken, JSONArray::new)).get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MastodonException("Loading notifications from Mastodon instance '%s' was interrupted".formatted(instance), e);
         } catch (final Exception e) {
             throw new MastodonException("Unable to load notifications from Mastodon instance '%s'".formatted(instance), e);
         }
     }
 
+    @Override
+    public void streamHashtag(final @NotNull String instance,
+                              final @NotNull String streamingAPI,
+                              final @NotNull String hashtag,
+                              final @Nullable String accessToken,
+                              final @NotNull Runnable onOpen,
+                              final @NotNull Consumer<@NotNull ServerSentEvent> onEvent)
+            throws MastodonException, InterruptedException {
+        final var url = TemplateUtil.replaceVariables(streamingAPI, Map.of("instance", instance))
+                + "/hashtag?tag=" + URLEncoder.encode(hashtag, StandardCharsets.UTF_8);
+        try {
+            httpService.stream(url, accessToken, onOpen, onEvent);
+        } catch (final IOException e) {
+            throw new MastodonException("Unable to stream posts with hashtag '%s' from Mastodon instance '%s'".formatted(hashtag, instance), e);
+        }
+    }
+
+    @Override
+    public void streamNotifications(final @NotNull String instance,
+                                    final @NotNull String streamingAPI,
+                                    final @NotNull String accessToken,
+                                    final @NotNull Runnable onOpen,
+                                    final @NotNull Consumer<@NotNull ServerSentEvent> onEvent)
+            throws MastodonException, InterruptedException {
+        final var url = TemplateUtil.replaceVariables(streamingAPI, Map.of("instance", instance)) + "/user/notification";
+        try {
+            httpService.stream(url, accessToken, onOpen, onEvent);
+        } catch (final IOException e) {
+            throw new MastodonException("Unable to stream notifications from Mastodon instance '%s'".formatted(instance), e);
+        }
+    }
+
+    private static @NotNull String withSinceId(final @NotNull String url, final @NotNull String sinceId) {
+        final var separator = url.contains("?") ? "&" : "?";
+        return url + separator + "since_id=" + URLEncoder.encode(sinceId, StandardCharsets.UTF_8);
+    }
+
 }
@@ -18,16 +18,40 @@
 package swiss.fihlon.apus.plugin.social.mastodon;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.json.JSONArray;
+import swiss.fihlon.apus.http.ServerSentEvent;
+
+import java.util.function.Consumer;
 
 public interface MastodonLoader {
 
-    @NotNull JSONArray getPosts(@NotNull String instance, @NotNull String hashtag, @NotNull String postAPI, int postLimit)
+    /**
+     * Loads the posts with a hashtag, newest first. If {@code sinceId} is set, only posts newer than this ID are returned.
+     */
+    @NotNull JSONArray getPosts(@NotNull String instance, @NotNull String hashtag, @NotNull String postAPI, int postLimit,
+                                @Nullable String sinceId)
             throws MastodonException;
 
-    @NotNull JSONArray getNotifications(@NotNull String instance, @NotNull String notificationAPI, @NotNull String accessToken, int postLimit)
+    /**
+     * Loads the notifications, newest first. If {@code sinceId} is set, only notifications newer than this ID are returned.
+     */
+    @NotNull JSONArray getNotifications(@NotNull String instance, @NotNull String notificationAPI, @NotNull String accessToken, int postLimit,
+                                        @Nullable String sinceId)
             throws MastodonException;
 
+    /**
+     * Connects to the streaming API for posts with a hashtag and blocks until the connection is closed.
+     */
+    void streamHashtag(@NotNull String instance, @NotNull String streamingAPI, @NotNull String hashtag, @Nullable String accessToken,
+                       @NotNull Runnable onOpen, @NotNull Consumer<@NotNull ServerSentEvent> onEvent)
+            throws MastodonException, InterruptedException;
 
+    /**
+     * Connects to the streaming API for notifications and blocks until the connection is closed.
+     */
+    void streamNotifications(@NotNull String instance, @NotNull String streamingAPI, @NotNull String accessToken,
+                             @NotNull Runnable onOpen, @NotNull Consumer<@NotNull ServerSentEvent> onEvent)
+            throws MastodonException, InterruptedException;
 
 }
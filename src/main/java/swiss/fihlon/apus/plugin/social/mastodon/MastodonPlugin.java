@@ -17,19 +17,28 @@
  */
 package swiss.fihlon.apus.plugin.social.mastodon;
 
+import jakarta.annotation.PreDestroy;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import swiss.fihlon.apus.configuration.AppConfig;
+import swiss.fihlon.apus.http.FetchExecutor;
+import swiss.fihlon.apus.http.ServerSentEvent;
+import swiss.fihlon.apus.plugin.social.PostWindow;
 import swiss.fihlon.apus.plugin.social.SocialPlugin;
 import swiss.fihlon.apus.social.Post;
+import swiss.fihlon.apus.social.PostImportException;
 
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 
 @Service
@@ -43,22 +52,47 @@ public final class MastodonPlugin implements SocialPlugin {
                 <path d="M433 179.1c0-97.2-63.7-125.7-63.7-125.7-62.5-28.7-228.6-28.4-290.5 0 0 0-63.7 28.5-63.7 125.7 0 115.7-6.6 259.4 105.6 289.1 40.5 10.7 75.3 13 103.3 11.4 50.8-2.8 79.3-18.1 79.3-18.1l-1.7-36.9s-36.3 11.4-77.1 10.1c-40.4-1.4-83-4.4-89.6-54a102.5 102.5 0 0 1 -.9-13.9c85.6 20.9 158.7 9.1 178.8 6.7 56.1-6.7 105-41.3 111.2-72.9 9.8-49.8 9-121.5 9-121.5zm-75.1 125.2h-46.6v-114.2c0-49.7-64-51.6-64 6.9v62.5h-46.3V197c0-58.5-64-56.6-64-6.9v114.2H90.2c0-122.1-5.2-147.9 18.4-175 25.9-28.9 79.8-30.8 103.8 6.1l11.6 19.5 11.6-19.5c24.1-37.1 78.1-34.8 103.8-6.1 23.7 27.3 18.4 53 18.4 175z"/>
             </svg>""";
 
+    private static final int DEFAULT_WINDOW_SIZE = 40;
+    private static final int FULL_REFRESH_INTERVAL = 20;
+
     private final @NotNull MastodonLoader mastodonLoader;
+    private final @NotNull FetchExecutor fetchExecutor;
     private final @NotNull String instance;
     private final @NotNull String postAPI;
     private final @NotNull String notificationAPI;
     private final @NotNull String accessToken;
     private final int limit;
+    private final @NotNull String streamingAPI;
+    private final @NotNull Map<@NotNull String, @NotNull PostWindow> hashtagWindows = new ConcurrentHashMap<>();
+    private final @NotNull PostWindow notificationWindow;
+    private final @NotNull Map<@NotNull String, @NotNull MastodonStream> hashtagStreams = new ConcurrentHashMap<>();
+    private @Nullable MastodonStream notificationStream;
+    private volatile @NotNull Runnable postsChangedListener = () -> { };
+    private volatile @NotNull Runnable streamDisconnectedListener = () -> { };
 
     public MastodonPlugin(final @NotNull MastodonLoader mastodonLoader,
-                          final @NotNull AppConfig appConfig) {
+                          final @NotNull AppConfig appConfig,
+                          final @NotNull FetchExecutor fetchExecutor) {
         this.mastodonLoader = mastodonLoader;
+        this.fetchExecutor = fetchExecutor;
         final var mastodonConfig = appConfig.mastodon();
         this.instance = mastodonConfig.instance();
         this.postAPI = mastodonConfig.postAPI();
         this.notificationAPI = mastodonConfig.notificationAPI();
         this.accessToken = mastodonConfig.accessToken();
         this.limit = mastodonConfig.limit();
+        this.streamingAPI = mastodonConfig.streamingAPI();
+        this.notificationWindow = createWindow();
+    }
+
+    @PreDestroy
+    public synchronized void stopStreams() {
+        hashtagStreams.values().forEach(MastodonStream::stop);
+        hashtagStreams.clear();
+        if (notificationStream != null) {
+            notificationStream.stop();
+            notificationStream = null;
+        }
     }
 
     @Override
@@ -73,21 +107,57 @@ public final class MastodonPlugin implements SocialPlugin {
         return instanceOk && postAPIOk;
     }
 
+    /**
+     * Returns the posts of all hashtags and the notifications. A download failing keeps its last posts, only if all
+     * downloads fail a {@link PostImportException} is thrown.
+     */
     @Override
     public @NotNull Stream<@NotNull Post> getPosts(final @NotNull List<@NotNull String> hashtags) {
-        return Stream.concat(
-                        hashtags.parallelStream()
-                                .filter(hashtag -> !hashtag.isBlank())
-                                .flatMap(this::getPosts),
-                        getNotifications()
-                )
+        final var validHashtags = hashtags.stream()
+                .map(hashtag -> hashtag.strip().toLowerCase(Locale.ROOT)) // hashtags are case-insensitive
+                .filter(hashtag -> !hashtag.isBlank())
+                .distinct()
+                .toList();
+        final var loaded = new ArrayList<>(fetchExecutor.fetchAll(getServiceName(), validHashtags, this::loadPosts, hashtag -> false));
+        if (isNotificationEnabled()) {
+            loaded.add(fetchExecutor.fetch(getServiceName(), this::loadNotifications, () -> false));
+        }
+        if (!loaded.isEmpty() && !loaded.contains(true)) {
+            throw new PostImportException("Unable to load any posts from Mastodon instance '%s'".formatted(instance));
+        }
+        return Stream.concat(validHashtags.stream().flatMap(hashtag -> getWindow(hashtag).getPosts().stream()),
+                        notificationWindow.getPosts().stream())
                 .distinct();
     }
 
-    private @NotNull Stream<@NotNull Post> getPosts(final @NotNull String hashtag) {
+    @Override
+    public void setPostsChangedListener(final @NotNull Runnable listener) {
+        this.postsChangedListener = listener;
+    }
+
+    @Override
+    public void setStreamDisconnectedListener(final @NotNull Runnable listener) {
+        this.streamDisconnectedListener = listener;
+    }
+
+    private @NotNull PostWindow createWindow() {
+        return new PostWindow(limit > 0 ? limit : DEFAULT_WINDOW_SIZE, FULL_REFRESH_INTERVAL);
+    }
+
+    private @NotNull PostWindow getWindow(final @NotNull String hashtag) {
+        return hashtagWindows.computeIfAbsent(hashtag, key -> createWindow());
+    }
+
+    private boolean loadPosts(final @NotNull String hashtag) {
+        final var window = getWindow(hashtag);
+        final var stream = getHashtagStream(hashtag, window);
+        final var sinceId = window.nextCursor();
+        if (stream != null && sinceId != null && !stream.needsPolling()) {
+            return true;
+        }
         try {
             LOGGER.info("Starting download of posts with hashtag '{}' from instance '{}'", hashtag, instance);
-            final var jsonPosts = mastodonLoader.getPosts(instance, hashtag, postAPI, limit);
+            final var jsonPosts = mastodonLoader.getPosts(instance, hashtag, postAPI, limit, sinceId);
             LOGGER.info("Successfully downloaded {} posts with hashtag '{}' from instance '{}'", jsonPosts.length(), hashtag, instance);
 
             final var posts = new ArrayList<Post>();
@@ -95,21 +165,27 @@ public final class MastodonPlugin implements SocialPlugin {
                 final var post = jsonPosts.getJSONObject(i);
                 posts.add(createPost(post));
             }
-            return posts.stream();
+            window.update(sinceId, getNewestId(jsonPosts), posts);
+            return true;
         } catch (final MastodonException e) {
             LOGGER.error(e.getMessage(), e);
-            return Stream.of();
+            return false;
         }
     }
 
-    private @NotNull Stream<@NotNull Post> getNotifications() {
-        if (notificationAPI.isBlank() || accessToken.isBlank()) {
-            return Stream.of();
-        }
+    private boolean isNotificationEnabled() {
+        return !notificationAPI.isBlank() && !accessToken.isBlank();
+    }
 
+    private boolean loadNotifications() {
+        final var stream = getNotificationStream();
+        final var sinceId = notificationWindow.nextCursor();
+        if (stream != null && sinceId != null && !stream.needsPolling()) {
+            return true;
+        }
         try {
             LOGGER.info("Starting download of notifications from instance '{}'", instance);
-            final var notifications = mastodonLoader.getNotifications(instance, notificationAPI, accessToken, limit);
+            final var notifications = mastodonLoader.getNotifications(instance, notificationAPI, accessToken, limit, sinceId);
             LOGGER.info("Successfully downloaded {} notifications from instance '{}'", notifications.length(), instance);
 
             final var posts = new ArrayList<Post>();
@@ -120,13 +196,90 @@ public final class MastodonPlugin implements SocialPlugin {
                     posts.add(createPost(status));
                 }
             }
-            return posts.stream();
+            notificationWindow.update(sinceId, getNewestId(notifications), posts);
+            return true;
         } catch (final MastodonException e) {
             LOGGER.error(e.getMessage(), e);
-            return Stream.of();
+            return false;
+        }
+    }
+
+    private @Nullable MastodonStream getHashtagStream(final @NotNull String hashtag, final @NotNull PostWindow window) {
+        if (streamingAPI.isBlank()) {
+            return null;
+        }
+        return hashtagStreams.computeIfAbsent(hashtag, key -> {
+            final var token = accessToken.isBlank() ? null : accessToken;
+            final var stream = new MastodonStream("#" + hashtag,
+                    (onOpen, onEvent) -> mastodonLoader.streamHashtag(instance, streamingAPI, hashtag, token, onOpen, onEvent),
+                    event -> handleStatusEvent(window, event),
+                    () -> streamDisconnectedListener.run());
+            stream.start();
+            return stream;
+        });
+    }
+
+    private synchronized @Nullable MastodonStream getNotificationStream() {
+        if (streamingAPI.isBlank()) {
+            return null;
+        }
+        if (notificationStream == null) {
+            notificationStream = new MastodonStream("notifications",
+                    (onOpen, onEvent) -> mastodonLoader.streamNotifications(instance, streamingAPI, accessToken, onOpen, onEvent),
+                    this::handleNotificationEvent,
+                    () -> streamDisconnectedListener.run());
+            notificationStream.start();
+        }
+        return notificationStream;
+    }
+
+    private void handleStatusEvent(final @NotNull PostWindow window, final @NotNull ServerSentEvent event) {
+        final var changed = switch (event.event()) {
+            case "update" -> {
+                final var status = new JSONObject(event.data());
+                window.add(createPost(status), status.getString("id"));
+                yield true;
+            }
+            case "status.update" -> {
+                window.add(createPost(new JSONObject(event.data())), null);
+                yield true;
+            }
+            case "delete" -> removePost(event.data());
+            default -> false;
+        };
+        if (changed) {
+            postsChangedListener.run();
         }
     }
 
+    private void handleNotificationEvent(final @NotNull ServerSentEvent event) {
+        if (!event.event().equals("notification")) {
+            return;
+        }
+        final var notification = new JSONObject(event.data());
+        if (!notification.getString("type").equals("mention")) {
+            return;
+        }
+        final var status = notification.getJSONObject("status");
+        if (status.getString("visibility").equals("public")) {
+            notificationWindow.add(createPost(status), notification.getString("id"));
+            postsChangedListener.run();
+        }
+    }
+
+    private boolean removePost(final @NotNull String id) {
+        var removed = notificationWindow.remove(id);
+        for (final var window : hashtagWindows.values()) {
+            removed |= window.remove(id);
+        }
+        return removed;
+    }
+
+    private static @Nullable String getNewestId(final @NotNull JSONArray items) {
+        // Mastodon returns the newest items first
+        return items.isEmpty() ? null : items.getJSONObject(0).getString("id");
+    }
+
     private @NotNull Post createPost(final @NotNull JSONObject post) {
         final var id = post.getString("id");
         final var date = ZonedDateTime.parse(post.getString("created_at"));
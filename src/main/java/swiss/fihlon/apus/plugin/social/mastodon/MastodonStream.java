@@ -0,0 +1,142 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.plugin.social.mastodon;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import swiss.fihlon.apus.http.ServerSentEvent;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * <p>Keeps a connection to the Mastodon streaming API open on a virtual thread.</p>
+ *
+ * <p>When the connection is lost, the stream reconnects with an exponential backoff. As long as the
+ * stream is not connected, or was just (re)connected and missed posts in the meantime, the plugin
+ * has to poll (see {@link #needsPolling()}). Losing an open connection is reported to the disconnect listener, so
+ * the plugin can be polled right away instead of after the long interval it had while the stream was connected.</p>
+ */
+final class MastodonStream {
+
+    private static final @NotNull Logger LOGGER = LoggerFactory.getLogger(MastodonStream.class);
+    private static final @NotNull Duration INITIAL_BACKOFF = Duration.ofSeconds(1);
+    private static final @NotNull Duration MAX_BACKOFF = Duration.ofSeconds(60);
+
+    @FunctionalInterface
+    interface Connection {
+        void open(@NotNull Runnable onOpen, @NotNull Consumer<@NotNull ServerSentEvent> onEvent)
+                throws MastodonException, InterruptedException;
+    }
+
+    private final @NotNull String name;
+    private final @NotNull Connection connection;
+    private final @NotNull Consumer<@NotNull ServerSentEvent> onEvent;
+    private final @NotNull Runnable onDisconnect;
+    private final @NotNull AtomicBoolean catchUpPending = new AtomicBoolean(false);
+
+    private volatile boolean connected;
+    private volatile @NotNull Duration backoff = INITIAL_BACKOFF;
+    private @Nullable Thread thread;
+
+    MastodonStream(final @NotNull String name,
+                   final @NotNull Connection connection,
+                   final @NotNull Consumer<@NotNull ServerSentEvent> onEvent,
+                   final @NotNull Runnable onDisconnect) {
+        this.name = name;
+        this.connection = connection;
+        this.onEvent = onEvent;
+        this.onDisconnect = onDisconnect;
+    }
+
+    synchronized void start() {
+        if (thread == null) {
+            thread = Thread.ofVirtual().name("mastodon-stream-" + name).start(this::run);
+        }
+    }
+
+    synchronized void stop() {
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    /**
+     * Returns {@code true} if the stream is not connected or if one catch-up poll is needed after a (re)connect.
+     */
+    boolean needsPolling() {
+        return !connected || catchUpPending.getAndSet(false);
+    }
+
+    @SuppressWarnings("java:S2142") // InterruptedException is caught and stops the stream
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            boolean wasConnected;
+            try {
+                connection.open(this::opened, this::dispatch);
+                LOGGER.info("Mastodon stream '{}' was closed by the server", name);
+            } catch (final MastodonException e) {
+                LOGGER.warn("Mastodon stream '{}' failed, reconnecting in {}: {}", name, backoff, e.getMessage());
+            } catch (final InterruptedException e) {
+                LOGGER.info("Mastodon stream '{}' stopped", name);
+                return;
+            } finally {
+                wasConnected = connected;
+                connected = false;
+            }
+            if (wasConnected) {
+                disconnected();
+            }
+            try {
+                Thread.sleep(backoff);
+            } catch (final InterruptedException e) {
+                LOGGER.info("Mastodon stream '{}' stopped", name);
+                return;
+            }
+            backoff = backoff.multipliedBy(2).compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : backoff.multipliedBy(2);
+        }
+    }
+
+    private void opened() {
+        LOGGER.info("Mastodon stream '{}' connected", name);
+        backoff = INITIAL_BACKOFF;
+        catchUpPending.set(true);
+        connected = true;
+    }
+
+    private void disconnected() {
+        try {
+            onDisconnect.run();
+        } catch (final RuntimeException e) {
+            LOGGER.warn("Unable to handle the disconnect of Mastodon stream '{}': {}", name, e.getMessage());
+        }
+    }
+
+    private void dispatch(final @NotNull ServerSentEvent event) {
+        try {
+            onEvent.accept(event);
+        } catch (final RuntimeException e) {
+            LOGGER.warn("Unable to handle event '{}' of Mastodon stream '{}': {}", event.event(), name, e.getMessage());
+        }
+    }
+
+}
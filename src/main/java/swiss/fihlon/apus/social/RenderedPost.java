@@ -0,0 +1,29 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.social;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The derived representations of a post which are expensive to compute.
+ *
+ * @param html the sanitized HTML, safe to be displayed
+ * @param text the plain text extracted from the HTML
+ * @param searchText the lowercased plain text, used for word filters
+ */
+public record RenderedPost(@NotNull String html, @NotNull String text, @NotNull String searchText) { }
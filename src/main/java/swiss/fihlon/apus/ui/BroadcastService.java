@@ -0,0 +1,85 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.ui;
+
+import jakarta.annotation.PreDestroy;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import swiss.fihlon.apus.plugin.event.AgendaFrame;
+import swiss.fihlon.apus.plugin.event.EventService;
+import swiss.fihlon.apus.plugin.social.SocialService;
+import swiss.fihlon.apus.social.Post;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.Consumer;
+
+/**
+ * Refreshes all open UIs: every data source has one timer or listener, no matter how many UIs are open.
+ */
+@Service
+public final class BroadcastService {
+
+    private static final @NotNull Duration POSTS_UPDATE_FREQUENCY = Duration.ofSeconds(30);
+
+    private final @NotNull EventService eventService;
+    private final @NotNull SocialService socialService;
+    private final @NotNull Broadcaster<@NotNull AgendaFrame> agenda = new Broadcaster<>("agenda");
+    private final @NotNull Broadcaster<@NotNull List<@NotNull Post>> posts = new Broadcaster<>("posts");
+    private final @NotNull Consumer<@NotNull AgendaFrame> agendaListener = agenda::broadcast;
+    private final @NotNull Consumer<@NotNull List<@NotNull Post>> postsChangedListener = posts::broadcast;
+    private final @NotNull ScheduledFuture<?> postsTimer;
+
+    public BroadcastService(final @NotNull TaskScheduler taskScheduler,
+                            final @NotNull EventService eventService,
+                            final @NotNull SocialService socialService) {
+        this.eventService = eventService;
+        this.socialService = socialService;
+        // the agenda is already published once per minute by the event service
+        eventService.addAgendaListener(agendaListener);
+        socialService.addPostsChangedListener(postsChangedListener);
+        // the relative dates of the posts have to be refreshed even if no post changed
+        postsTimer = taskScheduler.scheduleAtFixedRate(() -> posts.broadcast(socialService.getPosts(SocialService.MAX_VISIBLE_POSTS)),
+                Instant.now().plus(POSTS_UPDATE_FREQUENCY), POSTS_UPDATE_FREQUENCY);
+    }
+
+    @PreDestroy
+    public void stopUpdateScheduler() {
+        postsTimer.cancel(true);
+        eventService.removeAgendaListener(agendaListener);
+        socialService.removePostsChangedListener(postsChangedListener);
+    }
+
+    /**
+     * Returns the broadcaster of the agenda, which is updated once per minute.
+     */
+    public @NotNull Broadcaster<@NotNull AgendaFrame> agenda() {
+        return agenda;
+    }
+
+    /**
+     * Returns the broadcaster of the posts, which are sent on every change and at least every 30 seconds.
+     */
+    public @NotNull Broadcaster<@NotNull List<@NotNull Post>> posts() {
+        return posts;
+    }
+
+}
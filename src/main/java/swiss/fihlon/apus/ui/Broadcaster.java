@@ -0,0 +1,124 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.ui;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * <p>Delivers the messages of one data source to all subscribed components, each in the context of its UI.</p>
+ *
+ * <p>Messages are handed over with a non-blocking {@link UI#access}, so no thread waits for a browser. A UI has at
+ * most one delivery waiting: if it is still busy when the next message arrives, the waiting message is replaced by
+ * the newer one, so a UI which stalls for a while gets the latest state when it recovers. Messages therefore have to
+ * contain the complete state. Subscribers of closed or detached UIs are removed automatically.</p>
+ *
+ * @param <T> the type of the messages
+ */
+public final class Broadcaster<T> {
+
+    private static final @NotNull Logger LOGGER = LoggerFactory.getLogger(Broadcaster.class);
+
+    private final @NotNull String name;
+    private final @NotNull Map<@NotNull Object, @NotNull Subscriber> subscribers = new ConcurrentHashMap<>();
+
+    public Broadcaster(final @NotNull String name) {
+        this.name = name;
+    }
+
+    /**
+     * Delivers the messages to the component while it is attached to a UI.
+     */
+    public void subscribe(final @NotNull Component component, final @NotNull Consumer<T> listener) {
+        component.addAttachListener(event -> register(event.getUI(), component, listener));
+        component.addDetachListener(event -> unregister(component));
+        component.getUI().ifPresent(ui -> register(ui, component, listener));
+    }
+
+    void register(final @NotNull UI ui, final @NotNull Object owner, final @NotNull Consumer<T> listener) {
+        subscribers.put(owner, new Subscriber(owner, ui, listener));
+    }
+
+    void unregister(final @NotNull Object owner) {
+        subscribers.remove(owner);
+    }
+
+    int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Delivers the message to all subscribers without waiting for them.
+     */
+    public void broadcast(final @NotNull T message) {
+        subscribers.values().forEach(subscriber -> subscriber.deliver(message));
+    }
+
+    private final class Subscriber {
+
+        private final @NotNull Object owner;
+        private final @NotNull UI ui;
+        private final @NotNull Consumer<T> listener;
+        private final @NotNull AtomicReference<T> pendingMessage = new AtomicReference<>();
+
+        private Subscriber(final @NotNull Object owner, final @NotNull UI ui, final @NotNull Consumer<T> listener) {
+            this.owner = owner;
+            this.ui = ui;
+            this.listener = listener;
+        }
+
+        private void deliver(final @NotNull T message) {
+            if (ui.isClosing()) {
+                remove("closed");
+                return;
+            }
+            if (pendingMessage.getAndSet(message) != null) {
+                // the UI did not process the previous message yet, it will get the newer one instead
+                return;
+            }
+            try {
+                ui.access(this::process);
+            } catch (final UIDetachedException e) {
+                remove("detached");
+            }
+        }
+
+        private void process() {
+            final var message = pendingMessage.getAndSet(null);
+            if (message != null) {
+                listener.accept(message);
+            }
+        }
+
+        private void remove(final @NotNull String reason) {
+            if (subscribers.remove(owner, this)) {
+                LOGGER.debug("Removed subscriber of {} for {} UI {}", name, reason, ui.getUIId());
+            }
+        }
+    }
+
+}
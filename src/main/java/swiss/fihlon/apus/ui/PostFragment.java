@@ -0,0 +1,35 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.ui;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * The pre-rendered parts of a post for the lightweight post rendering mode, every part has exactly one root element.
+ *
+ * @param header the header with avatar, author and profile
+ * @param content the sanitized content
+ * @param images one image element per image of the post
+ * @param sourceLogo the logo of the social network the post was published on
+ */
+public record PostFragment(@NotNull String header,
+                           @NotNull String content,
+                           @NotNull List<@NotNull String> images,
+                           @NotNull String sourceLogo) { }
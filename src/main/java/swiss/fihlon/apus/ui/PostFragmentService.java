@@ -0,0 +1,88 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.ui;
+
+import org.jetbrains.annotations.NotNull;
+import org.jsoup.nodes.Document;
+import org.springframework.stereotype.Service;
+import swiss.fihlon.apus.plugin.social.SocialService;
+import swiss.fihlon.apus.social.Post;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>Renders posts into HTML fragments for the lightweight post rendering mode.</p>
+ *
+ * <p>The fragments contain everything of a post except its relative date, with the same elements and classes as the
+ * components of a {@link swiss.fihlon.apus.ui.view.PostView}. They are rendered once per post and shared by all UIs,
+ * which then only keep a few elements per post instead of a tree of components. The content of the post is
+ * sanitized, all other values are escaped. The fragments are cached by post ID and content, so an edited post is
+ * rendered again. When the cache is full, the least recently used post is evicted.</p>
+ */
+@Service
+public final class PostFragmentService {
+
+    private static final int CACHE_SIZE = 500;
+
+    private final @NotNull SocialService socialService;
+    private final @NotNull Map<@NotNull Key, @NotNull PostFragment> fragments = new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final @NotNull Map.Entry<Key, PostFragment> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    public PostFragmentService(final @NotNull SocialService socialService) {
+        this.socialService = socialService;
+    }
+
+    /**
+     * Returns the HTML fragments of the post from the cache or renders and caches them.
+     */
+    public @NotNull PostFragment getFragment(final @NotNull Post post) {
+        synchronized (fragments) {
+            return fragments.computeIfAbsent(new Key(post.id(), post.html()), key -> render(post));
+        }
+    }
+
+    private @NotNull PostFragment render(final @NotNull Post post) {
+        final var document = new Document("");
+        document.outputSettings().prettyPrint(false);
+
+        final var header = document.appendElement("header").addClass("header");
+        header.appendElement("vaadin-avatar").addClass("avatar")
+                .attr("name", post.author())
+                .attr("img", post.avatar());
+        final var authorContainer = header.appendElement("div").addClass("author-container");
+        authorContainer.appendElement("div").addClass("author").text(post.author());
+        authorContainer.appendElement("div").addClass("profile").text(post.profile());
+
+        final var content = document.appendElement("div").addClass("content")
+                .append(socialService.getRenderedPost(post).html());
+        final var images = post.images().stream()
+                .map(image -> document.appendElement("img").attr("src", image).attr("alt", image).outerHtml())
+                .toList();
+        final var sourceLogo = document.appendElement("div").addClass("source-logo").append(post.sourceLogo());
+
+        return new PostFragment(header.outerHtml(), content.outerHtml(), images, sourceLogo.outerHtml());
+    }
+
+    private record Key(@NotNull String id, @NotNull String html) { }
+
+}
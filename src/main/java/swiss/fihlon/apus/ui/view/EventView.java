@@ -25,47 +25,34 @@ import com.vaadin.flow.component.html.Image;
 import com.vaadin.flow.component.html.Span;
 import com.vaadin.flow.component.notification.Notification;
 import org.jetbrains.annotations.NotNull;
-import org.springframework.scheduling.TaskScheduler;
 import swiss.fihlon.apus.configuration.AppConfig;
 import swiss.fihlon.apus.event.Room;
-import swiss.fihlon.apus.event.RoomStyle;
-import swiss.fihlon.apus.event.Session;
+import swiss.fihlon.apus.plugin.event.AgendaFrame;
+import swiss.fihlon.apus.plugin.event.AgendaFrame.LegendItem;
 import swiss.fihlon.apus.plugin.event.EventService;
-import swiss.fihlon.apus.util.VaadinUtil;
+import swiss.fihlon.apus.plugin.event.RoomAgenda;
+import swiss.fihlon.apus.ui.BroadcastService;
 
-import java.time.Duration;
-import java.time.Instant;
-import java.time.LocalDate;
-import java.time.ZoneId;
-import java.time.ZonedDateTime;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.ScheduledFuture;
+import java.util.stream.Collectors;
 
 @CssImport(value = "./themes/apus/views/event-view.css")
 public final class EventView extends Div {
 
     public static final @NotNull String LABEL_THEME = "badge";
-    private static final @NotNull Duration UPDATE_FREQUENCY = Duration.ofMinutes(1);
 
-    private final transient @NotNull EventService eventService;
-    private final @NotNull Duration nextSessionTimeout;
     private final boolean showLegend;
-    private final boolean showEmptyRooms;
     private final @NotNull Div roomContainer = new Div();
     private final @NotNull Span legend = new Span();
-    private final @NotNull ZoneId timezone;
+    private final @NotNull Map<@NotNull Room, @NotNull RoomView> roomViews = new HashMap<>();
+    private transient @NotNull List<@NotNull LegendItem> legendItemsShown = List.of();
 
     public EventView(final @NotNull EventService eventService,
-                     final @NotNull TaskScheduler taskScheduler,
+                     final @NotNull BroadcastService broadcastService,
                      final @NotNull AppConfig appConfig) {
-        this.eventService = eventService;
-        this.timezone = appConfig.timezone();
-        this.nextSessionTimeout = Duration.ofMinutes(appConfig.event().nextSessionTimeout());
         this.showLegend = appConfig.event().showLegend();
-        this.showEmptyRooms = appConfig.event().showEmptyRooms();
         setId("event-view");
         add(createTitle());
         if (showLegend) {
@@ -73,34 +60,53 @@ public final class EventView extends Div {
         }
         add(roomContainer);
         roomContainer.addClassName("room-container");
-        final ScheduledFuture<?> updateScheduler = taskScheduler.scheduleAtFixedRate(
-                () -> getUI().ifPresent(ui -> VaadinUtil.updateUI(ui, this::updateConferenceSessions)),
-                Instant.now().plusSeconds(1), UPDATE_FREQUENCY);
-        addDetachListener(event -> updateScheduler.cancel(true));
 
         final var imageUrl = appConfig.event().image();
         if (!imageUrl.isBlank()) {
             add(createImage(imageUrl));
         }
+
+        // the agenda is computed once per minute by the event service and shared by all views
+        broadcastService.agenda().subscribe(this, this::showAgenda);
+        showAgenda(eventService.getAgendaFrame());
     }
 
-    private void updateConferenceSessions() {
-        roomContainer.removeAll();
-        final var roomsWithSessions = eventService.getRoomsWithSessions().entrySet();
-        if (roomsWithSessions.isEmpty()) {
+    /**
+     * Shows the agenda with as few changes to the DOM as possible: the view of a room lives as long as the room
+     * is shown, it only updates its changed parts and is only moved if its position changed.
+     */
+    private void showAgenda(final @NotNull AgendaFrame frame) {
+        if (frame.scheduleEmpty()) {
             Notification.show(getTranslation("event.error.nosessions"));
         }
-        final var roomStylesInUse = new HashSet<RoomStyle>();
-        for (final Map.Entry<Room, List<Session>> roomWithSessions : roomsWithSessions) {
-            final RoomView roomView = createRoomView(roomWithSessions);
-            if (!showEmptyRooms && RoomStyle.EMPTY.equals(roomView.getRoomStyle())) {
-                continue; // don't show empty rooms when configured to do so
+        final var visibleRooms = frame.rooms().stream()
+                .map(RoomAgenda::room)
+                .collect(Collectors.toSet());
+        roomViews.entrySet().removeIf(entry -> {
+            final var removed = !visibleRooms.contains(entry.getKey());
+            if (removed) {
+                entry.getValue().removeFromParent();
+            }
+            return removed;
+        });
+
+        final var element = roomContainer.getElement();
+        for (int index = 0; index < frame.rooms().size(); index++) {
+            final var roomAgenda = frame.rooms().get(index);
+            var roomView = roomViews.get(roomAgenda.room());
+            if (roomView == null) {
+                roomView = new RoomView(roomAgenda);
+                roomViews.put(roomAgenda.room(), roomView);
+            } else {
+                roomView.update(roomAgenda);
+            }
+            if (index >= element.getChildCount() || !element.getChild(index).equals(roomView.getElement())) {
+                roomContainer.addComponentAtIndex(index, roomView);
             }
-            roomStylesInUse.add(roomView.getRoomStyle());
-            roomContainer.add(roomView);
         }
-        if (showLegend) {
-            updateLegend(roomStylesInUse);
+        if (showLegend && !frame.legend().equals(legendItemsShown)) {
+            updateLegend(frame.legend());
+            legendItemsShown = frame.legend();
         }
     }
 
@@ -114,43 +120,19 @@ public final class EventView extends Div {
     }
 
     /**
-     * Important implementation detail:
-     * The loop iterates over the enum, not the used values, so the order of the
-     * items in the legend are predictable (based on the order of the enum values).
+     * The items of the legend are already in the order of the <code>RoomStyle</code> enum values,
+     * so the order of the items is predictable.
      *
-     * @param roomStylesInUse a <code>Set</code> of all <code>RoomStyle</code>s in use
+     * @param legendItems the labels of all <code>RoomStyle</code>s in use
      */
-    private void updateLegend(final @NotNull Set<@NotNull RoomStyle> roomStylesInUse) {
+    private void updateLegend(final @NotNull List<@NotNull LegendItem> legendItems) {
         legend.removeAll();
-        for (final RoomStyle roomStyle : RoomStyle.values()) {
-            if (roomStylesInUse.contains(roomStyle)) {
-                final Component legendItem = new Span(getTranslation(roomStyle.getTranslationKey()));
-                legendItem.getElement().getThemeList().add(LABEL_THEME);
-                legendItem.addClassName(roomStyle.getCssStyle());
-                legend.add(legendItem);
-            }
-        }
-    }
-
-    private @NotNull RoomView createRoomView(final @NotNull Map.Entry<@NotNull Room, @NotNull List<@NotNull Session>> roomWithSessions) {
-        final LocalDate today = LocalDate.now(timezone);
-        final ZonedDateTime timeLimitNextSession = ZonedDateTime.now(timezone).plus(nextSessionTimeout);
-        final Room room = roomWithSessions.getKey();
-        final List<Session> sessions = roomWithSessions.getValue();
-        final ZonedDateTime now = ZonedDateTime.now(timezone).withSecond(59).withNano(999);
-        final Session session = sessions.isEmpty() ? null : sessions.stream()
-                .filter(s -> s.endDate().isAfter(now))
-                .findFirst()
-                .orElse(null);
-        final RoomView roomView;
-        if (session != null
-                && session.startDate().toLocalDate().isEqual(today)
-                && session.startDate().isBefore(timeLimitNextSession)) {
-            roomView = new RoomView(timezone, session);
-        } else {
-            roomView = new RoomView(timezone, room);
+        for (final LegendItem legendItem : legendItems) {
+            final Component legendComponent = new Span(legendItem.label());
+            legendComponent.getElement().getThemeList().add(LABEL_THEME);
+            legendComponent.addClassName(legendItem.roomStyle().getCssStyle());
+            legend.add(legendComponent);
         }
-        return roomView;
     }
 
     private @NotNull Component createImage(final @NotNull String imageUrl) {
@@ -30,6 +30,7 @@ import com.vaadin.flow.component.html.Image;
 import org.jetbrains.annotations.NotNull;
 import org.ocpsoft.prettytime.PrettyTime;
 import swiss.fihlon.apus.social.Post;
+import swiss.fihlon.apus.ui.PostFragment;
 import swiss.fihlon.apus.util.HtmlUtil;
 
 import java.util.Locale;
@@ -39,19 +40,58 @@ public final class PostView extends Div {
 
     @NotNull
     private final Locale locale;
+    private final @NotNull Post post;
+    private final @NotNull Text dateTimeText = new Text("");
 
     public PostView(final @NotNull Post post, final @NotNull Locale locale) {
+        this(post, HtmlUtil.sanitize(post.html()), locale);
+    }
+
+    /**
+     * Creates a view for a post with already sanitized HTML, e.g. from the render cache.
+     */
+    public PostView(final @NotNull Post post, final @NotNull String safeHtml, final @NotNull Locale locale) {
+        this(locale, post);
+        add(createHeaderComponent());
+        add(createTextComponent(safeHtml));
+        add(createImageComponents());
+        add(createFooterComponent(createSourceLogoComponent()));
+    }
+
+    private PostView(final @NotNull Locale locale, final @NotNull Post post) {
         this.locale = locale;
+        this.post = post;
         setId("post-" + post.id());
         addClassName("post-view");
-        add(createHeaderComponent(post));
-        add(createTextComponent(post));
-        add(createImageComponents(post));
-        add(createFooterComponent(post));
     }
 
-    private @NotNull Component createHeaderComponent(final @NotNull Post post) {
-        final var avatar = createAvatarComponent(post);
+    /**
+     * Creates a lightweight view for a post, which shows pre-rendered HTML fragments shared by all UIs.
+     * Only the footer and the relative date and time in it are components of their own.
+     */
+    public static @NotNull PostView createLightweight(final @NotNull Post post, final @NotNull PostFragment fragment,
+                                                      final @NotNull Locale locale) {
+        final var postView = new PostView(locale, post);
+        postView.add(new Html(fragment.header()));
+        postView.add(new Html(fragment.content()));
+        fragment.images().forEach(image -> postView.add(new Html(image)));
+        postView.add(postView.createFooterComponent(new Html(fragment.sourceLogo())));
+        return postView;
+    }
+
+    public @NotNull Post getPost() {
+        return post;
+    }
+
+    /**
+     * Updates the relative date and time of the post (e.g. "5 minutes ago").
+     */
+    public void updateDateTime() {
+        dateTimeText.setText(new PrettyTime(locale).format(post.date()));
+    }
+
+    private @NotNull Component createHeaderComponent() {
+        final var avatar = createAvatarComponent();
         final var author = new Div(new Text(post.author()));
         author.addClassName("author");
         final var profile = new Div(new Text(post.profile()));
@@ -63,43 +103,40 @@ public final class PostView extends Div {
         return header;
     }
 
-    private @NotNull Component createAvatarComponent(final @NotNull Post post) {
+    private @NotNull Component createAvatarComponent() {
         final var avatar = new Avatar(post.author(), post.avatar());
         avatar.addClassName("avatar");
         return avatar;
     }
 
-    private @NotNull Component createTextComponent(final @NotNull Post post) {
-        final String unsafeHtml = post.html();
-        final String safeHtml = HtmlUtil.sanitize(unsafeHtml);
+    private @NotNull Component createTextComponent(final @NotNull String safeHtml) {
         return new Html("<div class=\"content\">%s</div>".formatted(safeHtml));
     }
 
-    private @NotNull Component[] createImageComponents(final @NotNull Post post) {
+    private @NotNull Component[] createImageComponents() {
         return post.images().stream()
                 .map(image -> new Image(image, image))
                 .toArray(Image[]::new);
     }
 
-    private @NotNull Component createFooterComponent(final @NotNull Post post) {
-        final var sourceLogoComponent = createSourceLogoComponent(post);
-        final var dateTimeComponent = createDateTimeComponent(post);
+    private @NotNull Component createFooterComponent(final @NotNull Component sourceLogoComponent) {
+        final var dateTimeComponent = createDateTimeComponent();
         final var footer = new Footer(sourceLogoComponent, dateTimeComponent);
         footer.addClassName("footer");
         return footer;
     }
 
-    private @NotNull Component createSourceLogoComponent(final @NotNull Post post) {
+    private @NotNull Component createSourceLogoComponent() {
         final var svg = new Svg(post.sourceLogo());
         svg.addClassName("source-logo");
         return svg;
     }
 
-    private @NotNull Component createDateTimeComponent(final @NotNull Post post) {
+    private @NotNull Component createDateTimeComponent() {
         final var dateTimeComponent = new Footer();
         dateTimeComponent.addClassName("datetime");
-        final var prettyTime = new PrettyTime(locale);
-        dateTimeComponent.add(new Text(prettyTime.format(post.date())));
+        dateTimeComponent.add(dateTimeText);
+        updateDateTime();
         return dateTimeComponent;
     }
 }
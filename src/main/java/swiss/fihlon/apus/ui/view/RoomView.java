@@ -34,106 +34,126 @@ import org.jetbrains.annotations.Nullable;
 import swiss.fihlon.apus.event.Language;
 import swiss.fihlon.apus.event.Room;
 import swiss.fihlon.apus.event.RoomStyle;
-import swiss.fihlon.apus.event.Session;
 import swiss.fihlon.apus.event.Speaker;
 import swiss.fihlon.apus.event.Track;
+import swiss.fihlon.apus.plugin.event.RoomAgenda;
 
-import java.time.Duration;
-import java.time.ZoneId;
-import java.time.ZonedDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Objects;
 
+/**
+ * <p>Shows the running or next session of a room.</p>
+ *
+ * <p>A room view lives as long as its room is shown. Updates only touch the parts which have changed, in most
+ * cases just the text of the countdown, so the agenda does not flicker and the browser does not rebuild it.</p>
+ */
 @CssImport(value = "./themes/apus/views/room-view.css")
 public final class RoomView extends Div {
 
-    private final @NotNull ZoneId timezone;
-    private final transient @NotNull Room room;
-    private final @Nullable String title;
-    private final transient @NotNull List<Speaker> speakers;
-    private final @Nullable ZonedDateTime startTime;
-    private final @Nullable ZonedDateTime endTime;
-    private final @Nullable Language language;
-    private final transient @Nullable Track track;
+    private static final int IMAGE_COMPONENT_INDEX = 4;
 
-    private @NotNull RoomStyle roomStyle = RoomStyle.NONE;
+    private final @NotNull Text titleText = new Text("");
+    private final @NotNull Div titleComponent = new Div(new H3(titleText));
+    private final @NotNull Div speakersComponent = new Div();
+    private final @NotNull Div timeComponent = new Div();
+    private @Nullable Image flagComponent;
+    private @Nullable Span speakersText;
+    private @Nullable Text timeText;
+    private @NotNull Component imageComponent = new Div();
 
-    public RoomView(final @NotNull ZoneId timezone,
-                    final @NotNull Room room) {
-        this(timezone, room, null, List.of(), null, null, null, null);
-    }
+    private transient @Nullable RoomAgenda roomAgenda;
 
-    public RoomView(final @NotNull ZoneId timezone,
-                    final @NotNull Session session) {
-        this(
-                timezone,
-                session.room(),
-                session.title(),
-                session.speakers(),
-                session.startDate(),
-                session.endDate(),
-                session.language(),
-                session.track()
-        );
+    public RoomView(final @NotNull RoomAgenda roomAgenda) {
+        addClassName("room-view");
+        titleComponent.addClassName("title");
+        speakersComponent.addClassName("speakers");
+        timeComponent.addClassName("time");
+        add(titleComponent);
+        add(speakersComponent);
+        add(createRoomComponent(roomAgenda.room()));
+        add(timeComponent);
+        add(imageComponent);
+        update(roomAgenda);
     }
 
-    @SuppressWarnings({ "java:S107", "ParameterNumber" })
-    public RoomView(final @NotNull ZoneId timezone,
-                    final @NotNull Room room,
-                    final @Nullable String title,
-                    final @NotNull List<Speaker> speakers,
-                    final @Nullable ZonedDateTime startTime,
-                    final @Nullable ZonedDateTime endTime,
-                    final @Nullable Language language,
-                    final @Nullable Track track) {
-        this.timezone = timezone;
-        this.room = room;
-        this.title = title;
-        this.speakers = speakers;
-        this.startTime = startTime;
-        this.endTime = endTime;
-        this.language = language;
-        this.track = track;
-
-        addClassName("room-view");
-        add(createTitleComponent());
-        add(createSpeakersComponent());
-        add(createRoomComponent());
-        add(createTimeComponent());
-        add(createImageComponent());
-        addClassName(roomStyle.getCssStyle());
+    /**
+     * Shows the new state of the room, changing only the components which differ from the current state.
+     */
+    public void update(final @NotNull RoomAgenda newRoomAgenda) {
+        final var oldRoomAgenda = roomAgenda;
+        roomAgenda = newRoomAgenda;
+        if (oldRoomAgenda == null || !oldRoomAgenda.title().equals(newRoomAgenda.title())) {
+            titleText.setText(newRoomAgenda.title());
+        }
+        if (oldRoomAgenda == null || language(oldRoomAgenda) != language(newRoomAgenda)) {
+            updateFlag(language(newRoomAgenda));
+        }
+        if (oldRoomAgenda == null || !oldRoomAgenda.speakers().equals(newRoomAgenda.speakers())) {
+            updateSpeakers(newRoomAgenda.speakers());
+        }
+        if (oldRoomAgenda == null || oldRoomAgenda.roomStyle() != newRoomAgenda.roomStyle()) {
+            updateTime(newRoomAgenda.roomStyle(), newRoomAgenda.time());
+            if (oldRoomAgenda != null) {
+                removeClassName(oldRoomAgenda.roomStyle().getCssStyle());
+            }
+            addClassName(newRoomAgenda.roomStyle().getCssStyle());
+        } else if (!oldRoomAgenda.time().equals(newRoomAgenda.time()) && timeText != null) {
+            timeText.setText(newRoomAgenda.time());
+        }
+        if (oldRoomAgenda == null
+                || !speakers(oldRoomAgenda).equals(speakers(newRoomAgenda))
+                || !Objects.equals(track(oldRoomAgenda), track(newRoomAgenda))) {
+            remove(imageComponent);
+            imageComponent = createImageComponent(speakers(newRoomAgenda), track(newRoomAgenda));
+            addComponentAtIndex(IMAGE_COMPONENT_INDEX, imageComponent);
+        }
     }
 
-    private @NotNull Component createTitleComponent() {
-        final var titleComponent = new Div();
-        titleComponent.addClassName("title");
-        titleComponent.add(new H3(new Text(title == null ? getTranslation("event.room.empty") : title)));
+    private void updateFlag(final @Nullable Language language) {
+        if (flagComponent != null) {
+            titleComponent.remove(flagComponent);
+            flagComponent = null;
+        }
         if (language != null && language != Language.UNKNOWN) {
-            final var flagComponent = new Image(language.getFlagFileName(), language.getLanguageCode());
+            flagComponent = new Image(language.getFlagFileName(), language.getLanguageCode());
             flagComponent.addClassName("language");
             titleComponent.add(flagComponent);
         }
-        return titleComponent;
     }
 
-    private @NotNull Component createSpeakersComponent() {
-        final var speakersComponent = new Div();
-        speakersComponent.addClassName("speakers");
+    private void updateSpeakers(final @NotNull String speakers) {
         if (speakers.isEmpty()) {
+            speakersComponent.removeAll();
             speakersComponent.add(nbsp());
+            speakersText = null;
+        } else if (speakersText != null) {
+            speakersText.setText(speakers);
         } else {
-            final var joinedSpeakers = speakers.stream()
-                    .map(Speaker::fullName)
-                    .collect(Collectors.joining(", "));
-            speakersComponent.add(
-                    new Icon(VaadinIcon.USER),
-                    new Span(joinedSpeakers)
-            );
+            speakersComponent.removeAll();
+            speakersText = new Span(speakers);
+            speakersComponent.add(new Icon(VaadinIcon.USER), speakersText);
         }
-        return speakersComponent;
     }
 
-    private @NotNull Component createRoomComponent() {
+    private void updateTime(final @NotNull RoomStyle roomStyle, final @NotNull String time) {
+        timeComponent.removeAll();
+        switch (roomStyle) {
+            case NEXT -> {
+                timeText = new Text(time);
+                timeComponent.add(new Icon(VaadinIcon.ALARM), timeText);
+            }
+            case RUNNING -> {
+                timeText = new Text(time);
+                timeComponent.add(new Icon(VaadinIcon.HOURGLASS), timeText);
+            }
+            default -> {
+                timeText = null;
+                timeComponent.add(nbsp());
+            }
+        }
+    }
+
+    private static @NotNull Component createRoomComponent(final @NotNull Room room) {
         final var roomComponent = new Div(
                 new Icon(VaadinIcon.LOCATION_ARROW_CIRCLE),
                 new Text(room.name())
@@ -142,44 +162,13 @@ public final class RoomView extends Div {
         return roomComponent;
     }
 
-    private @NotNull Component createTimeComponent() {
-        final var timeComponent = new Div();
-        timeComponent.addClassName("time");
-        final var now = ZonedDateTime.now(timezone).withSecond(59).withNano(999);
-        if (startTime == null || endTime == null) { // empty session
-            timeComponent.add(nbsp());
-            roomStyle = RoomStyle.EMPTY;
-        } else if (startTime.isAfter(now)) { // next session
-            timeComponent.add(
-                    new Icon(VaadinIcon.ALARM),
-                    new Text("%s - %s".formatted(
-                            startTime.withZoneSameInstant(timezone).toLocalTime(),
-                            endTime.withZoneSameInstant(timezone).toLocalTime()))
-            );
-            roomStyle = RoomStyle.NEXT;
-        } else { // running session
-            final Duration duration = Duration.between(now, endTime);
-            final int minutesLeft = Math.round(duration.toSeconds() / 60f);
-            timeComponent.add(new Icon(VaadinIcon.HOURGLASS));
-            if (minutesLeft <= 0) {
-                timeComponent.add(new Text(getTranslation("event.session.countdown.now")));
-            } else if (minutesLeft == 1) {
-                timeComponent.add(new Text(getTranslation("event.session.countdown.one-minute")));
-            } else {
-                timeComponent.add(new Text(getTranslation("event.session.countdown.minutes", minutesLeft)));
-            }
-            roomStyle = RoomStyle.RUNNING;
-        }
-        return timeComponent;
-    }
-
-    private @NotNull Component createImageComponent() {
+    private static @NotNull Component createImageComponent(final @NotNull List<Speaker> speakers, final @Nullable Track track) {
         final var speakerAvatars = speakers.stream()
                 .filter(speaker -> speaker.imageUrl() != null && !speaker.imageUrl().isBlank())
                 .map(speaker -> new Avatar(speaker.fullName(), speaker.imageUrl()))
                 .toArray(Avatar[]::new);
         if (speakerAvatars.length == 0) {
-            return createTrackComponent();
+            return createTrackComponent(track);
         }
 
         final var avatarGroup = new Div();
@@ -192,7 +181,7 @@ public final class RoomView extends Div {
         return avatarComponent;
     }
 
-    private @NotNull Component createTrackComponent() {
+    private static @NotNull Component createTrackComponent(final @Nullable Track track) {
         final var trackComponent = new Div();
         trackComponent.addClassName("track");
         if (track != null && !track.equals(Track.NONE)) {
@@ -202,11 +191,30 @@ public final class RoomView extends Div {
         return trackComponent;
     }
 
+    private static @Nullable Language language(final @NotNull RoomAgenda roomAgenda) {
+        final var session = roomAgenda.session();
+        return session != null ? session.language() : null;
+    }
+
+    private static @NotNull List<Speaker> speakers(final @NotNull RoomAgenda roomAgenda) {
+        final var session = roomAgenda.session();
+        return session != null ? session.speakers() : List.of();
+    }
+
+    private static @Nullable Track track(final @NotNull RoomAgenda roomAgenda) {
+        final var session = roomAgenda.session();
+        return session != null ? session.track() : null;
+    }
+
     private static @NotNull Component nbsp() {
         return new Html("<span>&nbsp;</span>");
     }
 
+    public @NotNull Room getRoom() {
+        return Objects.requireNonNull(roomAgenda).room();
+    }
+
     public @NotNull RoomStyle getRoomStyle() {
-        return roomStyle;
+        return Objects.requireNonNull(roomAgenda).roomStyle();
     }
 }
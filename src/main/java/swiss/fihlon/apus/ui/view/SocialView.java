@@ -31,41 +31,44 @@ import com.vaadin.flow.component.textfield.PasswordField;
 import com.vaadin.flow.data.value.ValueChangeMode;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import org.springframework.scheduling.TaskScheduler;
 import swiss.fihlon.apus.configuration.AppConfig;
 import swiss.fihlon.apus.plugin.social.SocialService;
 import swiss.fihlon.apus.social.Post;
+import swiss.fihlon.apus.ui.BroadcastService;
+import swiss.fihlon.apus.ui.PostFragmentService;
 import swiss.fihlon.apus.util.PasswordUtil;
-import swiss.fihlon.apus.util.VaadinUtil;
 
-import java.time.Duration;
-import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.concurrent.ScheduledFuture;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @CssImport(value = "./themes/apus/views/social-view.css")
 public final class SocialView extends Div {
 
-    private static final @NotNull Duration UPDATE_FREQUENCY = Duration.ofSeconds(30);
-
     private final @NotNull Locale locale;
     private final transient @NotNull SocialService socialService;
+    private final transient @NotNull PostFragmentService postFragmentService;
     private final transient @NotNull AppConfig appConfig;
     private final @NotNull List<@NotNull Div> postsColumns;
+    private final @NotNull Map<@NotNull String, @NotNull PostView> postViews = new HashMap<>();
+    private final boolean lightweightPosts;
     private final @Nullable ContextMenu contextMenu;
     private boolean adminModeEnabled = false;
 
     @SuppressWarnings("StringSplitter") // that behaviour is exactly what we need
     public SocialView(final @NotNull SocialService socialService,
-                      final @NotNull TaskScheduler taskScheduler,
+                      final @NotNull BroadcastService broadcastService,
+                      final @NotNull PostFragmentService postFragmentService,
                       final @NotNull AppConfig appConfig,
                       final @NotNull Locale locale) {
         this.locale = locale;
         this.socialService = socialService;
+        this.postFragmentService = postFragmentService;
         this.appConfig = appConfig;
+        this.lightweightPosts = appConfig.social().lightweightPosts();
 
         setId("social-view");
 
@@ -102,10 +105,9 @@ public final class SocialView extends Div {
             contextMenu.setTarget(postsColumnsDiv);
         }
 
-        final ScheduledFuture<?> updateScheduler = taskScheduler.scheduleAtFixedRate(
-                () -> getUI().ifPresent(ui -> VaadinUtil.updateUI(ui, this::updatePosts)),
-                Instant.now().plusSeconds(1), UPDATE_FREQUENCY);
-        addDetachListener(event -> updateScheduler.cancel(true));
+        // the posts are sent on every change and every 30 seconds to refresh their dates
+        broadcastService.posts().subscribe(this, this::refreshPosts);
+        updatePosts();
     }
 
     private void showLoginDialog() {
@@ -150,6 +152,8 @@ public final class SocialView extends Div {
         if (contextMenu != null && PasswordUtil.matches(password, appConfig.password())) {
             adminModeEnabled = true;
             contextMenu.setTarget(null);
+            postsColumns.forEach(HasComponents::removeAll);
+            postViews.clear();
             updatePosts();
             Notification.show(getTranslation("social.admin.login.successful"));
         } else {
@@ -158,29 +162,68 @@ public final class SocialView extends Div {
     }
 
     private void updatePosts() {
-        postsColumns.forEach(HasComponents::removeAll);
-        int i = 0;
-        for (final Post post : socialService.getPosts(30)) {
-            final var postView = new PostView(post, locale);
-            if (adminModeEnabled) {
-                final var postMenu = new ContextMenu();
-                postMenu.addItem(getTranslation("social.post.contextmenu.hide.post"), event -> hidePost(post));
-                postMenu.addItem(getTranslation("social.post.contextmenu.block.profile"), event -> blockProfile(post));
-                postMenu.setTarget(postView);
+        refreshPosts(socialService.getPosts(SocialService.MAX_VISIBLE_POSTS));
+    }
+
+    private void refreshPosts(final @NotNull List<@NotNull Post> posts) {
+        showPosts(posts);
+        postViews.values().forEach(PostView::updateDateTime);
+    }
+
+    /**
+     * Shows the posts with as few changes to the DOM as possible: views of posts which are still shown are
+     * reused, only new or edited posts get a new view and views are only moved if their position changed.
+     */
+    private void showPosts(final @NotNull List<@NotNull Post> posts) {
+        final var visiblePosts = posts.stream().limit(SocialService.MAX_VISIBLE_POSTS).toList();
+        final var visibleIds = visiblePosts.stream().map(Post::id).collect(Collectors.toSet());
+        postViews.entrySet().removeIf(entry -> {
+            final var removed = !visibleIds.contains(entry.getKey());
+            if (removed) {
+                entry.getValue().removeFromParent();
+            }
+            return removed;
+        });
+
+        for (int i = 0; i < visiblePosts.size(); i++) {
+            final var post = visiblePosts.get(i);
+            var postView = postViews.get(post.id());
+            if (postView == null || !postView.getPost().equals(post)) {
+                if (postView != null) {
+                    postView.removeFromParent();
+                }
+                postView = createPostView(post);
+                postViews.put(post.id(), postView);
+            }
+            final var column = postsColumns.get(i % postsColumns.size());
+            final var index = i / postsColumns.size();
+            final var element = column.getElement();
+            if (index >= element.getChildCount() || !element.getChild(index).equals(postView.getElement())) {
+                column.addComponentAtIndex(index, postView);
             }
-            postsColumns.get(i++ % postsColumns.size()).add(postView);
         }
     }
 
+    private @NotNull PostView createPostView(final @NotNull Post post) {
+        final var postView = lightweightPosts
+                ? PostView.createLightweight(post, postFragmentService.getFragment(post), locale)
+                : new PostView(post, socialService.getRenderedPost(post).html(), locale);
+        if (adminModeEnabled) {
+            final var postMenu = new ContextMenu();
+            postMenu.addItem(getTranslation("social.post.contextmenu.hide.post"), event -> hidePost(post));
+            postMenu.addItem(getTranslation("social.post.contextmenu.block.profile"), event -> blockProfile(post));
+            postMenu.setTarget(postView);
+        }
+        return postView;
+    }
+
     private void hidePost(final @NotNull Post post) {
         socialService.hidePost(post);
         Notification.show(getTranslation("social.post.contextmenu.hide.post.done"));
-        updatePosts();
     }
 
     private void blockProfile(final @NotNull Post post) {
         socialService.blockProfile(post);
         Notification.show(getTranslation("social.post.contextmenu.block.profile.done"));
-        updatePosts();
     }
 }
@@ -24,11 +24,12 @@ import com.vaadin.flow.router.Route;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.TaskScheduler;
 import swiss.fihlon.apus.ApplicationI18NProvider;
 import swiss.fihlon.apus.configuration.AppConfig;
 import swiss.fihlon.apus.plugin.event.EventService;
 import swiss.fihlon.apus.plugin.social.SocialService;
+import swiss.fihlon.apus.ui.BroadcastService;
+import swiss.fihlon.apus.ui.PostFragmentService;
 
 import java.util.Arrays;
 
@@ -40,17 +41,18 @@ public final class SocialWallView extends Div {
 
     public SocialWallView(final @NotNull EventService eventService,
                           final @NotNull SocialService socialService,
-                          final @NotNull TaskScheduler taskScheduler,
+                          final @NotNull BroadcastService broadcastService,
+                          final @NotNull PostFragmentService postFragmentService,
                           final @NotNull AppConfig appConfig,
                           final @NotNull ApplicationI18NProvider i18NProvider) {
         setId("social-wall-view");
         addDynamicStyles(appConfig, eventService);
         addCustomStyles(appConfig);
         if (eventService.isEnabled()) {
-            add(new EventView(eventService, taskScheduler, appConfig));
+            add(new EventView(eventService, broadcastService, appConfig));
         }
         final var locale = i18NProvider.getLocale();
-        add(new SocialView(socialService, taskScheduler, appConfig, locale));
+        add(new SocialView(socialService, broadcastService, postFragmentService, appConfig, locale));
     }
 
     private static void addDynamicStyles(final @NotNull AppConfig appConfig, final @NotNull EventService eventService) {
@@ -1,56 +0,0 @@
-/*
- * Apus - A social wall for conferences with additional features.
- * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
- *
- * This program is free software: you can redistribute it and/or modify
- * it under the terms of the GNU Affero General Public License as published
- * by the Free Software Foundation, either version 3 of the License, or
- * (at your option) any later version.
- *
- * This program is distributed in the hope that it will be useful,
- * but WITHOUT ANY WARRANTY; without even the implied warranty of
- * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
- * GNU Affero General Public License for more details.
- *
- * You should have received a copy of the GNU Affero General Public License
- * along with this program. If not, see <http://www.gnu.org/licenses/>.
- */
-package swiss.fihlon.apus.util;
-
-import org.jetbrains.annotations.NotNull;
-
-import java.io.IOException;
-import java.io.InputStream;
-import java.net.URI;
-import java.net.URISyntaxException;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.nio.charset.StandardCharsets;
-
-public final class DownloadUtil {
-
-    public static @NotNull String getString(final @NotNull String location)
-            throws IOException, URISyntaxException {
-        try (InputStream in = new URI(location).toURL().openStream()) {
-            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
-        }
-    }
-
-    public static @NotNull String getString(final @NotNull String location, final @NotNull String accessToken)
-            throws IOException, InterruptedException {
-        try (var client = HttpClient.newHttpClient()) {
-            var request = HttpRequest.newBuilder()
-                    .header("Authorization", "Bearer " + accessToken)
-                    .uri(URI.create(location))
-                    .GET()
-                    .build();
-            var  response = client.send(request, java.net.http.HttpResponse.BodyHandlers.ofString());
-            return response.body();
-        }
-    }
-
-    private DownloadUtil() {
-        throw new IllegalStateException("Utility classes can't be instantiated!");
-    }
-
-}
@@ -0,0 +1,189 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.io.Reader;
+
+/**
+ * <p>Pull parser reading a JSON document token by token.</p>
+ *
+ * <p>The caller walks through the structure of the document with {@link #beginArray()}, {@link #beginObject()},
+ * {@link #hasNext()} and {@link #nextName()}. Only the values requested with {@link #nextObject()},
+ * {@link #nextArray()} or {@link #nextValue()} are materialized, so a large document is never held in memory
+ * as a whole. Values passed over with {@link #skipValue()} or {@link #skipTo(String)} are skipped character by
+ * character without creating any objects.</p>
+ */
+public final class JsonReader {
+
+    private final @NotNull JSONTokener tokener;
+
+    public JsonReader(final @NotNull Reader reader) {
+        this.tokener = new JSONTokener(reader);
+    }
+
+    public void beginArray() {
+        expect('[');
+    }
+
+    public void endArray() {
+        expect(']');
+        skipSeparator();
+    }
+
+    public void beginObject() {
+        expect('{');
+    }
+
+    public void endObject() {
+        expect('}');
+        skipSeparator();
+    }
+
+    /**
+     * Checks if the current array or object has more elements.
+     */
+    public boolean hasNext() {
+        final var next = tokener.nextClean();
+        if (next == 0) {
+            return false;
+        }
+        tokener.back();
+        return next != ']' && next != '}';
+    }
+
+    public @NotNull String nextName() {
+        expect('"');
+        final var name = tokener.nextString('"');
+        expect(':');
+        return name;
+    }
+
+    public @NotNull Object nextValue() {
+        final var value = tokener.nextValue();
+        skipSeparator();
+        return value;
+    }
+
+    public @NotNull JSONObject nextObject() {
+        if (nextValue() instanceof JSONObject jsonObject) {
+            return jsonObject;
+        }
+        throw tokener.syntaxError("Expected an object");
+    }
+
+    public @NotNull JSONArray nextArray() {
+        if (nextValue() instanceof JSONArray jsonArray) {
+            return jsonArray;
+        }
+        throw tokener.syntaxError("Expected an array");
+    }
+
+    public @NotNull String nextString() {
+        if (nextValue() instanceof String string) {
+            return string;
+        }
+        throw tokener.syntaxError("Expected a string");
+    }
+
+    public void skipValue() {
+        var depth = 0;
+        do {
+            final var next = tokener.nextClean();
+            switch (next) {
+                case 0 -> throw tokener.syntaxError("Unexpected end of document");
+                case '"', '\'' -> skipString(next);
+                case '[', '{' -> depth++;
+                case ']', '}' -> {
+                    if (depth == 0) {
+                        throw tokener.syntaxError("Expected a value but found '%c'".formatted(next));
+                    }
+                    depth--;
+                }
+                default -> {
+                    // separators and literals inside of arrays and objects are skipped one by one
+                    if (depth == 0) {
+                        skipLiteral();
+                    }
+                }
+            }
+        } while (depth > 0);
+        skipSeparator();
+    }
+
+    /**
+     * Skips the members of the current object up to the member with the given name.
+     *
+     * @return {@code true} if the member was found and its value is next, {@code false} if the end of the object was reached
+     */
+    public boolean skipTo(final @NotNull String name) {
+        while (hasNext()) {
+            if (nextName().equals(name)) {
+                return true;
+            }
+            skipValue();
+        }
+        return false;
+    }
+
+    private void expect(final char expected) throws JSONException {
+        final var next = tokener.nextClean();
+        if (next != expected) {
+            throw tokener.syntaxError("Expected '%c' but found '%c'".formatted(expected, next));
+        }
+    }
+
+    private void skipString(final char quote) {
+        var next = tokener.next();
+        while (next != quote) {
+            if (next == 0 || next == '\n' || next == '\r') {
+                throw tokener.syntaxError("Unterminated string");
+            }
+            if (next == '\\') {
+                tokener.next(); // the escaped character cannot end the string
+            }
+            next = tokener.next();
+        }
+    }
+
+    /**
+     * Skips the rest of a number, {@code true}, {@code false} or {@code null}.
+     */
+    private void skipLiteral() {
+        var next = tokener.next();
+        while (next != 0 && !Character.isWhitespace(next) && ",:]}/\\\"[{;=#".indexOf(next) < 0) {
+            next = tokener.next();
+        }
+        if (next != 0) {
+            tokener.back();
+        }
+    }
+
+    private void skipSeparator() {
+        final var next = tokener.nextClean();
+        if (next != ',' && next != 0) {
+            tokener.back();
+        }
+    }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <p>Finds any of a set of words in a text with a single pass over the text.</p>
+ *
+ * <p>The matcher builds an Aho-Corasick automaton once, so the cost of a search depends on the length
+ * of the text only and not on the number of words. Words match anywhere in the text (like
+ * {@link String#contains(CharSequence)}), case-sensitive. Blank words are ignored.</p>
+ */
+public final class WordMatcher {
+
+    private final @NotNull Node root = new Node();
+
+    public WordMatcher(final @NotNull Collection<@NotNull String> words) {
+        words.stream()
+                .filter(word -> !word.isBlank())
+                .forEach(this::addWord);
+        buildFailureLinks();
+    }
+
+    /**
+     * Returns {@code true} if the text contains at least one of the words.
+     */
+    public boolean containsAny(final @NotNull String text) {
+        var node = root;
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            while (node != root && !node.children.containsKey(c)) {
+                node = node.failure;
+            }
+            node = node.children.getOrDefault(c, root);
+            if (node.match) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void addWord(final @NotNull String word) {
+        var node = root;
+        for (int i = 0; i < word.length(); i++) {
+            node = node.children.computeIfAbsent(word.charAt(i), c -> new Node());
+        }
+        node.match = true;
+    }
+
+    private void buildFailureLinks() {
+        final var queue = new ArrayDeque<Node>();
+        for (final var child : root.children.values()) {
+            child.failure = root;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            final var node = queue.remove();
+            for (final var entry : node.children.entrySet()) {
+                final char c = entry.getKey();
+                final var child = entry.getValue();
+                var failure = node.failure;
+                while (failure != root && !failure.children.containsKey(c)) {
+                    failure = failure.failure;
+                }
+                final var target = failure.children.get(c);
+                child.failure = target != null && target != child ? target : root;
+                // a word ending in a suffix of this path matches here, too
+                child.match |= child.failure.match;
+                queue.add(child);
+            }
+        }
+    }
+
+    private static final class Node {
+        private final @NotNull Map<@NotNull Character, @NotNull Node> children = new HashMap<>();
+        private @NotNull Node failure = this;
+        private boolean match;
+    }
+
+}
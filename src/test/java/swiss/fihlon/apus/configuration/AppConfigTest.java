@@ -50,7 +50,7 @@ class AppConfigTest {
 
     private @NotNull AppConfig createAppConfig(final @NotNull String language) {
         return new AppConfig(appConfig.version(), language, appConfig.timezone(), appConfig.password(),
-                appConfig.demoMode(), appConfig.styles(), appConfig.event(), appConfig.social(),
+                appConfig.demoMode(), appConfig.styles(), appConfig.event(), appConfig.social(), appConfig.http(),
                 appConfig.devoxx(), appConfig.doag(), appConfig.jfs(), appConfig.sessionize(),
                 appConfig.blueSky(), appConfig.mastodon());
         }
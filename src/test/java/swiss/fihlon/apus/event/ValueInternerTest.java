@@ -0,0 +1,66 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.event;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ValueInternerTest {
+
+    private static final ZonedDateTime START_DATE = ZonedDateTime.parse("2024-01-01T09:00:00Z");
+
+    @Test
+    void internsEqualValues() {
+        final var interner = new ValueInterner();
+        final var room = interner.intern(new Room("Room A"));
+        assertSame(room, interner.intern(new Room("Room A")));
+        assertNotSame(room, interner.intern(new Room("Room B")));
+
+        final var speaker = interner.intern(new Speaker("Speaker 1", "test.png"));
+        assertSame(speaker, interner.intern(new Speaker("Speaker 1", "test.png")));
+        assertNotSame(speaker, interner.intern(new Speaker("Speaker 1")));
+
+        final var track = interner.intern(new Track("<svg/>"));
+        assertSame(track, interner.intern(new Track("<svg/>")));
+    }
+
+    @Test
+    void internsSessions() {
+        final var interner = new ValueInterner();
+        final var first = interner.intern(session("1"));
+        final var second = interner.intern(session("2"));
+
+        assertSame(first.room(), second.room());
+        assertSame(first.speakers().getFirst(), second.speakers().getFirst());
+        assertSame(first.track(), second.track());
+        assertEquals(session("2"), second);
+        assertSame(second, interner.intern(second));
+    }
+
+    private static Session session(final String id) {
+        return new Session(id, START_DATE, START_DATE.plusHours(1), new Room("Room A"), "Session " + id,
+                List.of(new Speaker("Speaker 1")), Language.EN, new Track("<svg>" + "x".repeat(1000) + "</svg>"));
+    }
+
+}
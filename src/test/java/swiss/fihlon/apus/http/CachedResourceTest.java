@@ -0,0 +1,109 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.http;
+
+import com.sun.net.httpserver.HttpServer;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static swiss.fihlon.apus.http.HttpTestUtil.HTTP_CONFIG;
+
+class CachedResourceTest {
+
+    private static final @NotNull HttpService HTTP_SERVICE = new HttpService(HTTP_CONFIG);
+
+    private final @NotNull AtomicReference<String> content = new AtomicReference<>("first");
+    private HttpServer server;
+    private String location;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/data", exchange -> {
+            final var eTag = "\"%s\"".formatted(content.get());
+            if (eTag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            final var body = content.get().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("ETag", eTag);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        location = "http://localhost:%d/data".formatted(server.getAddress().getPort());
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void parsesOnlyModifiedContent() throws Exception {
+        final var parseCount = new AtomicInteger();
+        final var resource = new CachedResource<>(HTTP_SERVICE, location, body -> {
+            parseCount.incrementAndGet();
+            return new StringBuilder(body);
+        });
+
+        final var first = resource.get();
+        assertEquals("first", first.toString());
+        assertSame(first, resource.get());
+        assertEquals(1, parseCount.get());
+
+        content.set("second");
+        assertEquals("second", resource.get().toString());
+        assertEquals(2, parseCount.get());
+    }
+
+    @Test
+    void downloadsAgainAfterParseError() throws Exception {
+        final var fail = new AtomicReference<>(Boolean.FALSE);
+        final var resource = new CachedResource<>(HTTP_SERVICE, location, body -> {
+            if (fail.get()) {
+                throw new IllegalStateException("broken");
+            }
+            return body;
+        });
+
+        assertEquals("first", resource.get());
+        content.set("second");
+        fail.set(Boolean.TRUE);
+        assertThrows(IllegalStateException.class, resource::get);
+        fail.set(Boolean.FALSE);
+        assertEquals("second", resource.get());
+    }
+
+}
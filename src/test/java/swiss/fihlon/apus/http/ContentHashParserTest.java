@@ -0,0 +1,80 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ContentHashParserTest {
+
+    @Test
+    void reusesResultOfUnchangedContent() throws Exception {
+        final var parser = new ContentHashParser<>(body -> {
+            final var writer = new StringWriter();
+            body.transferTo(writer);
+            return new StringBuilder(writer.toString());
+        });
+
+        final var first = parser.parse(new StringReader("first"));
+        assertEquals("first", first.toString());
+        assertSame(first, parser.parse(new StringReader("first")));
+
+        final var second = parser.parse(new StringReader("second"));
+        assertEquals("second", second.toString());
+
+        final var third = parser.parse(new StringReader("first"));
+        assertEquals("first", third.toString());
+        assertNotSame(first, third);
+    }
+
+    @Test
+    void parsesUnchangedContentOnlyOnce() throws Exception {
+        final var calls = new AtomicInteger();
+        final var parser = new ContentHashParser<>(body -> {
+            calls.incrementAndGet();
+            final var writer = new StringWriter();
+            body.transferTo(writer);
+            return writer.toString();
+        });
+
+        assertEquals("content", parser.parse(new StringReader("content")));
+        assertEquals("content", parser.parse(new StringReader("content")));
+        assertEquals(1, calls.get());
+
+        assertEquals("changed", parser.parse(new StringReader("changed")));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void hashesContentNotReadByTheParser() throws Exception {
+        final var parser = new ContentHashParser<>(body -> new StringBuilder().append((char) body.read()));
+
+        final var first = parser.parse(new StringReader("first"));
+        assertEquals("f", first.toString());
+        assertSame(first, parser.parse(new StringReader("first")));
+        assertNotSame(first, parser.parse(new StringReader("fast")));
+    }
+
+}
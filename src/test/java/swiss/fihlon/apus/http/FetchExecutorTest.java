@@ -0,0 +1,209 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.http;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FetchExecutorTest {
+
+    private final @NotNull FetchExecutor fetchExecutor =
+            new FetchExecutor(new HttpConfig(Duration.ofSeconds(5), Duration.ofSeconds(5), 2, Duration.ofMillis(500)));
+
+    @AfterEach
+    void shutdown() {
+        fetchExecutor.shutdown();
+    }
+
+    @Test
+    void returnsResultsInOrderOfInputs() {
+        final var results = fetchExecutor.fetchAll("test", List.of(3, 1, 2),
+                input -> {
+                    sleep(input * 20L);
+                    return "result " + input;
+                },
+                input -> "fallback " + input);
+        assertEquals(List.of("result 3", "result 1", "result 2"), results);
+    }
+
+    @Test
+    void limitsConcurrentFetchesPerPlugin() {
+        final var running = new AtomicInteger();
+        final var maxRunning = new AtomicInteger();
+        fetchExecutor.fetchAll("test", List.of(1, 2, 3, 4, 5, 6),
+                input -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    sleep(50);
+                    running.decrementAndGet();
+                    return input;
+                },
+                input -> 0);
+        assertEquals(2, maxRunning.get());
+    }
+
+    @Test
+    void doesNotLimitFetchesOfOtherPlugins() throws InterruptedException {
+        final var blocked = new CountDownLatch(1);
+        final var release = new CountDownLatch(1);
+        final var slowPlugin = Thread.ofVirtual().start(() -> fetchExecutor.fetchAll("slow", List.of(1, 2),
+                input -> {
+                    blocked.countDown();
+                    await(release);
+                    return input;
+                },
+                input -> 0));
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+        assertEquals("fast", fetchExecutor.fetch("fast", () -> "fast", () -> "fallback"));
+
+        release.countDown();
+        slowPlugin.join();
+    }
+
+    @Test
+    void fallsBackIfNoSlotIsFreeWithinTheDeadline() throws InterruptedException {
+        final var blocked = new CountDownLatch(2);
+        final var release = new CountDownLatch(1);
+        final var slowFetches = Thread.ofVirtual().start(() -> fetchExecutor.fetchAll("test", List.of(1, 2),
+                input -> {
+                    blocked.countDown();
+                    awaitUninterruptibly(release); // keeps the slot beyond the deadline
+                    return input;
+                },
+                input -> 0));
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+        final var start = System.nanoTime();
+        assertEquals("fallback", fetchExecutor.fetch("test", () -> "fast", () -> "fallback"));
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(2)) < 0);
+
+        release.countDown();
+        slowFetches.join();
+    }
+
+    @Test
+    void interruptsFetchExceedingDeadline() {
+        final var interrupted = new AtomicBoolean();
+        final var results = fetchExecutor.fetchAll("test", List.of("slow", "fast"),
+                input -> {
+                    if (input.equals("slow")) {
+                        try {
+                            Thread.sleep(Duration.ofSeconds(10));
+                        } catch (final InterruptedException e) {
+                            interrupted.set(true);
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    return input;
+                },
+                input -> "fallback");
+        assertEquals(List.of("fallback", "fast"), results);
+        sleep(100);
+        assertTrue(interrupted.get());
+    }
+
+    @Test
+    void nestedFetchExceedsItsDeadlineBeforeTheOuterFetch() {
+        final var result = fetchExecutor.fetch("outer",
+                () -> fetchExecutor.fetch("inner", () -> {
+                    sleep(10_000);
+                    return "inner";
+                }, () -> "inner fallback"),
+                () -> "outer fallback");
+        assertEquals("inner fallback", result);
+    }
+
+    @Test
+    void rethrowsExceptionsOfFetch() {
+        final var exception = assertThrows(IllegalArgumentException.class,
+                () -> fetchExecutor.fetch("test", () -> {
+                    throw new IllegalArgumentException("broken");
+                }, () -> "fallback"));
+        assertEquals("broken", exception.getMessage());
+    }
+
+    @Test
+    void rethrowsErrorsOfFetchWithoutWaitingForTheDeadline() {
+        final var start = System.nanoTime();
+        final var error = assertThrows(AssertionError.class,
+                () -> fetchExecutor.fetch("test", () -> {
+                    throw new AssertionError("broken");
+                }, () -> "fallback"));
+        assertEquals("broken", error.getMessage());
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofMillis(500)) < 0);
+    }
+
+    @Test
+    void runAllWaitsForAllTasks() {
+        final var finished = new AtomicInteger();
+        final List<Runnable> tasks = List.of(
+                () -> {
+                    sleep(50);
+                    finished.incrementAndGet();
+                },
+                () -> {
+                    throw new IllegalStateException("broken");
+                },
+                finished::incrementAndGet);
+        fetchExecutor.runAll(tasks);
+        assertEquals(2, finished.get());
+    }
+
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(final @NotNull CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitUninterruptibly(final @NotNull CountDownLatch latch) {
+        var interrupted = false;
+        while (latch.getCount() > 0) {
+            try {
+                latch.await();
+            } catch (final InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,339 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static swiss.fihlon.apus.http.HttpTestUtil.HTTP_CONFIG;
+
+class HttpServiceTest {
+
+
+    private HttpServer server;
+    private String baseUrl;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.start();
+        baseUrl = "http://localhost:%d".formatted(server.getAddress().getPort());
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void getStringFromFile() throws Exception {
+        final var httpService = new HttpService(HTTP_CONFIG);
+        final String string = httpService.getString("file:src/test/resources/testdata/DOAG.json").trim();
+        assertTrue(string.startsWith("{"));
+        assertTrue(string.endsWith("}"));
+    }
+
+    @Test
+    void reusesConnections() throws Exception {
+        final Set<Integer> clientPorts = new HashSet<>();
+        server.createContext("/ping", exchange -> {
+            synchronized (clientPorts) {
+                clientPorts.add(exchange.getRemoteAddress().getPort());
+            }
+            respond(exchange, "pong".getBytes(StandardCharsets.UTF_8), null, 200);
+        });
+
+        final var httpService = new HttpService(HTTP_CONFIG);
+        for (int i = 0; i < 5; i++) {
+            assertEquals("pong", httpService.getString(baseUrl + "/ping"));
+        }
+        assertEquals(1, clientPorts.size());
+    }
+
+    @Test
+    void decodesGzipResponses() throws Exception {
+        final var acceptEncoding = new AtomicReference<String>();
+        server.createContext("/gzip", exchange -> {
+            acceptEncoding.set(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+            final var bytes = new ByteArrayOutputStream();
+            try (var gzip = new GZIPOutputStream(bytes)) {
+                gzip.write("compressed content".getBytes(StandardCharsets.UTF_8));
+            }
+            respond(exchange, bytes.toByteArray(), "gzip", 200);
+        });
+
+        final var httpService = new HttpService(HTTP_CONFIG);
+        assertEquals("compressed content", httpService.getString(baseUrl + "/gzip"));
+        assertTrue(acceptEncoding.get().contains("gzip"));
+    }
+
+    @Test
+    void sendsAccessToken() throws Exception {
+        final var authorization = new AtomicReference<String>();
+        server.createContext("/secure", exchange -> {
+            authorization.set(exchange.getRequestHeaders().getFirst("Authorization"));
+            respond(exchange, "[]".getBytes(StandardCharsets.UTF_8), null, 200);
+        });
+
+        final var httpService = new HttpService(HTTP_CONFIG);
+        assertEquals("[]", httpService.getString(baseUrl + "/secure", "secret"));
+        assertEquals("Bearer secret", authorization.get());
+    }
+
+    @Test
+    void sendsValidatorsOnConditionalRequests() throws Exception {
+        final var ifNoneMatch = new AtomicReference<String>();
+        final var ifModifiedSince = new AtomicReference<String>();
+        server.createContext("/schedule", exchange -> {
+            ifNoneMatch.set(exchange.getRequestHeaders().getFirst("If-None-Match"));
+            ifModifiedSince.set(exchange.getRequestHeaders().getFirst("If-Modified-Since"));
+            if ("\"v1\"".equals(ifNoneMatch.get())) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+            } else {
+                exchange.getResponseHeaders().add("ETag", "\"v1\"");
+                exchange.getResponseHeaders().add("Last-Modified", "Wed, 21 Oct 2015 07:28:00 GMT");
+                respond(exchange, "schedule".getBytes(StandardCharsets.UTF_8), null, 200);
+            }
+        });
+
+        final var httpService = new HttpService(HTTP_CONFIG);
+        final var location = baseUrl + "/schedule";
+        final var first = httpService.getStringIfModified(location, null, null);
+        assertEquals(Optional.of("schedule"), first.getContent());
+        assertEquals(new Validators("\"v1\"", "Wed, 21 Oct 2015 07:28:00 GMT"), first.validators());
+        assertNull(ifNoneMatch.get());
+
+        // an unconditional download of the same location must not touch the validators of the caller
+        assertEquals("schedule", httpService.getString(location));
+        assertNull(ifNoneMatch.get());
+
+        final var second = httpService.getStringIfModified(location, null, first.validators());
+        assertFalse(second.isModified());
+        assertEquals(first.validators(), second.validators());
+        assertEquals("\"v1\"", ifNoneMatch.get());
+        assertEquals("Wed, 21 Oct 2015 07:28:00 GMT", ifModifiedSince.get());
+
+        final var third = httpService.getStringIfModified(location, null, Validators.NONE);
+        assertEquals(Optional.of("schedule"), third.getContent());
+        assertNull(ifNoneMatch.get());
+    }
+
+    @Test
+    void checksStatusBeforeDecodingEmptyBody() throws Exception {
+        server.createContext("/compressed", exchange -> {
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            final var status = exchange.getRequestHeaders().containsKey("If-None-Match") ? 304 : 503;
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+
+        final var httpService = new HttpService(HTTP_CONFIG);
+        final var location = baseUrl + "/compressed";
+        final var notModified = httpService.getStringIfModified(location, null, new Validators("\"v1\"", null));
+        assertFalse(notModified.isModified());
+
+        final var exception = assertThrows(IOException.class, () -> httpService.getString(location));
+        assertEquals("Server returned HTTP status 503 for '%s'".formatted(location), exception.getMessage());
+    }
+
+    @Test
+    void throwsExceptionOnUnexpectedNotModified() {
+        server.createContext("/unexpected", exchange -> {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+        });
+
+        final var httpService = new HttpService(HTTP_CONFIG);
+        final var exception = assertThrows(IOException.class, () -> httpService.getString(baseUrl + "/unexpected"));
+        assertEquals("Server returned HTTP status 304 for '%s/unexpected' without a conditional request".formatted(baseUrl),
+                exception.getMessage());
+    }
+
+    @Test
+    void throwsExceptionOnErrorStatus() {
+        server.createContext("/missing", exchange ->
+                respond(exchange, "not found".getBytes(StandardCharsets.UTF_8), null, 404));
+
+        final var httpService = new HttpService(HTTP_CONFIG);
+        final var exception = assertThrows(IOException.class, () -> httpService.getString(baseUrl + "/missing"));
+        assertEquals("Server returned HTTP status 404 for '%s/missing'".formatted(baseUrl), exception.getMessage());
+    }
+
+    @Test
+    void timesOutStalledBody() {
+        final var release = new CountDownLatch(1);
+        server.createContext("/stalled", exchange -> {
+            exchange.sendResponseHeaders(200, 100);
+            final OutputStream out = exchange.getResponseBody();
+            out.write("[1, 2, 3,".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            try {
+                release.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.close();
+        });
+
+        final var httpService = new HttpService(new HttpConfig(Duration.ofSeconds(10), Duration.ofMillis(500), 4, Duration.ofSeconds(60)));
+        try {
+            final var exception = assertThrows(HttpTimeoutException.class, () -> httpService.getString(baseUrl + "/stalled"));
+            assertEquals("Reading the response of '%s/stalled' timed out".formatted(baseUrl), exception.getMessage());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void defersRequestsWhenRateLimited() {
+        final var requests = new AtomicInteger();
+        server.createContext("/limited", exchange -> {
+            requests.incrementAndGet();
+            exchange.getResponseHeaders().add("Retry-After", "3600");
+            respond(exchange, "slow down".getBytes(StandardCharsets.UTF_8), null, 429);
+        });
+
+        final var httpService = new HttpService(HTTP_CONFIG);
+        final var rejected = assertThrows(IOException.class, () -> httpService.getString(baseUrl + "/limited"));
+        assertEquals("Server returned HTTP status 429 for '%s/limited'".formatted(baseUrl), rejected.getMessage());
+
+        final var deferred = assertThrows(IOException.class, () -> httpService.getString(baseUrl + "/limited"));
+        assertEquals("Request to '%s' deferred because of its rate limit".formatted(baseUrl.substring("http://".length())),
+                deferred.getMessage());
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void coalescesConcurrentRequests() throws Exception {
+        final var requests = new AtomicInteger();
+        final var release = new CountDownLatch(1);
+        server.createContext("/slow", exchange -> {
+            requests.incrementAndGet();
+            try {
+                release.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, "shared".getBytes(StandardCharsets.UTF_8), null, 200);
+        });
+
+        final var httpService = new HttpService(HTTP_CONFIG);
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            final var first = executor.submit(() -> httpService.getString(baseUrl + "/slow"));
+            while (requests.get() == 0) {
+                Thread.sleep(1);
+            }
+            final var second = executor.submit(() -> httpService.getString(baseUrl.toUpperCase(Locale.ROOT) + "/slow#top"));
+            Thread.sleep(200);
+            release.countDown();
+
+            assertEquals("shared", first.get());
+            assertEquals("shared", second.get());
+        }
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void normalizesLocations() {
+        assertEquals("https://mastodon.social/api/v1/timelines/tag/java?limit=30",
+                HttpService.normalize(" HTTPS://Mastodon.Social:443/api/v1/./timelines/tag/java?limit=30#top "));
+        assertEquals("http://localhost:8080/", HttpService.normalize("http://LOCALHOST:8080"));
+        assertEquals("file:src/test/resources/testdata/DOAG.json", HttpService.normalize("file:src/test/resources/testdata/DOAG.json"));
+    }
+
+    @Test
+    void readsServerSentEvents() throws Exception {
+        final var accept = new AtomicReference<String>();
+        server.createContext("/stream", exchange -> {
+            accept.set(exchange.getRequestHeaders().getFirst("Accept"));
+            respond(exchange, """
+                    :thump
+
+                    event: update
+                    data: {"id":
+                    data: 1}
+
+                    data: plain message
+
+                    """.getBytes(StandardCharsets.UTF_8), null, 200);
+        });
+
+        final var opened = new AtomicBoolean(false);
+        final var events = new ArrayList<ServerSentEvent>();
+        final var httpService = new HttpService(HTTP_CONFIG);
+        httpService.stream(baseUrl + "/stream", "secret", () -> opened.set(true), events::add);
+
+        assertEquals("text/event-stream", accept.get());
+        assertTrue(opened.get());
+        assertEquals(List.of(new ServerSentEvent("update", "{\"id\":\n1}"), new ServerSentEvent("message", "plain message")), events);
+    }
+
+    @Test
+    void doesNotOpenStreamOnErrorStatus() {
+        server.createContext("/stream", exchange ->
+                respond(exchange, "unauthorized".getBytes(StandardCharsets.UTF_8), null, 401));
+
+        final var opened = new AtomicBoolean(false);
+        final var httpService = new HttpService(HTTP_CONFIG);
+        assertThrows(IOException.class, () -> httpService.stream(baseUrl + "/stream", null, () -> opened.set(true), event -> { }));
+        assertFalse(opened.get());
+    }
+
+    private static void respond(final @NotNull HttpExchange exchange, final byte @NotNull [] body,
+                                final String contentEncoding, final int status) throws IOException {
+        if (contentEncoding != null) {
+            exchange.getResponseHeaders().add("Content-Encoding", contentEncoding);
+        }
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+}
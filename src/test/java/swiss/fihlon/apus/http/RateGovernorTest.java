@@ -0,0 +1,171 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.http;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.http.HttpHeaders;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RateGovernorTest {
+
+    private static final @NotNull String HOST = "mastodon.social";
+    private static final @NotNull Duration MAX_WAIT = Duration.ofSeconds(30);
+
+    private final @NotNull MutableClock clock = new MutableClock(Instant.parse("2026-10-18T10:00:00Z"));
+    private final @NotNull RateGovernor rateGovernor = new RateGovernor(clock, MAX_WAIT);
+
+    @Test
+    void notPacedWithoutRateLimitHeaders() throws IOException {
+        for (int i = 0; i < 100; i++) {
+            assertEquals(Duration.ZERO, rateGovernor.acquire(HOST));
+        }
+        rateGovernor.update(HOST, 200, headers(Map.of("ETag", "\"foo\"")));
+        for (int i = 0; i < 100; i++) {
+            assertEquals(Duration.ZERO, rateGovernor.acquire(HOST));
+        }
+    }
+
+    @Test
+    void bucketSizedByReportedLimit() throws IOException {
+        rateGovernor.update(HOST, 200, headers(Map.of(
+                "X-RateLimit-Limit", "300",
+                "X-RateLimit-Remaining", "300",
+                "X-RateLimit-Reset", "2026-10-18T10:05:00.000Z")));
+        for (int i = 0; i < 300; i++) {
+            assertEquals(Duration.ZERO, rateGovernor.acquire(HOST));
+        }
+        assertEquals(Duration.ofSeconds(1), rateGovernor.acquire(HOST));
+        assertEquals(Duration.ZERO, rateGovernor.acquire("bsky.social"));
+
+        // after the reset the host is not paced until it tells the new limit
+        clock.advance(Duration.ofMinutes(5));
+        for (int i = 0; i < 400; i++) {
+            assertEquals(Duration.ZERO, rateGovernor.acquire(HOST));
+        }
+    }
+
+    @Test
+    void retryAfterSeconds() throws IOException {
+        rateGovernor.update(HOST, 429, headers(Map.of("Retry-After", "20")));
+        assertEquals(Duration.ofSeconds(20), rateGovernor.acquire(HOST));
+
+        clock.advance(Duration.ofSeconds(20));
+        assertEquals(Duration.ZERO, rateGovernor.acquire(HOST));
+    }
+
+    @Test
+    void retryAfterDate() throws IOException {
+        final var date = DateTimeFormatter.RFC_1123_DATE_TIME.format(clock.instant().plusSeconds(15).atZone(ZoneOffset.UTC));
+        rateGovernor.update(HOST, 503, headers(Map.of("Retry-After", date)));
+        assertEquals(Duration.ofSeconds(15), rateGovernor.acquire(HOST));
+    }
+
+    @Test
+    void deferredWhenWaitTooLong() {
+        rateGovernor.update(HOST, 429, headers(Map.of()));
+        final var exception = assertThrows(IOException.class, () -> rateGovernor.acquire(HOST));
+        assertEquals("Request to 'mastodon.social' deferred because of its rate limit", exception.getMessage());
+    }
+
+    @Test
+    void mastodonLimitExhausted() throws IOException {
+        rateGovernor.update(HOST, 200, headers(Map.of(
+                "X-RateLimit-Limit", "300",
+                "X-RateLimit-Remaining", "0",
+                "X-RateLimit-Reset", "2026-10-18T10:00:25.000Z")));
+        assertEquals(Duration.ofSeconds(25), rateGovernor.acquire(HOST));
+
+        clock.advance(Duration.ofSeconds(25));
+        assertEquals(Duration.ZERO, rateGovernor.acquire(HOST));
+    }
+
+    @Test
+    void blueSkyRemainingSpreadUntilReset() throws IOException {
+        final var reset = clock.instant().plusSeconds(100).getEpochSecond();
+        rateGovernor.update("bsky.social", 200, headers(Map.of(
+                "RateLimit-Limit", "3000",
+                "RateLimit-Remaining", "2",
+                "RateLimit-Reset", Long.toString(reset))));
+        assertEquals(Duration.ZERO, rateGovernor.acquire("bsky.social"));
+        assertEquals(Duration.ZERO, rateGovernor.acquire("bsky.social"));
+        assertThrows(IOException.class, () -> rateGovernor.acquire("bsky.social")); // next token in 50 seconds
+
+        clock.advance(Duration.ofSeconds(50));
+        assertEquals(Duration.ZERO, rateGovernor.acquire("bsky.social"));
+    }
+
+    @Test
+    void parseReset() {
+        final var now = clock.instant();
+        assertEquals(now.plusSeconds(60), RateGovernor.parseReset("60", now));
+        assertEquals(now.plusSeconds(60), RateGovernor.parseReset("60;w=60", now));
+        assertEquals(Instant.ofEpochSecond(1_790_000_000L), RateGovernor.parseReset("1790000000", now));
+        assertEquals(Instant.parse("2026-10-18T10:05:00Z"), RateGovernor.parseReset("2026-10-18T10:05:00.000Z", now));
+        assertNull(RateGovernor.parseReset("soon", now));
+    }
+
+    private static @NotNull HttpHeaders headers(final @NotNull Map<String, String> values) {
+        final var map = new HashMap<String, List<String>>();
+        values.forEach((name, value) -> map.put(name, List.of(value)));
+        return HttpHeaders.of(map, (name, value) -> true);
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private @NotNull Instant instant;
+
+        private MutableClock(final @NotNull Instant instant) {
+            this.instant = instant;
+        }
+
+        private void advance(final @NotNull Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public @NotNull ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public @NotNull Clock withZone(final @NotNull ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public @NotNull Instant instant() {
+            return instant;
+        }
+    }
+
+}
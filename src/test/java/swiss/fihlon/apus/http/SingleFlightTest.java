@@ -0,0 +1,135 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SingleFlightTest {
+
+    @Test
+    void concurrentCallsShareOneResult() throws Exception {
+        final var singleFlight = new SingleFlight<String, Object>();
+        final var calls = new AtomicInteger();
+        final var started = new CountDownLatch(1);
+        final var release = new CountDownLatch(1);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            final Future<Object> first = executor.submit(() -> singleFlight.execute("key", () -> {
+                calls.incrementAndGet();
+                started.countDown();
+                release.await();
+                return new Object();
+            }));
+            started.await();
+            final var second = new FutureTask<>(() -> singleFlight.execute("key", () -> {
+                calls.incrementAndGet();
+                return new Object();
+            }));
+            awaitWaiting(Thread.ofVirtual().start(second));
+            release.countDown();
+
+            assertSame(first.get(), second.get());
+            assertEquals(1, calls.get());
+        }
+    }
+
+    @Test
+    void sequentialCallsAreExecutedAgain() throws Exception {
+        final var singleFlight = new SingleFlight<String, Integer>();
+        final var calls = new AtomicInteger();
+
+        assertEquals(1, singleFlight.execute("key", calls::incrementAndGet));
+        assertEquals(2, singleFlight.execute("key", calls::incrementAndGet));
+    }
+
+    @Test
+    void differentKeysAreNotShared() throws Exception {
+        final var singleFlight = new SingleFlight<String, String>();
+
+        assertEquals("a", singleFlight.execute("a", () -> "a"));
+        assertEquals("b", singleFlight.execute("b", () -> "b"));
+    }
+
+    @Test
+    void exceptionIsShared() throws Exception {
+        final var singleFlight = new SingleFlight<String, String>();
+        final var started = new CountDownLatch(1);
+        final var release = new CountDownLatch(1);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            final Future<String> first = executor.submit(() -> singleFlight.execute("key", () -> {
+                started.countDown();
+                release.await();
+                throw new IOException("Connection refused");
+            }));
+            started.await();
+            final var second = new FutureTask<>(() -> singleFlight.execute("key", () -> "not called"));
+            awaitWaiting(Thread.ofVirtual().start(second));
+            release.countDown();
+
+            final var exception = assertThrows(Exception.class, second::get);
+            assertEquals("Connection refused", exception.getCause().getMessage());
+            assertThrows(Exception.class, first::get);
+        }
+        assertEquals("ok", singleFlight.execute("key", () -> "ok"));
+    }
+
+    @Test
+    void errorIsSharedUnchanged() throws Exception {
+        final var singleFlight = new SingleFlight<String, String>();
+        final var started = new CountDownLatch(1);
+        final var release = new CountDownLatch(1);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            final Future<String> first = executor.submit(() -> singleFlight.execute("key", () -> {
+                started.countDown();
+                release.await();
+                throw new StackOverflowError("Too deep");
+            }));
+            started.await();
+            final var second = new FutureTask<>(() -> singleFlight.execute("key", () -> "not called"));
+            awaitWaiting(Thread.ofVirtual().start(second));
+            release.countDown();
+
+            final var exception = assertThrows(ExecutionException.class, second::get);
+            assertInstanceOf(StackOverflowError.class, exception.getCause());
+            assertEquals("Too deep", exception.getCause().getMessage());
+            assertInstanceOf(StackOverflowError.class, assertThrows(ExecutionException.class, first::get).getCause());
+        }
+    }
+
+    private static void awaitWaiting(final Thread thread) throws InterruptedException {
+        while (thread.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+    }
+
+}
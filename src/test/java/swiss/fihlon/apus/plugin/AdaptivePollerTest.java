@@ -0,0 +1,150 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.plugin;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.support.NoOpTaskScheduler;
+import swiss.fihlon.apus.plugin.AdaptivePoller.Result;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptivePollerTest {
+
+    private static final @NotNull Duration INTERVAL = Duration.ofSeconds(30);
+    private static final @NotNull Duration MIN_INTERVAL = Duration.ofSeconds(15);
+    private static final @NotNull Duration MAX_INTERVAL = Duration.ofMinutes(5);
+
+    @Test
+    void shrinksIntervalWhileChanging() {
+        final var poller = createPoller(new ManualTaskScheduler(), new ArrayDeque<>());
+        poller.adapt(Result.CHANGED);
+        assertEquals(Duration.ofSeconds(15), poller.getInterval());
+        poller.adapt(Result.CHANGED);
+        assertEquals(MIN_INTERVAL, poller.getInterval());
+    }
+
+    @Test
+    void growsIntervalWhileUnchanged() {
+        final var poller = createPoller(new ManualTaskScheduler(), new ArrayDeque<>());
+        poller.adapt(Result.UNCHANGED);
+        assertEquals(Duration.ofSeconds(45), poller.getInterval());
+        for (int i = 0; i < 10; i++) {
+            poller.adapt(Result.UNCHANGED);
+        }
+        assertEquals(MAX_INTERVAL, poller.getInterval());
+    }
+
+    @Test
+    void backsOffAfterFailure() {
+        final var poller = createPoller(new ManualTaskScheduler(), new ArrayDeque<>());
+        poller.adapt(Result.FAILED);
+        assertEquals(Duration.ofMinutes(1), poller.getInterval());
+    }
+
+    @Test
+    void schedulesPollsWithJitter() {
+        final var taskScheduler = new ManualTaskScheduler();
+        final var results = new ArrayDeque<>(List.of(Result.UNCHANGED, Result.CHANGED));
+        final var poller = createPoller(taskScheduler, results);
+
+        poller.start();
+        assertDelay(INTERVAL, taskScheduler.delays.getLast());
+
+        taskScheduler.runNext();
+        assertEquals(Duration.ofSeconds(45), poller.getInterval());
+        assertDelay(Duration.ofSeconds(45), taskScheduler.delays.getLast());
+
+        taskScheduler.runNext();
+        assertEquals(Duration.ofMillis(22_500), poller.getInterval());
+        assertDelay(Duration.ofMillis(22_500), taskScheduler.delays.getLast());
+        assertTrue(results.isEmpty());
+    }
+
+    @Test
+    void backsOffAfterException() {
+        final var taskScheduler = new ManualTaskScheduler();
+        final var poller = new AdaptivePoller(taskScheduler, Runnable::run, "test", INTERVAL, MIN_INTERVAL, MAX_INTERVAL, () -> {
+            throw new IllegalStateException("broken");
+        });
+        poller.start();
+        taskScheduler.runNext();
+        assertEquals(Duration.ofMinutes(1), poller.getInterval());
+    }
+
+    @Test
+    void resetsIntervalAndReschedules() {
+        final var taskScheduler = new ManualTaskScheduler();
+        final var poller = createPoller(taskScheduler, new ArrayDeque<>());
+        poller.adapt(Result.UNCHANGED);
+        poller.start();
+        poller.reset();
+        assertEquals(MIN_INTERVAL, poller.getInterval());
+        assertEquals(2, taskScheduler.delays.size());
+        assertDelay(MIN_INTERVAL, taskScheduler.delays.getLast());
+    }
+
+    @Test
+    void stopsPolling() {
+        final var taskScheduler = new ManualTaskScheduler();
+        final var results = new ArrayDeque<>(List.of(Result.CHANGED));
+        final var poller = createPoller(taskScheduler, results);
+        poller.start();
+        poller.stop();
+        taskScheduler.runNext(); // a poll already triggered must not schedule the next one
+        assertEquals(1, taskScheduler.delays.size());
+    }
+
+    private static @NotNull AdaptivePoller createPoller(final @NotNull ManualTaskScheduler taskScheduler,
+                                                        final @NotNull Deque<Result> results) {
+        return new AdaptivePoller(taskScheduler, Runnable::run, "test", INTERVAL, MIN_INTERVAL, MAX_INTERVAL, results::removeFirst);
+    }
+
+    private static void assertDelay(final @NotNull Duration interval, final @NotNull Duration delay) {
+        final var millis = interval.toMillis();
+        assertTrue(delay.toMillis() >= millis * 0.8 - 1000 && delay.toMillis() <= millis * 1.2,
+                "delay %s is not within 20%% of %s".formatted(delay, interval));
+    }
+
+    private static final class ManualTaskScheduler extends NoOpTaskScheduler {
+
+        private final @NotNull List<Duration> delays = new ArrayList<>();
+        private final @NotNull Deque<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public @NotNull ScheduledFuture<?> schedule(final @NotNull Runnable task, final @NotNull Instant startTime) {
+            delays.add(Duration.between(Instant.now(), startTime));
+            tasks.add(task);
+            return super.schedule(task, startTime);
+        }
+
+        private void runNext() {
+            tasks.removeFirst().run();
+        }
+    }
+
+}
@@ -24,14 +24,18 @@ import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Test;
 import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.support.NoOpTaskScheduler;
+import swiss.fihlon.apus.ApplicationI18NProvider;
 import swiss.fihlon.apus.MemoryAppender;
 import swiss.fihlon.apus.configuration.AppConfig;
 import swiss.fihlon.apus.event.Language;
 import swiss.fihlon.apus.event.Room;
+import swiss.fihlon.apus.event.RoomStyle;
 import swiss.fihlon.apus.event.Session;
 import swiss.fihlon.apus.event.SessionImportException;
 import swiss.fihlon.apus.event.Speaker;
 import swiss.fihlon.apus.event.Track;
+import swiss.fihlon.apus.http.FetchExecutor;
+import swiss.fihlon.apus.plugin.event.AgendaFrame.LegendItem;
 
 import java.time.Duration;
 import java.time.LocalDate;
@@ -46,15 +50,22 @@ import java.util.Locale;
 import java.util.stream.Stream;
 
 import static java.time.temporal.ChronoUnit.DAYS;
+import static java.time.temporal.ChronoUnit.MINUTES;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
+import static swiss.fihlon.apus.http.HttpTestUtil.HTTP_CONFIG;
 
 class EventServiceTest {
 
+    private static final @NotNull FetchExecutor FETCH_EXECUTOR = new FetchExecutor(HTTP_CONFIG);
+
     private static final Locale TEST_LOCALE = Locale.ENGLISH;
     private static final ZoneId TEST_TIMEZONE = ZoneId.of("Europe/Zurich");
+    private static final ApplicationI18NProvider I18N_PROVIDER = new ApplicationI18NProvider(mockConfiguration(Period.ZERO, Duration.ZERO, false));
 
     static AppConfig mockConfiguration(final @NotNull Period dateAdjust, final @NotNull Duration timeAdjust, boolean demoMode) {
         final var eventConfig = new EventConfig(dateAdjust, timeAdjust, "", 60,
@@ -71,7 +82,8 @@ class EventServiceTest {
     void getRoomsWithSessionsInDemoMode() {
         // TestEventPlugin should be ignored and replaced by EventDemoPlugin
         final EventService eventService = new EventService(
-                new NoOpTaskScheduler(), mockConfiguration(Period.ZERO, Duration.ZERO, true), List.of(new TestEventPlugin()));
+                new NoOpTaskScheduler(), FETCH_EXECUTOR, mockConfiguration(Period.ZERO, Duration.ZERO, true), I18N_PROVIDER,
+                List.of(new TestEventPlugin()));
         final var roomsWithSessions = eventService.getRoomsWithSessions();
 
         // There should be four rooms
@@ -99,7 +111,8 @@ class EventServiceTest {
     void getRoomsWithSessions() {
         // TestEventPlugin creates a shuffled list of sessions...
         final EventService eventService = new EventService(
-                new NoOpTaskScheduler(), mockConfiguration(Period.ZERO, Duration.ZERO, false), List.of(new TestEventPlugin()));
+                new NoOpTaskScheduler(), FETCH_EXECUTOR, mockConfiguration(Period.ZERO, Duration.ZERO, false), I18N_PROVIDER,
+                List.of(new TestEventPlugin()));
 
         // ...which is sorted and grouped by the EventService.
         final var roomsWithSessions = eventService.getRoomsWithSessions();
@@ -129,7 +142,8 @@ class EventServiceTest {
 
         memoryAppender.start();
         final var eventService = new EventService(
-                new NoOpTaskScheduler(), mockConfiguration(Period.ZERO, Duration.ZERO, false), List.of(new DisabledEventPlugin()));
+                new NoOpTaskScheduler(), FETCH_EXECUTOR, mockConfiguration(Period.ZERO, Duration.ZERO, false), I18N_PROVIDER,
+                List.of(new DisabledEventPlugin()));
         eventService.stopUpdateScheduler();
         memoryAppender.stop();
 
@@ -141,7 +155,8 @@ class EventServiceTest {
     void getSessionsWithDateAdjust() {
         final var expectedDate = LocalDate.now(TEST_TIMEZONE).plusDays(10);
         final var eventService = new EventService(
-                new NoOpTaskScheduler(), mockConfiguration(Period.ofDays(10), Duration.ZERO, false), List.of(new NowEventPlugin()));
+                new NoOpTaskScheduler(), FETCH_EXECUTOR, mockConfiguration(Period.ofDays(10), Duration.ZERO, false), I18N_PROVIDER,
+                List.of(new NowEventPlugin()));
         final var roomsWithSessions = eventService.getRoomsWithSessions();
         for (final var sessions : roomsWithSessions.values()) {
             for (final var session : sessions) {
@@ -154,7 +169,8 @@ class EventServiceTest {
     void getSessionsWithTimeAdjust() {
         final var expectedTime = LocalTime.now(TEST_TIMEZONE).plusHours(5);
         final var eventService = new EventService(
-                new NoOpTaskScheduler(), mockConfiguration(Period.ZERO, Duration.ofHours(5), false), List.of(new NowEventPlugin()));
+                new NoOpTaskScheduler(), FETCH_EXECUTOR, mockConfiguration(Period.ZERO, Duration.ofHours(5), false), I18N_PROVIDER,
+                List.of(new NowEventPlugin()));
         final var roomsWithSessions = eventService.getRoomsWithSessions();
         for (final var sessions : roomsWithSessions.values()) {
             for (final var session : sessions) {
@@ -163,6 +179,71 @@ class EventServiceTest {
         }
     }
 
+    @Test
+    void getAgendaFrame() {
+        final var eventService = new EventService(
+                new NoOpTaskScheduler(), FETCH_EXECUTOR, mockConfiguration(Period.ZERO, Duration.ZERO, false), I18N_PROVIDER,
+                List.of(new NowEventPlugin()));
+        final var agendaFrame = eventService.getAgendaFrame();
+        assertFalse(agendaFrame.scheduleEmpty());
+        assertEquals(1, agendaFrame.rooms().size());
+
+        final var roomAgenda = agendaFrame.rooms().getFirst();
+        assertEquals(new Room("Room X"), roomAgenda.room());
+        assertEquals(RoomStyle.RUNNING, roomAgenda.roomStyle());
+        assertEquals("Test Session", roomAgenda.title());
+        assertEquals("Speaker 1", roomAgenda.speakers());
+        assertTrue(roomAgenda.time().matches("ends in \\d+ minutes"), roomAgenda.time());
+        assertEquals(List.of(new LegendItem(RoomStyle.RUNNING, "running session")), agendaFrame.legend());
+    }
+
+    @Test
+    void getAgendaFrameWithNextSession() {
+        final var startDate = ZonedDateTime.now(TEST_TIMEZONE).truncatedTo(MINUTES).plusMinutes(1);
+        final var endDate = startDate.plusMinutes(45);
+        final var agendaFrame = getAgendaFrame(startDate, endDate);
+        final var roomAgenda = agendaFrame.rooms().getFirst();
+        assertEquals(RoomStyle.NEXT, roomAgenda.roomStyle());
+        assertEquals("%s - %s".formatted(startDate.toLocalTime(), endDate.toLocalTime()), roomAgenda.time());
+        assertEquals(List.of(new LegendItem(RoomStyle.NEXT, "next session")), agendaFrame.legend());
+    }
+
+    @Test
+    void getAgendaFrameWithSessionEndingInOneMinute() {
+        final var now = ZonedDateTime.now(TEST_TIMEZONE).truncatedTo(MINUTES);
+        final var roomAgenda = getAgendaFrame(now.minusMinutes(30), now.plusMinutes(2)).rooms().getFirst();
+        assertEquals(RoomStyle.RUNNING, roomAgenda.roomStyle());
+        assertEquals("ends in one minute", roomAgenda.time());
+    }
+
+    @Test
+    void getAgendaFrameWithSessionEndingNow() {
+        final var now = ZonedDateTime.now(TEST_TIMEZONE).truncatedTo(MINUTES);
+        final var roomAgenda = getAgendaFrame(now.minusMinutes(30), now.plusMinutes(1)).rooms().getFirst();
+        assertEquals(RoomStyle.RUNNING, roomAgenda.roomStyle());
+        assertEquals("ends now", roomAgenda.time());
+    }
+
+    private static @NotNull AgendaFrame getAgendaFrame(final @NotNull ZonedDateTime startDate, final @NotNull ZonedDateTime endDate) {
+        final var eventService = new EventService(
+                new NoOpTaskScheduler(), FETCH_EXECUTOR, mockConfiguration(Period.ZERO, Duration.ZERO, false), I18N_PROVIDER,
+                List.of(new FixedEventPlugin(startDate, endDate)));
+        final var agendaFrame = eventService.getAgendaFrame();
+        assertEquals(1, agendaFrame.rooms().size());
+        return agendaFrame;
+    }
+
+    @Test
+    void getAgendaFrameWithoutSessions() {
+        final var eventService = new EventService(
+                new NoOpTaskScheduler(), FETCH_EXECUTOR, mockConfiguration(Period.ZERO, Duration.ZERO, false), I18N_PROVIDER,
+                List.of(new DisabledEventPlugin()));
+        final var agendaFrame = eventService.getAgendaFrame();
+        assertTrue(agendaFrame.scheduleEmpty());
+        assertTrue(agendaFrame.rooms().isEmpty());
+        assertTrue(agendaFrame.legend().isEmpty());
+    }
+
     @Test
     void importExceptionHandling() {
         final MemoryAppender memoryAppender = new MemoryAppender();
@@ -171,7 +252,8 @@ class EventServiceTest {
         logger.addAppender(memoryAppender);
 
         memoryAppender.start();
-        new EventService(new NoOpTaskScheduler(), mockConfiguration(Period.ZERO, Duration.ZERO, false), List.of(new ExceptionEventPlugin()));
+        new EventService(new NoOpTaskScheduler(), FETCH_EXECUTOR, mockConfiguration(Period.ZERO, Duration.ZERO, false), I18N_PROVIDER,
+                List.of(new ExceptionEventPlugin()));
         memoryAppender.stop();
 
         final int errorCount = memoryAppender.searchMessages("Failed to import sessions", Level.ERROR).size();
@@ -241,6 +323,29 @@ class EventServiceTest {
 
     }
 
+    static final class FixedEventPlugin implements EventPlugin {
+
+        private final @NotNull ZonedDateTime startDate;
+        private final @NotNull ZonedDateTime endDate;
+
+        FixedEventPlugin(final @NotNull ZonedDateTime startDate, final @NotNull ZonedDateTime endDate) {
+            this.startDate = startDate;
+            this.endDate = endDate;
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+
+        @Override
+        public @NotNull Stream<Session> getSessions() {
+            final var speakers = List.of(new Speaker("Speaker 1"));
+            return Stream.of(new Session("TEST-0", startDate, endDate, new Room("Room X"), "Test Session", speakers, Language.EN, Track.NONE));
+        }
+
+    }
+
     static final class NowEventPlugin implements EventPlugin {
 
         @Override
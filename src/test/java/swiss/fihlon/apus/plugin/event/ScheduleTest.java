@@ -0,0 +1,89 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.plugin.event;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import swiss.fihlon.apus.event.Language;
+import swiss.fihlon.apus.event.Room;
+import swiss.fihlon.apus.event.Session;
+import swiss.fihlon.apus.event.Speaker;
+import swiss.fihlon.apus.event.Track;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScheduleTest {
+
+    private static final @NotNull ZonedDateTime MORNING = ZonedDateTime.parse("2024-01-01T09:00:00+01:00[Europe/Zurich]");
+    private static final @NotNull Room ROOM_A = new Room("Room A");
+    private static final @NotNull Room ROOM_B = new Room("Room B");
+
+    @Test
+    void emptySchedule() {
+        assertTrue(Schedule.EMPTY.getRooms().isEmpty());
+        assertTrue(Schedule.EMPTY.getRoomsWithSessions().isEmpty());
+        assertNull(Schedule.EMPTY.getCurrentOrNextSession(ROOM_A, MORNING));
+    }
+
+    @Test
+    void getCurrentOrNextSession() {
+        final var first = session("1", ROOM_A, 0);
+        final var second = session("2", ROOM_A, 1);
+        final var schedule = Schedule.of(List.of(second, first, session("3", ROOM_B, 0)));
+
+        assertEquals(first, schedule.getCurrentOrNextSession(ROOM_A, MORNING.minusHours(1)));
+        assertEquals(first, schedule.getCurrentOrNextSession(ROOM_A, MORNING.plusMinutes(30)));
+        assertEquals(second, schedule.getCurrentOrNextSession(ROOM_A, first.endDate()));
+        assertNull(schedule.getCurrentOrNextSession(ROOM_A, second.endDate()));
+        assertNull(schedule.getCurrentOrNextSession(new Room("Room C"), MORNING));
+
+        assertEquals(Set.of(ROOM_A, ROOM_B), schedule.getRooms());
+        assertEquals(List.of(first, second), schedule.getRoomsWithSessions().get(ROOM_A));
+    }
+
+    @Test
+    void updateSharesUnchangedRooms() {
+        final var first = session("1", ROOM_A, 0);
+        final var other = session("3", ROOM_B, 0);
+        final var schedule = Schedule.of(List.of(first, other));
+
+        final var moved = session("1", ROOM_A, 2);
+        final var updated = schedule.update(List.of(first), List.of(moved));
+        assertEquals(List.of(moved), updated.getRoomsWithSessions().get(ROOM_A));
+        assertSame(schedule.getRoomsWithSessions().get(ROOM_B), updated.getRoomsWithSessions().get(ROOM_B));
+        assertEquals(List.of(first), schedule.getRoomsWithSessions().get(ROOM_A));
+
+        final var withoutRoomB = updated.update(List.of(other), List.of());
+        assertEquals(Set.of(ROOM_A), withoutRoomB.getRooms());
+        assertSame(withoutRoomB, withoutRoomB.update(List.of(), List.of()));
+    }
+
+    private static @NotNull Session session(final @NotNull String id, final @NotNull Room room, final int hours) {
+        final var startDate = MORNING.plusHours(hours);
+        return new Session(id, startDate, startDate.plusMinutes(45), room, "Session " + id,
+                List.of(new Speaker("Speaker " + id)), Language.EN, Track.NONE);
+    }
+
+}
@@ -17,11 +17,14 @@
  */
 package swiss.fihlon.apus.plugin.event.devoxx;
 
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -33,11 +36,26 @@ import swiss.fihlon.apus.event.Session;
 import swiss.fihlon.apus.event.SessionImportException;
 import swiss.fihlon.apus.event.Speaker;
 import swiss.fihlon.apus.event.Track;
+import swiss.fihlon.apus.http.FetchExecutor;
+import swiss.fihlon.apus.http.HttpService;
 import swiss.fihlon.apus.util.FixedPortContainer;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -46,9 +64,12 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
+import static swiss.fihlon.apus.http.HttpTestUtil.HTTP_CONFIG;
 
 class DevoxxPluginTest {
 
+    private static final HttpService HTTP_SERVICE = new HttpService(HTTP_CONFIG);
+    private static final FetchExecutor FETCH_EXECUTOR = new FetchExecutor(HTTP_CONFIG);
     private static final @NotNull String NGINX_IMAGE_NAME = "nginx:latest";
     private static final int NGINX_FIXED_PORT = 8088;
     private static final int NGINX_CONTAINER_PORT = 80;
@@ -95,7 +116,7 @@ class DevoxxPluginTest {
         final var devoxxConfig = new DevoxxConfig(eventApi, eventId, weekday);
         when(appConfig.devoxx()).thenReturn(devoxxConfig);
 
-        final var devoxxPlugin = new DevoxxPlugin(appConfig);
+        final var devoxxPlugin = new DevoxxPlugin(appConfig, HTTP_SERVICE, FETCH_EXECUTOR);
         assertFalse(devoxxPlugin.isEnabled());
     }
 
@@ -105,7 +126,7 @@ class DevoxxPluginTest {
         final var devoxxConfig = new DevoxxConfig("localhost", "foobar", "monday");
         when(appConfig.devoxx()).thenReturn(devoxxConfig);
 
-        final var devoxxPlugin = new DevoxxPlugin(appConfig);
+        final var devoxxPlugin = new DevoxxPlugin(appConfig, HTTP_SERVICE, FETCH_EXECUTOR);
         assertTrue(devoxxPlugin.isEnabled());
     }
 
@@ -120,7 +141,7 @@ class DevoxxPluginTest {
         when(appConfig.devoxx()).thenReturn(devoxxConfig);
         when(appConfig.timezone()).thenReturn(timezone);
 
-        final var devoxxPlugin = new DevoxxPlugin(appConfig);
+        final var devoxxPlugin = new DevoxxPlugin(appConfig, HTTP_SERVICE, FETCH_EXECUTOR);
         final var sessions = devoxxPlugin.getSessions().toList();
         assertEquals(8, sessions.size());
 
@@ -178,9 +199,166 @@ class DevoxxPluginTest {
                 "file:src/test/resources/testdata/devoxx-broken.json?eventId=${event}&weekday=${weekday}",
                 "1", "monday");
         when(appConfig.devoxx()).thenReturn(devoxxConfig);
+        when(appConfig.timezone()).thenReturn(ZoneOffset.UTC);
 
-        final var devoxxPlugin = new DevoxxPlugin(appConfig);
+        final var devoxxPlugin = new DevoxxPlugin(appConfig, HTTP_SERVICE, FETCH_EXECUTOR);
         assertThrows(SessionImportException.class, devoxxPlugin::getSessions);
     }
 
+    @Test
+    void getSessionsOfAllDays(final @TempDir @NotNull Path tempDir) throws IOException {
+        writeSchedule(tempDir, "monday", "Opening");
+        writeSchedule(tempDir, "tuesday", "Closing");
+        final var appConfig = mock(AppConfig.class);
+        final var devoxxConfig = new DevoxxConfig(tempDir.toUri() + "${weekday}.json", "BBAD", "Monday, Tuesday");
+        when(appConfig.devoxx()).thenReturn(devoxxConfig);
+        when(appConfig.timezone()).thenReturn(ZoneOffset.UTC);
+        final var clock = mock(Clock.class);
+        final var monday = Instant.parse("2024-01-01T10:00:00Z");
+        when(clock.instant()).thenReturn(monday);
+
+        final var devoxxPlugin = new DevoxxPlugin(appConfig, HTTP_SERVICE, FETCH_EXECUTOR, clock);
+        assertEquals(List.of("Opening", "Closing"), titles(devoxxPlugin));
+
+        // today is refreshed with every call, the other days only once per hour
+        writeSchedule(tempDir, "monday", "Keynote");
+        writeSchedule(tempDir, "tuesday", "Farewell");
+        assertEquals(List.of("Keynote", "Closing"), titles(devoxxPlugin));
+
+        when(clock.instant()).thenReturn(monday.plus(Duration.ofHours(1)));
+        assertEquals(List.of("Keynote", "Farewell"), titles(devoxxPlugin));
+    }
+
+    @Test
+    void getSessionsKeepsDaysFailingToLoad(final @TempDir @NotNull Path tempDir) throws IOException {
+        writeSchedule(tempDir, "monday", "Opening");
+        writeSchedule(tempDir, "tuesday", "Closing");
+        final var appConfig = mock(AppConfig.class);
+        final var devoxxConfig = new DevoxxConfig(tempDir.toUri() + "${weekday}.json", "BBAD", "Monday, Tuesday");
+        when(appConfig.devoxx()).thenReturn(devoxxConfig);
+        when(appConfig.timezone()).thenReturn(ZoneOffset.UTC);
+        final var clock = mock(Clock.class);
+        final var monday = Instant.parse("2024-01-01T10:00:00Z");
+        when(clock.instant()).thenReturn(monday);
+
+        final var devoxxPlugin = new DevoxxPlugin(appConfig, HTTP_SERVICE, FETCH_EXECUTOR, clock);
+        assertEquals(List.of("Opening", "Closing"), titles(devoxxPlugin));
+
+        // a day failing to load keeps its last sessions
+        writeSchedule(tempDir, "monday", "Keynote");
+        Files.writeString(tempDir.resolve("tuesday.json"), "[{");
+        when(clock.instant()).thenReturn(monday.plus(Duration.ofHours(1)));
+        assertEquals(List.of("Keynote", "Closing"), titles(devoxxPlugin));
+
+        // the import fails only if no day could be loaded
+        Files.writeString(tempDir.resolve("monday.json"), "[{");
+        assertThrows(SessionImportException.class, devoxxPlugin::getSessions);
+    }
+
+    @Test
+    void getSessionsWithChangedTrackIconAndUnchangedSchedule(final @TempDir @NotNull Path tempDir) throws IOException {
+        final var iconETag = new AtomicReference<>("\"icon1\"");
+        final var scheduleNotModified = new AtomicInteger();
+        final var server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        final var baseUrl = "http://localhost:%d".formatted(server.getAddress().getPort());
+        final var schedule = """
+                [{"id": 1, "fromDate": "2024-01-01T09:00:00Z", "toDate": "2024-01-01T10:00:00Z", "room": {"name": "Room A"},
+                  "proposal": {"title": "Opening", "speakers": [], "track": {"imageURL": "%s/track.svg"}}}]
+                """.formatted(baseUrl).getBytes(StandardCharsets.UTF_8);
+        server.createContext("/monday.json", exchange -> respond(exchange, "\"schedule\"", schedule, scheduleNotModified));
+        server.createContext("/track.svg", exchange -> {
+            final var eTag = iconETag.get();
+            respond(exchange, eTag, "<svg id=%s/>".formatted(eTag).getBytes(StandardCharsets.UTF_8), new AtomicInteger());
+        });
+        server.start();
+        try {
+            final var appConfig = mock(AppConfig.class);
+            final var devoxxConfig = new DevoxxConfig(baseUrl + "/${weekday}.json", "BBAD", "Monday");
+            when(appConfig.devoxx()).thenReturn(devoxxConfig);
+            when(appConfig.timezone()).thenReturn(ZoneOffset.UTC);
+            final var clock = mock(Clock.class);
+            final var monday = Instant.parse("2024-01-01T08:00:00Z");
+            when(clock.instant()).thenReturn(monday);
+
+            final var trackImageCache = new TrackImageCache(HTTP_SERVICE, tempDir, clock);
+            final var devoxxPlugin = new DevoxxPlugin(appConfig, HTTP_SERVICE, FETCH_EXECUTOR, clock, trackImageCache);
+            assertEquals("<svg id=\"icon1\"/>", devoxxPlugin.getSessions().toList().getFirst().track().svgCode());
+
+            // the schedule is not modified, but the icon is revalidated and has changed
+            iconETag.set("\"icon2\"");
+            when(clock.instant()).thenReturn(monday.plus(Duration.ofHours(2)));
+            final var sessions = devoxxPlugin.getSessions().toList();
+            assertEquals(1, scheduleNotModified.get());
+            assertEquals("<svg id=\"icon2\"/>", sessions.getFirst().track().svgCode());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void getSessionsWithMissingTrackIcon(final @TempDir @NotNull Path tempDir) throws IOException {
+        final var server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        final var baseUrl = "http://localhost:%d".formatted(server.getAddress().getPort());
+        final var schedule = """
+                [{"id": 1, "fromDate": "2024-01-01T09:00:00Z", "toDate": "2024-01-01T10:00:00Z", "room": {"name": "Room A"},
+                  "proposal": {"title": "Opening", "speakers": [], "track": {"imageURL": "%1$s/missing.svg"}}},
+                 {"id": 2, "fromDate": "2024-01-01T10:00:00Z", "toDate": "2024-01-01T11:00:00Z", "room": {"name": "Room A"},
+                  "proposal": {"title": "Keynote", "speakers": [], "track": {"imageURL": "%1$s/track.svg"}}}]
+                """.formatted(baseUrl).getBytes(StandardCharsets.UTF_8);
+        server.createContext("/monday.json", exchange -> respond(exchange, "\"schedule\"", schedule, new AtomicInteger()));
+        server.createContext("/missing.svg", exchange -> {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        server.createContext("/track.svg", exchange -> respond(exchange, "\"icon\"",
+                "<svg id=\"icon\"/>".getBytes(StandardCharsets.UTF_8), new AtomicInteger()));
+        server.start();
+        try {
+            final var appConfig = mock(AppConfig.class);
+            final var devoxxConfig = new DevoxxConfig(baseUrl + "/${weekday}.json", "BBAD", "Monday");
+            when(appConfig.devoxx()).thenReturn(devoxxConfig);
+            when(appConfig.timezone()).thenReturn(ZoneOffset.UTC);
+            final var clock = mock(Clock.class);
+            when(clock.instant()).thenReturn(Instant.parse("2024-01-01T08:00:00Z"));
+
+            final var trackImageCache = new TrackImageCache(HTTP_SERVICE, tempDir, clock);
+            final var devoxxPlugin = new DevoxxPlugin(appConfig, HTTP_SERVICE, FETCH_EXECUTOR, clock, trackImageCache);
+            final var sessions = devoxxPlugin.getSessions().toList();
+
+            // an icon failing to load does not drop the sessions of the day
+            assertEquals(List.of("Opening", "Keynote"), sessions.stream().map(Session::title).toList());
+            assertEquals(Track.NONE, sessions.getFirst().track());
+            assertEquals("<svg id=\"icon\"/>", sessions.getLast().track().svgCode());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static void respond(final @NotNull HttpExchange exchange, final @NotNull String eTag, final byte @NotNull [] body,
+                                final @NotNull AtomicInteger notModified) throws IOException {
+        if (eTag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            notModified.incrementAndGet();
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        exchange.getResponseHeaders().add("ETag", eTag);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static @NotNull List<String> titles(final @NotNull DevoxxPlugin devoxxPlugin) {
+        return devoxxPlugin.getSessions().map(Session::title).toList();
+    }
+
+    private static void writeSchedule(final @NotNull Path directory, final @NotNull String weekday, final @NotNull String title)
+            throws IOException {
+        Files.writeString(directory.resolve(weekday + ".json"), """
+                [{"id": 1, "fromDate": "2024-01-01T09:00:00Z", "toDate": "2024-01-01T10:00:00Z", "room": {"name": "Room A"},
+                  "proposal": {"title": "%s", "speakers": [], "track": null}}]
+                """.formatted(title));
+    }
+
 }
@@ -0,0 +1,141 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.plugin.event.devoxx;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import swiss.fihlon.apus.http.HttpService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static swiss.fihlon.apus.http.HttpTestUtil.HTTP_CONFIG;
+
+class TrackImageCacheTest {
+
+    private static final @NotNull Instant NOW = Instant.parse("2024-01-01T10:00:00Z");
+
+    private final @NotNull AtomicInteger requests = new AtomicInteger();
+    private final @NotNull AtomicReference<String> eTag = new AtomicReference<>("\"v1\"");
+    private final @NotNull AtomicReference<String> svgCode = new AtomicReference<>("<svg>v1</svg>");
+    private final @NotNull Clock clock = mock(Clock.class);
+
+    private HttpServer server;
+    private String baseUrl;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/track", this::respond);
+        server.start();
+        baseUrl = "http://localhost:%d".formatted(server.getAddress().getPort());
+        when(clock.instant()).thenReturn(NOW);
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void downloadsEveryIconOnlyOnce(final @TempDir @NotNull Path tempDir) throws Exception {
+        final var cache = new TrackImageCache(new HttpService(HTTP_CONFIG), tempDir, clock);
+        final var track = cache.get(baseUrl + "/track/java.svg");
+        assertEquals("<svg>v1</svg>", track.svgCode());
+        assertSame(track, cache.get(baseUrl + "/track/java.svg"));
+        assertEquals(1, requests.get());
+
+        // another URL with the same content shares the track instance
+        assertSame(track, cache.get(baseUrl + "/track/cloud.svg"));
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    void revalidatesIconsWithTheirETag(final @TempDir @NotNull Path tempDir) throws Exception {
+        final var cache = new TrackImageCache(new HttpService(HTTP_CONFIG), tempDir, clock);
+        final var track = cache.get(baseUrl + "/track/java.svg");
+
+        when(clock.instant()).thenReturn(NOW.plus(Duration.ofHours(1)));
+        assertSame(track, cache.get(baseUrl + "/track/java.svg"));
+        assertEquals(2, requests.get());
+
+        eTag.set("\"v2\"");
+        svgCode.set("<svg>v2</svg>");
+        when(clock.instant()).thenReturn(NOW.plus(Duration.ofHours(2)));
+        final var changedTrack = cache.get(baseUrl + "/track/java.svg");
+        assertNotSame(track, changedTrack);
+        assertEquals("<svg>v2</svg>", changedTrack.svgCode());
+    }
+
+    @Test
+    void restoresIconsFromDisk(final @TempDir @NotNull Path tempDir) throws Exception {
+        new TrackImageCache(new HttpService(HTTP_CONFIG), tempDir, clock).get(baseUrl + "/track/java.svg");
+        svgCode.set("<svg>unchanged content is not downloaded again</svg>");
+
+        final var cache = new TrackImageCache(new HttpService(HTTP_CONFIG), tempDir, clock);
+        assertEquals("<svg>v1</svg>", cache.get(baseUrl + "/track/java.svg").svgCode());
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    void keepsCachedIconWhenServerFails(final @TempDir @NotNull Path tempDir) throws Exception {
+        new TrackImageCache(new HttpService(HTTP_CONFIG), tempDir, clock).get(baseUrl + "/track/java.svg");
+        server.removeContext("/track");
+
+        final var cache = new TrackImageCache(new HttpService(HTTP_CONFIG), tempDir, clock);
+        assertEquals("<svg>v1</svg>", cache.get(baseUrl + "/track/java.svg").svgCode());
+        assertThrows(IOException.class, () -> cache.get(baseUrl + "/track/unknown.svg"));
+    }
+
+    private void respond(final @NotNull HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        final var currentETag = eTag.get();
+        if (currentETag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        final var body = svgCode.get().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("ETag", currentETag);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+}
@@ -24,6 +24,7 @@ import swiss.fihlon.apus.event.Room;
 import swiss.fihlon.apus.event.Session;
 import swiss.fihlon.apus.event.SessionImportException;
 import swiss.fihlon.apus.event.Speaker;
+import swiss.fihlon.apus.http.HttpService;
 
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
@@ -34,16 +35,19 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
+import static swiss.fihlon.apus.http.HttpTestUtil.HTTP_CONFIG;
 
 class DoagPluginTest {
 
+    private static final HttpService HTTP_SERVICE = new HttpService(HTTP_CONFIG);
+
     @Test
     void isEnabled() {
         final var appConfig = mock(AppConfig.class);
         final var doagConfig = new DoagConfig(1, "");
         when(appConfig.doag()).thenReturn(doagConfig);
 
-        final var doagPlugin = new DoagPlugin(appConfig);
+        final var doagPlugin = new DoagPlugin(appConfig, HTTP_SERVICE);
         assertTrue(doagPlugin.isEnabled());
     }
 
@@ -53,7 +57,7 @@ class DoagPluginTest {
         final var doagConfig = new DoagConfig(0, "");
         when(appConfig.doag()).thenReturn(doagConfig);
 
-        final var doagPlugin = new DoagPlugin(appConfig);
+        final var doagPlugin = new DoagPlugin(appConfig, HTTP_SERVICE);
         assertFalse(doagPlugin.isEnabled());
     }
 
@@ -65,7 +69,7 @@ class DoagPluginTest {
         when(appConfig.doag()).thenReturn(doagConfig);
         when(appConfig.timezone()).thenReturn(timezone);
 
-        final var doagPlugin = new DoagPlugin(appConfig);
+        final var doagPlugin = new DoagPlugin(appConfig, HTTP_SERVICE);
         final var sessions = doagPlugin.getSessions().toList();
         assertEquals(8, sessions.size());
 
@@ -75,8 +79,8 @@ class DoagPluginTest {
             assertTrue(sessionIds.contains(sessionId));
         }
 
-        // full check of session with ID "BBAD:5"
-        final var session = sessions.get(5);
+        // full check of session with ID "BBAD:5" (sessions are in the order of the rooms in the document)
+        final var session = sessions.get(4);
         assertEquals("BBAD:5", session.id());
         assertEquals(ZonedDateTime.of(2024, 1, 3, 19, 0, 0, 0, timezone), session.startDate());
         assertEquals(ZonedDateTime.of(2024, 1, 3, 19, 45, 0, 0, timezone), session.endDate());
@@ -94,7 +98,7 @@ class DoagPluginTest {
         final var doagConfig = new DoagConfig(1, "file:src/test/resources/testdata/DOAG-broken-title.json?eventId=${event}");
         when(appConfig.doag()).thenReturn(doagConfig);
 
-        final var doagPlugin = new DoagPlugin(appConfig);
+        final var doagPlugin = new DoagPlugin(appConfig, HTTP_SERVICE);
         final var exception = assertThrows(SessionImportException.class, doagPlugin::getSessions);
         assertEquals("Error parsing slot 1: No title with language 'de' or 'en' for session '1'", exception.getMessage());
     }
@@ -105,9 +109,20 @@ class DoagPluginTest {
         final var doagConfig = new DoagConfig(1, "file:src/test/resources/testdata/DOAG-blank-title.json?eventId=${event}");
         when(appConfig.doag()).thenReturn(doagConfig);
 
-        final var doagPlugin = new DoagPlugin(appConfig);
+        final var doagPlugin = new DoagPlugin(appConfig, HTTP_SERVICE);
         final var exception = assertThrows(SessionImportException.class, doagPlugin::getSessions);
         assertEquals("Error parsing slot 1: No title with language 'de' or 'en' for session '1'", exception.getMessage());
     }
 
+    @Test
+    void exceptionWithoutAcronym() {
+        final var appConfig = mock(AppConfig.class);
+        final var doagConfig = new DoagConfig(1, "file:src/test/resources/testdata/DOAG-no-acronym.json?eventId=${event}");
+        when(appConfig.doag()).thenReturn(doagConfig);
+
+        final var doagPlugin = new DoagPlugin(appConfig, HTTP_SERVICE);
+        final var exception = assertThrows(SessionImportException.class, doagPlugin::getSessions);
+        assertEquals("Error parsing slot 1: No acronym found", exception.getMessage());
+    }
+
 }
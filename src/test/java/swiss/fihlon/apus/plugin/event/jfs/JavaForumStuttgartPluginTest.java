@@ -1,16 +1,28 @@
 package swiss.fihlon.apus.plugin.event.jfs;
 
+import com.sun.net.httpserver.HttpServer;
+import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import swiss.fihlon.apus.configuration.AppConfig;
 import swiss.fihlon.apus.event.Language;
 import swiss.fihlon.apus.event.Room;
 import swiss.fihlon.apus.event.SessionImportException;
 import swiss.fihlon.apus.event.Speaker;
-
+import swiss.fihlon.apus.http.HttpService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -19,9 +31,11 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
+import static swiss.fihlon.apus.http.HttpTestUtil.HTTP_CONFIG;
 
 class JavaForumStuttgartPluginTest {
 
+    private static final HttpService HTTP_SERVICE = new HttpService(HTTP_CONFIG);
     private static final ZoneId TEST_TIMEZONE = ZoneId.of("Europe/Berlin");
 
     @Test
@@ -30,7 +44,7 @@ class JavaForumStuttgartPluginTest {
         final var jfsConfig = new JavaForumStuttgartConfig("test");
         when(appConfig.jfs()).thenReturn(jfsConfig);
 
-        final var jfsPlugin = new JavaForumStuttgartPlugin(appConfig);
+        final var jfsPlugin = new JavaForumStuttgartPlugin(appConfig, HTTP_SERVICE);
         assertTrue(jfsPlugin.isEnabled());
     }
 
@@ -40,7 +54,7 @@ class JavaForumStuttgartPluginTest {
         final var jfsConfig = new JavaForumStuttgartConfig("");
         when(appConfig.jfs()).thenReturn(jfsConfig);
 
-        final var jfsPlugin = new JavaForumStuttgartPlugin(appConfig);
+        final var jfsPlugin = new JavaForumStuttgartPlugin(appConfig, HTTP_SERVICE);
         assertFalse(jfsPlugin.isEnabled());
     }
 
@@ -51,7 +65,7 @@ class JavaForumStuttgartPluginTest {
         when(appConfig.jfs()).thenReturn(jfsConfig);
         when(appConfig.timezone()).thenReturn(TEST_TIMEZONE);
 
-        final var jfsPlugin = new JavaForumStuttgartPlugin(appConfig);
+        final var jfsPlugin = new JavaForumStuttgartPlugin(appConfig, HTTP_SERVICE);
         final var sessions = jfsPlugin.getSessions().toList();
         assertEquals(8, sessions.size());
 
@@ -69,13 +83,55 @@ class JavaForumStuttgartPluginTest {
         assertEquals(Language.DE, session.language());
     }
 
+    @Test
+    void getSessionsAfterMidnightWithUnchangedJson() throws IOException {
+        final var json = Files.readAllBytes(Path.of("src/test/resources/testdata/jfs-talks.json"));
+        final var notModified = new AtomicInteger();
+        final var server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/talks.json", exchange -> {
+            if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModified.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            exchange.getResponseHeaders().add("ETag", "\"v1\"");
+            exchange.sendResponseHeaders(200, json.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(json);
+            }
+        });
+        server.start();
+        try {
+            final var appConfig = mock(AppConfig.class);
+            final var jfsConfig = new JavaForumStuttgartConfig("http://localhost:%d/talks.json".formatted(server.getAddress().getPort()));
+            when(appConfig.jfs()).thenReturn(jfsConfig);
+            when(appConfig.timezone()).thenReturn(TEST_TIMEZONE);
+            final var today = LocalDate.of(2025, 7, 10);
+            final var clock = mock(Clock.class);
+            when(clock.instant()).thenReturn(ZonedDateTime.of(today, LocalTime.of(23, 59), TEST_TIMEZONE).toInstant());
+
+            final var jfsPlugin = new JavaForumStuttgartPlugin(appConfig, HTTP_SERVICE, clock);
+            assertEquals(today, jfsPlugin.getSessions().toList().getFirst().startDate().toLocalDate());
+
+            final var tomorrow = today.plusDays(1);
+            when(clock.instant()).thenReturn(ZonedDateTime.of(tomorrow, LocalTime.of(0, 1), TEST_TIMEZONE).toInstant());
+            final var sessions = jfsPlugin.getSessions().toList();
+            assertEquals(1, notModified.get());
+            assertEquals(8, sessions.size());
+            assertTrue(sessions.stream().allMatch(session -> session.startDate().toLocalDate().equals(tomorrow)));
+        } finally {
+            server.stop(0);
+        }
+    }
+
     @Test
     void throwsExceptionWithNonExistingJson() {
         final var appConfig = mock(AppConfig.class);
         final var jfsConfig = new JavaForumStuttgartConfig("file:src/test/resources/testdata/non-existing.json");
         when(appConfig.jfs()).thenReturn(jfsConfig);
 
-        final var jfsPlugin = new JavaForumStuttgartPlugin(appConfig);
+        final var jfsPlugin = new JavaForumStuttgartPlugin(appConfig, HTTP_SERVICE);
         final var exception = assertThrows(SessionImportException.class, jfsPlugin::getSessions);
         final var message = exception.getMessage();
         assertNotNull(message);
@@ -89,11 +145,24 @@ class JavaForumStuttgartPluginTest {
         final var jfsConfig = new JavaForumStuttgartConfig("file:src/test/resources/testdata/jfs-empty.json");
         when(appConfig.jfs()).thenReturn(jfsConfig);
 
-        final var jfsPlugin = new JavaForumStuttgartPlugin(appConfig);
+        final var jfsPlugin = new JavaForumStuttgartPlugin(appConfig, HTTP_SERVICE);
         final var exception = assertThrows(SessionImportException.class, jfsPlugin::getSessions);
         final var message = exception.getMessage();
         assertNotNull(message);
         assertTrue(message.startsWith("Error importing session data for Java Forum Stuttgart: "));
     }
 
+    @Test
+    void throwsExceptionWithIncompleteTalk(final @TempDir @NotNull Path tempDir) throws IOException {
+        final var jsonFile = Files.writeString(tempDir.resolve("jfs-incomplete.json"), "[{\"id\": 1, \"title\": \"Incomplete\"}]");
+        final var appConfig = mock(AppConfig.class);
+        final var jfsConfig = new JavaForumStuttgartConfig(jsonFile.toUri().toString());
+        when(appConfig.jfs()).thenReturn(jfsConfig);
+
+        final var jfsPlugin = new JavaForumStuttgartPlugin(appConfig, HTTP_SERVICE);
+        final var exception = assertThrows(SessionImportException.class, jfsPlugin::getSessions);
+        assertEquals("Error importing session data for Java Forum Stuttgart from '%s': JSONObject[\"room\"] not found."
+                .formatted(jsonFile.toUri()), exception.getMessage());
+    }
+
 }
@@ -24,6 +24,8 @@ import swiss.fihlon.apus.event.Room;
 import swiss.fihlon.apus.event.Session;
 import swiss.fihlon.apus.event.SessionImportException;
 import swiss.fihlon.apus.event.Speaker;
+import swiss.fihlon.apus.http.FetchExecutor;
+import swiss.fihlon.apus.http.HttpService;
 
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
@@ -35,16 +37,20 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
+import static swiss.fihlon.apus.http.HttpTestUtil.HTTP_CONFIG;
 
 class SessionizePluginTest {
 
+    private static final HttpService HTTP_SERVICE = new HttpService(HTTP_CONFIG);
+    private static final FetchExecutor FETCH_EXECUTOR = new FetchExecutor(HTTP_CONFIG);
+
     @Test
     void isEnabled() {
         final var appConfig = mock(AppConfig.class);
         final var sessionizeConfig = new SessionizeConfig("1", "", "");
         when(appConfig.sessionize()).thenReturn(sessionizeConfig);
 
-        final var sessionizePlugin = new SessionizePlugin(appConfig);
+        final var sessionizePlugin = new SessionizePlugin(appConfig, HTTP_SERVICE, FETCH_EXECUTOR);
         assertTrue(sessionizePlugin.isEnabled());
     }
 
@@ -54,7 +60,7 @@ class SessionizePluginTest {
         final var sessionizeConfig = new SessionizeConfig("0", "", "");
         when(appConfig.sessionize()).thenReturn(sessionizeConfig);
 
-        final var sessionizePlugin = new SessionizePlugin(appConfig);
+        final var sessionizePlugin = new SessionizePlugin(appConfig, HTTP_SERVICE, FETCH_EXECUTOR);
         assertFalse(sessionizePlugin.isEnabled());
     }
 
@@ -68,7 +74,7 @@ class SessionizePluginTest {
         when(appConfig.sessionize()).thenReturn(sessionizeConfig);
         when(appConfig.timezone()).thenReturn(timezone);
 
-        final var sessionizePlugin = new SessionizePlugin(appConfig);
+        final var sessionizePlugin = new SessionizePlugin(appConfig, HTTP_SERVICE, FETCH_EXECUTOR);
         final var sessions = sessionizePlugin.getSessions().toList();
         assertEquals(8, sessions.size());
 
@@ -103,7 +109,7 @@ class SessionizePluginTest {
         when(appConfig.sessionize()).thenReturn(sessionizeConfig);
         when(appConfig.timezone()).thenReturn(timezone);
 
-        final var sessionizePlugin = new SessionizePlugin(appConfig);
+        final var sessionizePlugin = new SessionizePlugin(appConfig, HTTP_SERVICE, FETCH_EXECUTOR);
         assertThrows(SessionImportException.class, sessionizePlugin::getSessions);
     }
 
@@ -117,13 +123,30 @@ class SessionizePluginTest {
         when(appConfig.sessionize()).thenReturn(sessionizeConfig);
         when(appConfig.timezone()).thenReturn(timezone);
 
-        final var sessionizePlugin = new SessionizePlugin(appConfig);
+        final var sessionizePlugin = new SessionizePlugin(appConfig, HTTP_SERVICE, FETCH_EXECUTOR);
         final var exception = assertThrows(SessionImportException.class, sessionizePlugin::getSessions);
         final var message = exception.getMessage();
         assertNotNull(message);
         assertTrue(message.startsWith("Error parsing speaker"));
     }
 
+    @Test
+    void downloadExceptionSessions() {
+        final var timezone = ZoneId.of("Europe/Zurich");
+        final var appConfig = mock(AppConfig.class);
+        final var sessionizeConfig = new SessionizeConfig("1",
+                "file:src/test/resources/testdata/sessionize-missing.json?eventId=${event}",
+                "file:src/test/resources/testdata/sessionize-speakers.json?eventId=${event}");
+        when(appConfig.sessionize()).thenReturn(sessionizeConfig);
+        when(appConfig.timezone()).thenReturn(timezone);
+
+        final var sessionizePlugin = new SessionizePlugin(appConfig, HTTP_SERVICE, FETCH_EXECUTOR);
+        final var exception = assertThrows(SessionImportException.class, sessionizePlugin::getSessions);
+        final var message = exception.getMessage();
+        assertNotNull(message);
+        assertTrue(message.startsWith("Error downloading sessions for event ID 1"));
+    }
+
     @Test
     void parseExceptionUnknownSpeaker() {
         final var timezone = ZoneId.of("Europe/Zurich");
@@ -134,7 +157,7 @@ class SessionizePluginTest {
         when(appConfig.sessionize()).thenReturn(sessionizeConfig);
         when(appConfig.timezone()).thenReturn(timezone);
 
-        final var sessionizePlugin = new SessionizePlugin(appConfig);
+        final var sessionizePlugin = new SessionizePlugin(appConfig, HTTP_SERVICE, FETCH_EXECUTOR);
         final var exception = assertThrows(SessionImportException.class, sessionizePlugin::getSessions);
         assertEquals("Error parsing sessions: Can't find speaker with id 2c9d3dc1-9f79-457f-0000-42ce42f6366a!", exception.getMessage());
     }
@@ -149,7 +172,7 @@ class SessionizePluginTest {
         when(appConfig.sessionize()).thenReturn(sessionizeConfig);
         when(appConfig.timezone()).thenReturn(timezone);
 
-        final var sessionizePlugin = new SessionizePlugin(appConfig);
+        final var sessionizePlugin = new SessionizePlugin(appConfig, HTTP_SERVICE, FETCH_EXECUTOR);
         final var exception = assertThrows(SessionImportException.class, sessionizePlugin::getSessions);
         assertEquals("Error parsing session 1: Unknown language name: Foobar", exception.getMessage());
     }
@@ -164,7 +187,7 @@ class SessionizePluginTest {
         when(appConfig.sessionize()).thenReturn(sessionizeConfig);
         when(appConfig.timezone()).thenReturn(timezone);
 
-        final var sessionizePlugin = new SessionizePlugin(appConfig);
+        final var sessionizePlugin = new SessionizePlugin(appConfig, HTTP_SERVICE, FETCH_EXECUTOR);
         final var sessions = sessionizePlugin.getSessions().toList();
         assertEquals(1, sessions.size());
 
@@ -182,7 +205,7 @@ class SessionizePluginTest {
         when(appConfig.sessionize()).thenReturn(sessionizeConfig);
         when(appConfig.timezone()).thenReturn(timezone);
 
-        final var sessionizePlugin = new SessionizePlugin(appConfig);
+        final var sessionizePlugin = new SessionizePlugin(appConfig, HTTP_SERVICE, FETCH_EXECUTOR);
         final var sessions = sessionizePlugin.getSessions().toList();
         assertEquals(1, sessions.size());
 
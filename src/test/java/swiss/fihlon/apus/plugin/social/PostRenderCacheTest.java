@@ -0,0 +1,93 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.plugin.social;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import swiss.fihlon.apus.social.Post;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class PostRenderCacheTest {
+
+    private static final @NotNull ZonedDateTime NOW = ZonedDateTime.now();
+
+    private static @NotNull Post createPost(final @NotNull String id, final @NotNull String html) {
+        return new Post(id, NOW, "Author", "", "profile@localhost", html, List.of(), false, false, "");
+    }
+
+    @Test
+    void rendersPost() {
+        final var cache = new PostRenderCache(10);
+        final var renderedPost = cache.get(createPost("1", "<p>Hello <b>World</b></p><script>alert('XSS')</script>"));
+        assertEquals("<p>Hello <b>World</b></p>", renderedPost.html());
+        assertEquals("Hello World", renderedPost.text());
+        assertEquals("hello world", renderedPost.searchText());
+    }
+
+    @Test
+    void rendersPostOnlyOnce() {
+        final var cache = new PostRenderCache(10);
+        final var renderedPost = cache.get(createPost("1", "<p>Test</p>"));
+        assertSame(renderedPost, cache.get(createPost("1", "<p>Test</p>").withImages(List.of("image.png"))));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void rendersEditedPostAgain() {
+        final var cache = new PostRenderCache(10);
+        cache.get(createPost("1", "<p>Test</p>"));
+        assertEquals("Test (edited)", cache.get(createPost("1", "<p>Test (edited)</p>")).text());
+        assertEquals(0, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedPosts() {
+        final var cache = new PostRenderCache(2);
+        cache.get(createPost("1", "<p>One</p>"));
+        cache.get(createPost("2", "<p>Two</p>"));
+        cache.get(createPost("1", "<p>One</p>"));
+        cache.get(createPost("3", "<p>Three</p>"));
+        assertEquals(2, cache.size());
+
+        cache.get(createPost("1", "<p>One</p>"));
+        assertEquals(2, cache.getHitCount());
+        cache.get(createPost("2", "<p>Two</p>"));
+        assertEquals(4, cache.getMissCount());
+    }
+
+    @Test
+    void bindsMetrics() {
+        final var cache = new PostRenderCache(10);
+        final var registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        cache.get(createPost("1", "<p>Test</p>"));
+        cache.get(createPost("1", "<p>Test</p>"));
+        assertEquals(1, registry.get("apus.posts.render.cache").tag("result", "hit").functionCounter().count());
+        assertEquals(1, registry.get("apus.posts.render.cache").tag("result", "miss").functionCounter().count());
+        assertEquals(1, registry.get("apus.posts.render.cache.size").gauge().value());
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.plugin.social;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import swiss.fihlon.apus.social.Post;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PostWindowTest {
+
+    private static final @NotNull ZonedDateTime NOW = ZonedDateTime.now();
+
+    private static @NotNull Post createPost(final int minutesAgo) {
+        return new Post("ID " + minutesAgo, NOW.minusMinutes(minutesAgo), "Author", "", "profile@localhost",
+                "Post " + minutesAgo, List.of(), false, false, "");
+    }
+
+    private static @NotNull List<String> ids(final @NotNull List<Post> posts) {
+        return posts.stream().map(Post::id).toList();
+    }
+
+    @Test
+    void mergesNewPostsAndKeepsNewest() {
+        final var window = new PostWindow(3, 10);
+        assertNull(window.nextCursor());
+
+        assertEquals(List.of("ID 3", "ID 4"), ids(window.update(null, "ID 3", List.of(createPost(3), createPost(4)))));
+        assertEquals("ID 3", window.nextCursor());
+
+        assertEquals(List.of("ID 1", "ID 2", "ID 3"), ids(window.update("ID 3", "ID 1", List.of(createPost(1), createPost(2)))));
+        assertEquals("ID 1", window.nextCursor());
+        assertEquals(List.of("ID 1", "ID 2", "ID 3"), ids(window.getPosts()));
+    }
+
+    @Test
+    void keepsCursorWithoutNewPosts() {
+        final var window = new PostWindow(3, 10);
+        window.update(null, "ID 1", List.of(createPost(1)));
+        assertEquals(List.of("ID 1"), ids(window.update("ID 1", null, List.of())));
+        assertEquals("ID 1", window.nextCursor());
+    }
+
+    @Test
+    void fullRefreshReplacesPosts() {
+        final var window = new PostWindow(5, 2);
+        window.update(null, "ID 2", List.of(createPost(2), createPost(3)));
+        window.update("ID 2", null, List.of());
+        window.update("ID 2", "ID 1", List.of(createPost(1)));
+        assertNull(window.nextCursor());
+
+        assertEquals(List.of("ID 1", "ID 3"), ids(window.update(null, "ID 1", List.of(createPost(1), createPost(3)))));
+        assertEquals("ID 1", window.nextCursor());
+    }
+
+    @Test
+    void addsAndRemovesSinglePosts() {
+        final var window = new PostWindow(2, 10);
+        window.update(null, "ID 2", List.of(createPost(2), createPost(3)));
+
+        window.add(createPost(1), "ID 1");
+        assertEquals(List.of("ID 1", "ID 2"), ids(window.getPosts()));
+        assertEquals("ID 1", window.nextCursor());
+
+        assertTrue(window.remove("ID 2"));
+        assertFalse(window.remove("ID 3"));
+        assertEquals(List.of("ID 1"), ids(window.getPosts()));
+    }
+
+}
@@ -20,6 +20,7 @@ package swiss.fihlon.apus.plugin.social;
 import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.LoggerContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import net.datafaker.Faker;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.AfterEach;
@@ -33,6 +34,7 @@ import swiss.fihlon.apus.MemoryAppender;
 import swiss.fihlon.apus.configuration.AppConfig;
 import swiss.fihlon.apus.configuration.FilterConfig;
 import swiss.fihlon.apus.configuration.SocialConfig;
+import swiss.fihlon.apus.http.FetchExecutor;
 import swiss.fihlon.apus.social.Post;
 
 import java.io.IOException;
@@ -43,6 +45,7 @@ import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThatCode;
@@ -50,10 +53,13 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
+import static swiss.fihlon.apus.http.HttpTestUtil.HTTP_CONFIG;
 
 @SpringBootTest
 class SocialServiceTest {
 
+    private static final @NotNull FetchExecutor FETCH_EXECUTOR = new FetchExecutor(HTTP_CONFIG);
+
     private static final ZoneId TEST_TIMEZONE = ZoneId.of("Europe/Zurich");
 
     private static Path getConfigDir(final boolean createIfNotExisting) throws IOException {
@@ -86,32 +92,50 @@ class SocialServiceTest {
     @Test
     void getPostsInDemoMode() {
         final var demoConfig = new AppConfig(appConfig.version(), appConfig.language(), appConfig.timezone(), appConfig.password(),
-                true, appConfig.styles(), appConfig.event(), appConfig.social(),
+                true, appConfig.styles(), appConfig.event(), appConfig.social(), appConfig.http(),
                 appConfig.devoxx(), appConfig.doag(), appConfig.jfs(), appConfig.sessionize(),
                 appConfig.blueSky(), appConfig.mastodon());
-        final SocialService socialService = new SocialService(new NoOpTaskScheduler(), demoConfig, List.of());
+        final SocialService socialService = new SocialService(new NoOpTaskScheduler(), FETCH_EXECUTOR, demoConfig, List.of());
         final List<Post> posts = socialService.getPosts(0);
         assertEquals(50, posts.size());
         assertEquals(50, posts.stream().filter(post -> post.id().startsWith("DEMO:")).count());
     }
 
+    @Test
+    void bindsRenderCacheMetricsOfEveryInstance() {
+        final var firstService = new SocialService(new NoOpTaskScheduler(), FETCH_EXECUTOR, appConfig, List.of());
+        final var secondService = new SocialService(new NoOpTaskScheduler(), FETCH_EXECUTOR, appConfig, List.of());
+        final var firstRegistry = new SimpleMeterRegistry();
+        final var secondRegistry = new SimpleMeterRegistry();
+        firstService.bindTo(firstRegistry);
+        secondService.bindTo(secondRegistry);
+
+        final var post = new Post("P1", ZonedDateTime.now(TEST_TIMEZONE), "Author", "", "profile@localhost",
+                "<p>Test</p>", List.of(), false, false, "");
+        secondService.getRenderedPost(post);
+        secondService.getRenderedPost(post);
+        assertEquals(1, secondRegistry.get("apus.posts.render.cache").tag("result", "hit").functionCounter().count());
+        assertEquals(1, secondRegistry.get("apus.posts.render.cache").tag("result", "miss").functionCounter().count());
+        assertEquals(0, firstRegistry.get("apus.posts.render.cache").tag("result", "miss").functionCounter().count());
+    }
+
     @Test
     void getPostsWithoutLimit() {
-        final SocialService socialService = new SocialService(new NoOpTaskScheduler(), appConfig, List.of(new TestSocialPlugin()));
+        final SocialService socialService = new SocialService(new NoOpTaskScheduler(), FETCH_EXECUTOR, appConfig, List.of(new TestSocialPlugin()));
         final List<Post> posts = socialService.getPosts(0);
         assertEquals(10, posts.size());
     }
 
     @Test
     void getPostsWithNegativeLimit() {
-        final SocialService socialService = new SocialService(new NoOpTaskScheduler(), appConfig, List.of(new TestSocialPlugin()));
+        final SocialService socialService = new SocialService(new NoOpTaskScheduler(), FETCH_EXECUTOR, appConfig, List.of(new TestSocialPlugin()));
         final List<Post> posts = socialService.getPosts(-1);
         assertEquals(10, posts.size());
     }
 
     @Test
     void getPostsWithLimit() {
-        final SocialService socialService = new SocialService(new NoOpTaskScheduler(), appConfig, List.of(new TestSocialPlugin()));
+        final SocialService socialService = new SocialService(new NoOpTaskScheduler(), FETCH_EXECUTOR, appConfig, List.of(new TestSocialPlugin()));
         final List<Post> posts = socialService.getPosts(5);
         assertEquals(5, posts.size());
         assertEquals("P1", posts.get(0).id());
@@ -124,10 +148,10 @@ class SocialServiceTest {
     @NotNull
     private List<Post> getPostsWithConfig(final @NotNull SocialConfig socialConfig) {
         final var config = new AppConfig(appConfig.version(), appConfig.language(), appConfig.timezone(), appConfig.password(),
-                appConfig.demoMode(), appConfig.styles(), appConfig.event(), socialConfig,
+                appConfig.demoMode(), appConfig.styles(), appConfig.event(), socialConfig, appConfig.http(),
                 appConfig.devoxx(), appConfig.doag(), appConfig.jfs(), appConfig.sessionize(),
                 appConfig.blueSky(), appConfig.mastodon());
-        final SocialService socialService = new SocialService(new NoOpTaskScheduler(), config, List.of(new TestSocialPlugin()));
+        final SocialService socialService = new SocialService(new NoOpTaskScheduler(), FETCH_EXECUTOR, config, List.of(new TestSocialPlugin()));
         return socialService.getPosts(0);
     }
 
@@ -136,7 +160,7 @@ class SocialServiceTest {
         final var filterConfig = new FilterConfig(appConfig.social().filter().length(), appConfig.social().filter().replies(), false,
                 appConfig.social().filter().words());
         final var socialConfig = new SocialConfig(appConfig.social().hashtags(), appConfig.social().headline(), appConfig.social().numberOfColumns(),
-                appConfig.social().imagesEnabled(), appConfig.social().imageLimit(), filterConfig);
+                appConfig.social().imagesEnabled(), appConfig.social().imageLimit(), appConfig.social().lightweightPosts(), filterConfig);
         final List<Post> posts = getPostsWithConfig(socialConfig);
         assertEquals(11, posts.size());
         assertEquals(1, posts.stream().filter(Post::isSensitive).count());
@@ -147,7 +171,7 @@ class SocialServiceTest {
         final var filterConfig = new FilterConfig(appConfig.social().filter().length(), false, appConfig.social().filter().sensitive(),
                 appConfig.social().filter().words());
         final var socialConfig = new SocialConfig(appConfig.social().hashtags(), appConfig.social().headline(), appConfig.social().numberOfColumns(),
-                appConfig.social().imagesEnabled(), appConfig.social().imageLimit(), filterConfig);
+                appConfig.social().imagesEnabled(), appConfig.social().imageLimit(), appConfig.social().lightweightPosts(), filterConfig);
         final List<Post> posts = getPostsWithConfig(socialConfig);
         assertEquals(11, posts.size());
         assertEquals(1, posts.stream().filter(Post::isReply).count());
@@ -158,7 +182,7 @@ class SocialServiceTest {
         final var filterConfig = new FilterConfig(1000, appConfig.social().filter().replies(), appConfig.social().filter().sensitive(),
                 appConfig.social().filter().words());
         final var socialConfig = new SocialConfig(appConfig.social().hashtags(), appConfig.social().headline(), appConfig.social().numberOfColumns(),
-                appConfig.social().imagesEnabled(), appConfig.social().imageLimit(), filterConfig);
+                appConfig.social().imagesEnabled(), appConfig.social().imageLimit(), appConfig.social().lightweightPosts(), filterConfig);
         final List<Post> posts = getPostsWithConfig(socialConfig);
         assertEquals(11, posts.size());
         assertEquals(1, posts.stream().filter(post -> post.html().length() > 500).count());
@@ -169,7 +193,7 @@ class SocialServiceTest {
         final var filterConfig = new FilterConfig(0, appConfig.social().filter().replies(), appConfig.social().filter().sensitive(),
                 appConfig.social().filter().words());
         final var socialConfig = new SocialConfig(appConfig.social().hashtags(), appConfig.social().headline(), appConfig.social().numberOfColumns(),
-                appConfig.social().imagesEnabled(), appConfig.social().imageLimit(), filterConfig);
+                appConfig.social().imagesEnabled(), appConfig.social().imageLimit(), appConfig.social().lightweightPosts(), filterConfig);
         final List<Post> posts = getPostsWithConfig(socialConfig);
         assertEquals(11, posts.size());
         assertEquals(1, posts.stream().filter(post -> post.html().length() > 500).count());
@@ -178,16 +202,17 @@ class SocialServiceTest {
     @NotNull
     private SocialService getSocialService(final @NotNull SocialConfig socialConfig) {
         final var config = new AppConfig(appConfig.version(), appConfig.language(), appConfig.timezone(), appConfig.password(),
-                appConfig.demoMode(), appConfig.styles(), appConfig.event(), socialConfig,
+                appConfig.demoMode(), appConfig.styles(), appConfig.event(), socialConfig, appConfig.http(),
                 appConfig.devoxx(), appConfig.doag(), appConfig.jfs(), appConfig.sessionize(),
                 appConfig.blueSky(), appConfig.mastodon());
-        return new SocialService(new NoOpTaskScheduler(), config, List.of(new NoHashtagSocialPlugin()));
+        return new SocialService(new NoOpTaskScheduler(), FETCH_EXECUTOR, config, List.of(new NoHashtagSocialPlugin()));
     }
 
     @Test
     void getPostsWithoutHashtag() {
         final var socialConfig = new SocialConfig("", appConfig.social().headline(), appConfig.social().numberOfColumns(),
-                appConfig.social().imagesEnabled(), appConfig.social().imageLimit(), appConfig.social().filter());
+                appConfig.social().imagesEnabled(), appConfig.social().imageLimit(), appConfig.social().lightweightPosts(),
+                appConfig.social().filter());
         final SocialService socialService = getSocialService(socialConfig);
         final List<Post> posts = socialService.getPosts(10);
         assertTrue(posts.isEmpty());
@@ -195,21 +220,21 @@ class SocialServiceTest {
 
     @Test
     void getPostsWithoutPlugins() {
-        final SocialService socialService = new SocialService(new NoOpTaskScheduler(), appConfig, List.of());
+        final SocialService socialService = new SocialService(new NoOpTaskScheduler(), FETCH_EXECUTOR, appConfig, List.of());
         final List<Post> posts = socialService.getPosts(10);
         assertTrue(posts.isEmpty());
     }
 
     @Test
     void getEmptyPosts() {
-        final SocialService socialService = new SocialService(new NoOpTaskScheduler(), appConfig, List.of(new EmptySocialPlugin()));
+        final SocialService socialService = new SocialService(new NoOpTaskScheduler(), FETCH_EXECUTOR, appConfig, List.of(new EmptySocialPlugin()));
         final List<Post> posts = socialService.getPosts(10);
         assertTrue(posts.isEmpty());
     }
 
     @Test
     void hidePost() {
-        final SocialService socialService = new SocialService(new NoOpTaskScheduler(), appConfig, List.of(new TestSocialPlugin()));
+        final SocialService socialService = new SocialService(new NoOpTaskScheduler(), FETCH_EXECUTOR, appConfig, List.of(new TestSocialPlugin()));
         final List<Post> postsBefore = socialService.getPosts(10);
         assertEquals(10, postsBefore.size());
 
@@ -232,7 +257,7 @@ class SocialServiceTest {
 
     @Test
     void blockProfile() {
-        final SocialService socialService = new SocialService(new NoOpTaskScheduler(), appConfig, List.of(new TestSocialPlugin()));
+        final SocialService socialService = new SocialService(new NoOpTaskScheduler(), FETCH_EXECUTOR, appConfig, List.of(new TestSocialPlugin()));
         final List<Post> postsBefore = socialService.getPosts(10);
         assertEquals(10, postsBefore.size());
 
@@ -252,12 +277,33 @@ class SocialServiceTest {
         assertEquals(5, postsAfter.size());
     }
 
+    @Test
+    void notifyPostsChangedListeners() {
+        final SocialService socialService = new SocialService(new NoOpTaskScheduler(), FETCH_EXECUTOR, appConfig, List.of(new TestSocialPlugin()));
+        final List<List<Post>> events = new ArrayList<>();
+        final Consumer<List<Post>> listener = events::add;
+        socialService.addPostsChangedListener(listener);
+        final Post postToHide = socialService.getPosts(10).get(3);
+
+        socialService.hidePost(postToHide);
+        assertEquals(1, events.size());
+        assertFalse(events.getFirst().contains(postToHide));
+        assertEquals(socialService.getPosts(0), events.getFirst());
+
+        socialService.hidePost(postToHide);
+        assertEquals(1, events.size()); // nothing changed, no event
+
+        socialService.removePostsChangedListener(listener);
+        socialService.blockProfile(events.getFirst().getFirst());
+        assertEquals(1, events.size());
+    }
+
     @Test
     void loadHiddenPosts() throws IOException {
         final var filePath = getConfigDir(true).resolve("hiddenPosts");
         Files.writeString(filePath, "P5\nP6");
 
-        final SocialService socialService = new SocialService(new NoOpTaskScheduler(), appConfig, List.of(new TestSocialPlugin()));
+        final SocialService socialService = new SocialService(new NoOpTaskScheduler(), FETCH_EXECUTOR, appConfig, List.of(new TestSocialPlugin()));
         final List<Post> posts = socialService.getPosts(0);
         final List<String> ids = posts.stream().map(Post::id).distinct().toList();
         assertFalse(ids.contains("P5"));
@@ -269,7 +315,7 @@ class SocialServiceTest {
         final var filePath = getConfigDir(true).resolve("blockedProfiles");
         Files.writeString(filePath, "profile1@localhost");
 
-        final SocialService socialService = new SocialService(new NoOpTaskScheduler(), appConfig, List.of(new TestSocialPlugin()));
+        final SocialService socialService = new SocialService(new NoOpTaskScheduler(), FETCH_EXECUTOR, appConfig, List.of(new TestSocialPlugin()));
         final List<Post> posts = socialService.getPosts(0);
         final List<String> profiles = posts.stream().map(Post::profile).distinct().toList();
         assertFalse(profiles.contains("profile1@localhost"));
@@ -283,7 +329,7 @@ class SocialServiceTest {
         logger.addAppender(memoryAppender);
 
         memoryAppender.start();
-        final SocialService socialService = new SocialService(new NoOpTaskScheduler(), appConfig, List.of());
+        final SocialService socialService = new SocialService(new NoOpTaskScheduler(), FETCH_EXECUTOR, appConfig, List.of());
         final List<Post> posts = socialService.getPosts(0);
         assertEquals(0, posts.size());
         memoryAppender.stop();
@@ -294,9 +340,9 @@ class SocialServiceTest {
 
     private AppConfig createModifiedImageConfig(final boolean imagesEnabled, final int imageLimit) {
         final var newSocialConfig = new SocialConfig(appConfig.social().hashtags(), appConfig.social().headline(),
-                appConfig.social().numberOfColumns(), imagesEnabled, imageLimit, appConfig.social().filter());
+                appConfig.social().numberOfColumns(), imagesEnabled, imageLimit, appConfig.social().lightweightPosts(), appConfig.social().filter());
         return new AppConfig(appConfig.version(), appConfig.language(), appConfig.timezone(), appConfig.password(),
-                appConfig.demoMode(), appConfig.styles(), appConfig.event(), newSocialConfig,
+                appConfig.demoMode(), appConfig.styles(), appConfig.event(), newSocialConfig, appConfig.http(),
                 appConfig.devoxx(), appConfig.doag(), appConfig.jfs(), appConfig.sessionize(),
                 appConfig.blueSky(), appConfig.mastodon());
     }
@@ -304,7 +350,7 @@ class SocialServiceTest {
     @Test
     void getPostsWithImagesDisabled() {
         final var testConfig = createModifiedImageConfig(false, 0);
-        final SocialService socialService = new SocialService(new NoOpTaskScheduler(), testConfig, List.of(new TestSocialPlugin()));
+        final SocialService socialService = new SocialService(new NoOpTaskScheduler(), FETCH_EXECUTOR, testConfig, List.of(new TestSocialPlugin()));
         final List<Post> posts = socialService.getPosts(0);
         for (final var post : posts) {
             assertTrue(post.images().isEmpty());
@@ -314,7 +360,7 @@ class SocialServiceTest {
     @Test
     void getPostsWithMaxOneImage() {
         final var testConfig = createModifiedImageConfig(true, 1);
-        final SocialService socialService = new SocialService(new NoOpTaskScheduler(), testConfig, List.of(new TestSocialPlugin()));
+        final SocialService socialService = new SocialService(new NoOpTaskScheduler(), FETCH_EXECUTOR, testConfig, List.of(new TestSocialPlugin()));
         final List<Post> posts = socialService.getPosts(0);
         for (final var post : posts) {
             assertEquals(1, post.images().size());
@@ -324,7 +370,7 @@ class SocialServiceTest {
     @Test
     void getPostsWithUnlimitedImages() {
         final var testConfig = createModifiedImageConfig(true, 0);
-        final SocialService socialService = new SocialService(new NoOpTaskScheduler(), testConfig, List.of(new TestSocialPlugin()));
+        final SocialService socialService = new SocialService(new NoOpTaskScheduler(), FETCH_EXECUTOR, testConfig, List.of(new TestSocialPlugin()));
         final List<Post> posts = socialService.getPosts(0);
         for (final var post : posts) {
             final var id = post.id();
@@ -335,16 +381,17 @@ class SocialServiceTest {
 
     private AppConfig createEmptyHashtagConfig() {
         final var newSocialConfig = new SocialConfig("", appConfig.social().headline(), appConfig.social().numberOfColumns(),
-                appConfig.social().imagesEnabled(), appConfig.social().imageLimit(), appConfig.social().filter());
+                appConfig.social().imagesEnabled(), appConfig.social().imageLimit(), appConfig.social().lightweightPosts(),
+                appConfig.social().filter());
         return new AppConfig(appConfig.version(), appConfig.language(), appConfig.timezone(), appConfig.password(),
-                appConfig.demoMode(), appConfig.styles(), appConfig.event(), newSocialConfig,
+                appConfig.demoMode(), appConfig.styles(), appConfig.event(), newSocialConfig, appConfig.http(),
                 appConfig.devoxx(), appConfig.doag(), appConfig.jfs(), appConfig.sessionize(),
                 appConfig.blueSky(), appConfig.mastodon());
     }
 
     @Test
     void stopNullUpdateSchedulerShouldPass() {
-        final SocialService socialService = new SocialService(new NoOpTaskScheduler(), createEmptyHashtagConfig(), List.of(new TestSocialPlugin()));
+        final SocialService socialService = new SocialService(new NoOpTaskScheduler(), FETCH_EXECUTOR, createEmptyHashtagConfig(), List.of(new TestSocialPlugin()));
         assertThatCode(socialService::stopUpdateScheduler).doesNotThrowAnyException();
     }
 
@@ -21,6 +21,7 @@ import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.LoggerContext;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.junit.jupiter.api.Test;
@@ -30,7 +31,9 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.slf4j.LoggerFactory;
 import swiss.fihlon.apus.MemoryAppender;
 import swiss.fihlon.apus.configuration.AppConfig;
+import swiss.fihlon.apus.http.FetchExecutor;
 import swiss.fihlon.apus.social.Post;
+import swiss.fihlon.apus.social.PostImportException;
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
@@ -43,12 +46,17 @@ import java.util.stream.Stream;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
+import static swiss.fihlon.apus.http.HttpTestUtil.HTTP_CONFIG;
 
 class BlueSkyPluginTest {
 
+    private static final @NotNull FetchExecutor FETCH_EXECUTOR = new FetchExecutor(HTTP_CONFIG);
+
     private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
 
     private static final ZoneId TEST_TIMEZONE = ZoneId.of("Europe/Zurich");
@@ -59,7 +67,7 @@ class BlueSkyPluginTest {
         final var blueSkyConfig = new BlueSkyConfig("localhost", "", "", "", 0);
         when(appConfig.blueSky()).thenReturn(blueSkyConfig);
 
-        final var blueSkyPlugin = new BlueSkyPlugin(new TestBlueSkyLoader(), appConfig);
+        final var blueSkyPlugin = new BlueSkyPlugin(new TestBlueSkyLoader(), appConfig, FETCH_EXECUTOR);
         assertEquals("BlueSky", blueSkyPlugin.getServiceName());
     }
 
@@ -79,7 +87,7 @@ class BlueSkyPluginTest {
         final var blueSkyConfig = new BlueSkyConfig(instance, hashtagUrl, "", "", 30);
         when(appConfig.blueSky()).thenReturn(blueSkyConfig);
 
-        final var blueSkyPlugin = new BlueSkyPlugin(new TestBlueSkyLoader(), appConfig);
+        final var blueSkyPlugin = new BlueSkyPlugin(new TestBlueSkyLoader(), appConfig, FETCH_EXECUTOR);
         assertFalse(blueSkyPlugin.isEnabled());
     }
 
@@ -89,7 +97,7 @@ class BlueSkyPluginTest {
         final var blueSkyConfig = new BlueSkyConfig("localhost", "test", "", "", 30);
         when(appConfig.blueSky()).thenReturn(blueSkyConfig);
 
-        final var blueSkyPlugin = new BlueSkyPlugin(new TestBlueSkyLoader(), appConfig);
+        final var blueSkyPlugin = new BlueSkyPlugin(new TestBlueSkyLoader(), appConfig, FETCH_EXECUTOR);
         assertTrue(blueSkyPlugin.isEnabled());
     }
 
@@ -115,7 +123,7 @@ class BlueSkyPluginTest {
         final var blueSkyConfig = new BlueSkyConfig("localhost", "https://%s/q=%s&limit=%d", "", "", 30);
         when(appConfig.blueSky()).thenReturn(blueSkyConfig);
 
-        final BlueSkyPlugin blueSkyPlugin = new BlueSkyPlugin(new TestBlueSkyLoader(), appConfig);
+        final BlueSkyPlugin blueSkyPlugin = new BlueSkyPlugin(new TestBlueSkyLoader(), appConfig, FETCH_EXECUTOR);
         final List<Post> posts = blueSkyPlugin.getPosts(hashtags).toList();
 
         assertNotNull(posts);
@@ -128,7 +136,7 @@ class BlueSkyPluginTest {
         final var blueSkyConfig = new BlueSkyConfig("localhost", "https://%s/q=%s&limit=%d", "", "", 30);
         when(appConfig.blueSky()).thenReturn(blueSkyConfig);
 
-        final BlueSkyPlugin blueSkyPlugin = new BlueSkyPlugin(new TestBlueSkyLoader(), appConfig);
+        final BlueSkyPlugin blueSkyPlugin = new BlueSkyPlugin(new TestBlueSkyLoader(), appConfig, FETCH_EXECUTOR);
         final List<Post> posts = blueSkyPlugin.getPosts(List.of("foobar")).toList();
 
         assertNotNull(posts);
@@ -153,7 +161,7 @@ class BlueSkyPluginTest {
         final var blueSkyConfig = new BlueSkyConfig("localhost", "https://%s/q=%s&limit=%d", "", "", 30);
         when(appConfig.blueSky()).thenReturn(blueSkyConfig);
 
-        final BlueSkyPlugin blueSkyPlugin = new BlueSkyPlugin(new TestBlueSkyLoader(), appConfig);
+        final BlueSkyPlugin blueSkyPlugin = new BlueSkyPlugin(new TestBlueSkyLoader(), appConfig, FETCH_EXECUTOR);
         final List<Post> posts = blueSkyPlugin.getPosts(List.of("videos")).toList();
 
         assertNotNull(posts);
@@ -182,13 +190,23 @@ class BlueSkyPluginTest {
         logger.addAppender(memoryAppender);
 
         memoryAppender.start();
-        final BlueSkyPlugin blueSkyPlugin = new BlueSkyPlugin(new TestBlueSkyLoader(), appConfig);
-        final var posts = blueSkyPlugin.getPosts(List.of("broken")).toList();
+        final BlueSkyPlugin blueSkyPlugin = new BlueSkyPlugin(new TestBlueSkyLoader(), appConfig, FETCH_EXECUTOR);
+        final var posts = blueSkyPlugin.getPosts(List.of("foobar", "broken")).toList();
         memoryAppender.stop();
 
         final int errorCount = memoryAppender.searchMessages("This is an expected exception.", Level.ERROR).size();
         assertEquals(1, errorCount);
-        assertEquals(0, posts.size());
+        assertEquals(5, posts.size());
+    }
+
+    @Test
+    void getPostsThrowsExceptionIfAllDownloadsFail() {
+        final var appConfig = mock(AppConfig.class);
+        final var blueSkyConfig = new BlueSkyConfig("localhost", "https://%s/q=%s&limit=%d", "", "", 30);
+        when(appConfig.blueSky()).thenReturn(blueSkyConfig);
+
+        final BlueSkyPlugin blueSkyPlugin = new BlueSkyPlugin(new TestBlueSkyLoader(), appConfig, FETCH_EXECUTOR);
+        assertThrows(PostImportException.class, () -> blueSkyPlugin.getPosts(List.of("broken")));
     }
 
     @Test
@@ -197,7 +215,7 @@ class BlueSkyPluginTest {
         final var blueSkyConfig = new BlueSkyConfig("localhost", "https://%s/q=%s&limit=%d", "", "", 30);
         when(appConfig.blueSky()).thenReturn(blueSkyConfig);
 
-        final BlueSkyPlugin blueSkyPlugin = new BlueSkyPlugin(new TestBlueSkyLoader(), appConfig);
+        final BlueSkyPlugin blueSkyPlugin = new BlueSkyPlugin(new TestBlueSkyLoader(), appConfig, FETCH_EXECUTOR);
         final List<Post> posts = blueSkyPlugin.getPosts(List.of("foobar")).toList();
 
         assertNotNull(posts);
@@ -218,7 +236,7 @@ class BlueSkyPluginTest {
                 "foobar.bsky.social", 30);
         when(appConfig.blueSky()).thenReturn(blueSkyConfig);
 
-        final BlueSkyPlugin blueSkyPlugin = new BlueSkyPlugin(new TestBlueSkyLoader(), appConfig);
+        final BlueSkyPlugin blueSkyPlugin = new BlueSkyPlugin(new TestBlueSkyLoader(), appConfig, FETCH_EXECUTOR);
         final List<Post> posts = blueSkyPlugin.getPosts(List.of("empty")).toList();
 
         assertNotNull(posts);
@@ -235,7 +253,7 @@ class BlueSkyPluginTest {
         final var blueSkyConfig = new BlueSkyConfig("localhost", "", "", "foobar.bsky.social", 30);
         when(appConfig.blueSky()).thenReturn(blueSkyConfig);
 
-        final BlueSkyPlugin blueSkyPlugin = new BlueSkyPlugin(new TestBlueSkyLoader(), appConfig);
+        final BlueSkyPlugin blueSkyPlugin = new BlueSkyPlugin(new TestBlueSkyLoader(), appConfig, FETCH_EXECUTOR);
         final List<Post> posts = blueSkyPlugin.getPosts(List.of("empty")).toList();
 
         assertNotNull(posts);
@@ -248,7 +266,7 @@ class BlueSkyPluginTest {
         final var blueSkyConfig = new BlueSkyConfig("localhost", "", "https://%s/q=%s&limit=%d", "", 30);
         when(appConfig.blueSky()).thenReturn(blueSkyConfig);
 
-        final BlueSkyPlugin blueSkyPlugin = new BlueSkyPlugin(new TestBlueSkyLoader(), appConfig);
+        final BlueSkyPlugin blueSkyPlugin = new BlueSkyPlugin(new TestBlueSkyLoader(), appConfig, FETCH_EXECUTOR);
         final List<Post> posts = blueSkyPlugin.getPosts(List.of("empty")).toList();
 
         assertNotNull(posts);
@@ -267,7 +285,7 @@ class BlueSkyPluginTest {
         logger.addAppender(memoryAppender);
 
         memoryAppender.start();
-        final BlueSkyPlugin blueSkyPlugin = new BlueSkyPlugin(new TestBlueSkyLoader(), appConfig);
+        final BlueSkyPlugin blueSkyPlugin = new BlueSkyPlugin(new TestBlueSkyLoader(), appConfig, FETCH_EXECUTOR);
         final var posts = blueSkyPlugin.getPosts(List.of("foobar")).toList();
         memoryAppender.stop();
 
@@ -276,15 +294,55 @@ class BlueSkyPluginTest {
         assertEquals(5, posts.size());
     }
 
+    @Test
+    void getPostsIncrementally() {
+        final var appConfig = mock(AppConfig.class);
+        final var blueSkyConfig = new BlueSkyConfig("localhost", "https://%s/q=%s&limit=%d", "", "", 30);
+        when(appConfig.blueSky()).thenReturn(blueSkyConfig);
+
+        final var blueSkyLoader = new TestBlueSkyLoader();
+        final BlueSkyPlugin blueSkyPlugin = new BlueSkyPlugin(blueSkyLoader, appConfig, FETCH_EXECUTOR);
+
+        final var firstPosts = blueSkyPlugin.getPosts(List.of("incremental")).toList();
+        assertNull(blueSkyLoader.lastSince);
+        assertEquals(List.of("ID 3", "ID 4"), firstPosts.stream().map(Post::id).toList());
+
+        final var secondPosts = blueSkyPlugin.getPosts(List.of("incremental")).toList();
+        assertNotNull(blueSkyLoader.lastSince);
+        assertEquals(ZonedDateTime.parse(firstPosts.getFirst().date().format(DATE_TIME_FORMATTER)).minus(BlueSkyPlugin.CURSOR_OVERLAP),
+                ZonedDateTime.parse(blueSkyLoader.lastSince));
+        assertEquals(List.of("ID 1", "ID 2", "ID 3", "ID 4"), secondPosts.stream().map(Post::id).toList());
+    }
+
+    @Test
+    void getPostsIncrementallySinceCreationOfPostsIndexedLater() {
+        final var appConfig = mock(AppConfig.class);
+        final var blueSkyConfig = new BlueSkyConfig("localhost", "https://%s/q=%s&limit=%d", "", "", 30);
+        when(appConfig.blueSky()).thenReturn(blueSkyConfig);
+
+        final var blueSkyLoader = new TestBlueSkyLoader();
+        final BlueSkyPlugin blueSkyPlugin = new BlueSkyPlugin(blueSkyLoader, appConfig, FETCH_EXECUTOR);
+
+        final var posts = blueSkyPlugin.getPosts(List.of("late")).toList();
+        blueSkyPlugin.getPosts(List.of("late"));
+        assertNotNull(blueSkyLoader.lastSince);
+        assertEquals(ZonedDateTime.parse(posts.getFirst().date().format(DATE_TIME_FORMATTER)).minus(BlueSkyPlugin.CURSOR_OVERLAP),
+                ZonedDateTime.parse(blueSkyLoader.lastSince));
+    }
+
     private static final class TestBlueSkyLoader implements BlueSkyLoader {
 
+        private @Nullable String lastSince;
+
         @Override
         @NotNull
         public JSONArray getPostsWithHashtag(final @NotNull String instance,
                                              final @NotNull String hashtag,
                                              final @NotNull String postAPI,
-                                             final int postLimit)
+                                             final int postLimit,
+                                             final @Nullable String since)
                 throws BlueSkyException {
+            lastSince = since;
             return switch (hashtag) {
                 case "foobar" -> new JSONArray(List.of(
                         createPost(1, hashtag, false),
@@ -307,6 +365,10 @@ class BlueSkyPluginTest {
                         createPost(12, hashtag, true),
                         createPost(13, hashtag, true)
                 ));
+                case "incremental" -> since == null
+                        ? new JSONArray(List.of(createPost(3, hashtag, false), createPost(4, hashtag, false)))
+                        : new JSONArray(List.of(createPost(1, hashtag, false), createPost(2, hashtag, false)));
+                case "late" -> new JSONArray(List.of(indexedLater(createPost(1, hashtag, false))));
                 case "broken" -> throw new BlueSkyException("This is an expected exception.", new RuntimeException("This is a faked cause."));
                 default -> new JSONArray(List.of());
             };
@@ -317,7 +379,8 @@ class BlueSkyPluginTest {
         public JSONArray getPostsWithMention(final @NotNull String instance,
                                              final @NotNull String profile,
                                              final @NotNull String mentionsUrl,
-                                             final int postLimit)
+                                             final int postLimit,
+                                             final @Nullable String since)
                 throws BlueSkyException {
             return switch (profile) {
                 case "foobar.bsky.social" -> new JSONArray(List.of(
@@ -332,6 +395,11 @@ class BlueSkyPluginTest {
             };
         }
 
+        private static @NotNull JSONObject indexedLater(final @NotNull JSONObject post) {
+            final var createdAt = ZonedDateTime.parse(post.getJSONObject("record").getString("createdAt"));
+            return post.put("indexedAt", createdAt.plusMinutes(10).format(DATE_TIME_FORMATTER));
+        }
+
         private JSONObject createPost(final int i, final @NotNull String hashtag, boolean withVideo) {
             final var createdAt = ZonedDateTime.of(LocalDateTime.now(TEST_TIMEZONE).minusMinutes(i), TEST_TIMEZONE);
             final var fakeReply = """
@@ -437,7 +505,7 @@ class BlueSkyPluginTest {
         final var blueSkyConfig = new BlueSkyConfig("localhost", "https://%s/q=%s&limit=%d", "", "", 30);
         when(appConfig.blueSky()).thenReturn(blueSkyConfig);
 
-        final BlueSkyPlugin blueSkyPlugin = new BlueSkyPlugin(new NoEmbedBlueSkyLoader(), appConfig);
+        final BlueSkyPlugin blueSkyPlugin = new BlueSkyPlugin(new NoEmbedBlueSkyLoader(), appConfig, FETCH_EXECUTOR);
         final List<Post> posts = blueSkyPlugin.getPosts(List.of("foobar")).toList();
 
         assertNotNull(posts);
@@ -455,7 +523,8 @@ class BlueSkyPluginTest {
         @NotNull public JSONArray getPostsWithHashtag(final @NotNull String instance,
                                                       final @NotNull String hashtag,
                                                       final @NotNull String postAPI,
-                                                      final int postLimit) {
+                                                      final int postLimit,
+                                                      final @Nullable String since) {
             return new JSONArray(List.of(
                     createPost(1, hashtag),
                     createPost(2, hashtag),
@@ -468,7 +537,8 @@ class BlueSkyPluginTest {
         public JSONArray getPostsWithMention(final @NotNull String instance,
                                              final @NotNull String profile,
                                              final @NotNull String mentionsUrl,
-                                             final int postLimit) {
+                                             final int postLimit,
+                                             final @Nullable String since) {
             return new JSONArray();
         }
 
@@ -512,7 +582,7 @@ class BlueSkyPluginTest {
         final var blueSkyConfig = new BlueSkyConfig("localhost", "https://%s/q=%s&limit=%d", "", "", 30);
         when(appConfig.blueSky()).thenReturn(blueSkyConfig);
 
-        final BlueSkyPlugin blueSkyPlugin = new BlueSkyPlugin(new OptionalDataBlankBlueSkyLoader(), appConfig);
+        final BlueSkyPlugin blueSkyPlugin = new BlueSkyPlugin(new OptionalDataBlankBlueSkyLoader(), appConfig, FETCH_EXECUTOR);
         final List<Post> posts = blueSkyPlugin.getPosts(List.of("foobar")).toList();
 
         assertNotNull(posts);
@@ -531,7 +601,8 @@ class BlueSkyPluginTest {
         @NotNull public JSONArray getPostsWithHashtag(final @NotNull String instance,
                                                       final @NotNull String hashtag,
                                                       final @NotNull String postAPI,
-                                                      final int postLimit) {
+                                                      final int postLimit,
+                                                      final @Nullable String since) {
             return new JSONArray(List.of(
                     createPost(1, hashtag),
                     createPost(2, hashtag),
@@ -544,7 +615,8 @@ class BlueSkyPluginTest {
         public JSONArray getPostsWithMention(final @NotNull String instance,
                                              final @NotNull String profile,
                                              final @NotNull String mentionsUrl,
-                                             final int postLimit) {
+                                             final int postLimit,
+                                             final @Nullable String since) {
             return new JSONArray();
         }
 
@@ -588,7 +660,7 @@ class BlueSkyPluginTest {
         final var blueSkyConfig = new BlueSkyConfig("localhost", "https://%s/q=%s&limit=%d", "", "", 30);
         when(appConfig.blueSky()).thenReturn(blueSkyConfig);
 
-        final BlueSkyPlugin blueSkyPlugin = new BlueSkyPlugin(new OptionalDataNullBlueSkyLoader(), appConfig);
+        final BlueSkyPlugin blueSkyPlugin = new BlueSkyPlugin(new OptionalDataNullBlueSkyLoader(), appConfig, FETCH_EXECUTOR);
         final List<Post> posts = blueSkyPlugin.getPosts(List.of("foobar")).toList();
 
         assertNotNull(posts);
@@ -607,7 +679,8 @@ class BlueSkyPluginTest {
         @NotNull public JSONArray getPostsWithHashtag(final @NotNull String instance,
                                                       final @NotNull String hashtag,
                                                       final @NotNull String postAPI,
-                                                      final int postLimit) {
+                                                      final int postLimit,
+                                                      final @Nullable String since) {
             return new JSONArray(List.of(
                     createPost(1, hashtag),
                     createPost(2, hashtag),
@@ -620,7 +693,8 @@ class BlueSkyPluginTest {
         public JSONArray getPostsWithMention(final @NotNull String instance,
                                              final @NotNull String profile,
                                              final @NotNull String mentionsUrl,
-                                             final int postLimit) {
+                                             final int postLimit,
+                                             final @Nullable String since) {
             return new JSONArray();
         }
 
@@ -664,7 +738,7 @@ class BlueSkyPluginTest {
         final var blueSkyConfig = new BlueSkyConfig("localhost", "https://%s/q=%s&limit=%d", "", "", 30);
         when(appConfig.blueSky()).thenReturn(blueSkyConfig);
 
-        final BlueSkyPlugin blueSkyPlugin = new BlueSkyPlugin(new OptionalDataMissingBlueSkyLoader(), appConfig);
+        final BlueSkyPlugin blueSkyPlugin = new BlueSkyPlugin(new OptionalDataMissingBlueSkyLoader(), appConfig, FETCH_EXECUTOR);
         final List<Post> posts = blueSkyPlugin.getPosts(List.of("foobar")).toList();
 
         assertNotNull(posts);
@@ -683,7 +757,8 @@ class BlueSkyPluginTest {
         @NotNull public JSONArray getPostsWithHashtag(final @NotNull String instance,
                                                       final @NotNull String hashtag,
                                                       final @NotNull String postAPI,
-                                                      final int postLimit) {
+                                                      final int postLimit,
+                                                      final @Nullable String since) {
             return new JSONArray(List.of(
                     createPost(1, hashtag),
                     createPost(2, hashtag),
@@ -696,7 +771,8 @@ class BlueSkyPluginTest {
         public JSONArray getPostsWithMention(final @NotNull String instance,
                                              final @NotNull String profile,
                                              final @NotNull String mentionsUrl,
-                                             final int postLimit) {
+                                             final int postLimit,
+                                             final @Nullable String since) {
             return new JSONArray();
         }
 
@@ -23,6 +23,7 @@ import org.junitpioneer.jupiter.RetryingTest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import swiss.fihlon.apus.configuration.AppConfig;
+import swiss.fihlon.apus.http.HttpService;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -35,10 +36,13 @@ class DefaultBlueSkyLoaderTest {
     @Autowired
     private AppConfig appConfig;
 
+    @Autowired
+    private HttpService httpService;
+
     @RetryingTest(3)
     void getPostsWithHashtag() throws BlueSkyException {
-        final JSONArray jsonPosts = new DefaultBlueSkyLoader()
-                .getPostsWithHashtag(appConfig.blueSky().instance(), "java", appConfig.blueSky().hashtagUrl(), 30);
+        final JSONArray jsonPosts = new DefaultBlueSkyLoader(httpService)
+                .getPostsWithHashtag(appConfig.blueSky().instance(), "java", appConfig.blueSky().hashtagUrl(), 30, null);
         assertNotNull(jsonPosts);
         assertFalse(jsonPosts.isEmpty());
     }
@@ -46,16 +50,16 @@ class DefaultBlueSkyLoaderTest {
     @Test
     void getPostsWithHashtagShouldThrowException() {
         final var exception = assertThrows(BlueSkyException.class,
-                () -> new DefaultBlueSkyLoader()
-                        .getPostsWithHashtag("non.existent.server", "java", appConfig.blueSky().hashtagUrl(), 30));
+                () -> new DefaultBlueSkyLoader(httpService)
+                        .getPostsWithHashtag("non.existent.server", "java", appConfig.blueSky().hashtagUrl(), 30, null));
         assertEquals("Unable to load posts with hashtag 'java' from BlueSky instance 'non.existent.server'", exception.getMessage());
     }
 
 
     @RetryingTest(3)
     void getPostsWithMention() throws BlueSkyException {
-        final JSONArray jsonPosts = new DefaultBlueSkyLoader()
-                .getPostsWithMention(appConfig.blueSky().instance(), "jugch.bsky.social", appConfig.blueSky().mentionsUrl(), 30);
+        final JSONArray jsonPosts = new DefaultBlueSkyLoader(httpService)
+                .getPostsWithMention(appConfig.blueSky().instance(), "jugch.bsky.social", appConfig.blueSky().mentionsUrl(), 30, null);
         assertNotNull(jsonPosts);
         assertFalse(jsonPosts.isEmpty());
     }
@@ -63,8 +67,8 @@ class DefaultBlueSkyLoaderTest {
     @Test
     void getPostsWithMentionShouldThrowException() {
         final var exception = assertThrows(BlueSkyException.class,
-                () -> new DefaultBlueSkyLoader()
-                        .getPostsWithMention("non.existent.server", "jugch.bsky.social", appConfig.blueSky().mentionsUrl(), 30));
+                () -> new DefaultBlueSkyLoader(httpService)
+                        .getPostsWithMention("non.existent.server", "jugch.bsky.social", appConfig.blueSky().mentionsUrl(), 30, null));
         assertEquals("Unable to load posts with profile 'jugch.bsky.social' from BlueSky instance 'non.existent.server'", exception.getMessage());
     }
 
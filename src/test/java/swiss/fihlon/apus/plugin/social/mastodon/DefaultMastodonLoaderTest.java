@@ -23,6 +23,7 @@ import org.junitpioneer.jupiter.RetryingTest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import swiss.fihlon.apus.configuration.AppConfig;
+import swiss.fihlon.apus.http.HttpService;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -35,11 +36,14 @@ class DefaultMastodonLoaderTest {
     @Autowired
     private AppConfig appConfig;
 
+    @Autowired
+    private HttpService httpService;
+
     @RetryingTest(3)
     void getStatuses() throws MastodonException {
         final var mastodonConfig = appConfig.mastodon();
-        final JSONArray posts = new DefaultMastodonLoader().getPosts(
-                mastodonConfig.instance(), "java", mastodonConfig.postAPI(), 1);
+        final JSONArray posts = new DefaultMastodonLoader(httpService).getPosts(
+                mastodonConfig.instance(), "java", mastodonConfig.postAPI(), 1, null);
         assertNotNull(posts);
         assertFalse(posts.isEmpty());
     }
@@ -47,8 +51,8 @@ class DefaultMastodonLoaderTest {
     @RetryingTest(3)
     void getStatusWithMention() throws MastodonException {
         final var mastodonConfig = appConfig.mastodon();
-        final JSONArray posts = new DefaultMastodonLoader().getNotifications(
-                mastodonConfig.instance(), mastodonConfig.notificationAPI(), mastodonConfig.accessToken(), 1  );
+        final JSONArray posts = new DefaultMastodonLoader(httpService).getNotifications(
+                mastodonConfig.instance(), mastodonConfig.notificationAPI(), mastodonConfig.accessToken(), 1, null);
         assertNotNull(posts);
         assertFalse(posts.isEmpty());
     }
@@ -57,8 +61,8 @@ class DefaultMastodonLoaderTest {
     void nonExistingServerThrowsExceptionOnGetPost() {
         final var mastodonConfig = appConfig.mastodon();
         final var exception = assertThrows(MastodonException.class,
-                () -> new DefaultMastodonLoader().getPosts("non.existent.server", "java",
-                        mastodonConfig.postAPI(), 1));
+                () -> new DefaultMastodonLoader(httpService).getPosts("non.existent.server", "java",
+                        mastodonConfig.postAPI(), 1, null));
         assertEquals("Unable to load posts with hashtag 'java' from Mastodon instance 'non.existent.server'", exception.getMessage());
     }
 
@@ -66,8 +70,8 @@ class DefaultMastodonLoaderTest {
     void nonExistingServerThrowsExceptionOnGetNotifications() {
         final var mastodonConfig = appConfig.mastodon();
         final var exception = assertThrows(MastodonException.class,
-                () -> new DefaultMastodonLoader().getNotifications("non.existent.server",
-                        mastodonConfig.notificationAPI(), mastodonConfig.accessToken(), 1));
+                () -> new DefaultMastodonLoader(httpService).getNotifications("non.existent.server",
+                        mastodonConfig.notificationAPI(), mastodonConfig.accessToken(), 1, null));
         assertEquals("Unable to load notifications from Mastodon instance 'non.existent.server'", exception.getMessage());
     }
 
@@ -21,6 +21,7 @@ import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.LoggerContext;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.junit.jupiter.api.Test;
@@ -32,7 +33,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import swiss.fihlon.apus.MemoryAppender;
 import swiss.fihlon.apus.configuration.AppConfig;
+import swiss.fihlon.apus.http.FetchExecutor;
+import swiss.fihlon.apus.http.ServerSentEvent;
 import swiss.fihlon.apus.social.Post;
+import swiss.fihlon.apus.social.PostImportException;
 
 import java.time.Instant;
 import java.time.ZoneId;
@@ -40,28 +44,34 @@ import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
+import static swiss.fihlon.apus.http.HttpTestUtil.HTTP_CONFIG;
 
 @SpringBootTest
 class MastodonPluginTest {
 
+    private static final @NotNull FetchExecutor FETCH_EXECUTOR = new FetchExecutor(HTTP_CONFIG);
+
     @Autowired
     private AppConfig appConfig;
 
     @Test
     void getServiceName() {
         final var mockAppConfig = mock(AppConfig.class);
-        final var mastodonConfig = new MastodonConfig("", "", "", "", 0);
+        final var mastodonConfig = new MastodonConfig("", "", "", "", 0, "");
         when(mockAppConfig.mastodon()).thenReturn(mastodonConfig);
 
-        final var mastodonPlugin = new MastodonPlugin(new TestMastodonLoader(), mockAppConfig);
+        final var mastodonPlugin = new MastodonPlugin(new TestMastodonLoader(), mockAppConfig, FETCH_EXECUTOR);
         assertEquals("Mastodon", mastodonPlugin.getServiceName());
     }
 
@@ -78,20 +88,20 @@ class MastodonPluginTest {
     @MethodSource("provideDataForDisabledTest")
     void isDisabled(final @NotNull String instance, final @NotNull String postApi) {
         final var mockAppConfig = mock(AppConfig.class);
-        final var mastodonConfig = new MastodonConfig(instance, "", "", postApi, 0);
+        final var mastodonConfig = new MastodonConfig(instance, "", "", postApi, 0, "");
         when(mockAppConfig.mastodon()).thenReturn(mastodonConfig);
 
-        final var mastodonPlugin = new MastodonPlugin(new TestMastodonLoader(), mockAppConfig);
+        final var mastodonPlugin = new MastodonPlugin(new TestMastodonLoader(), mockAppConfig, FETCH_EXECUTOR);
         assertFalse(mastodonPlugin.isEnabled());
     }
 
     @Test
     void isEnabled() {
         final var mockAppConfig = mock(AppConfig.class);
-        final var mastodonConfig = new MastodonConfig("localhost", "", "", "foobar", 0);
+        final var mastodonConfig = new MastodonConfig("localhost", "", "", "foobar", 0, "");
         when(mockAppConfig.mastodon()).thenReturn(mastodonConfig);
 
-        final var mastodonPlugin = new MastodonPlugin(new TestMastodonLoader(), mockAppConfig);
+        final var mastodonPlugin = new MastodonPlugin(new TestMastodonLoader(), mockAppConfig, FETCH_EXECUTOR);
         assertTrue(mastodonPlugin.isEnabled());
     }
 
@@ -106,7 +116,8 @@ class MastodonPluginTest {
                 Arguments.of(List.of("foobar", "bar"), 8),
                 Arguments.of(List.of("foo", "bar"), 5),
                 Arguments.of(List.of("foobar", "", "bar"), 8),
-                Arguments.of(List.of("foobar", " ", "bar"), 8)
+                Arguments.of(List.of("foobar", " ", "bar"), 8),
+                Arguments.of(List.of("foobar", " FooBar "), 5)
         );
     }
 
@@ -114,10 +125,10 @@ class MastodonPluginTest {
     @MethodSource("provideDataForHashtagsTest")
     void getPostsWithHashtags(final @NotNull List<String> hashtags, final int expectedNumberOfPosts) {
         final var mockAppConfig = mock(AppConfig.class);
-        final var mastodonConfig = new MastodonConfig("localhost", "", "", appConfig.mastodon().postAPI(), 0);
+        final var mastodonConfig = new MastodonConfig("localhost", "", "", appConfig.mastodon().postAPI(), 0, "");
         when(mockAppConfig.mastodon()).thenReturn(mastodonConfig);
 
-        final MastodonPlugin mastodonPlugin = new MastodonPlugin(new TestMastodonLoader(), mockAppConfig);
+        final MastodonPlugin mastodonPlugin = new MastodonPlugin(new TestMastodonLoader(), mockAppConfig, FETCH_EXECUTOR);
         final List<Post> posts = mastodonPlugin.getPosts(hashtags).toList();
 
         assertNotNull(posts);
@@ -127,10 +138,10 @@ class MastodonPluginTest {
     @Test
     void getPostsWithUnlimitedImages() {
         final var mockAppConfig = mock(AppConfig.class);
-        final var mastodonConfig = new MastodonConfig("localhost", "", "", appConfig.mastodon().postAPI(), 0);
+        final var mastodonConfig = new MastodonConfig("localhost", "", "", appConfig.mastodon().postAPI(), 0, "");
         when(mockAppConfig.mastodon()).thenReturn(mastodonConfig);
 
-        final MastodonPlugin mastodonPlugin = new MastodonPlugin(new TestMastodonLoader(), mockAppConfig);
+        final MastodonPlugin mastodonPlugin = new MastodonPlugin(new TestMastodonLoader(), mockAppConfig, FETCH_EXECUTOR);
         final List<Post> posts = mastodonPlugin.getPosts(List.of("foobar")).toList();
 
         assertNotNull(posts);
@@ -152,10 +163,10 @@ class MastodonPluginTest {
     @Test
     void getPostsWithInvalidImageTypes() {
         final var mockAppConfig = mock(AppConfig.class);
-        final var mastodonConfig = new MastodonConfig("localhost", "", "", appConfig.mastodon().postAPI(), 0);
+        final var mastodonConfig = new MastodonConfig("localhost", "", "", appConfig.mastodon().postAPI(), 0, "");
         when(mockAppConfig.mastodon()).thenReturn(mastodonConfig);
 
-        final MastodonPlugin mastodonPlugin = new MastodonPlugin(new TestMastodonLoader(), mockAppConfig);
+        final MastodonPlugin mastodonPlugin = new MastodonPlugin(new TestMastodonLoader(), mockAppConfig, FETCH_EXECUTOR);
         final List<Post> posts = mastodonPlugin.getPosts(List.of("invalidImageType")).toList();
 
         assertNotNull(posts);
@@ -172,7 +183,7 @@ class MastodonPluginTest {
     @Test
     void getPostsCatchesException() {
         final var mockAppConfig = mock(AppConfig.class);
-        final var mastodonConfig = new MastodonConfig("localhost", "", "", appConfig.mastodon().postAPI(), 0);
+        final var mastodonConfig = new MastodonConfig("localhost", "", "", appConfig.mastodon().postAPI(), 0, "");
         when(mockAppConfig.mastodon()).thenReturn(mastodonConfig);
 
         final MemoryAppender memoryAppender = new MemoryAppender();
@@ -181,22 +192,32 @@ class MastodonPluginTest {
         logger.addAppender(memoryAppender);
 
         memoryAppender.start();
-        final MastodonPlugin mastodonPlugin = new MastodonPlugin(new TestMastodonLoader(), mockAppConfig);
-        final var posts = mastodonPlugin.getPosts(List.of("broken")).toList();
+        final MastodonPlugin mastodonPlugin = new MastodonPlugin(new TestMastodonLoader(), mockAppConfig, FETCH_EXECUTOR);
+        final var posts = mastodonPlugin.getPosts(List.of("bar", "broken")).toList();
         memoryAppender.stop();
 
         final int errorCount = memoryAppender.searchMessages("This is an expected exception getting posts.", Level.ERROR).size();
         assertEquals(1, errorCount);
-        assertEquals(0, posts.size());
+        assertEquals(3, posts.size());
+    }
+
+    @Test
+    void getPostsThrowsExceptionIfAllDownloadsFail() {
+        final var mockAppConfig = mock(AppConfig.class);
+        final var mastodonConfig = new MastodonConfig("localhost", "", "", appConfig.mastodon().postAPI(), 0, "");
+        when(mockAppConfig.mastodon()).thenReturn(mastodonConfig);
+
+        final MastodonPlugin mastodonPlugin = new MastodonPlugin(new TestMastodonLoader(), mockAppConfig, FETCH_EXECUTOR);
+        assertThrows(PostImportException.class, () -> mastodonPlugin.getPosts(List.of("broken")));
     }
 
     @Test
     void testReplyConversion() {
         final var mockAppConfig = mock(AppConfig.class);
-        final var mastodonConfig = new MastodonConfig("localhost", "", "", appConfig.mastodon().postAPI(), 0);
+        final var mastodonConfig = new MastodonConfig("localhost", "", "", appConfig.mastodon().postAPI(), 0, "");
         when(mockAppConfig.mastodon()).thenReturn(mastodonConfig);
 
-        final MastodonPlugin mastodonPlugin = new MastodonPlugin(new TestMastodonLoader(), mockAppConfig);
+        final MastodonPlugin mastodonPlugin = new MastodonPlugin(new TestMastodonLoader(), mockAppConfig, FETCH_EXECUTOR);
         final List<Post> posts = mastodonPlugin.getPosts(List.of("foobar")).toList();
 
         assertNotNull(posts);
@@ -214,10 +235,10 @@ class MastodonPluginTest {
     void getNotifications() {
         final var mockAppConfig = mock(AppConfig.class);
         final var mastodonConfig = new MastodonConfig("localhost", "testToken",
-                appConfig.mastodon().notificationAPI(), appConfig.mastodon().postAPI(), 0);
+                appConfig.mastodon().notificationAPI(), appConfig.mastodon().postAPI(), 0, "");
         when(mockAppConfig.mastodon()).thenReturn(mastodonConfig);
 
-        final MastodonPlugin mastodonPlugin = new MastodonPlugin(new TestMastodonLoader(), mockAppConfig);
+        final MastodonPlugin mastodonPlugin = new MastodonPlugin(new TestMastodonLoader(), mockAppConfig, FETCH_EXECUTOR);
         final List<Post> posts = mastodonPlugin.getPosts(List.of("empty")).toList();
 
         assertNotNull(posts);
@@ -228,10 +249,10 @@ class MastodonPluginTest {
     void getNotificationsWithEmptyAPI() {
         final var mockAppConfig = mock(AppConfig.class);
         final var mastodonConfig = new MastodonConfig("localhost", "testToken",
-                "", appConfig.mastodon().postAPI(), 0);
+                "", appConfig.mastodon().postAPI(), 0, "");
         when(mockAppConfig.mastodon()).thenReturn(mastodonConfig);
 
-        final MastodonPlugin mastodonPlugin = new MastodonPlugin(new TestMastodonLoader(), mockAppConfig);
+        final MastodonPlugin mastodonPlugin = new MastodonPlugin(new TestMastodonLoader(), mockAppConfig, FETCH_EXECUTOR);
         final List<Post> posts = mastodonPlugin.getPosts(List.of("empty")).toList();
 
         assertNotNull(posts);
@@ -242,10 +263,10 @@ class MastodonPluginTest {
     void getNotificationsWithBlankAPI() {
         final var mockAppConfig = mock(AppConfig.class);
         final var mastodonConfig = new MastodonConfig("localhost", "testToken",
-                "   ", appConfig.mastodon().postAPI(), 0);
+                "   ", appConfig.mastodon().postAPI(), 0, "");
         when(mockAppConfig.mastodon()).thenReturn(mastodonConfig);
 
-        final MastodonPlugin mastodonPlugin = new MastodonPlugin(new TestMastodonLoader(), mockAppConfig);
+        final MastodonPlugin mastodonPlugin = new MastodonPlugin(new TestMastodonLoader(), mockAppConfig, FETCH_EXECUTOR);
         final List<Post> posts = mastodonPlugin.getPosts(List.of("empty")).toList();
 
         assertNotNull(posts);
@@ -256,10 +277,10 @@ class MastodonPluginTest {
     void getNotificationsWithEmptyAccessToken() {
         final var mockAppConfig = mock(AppConfig.class);
         final var mastodonConfig = new MastodonConfig("localhost", "",
-                appConfig.mastodon().notificationAPI(), appConfig.mastodon().postAPI(), 0);
+                appConfig.mastodon().notificationAPI(), appConfig.mastodon().postAPI(), 0, "");
         when(mockAppConfig.mastodon()).thenReturn(mastodonConfig);
 
-        final MastodonPlugin mastodonPlugin = new MastodonPlugin(new TestMastodonLoader(), mockAppConfig);
+        final MastodonPlugin mastodonPlugin = new MastodonPlugin(new TestMastodonLoader(), mockAppConfig, FETCH_EXECUTOR);
         final List<Post> posts = mastodonPlugin.getPosts(List.of("empty")).toList();
 
         assertNotNull(posts);
@@ -270,10 +291,10 @@ class MastodonPluginTest {
     void getNotificationsWithBlankAccessToken() {
         final var mockAppConfig = mock(AppConfig.class);
         final var mastodonConfig = new MastodonConfig("localhost", "   ",
-                appConfig.mastodon().notificationAPI(), appConfig.mastodon().postAPI(), 0);
+                appConfig.mastodon().notificationAPI(), appConfig.mastodon().postAPI(), 0, "");
         when(mockAppConfig.mastodon()).thenReturn(mastodonConfig);
 
-        final MastodonPlugin mastodonPlugin = new MastodonPlugin(new TestMastodonLoader(), mockAppConfig);
+        final MastodonPlugin mastodonPlugin = new MastodonPlugin(new TestMastodonLoader(), mockAppConfig, FETCH_EXECUTOR);
         final List<Post> posts = mastodonPlugin.getPosts(List.of("empty")).toList();
 
         assertNotNull(posts);
@@ -284,7 +305,7 @@ class MastodonPluginTest {
     void getNotificationsCatchesException() {
         final var mockAppConfig = mock(AppConfig.class);
         final var mastodonConfig = new MastodonConfig("localhost", "broken",
-                appConfig.mastodon().notificationAPI(), appConfig.mastodon().postAPI(), 0);
+                appConfig.mastodon().notificationAPI(), appConfig.mastodon().postAPI(), 0, "");
         when(mockAppConfig.mastodon()).thenReturn(mastodonConfig);
 
         final MemoryAppender memoryAppender = new MemoryAppender();
@@ -293,7 +314,7 @@ class MastodonPluginTest {
         logger.addAppender(memoryAppender);
 
         memoryAppender.start();
-        final MastodonPlugin mastodonPlugin = new MastodonPlugin(new TestMastodonLoader(), mockAppConfig);
+        final MastodonPlugin mastodonPlugin = new MastodonPlugin(new TestMastodonLoader(), mockAppConfig, FETCH_EXECUTOR);
         final var posts = mastodonPlugin.getPosts(List.of("empty")).toList();
         memoryAppender.stop();
 
@@ -302,15 +323,37 @@ class MastodonPluginTest {
         assertEquals(0, posts.size());
     }
 
+    @Test
+    void getPostsIncrementally() {
+        final var mockAppConfig = mock(AppConfig.class);
+        final var mastodonConfig = new MastodonConfig("localhost", "", "", appConfig.mastodon().postAPI(), 0, "");
+        when(mockAppConfig.mastodon()).thenReturn(mastodonConfig);
+
+        final var mastodonLoader = new TestMastodonLoader();
+        final MastodonPlugin mastodonPlugin = new MastodonPlugin(mastodonLoader, mockAppConfig, FETCH_EXECUTOR);
+
+        final var firstPosts = mastodonPlugin.getPosts(List.of("incremental")).toList();
+        assertNull(mastodonLoader.lastSinceId);
+        assertEquals(List.of("ID 3", "ID 4"), firstPosts.stream().map(Post::id).toList());
+
+        final var secondPosts = mastodonPlugin.getPosts(List.of("incremental")).toList();
+        assertEquals("ID 3", mastodonLoader.lastSinceId);
+        assertEquals(List.of("ID 1", "ID 2", "ID 3", "ID 4"), secondPosts.stream().map(Post::id).toList());
+    }
+
     private static final class TestMastodonLoader implements MastodonLoader {
 
+        private @Nullable String lastSinceId;
+
         @Override
         @NotNull
         public JSONArray getPosts(final @NotNull String instance,
                                   final @NotNull String hashtag,
                                   final @NotNull String postAPI,
-                                  final int postLimit)
+                                  final int postLimit,
+                                  final @Nullable String sinceId)
                 throws MastodonException {
+            lastSinceId = sinceId;
             final var posts = new JSONArray();
             posts.putAll(switch (hashtag) {
                 case "foobar" -> List.of(
@@ -329,13 +372,16 @@ class MastodonPluginTest {
                         createPost(9, false),
                         createPost(10, false)
                 );
-                case "invalidImageType" -> List.of(
+                case "invalidimagetype" -> List.of(
                         createPost(1, true),
                         createPost(2, true),
                         createPost(3, true),
                         createPost(4, true),
                         createPost(5, true)
                 );
+                case "incremental" -> sinceId == null
+                        ? List.of(createPost(3, false), createPost(4, false))
+                        : List.of(createPost(1, false), createPost(2, false));
                 case "broken" -> throw new MastodonException("This is an expected exception getting posts.",
                         new RuntimeException("This is a faked cause."));
                 default -> List.of();
@@ -344,7 +390,8 @@ class MastodonPluginTest {
         }
 
         @Override
-        public @NotNull JSONArray getNotifications(@NotNull String instance, @NotNull String notificationAPI, @NotNull String accessToken, int postLimit)
+        public @NotNull JSONArray getNotifications(@NotNull String instance, @NotNull String notificationAPI, @NotNull String accessToken, int postLimit,
+                                                   @Nullable String sinceId)
                 throws MastodonException {
             if (accessToken.equalsIgnoreCase("broken")) {
                 throw new MastodonException("This is an expected exception getting notifications.",
@@ -362,8 +409,24 @@ class MastodonPluginTest {
             return notifications;
         }
 
+        @Override
+        public void streamHashtag(final @NotNull String instance, final @NotNull String streamingAPI, final @NotNull String hashtag,
+                                  final @Nullable String accessToken, final @NotNull Runnable onOpen,
+                                  final @NotNull Consumer<@NotNull ServerSentEvent> onEvent)
+                throws MastodonException {
+            throw new MastodonException("Streaming is not supported by the test loader.", new UnsupportedOperationException());
+        }
+
+        @Override
+        public void streamNotifications(final @NotNull String instance, final @NotNull String streamingAPI, final @NotNull String accessToken,
+                                        final @NotNull Runnable onOpen, final @NotNull Consumer<@NotNull ServerSentEvent> onEvent)
+                throws MastodonException {
+            throw new MastodonException("Streaming is not supported by the test loader.", new UnsupportedOperationException());
+        }
+
         private JSONObject createNotification(final int index) {
             final var notification = new JSONObject();
+            notification.put("id", "N " + index);
             notification.put("status", createPost(index, false));
             return notification;
         }
@@ -0,0 +1,161 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.plugin.social.mastodon;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.jetbrains.annotations.NotNull;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import swiss.fihlon.apus.configuration.AppConfig;
+import swiss.fihlon.apus.http.FetchExecutor;
+import swiss.fihlon.apus.http.HttpService;
+import swiss.fihlon.apus.social.Post;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static swiss.fihlon.apus.http.HttpTestUtil.HTTP_CONFIG;
+
+class MastodonStreamTest {
+
+    private static final @NotNull HttpService HTTP_SERVICE = new HttpService(HTTP_CONFIG);
+    private static final @NotNull FetchExecutor FETCH_EXECUTOR = new FetchExecutor(HTTP_CONFIG);
+
+    private final @NotNull BlockingQueue<String> events = new LinkedBlockingQueue<>();
+    private final @NotNull AtomicInteger polls = new AtomicInteger();
+    private HttpServer server;
+    private MastodonPlugin mastodonPlugin;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/api/v1/timelines/tag/live", exchange -> {
+            polls.incrementAndGet();
+            final var posts = new JSONArray();
+            if (exchange.getRequestURI().getQuery().contains("since_id")) {
+                respond(exchange, posts.toString());
+            } else {
+                respond(exchange, posts.put(createStatus(1)).toString());
+            }
+        });
+        server.createContext("/api/v1/streaming/hashtag", this::stream);
+        server.start();
+
+        final var mockAppConfig = mock(AppConfig.class);
+        final var instance = "localhost:%d".formatted(server.getAddress().getPort());
+        when(mockAppConfig.mastodon()).thenReturn(new MastodonConfig(instance, "", "",
+                "http://${instance}/api/v1/timelines/tag/${hashtag}?limit=${limit}", 0, "http://${instance}/api/v1/streaming"));
+        mastodonPlugin = new MastodonPlugin(new DefaultMastodonLoader(HTTP_SERVICE), mockAppConfig, FETCH_EXECUTOR);
+    }
+
+    @AfterEach
+    void stopServer() {
+        mastodonPlugin.stopStreams();
+        server.stop(0);
+    }
+
+    @Test
+    void receivesPostsFromStream() throws Exception {
+        final var postsChanged = new Semaphore(0);
+        mastodonPlugin.setPostsChangedListener(postsChanged::release);
+
+        assertEquals(List.of("1"), ids(mastodonPlugin.getPosts(List.of("live")).toList()));
+        assertEquals(1, polls.get());
+
+        events.add("event: update\ndata: " + createStatus(2) + "\n\n");
+        assertTrue(postsChanged.tryAcquire(5, TimeUnit.SECONDS));
+
+        // the first poll after the stream was opened catches up on posts which were missed while connecting
+        assertEquals(List.of("2", "1"), ids(mastodonPlugin.getPosts(List.of("live")).toList()));
+        assertEquals(2, polls.get());
+
+        events.add("event: delete\ndata: 1\n\n");
+        assertTrue(postsChanged.tryAcquire(5, TimeUnit.SECONDS));
+
+        // while the stream is connected, posts are served without polling
+        assertEquals(List.of("2"), ids(mastodonPlugin.getPosts(List.of("live")).toList()));
+        assertEquals(2, polls.get());
+    }
+
+    private void stream(final @NotNull HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(":)\n\n".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            while (true) {
+                final var event = events.poll(100, TimeUnit.MILLISECONDS);
+                out.write((event != null ? event : ":thump\n\n").getBytes(StandardCharsets.UTF_8));
+                out.flush();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static @NotNull JSONObject createStatus(final int id) {
+        final var account = new JSONObject();
+        account.put("display_name", "Display Name " + id);
+        account.put("avatar", "Avatar " + id);
+        account.put("acct", "profile" + id);
+
+        final var status = new JSONObject();
+        status.put("id", Integer.toString(id));
+        status.put("created_at", ZonedDateTime.now().plusSeconds(id).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+        status.put("account", account);
+        status.put("content", "Content for post #" + id);
+        status.put("in_reply_to_id", JSONObject.NULL);
+        status.put("sensitive", false);
+        status.put("media_attachments", new JSONArray());
+        return status;
+    }
+
+    private static @NotNull List<String> ids(final @NotNull List<Post> posts) {
+        return posts.stream().map(Post::id).toList();
+    }
+
+    private static void respond(final @NotNull HttpExchange exchange, final @NotNull String body) throws IOException {
+        final var bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+}
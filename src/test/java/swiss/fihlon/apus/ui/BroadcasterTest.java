@@ -0,0 +1,115 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.ui;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
+import com.vaadin.flow.server.Command;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BroadcasterTest {
+
+    @Test
+    void deliversMessagesInTheContextOfTheUI() {
+        final var ui = mock(UI.class);
+        final var received = new ArrayList<String>();
+        final var broadcaster = new Broadcaster<String>("test");
+        broadcaster.register(ui, "owner", received::add);
+
+        broadcaster.broadcast("first");
+        assertEquals(List.of(), received);
+
+        final var command = ArgumentCaptor.forClass(Command.class);
+        verify(ui).access(command.capture());
+        command.getValue().execute();
+        assertEquals(List.of("first"), received);
+    }
+
+    @Test
+    void replacesPendingMessageOfSlowUI() {
+        final var ui = mock(UI.class);
+        final var received = new ArrayList<String>();
+        final var broadcaster = new Broadcaster<String>("test");
+        broadcaster.register(ui, "owner", received::add);
+
+        broadcaster.broadcast("first");
+        broadcaster.broadcast("second");
+        broadcaster.broadcast("third");
+
+        final var command = ArgumentCaptor.forClass(Command.class);
+        verify(ui, times(1)).access(command.capture());
+        assertEquals(1, broadcaster.getSubscriberCount());
+        command.getValue().execute();
+        assertEquals(List.of("third"), received);
+
+        broadcaster.broadcast("fourth");
+        verify(ui, times(2)).access(any(Command.class));
+    }
+
+    @Test
+    void removesClosingUI() {
+        final var ui = mock(UI.class);
+        when(ui.isClosing()).thenReturn(true);
+        final var broadcaster = new Broadcaster<String>("test");
+        broadcaster.register(ui, "owner", message -> { });
+
+        broadcaster.broadcast("message");
+
+        verify(ui, never()).access(any(Command.class));
+        assertEquals(0, broadcaster.getSubscriberCount());
+    }
+
+    @Test
+    void removesDetachedUI() {
+        final var ui = mock(UI.class);
+        when(ui.access(any(Command.class))).thenThrow(new UIDetachedException());
+        final var broadcaster = new Broadcaster<String>("test");
+        broadcaster.register(ui, "owner", message -> { });
+
+        broadcaster.broadcast("message");
+
+        assertEquals(0, broadcaster.getSubscriberCount());
+    }
+
+    @Test
+    void removesUnregisteredOwner() {
+        final var ui = mock(UI.class);
+        final var broadcaster = new Broadcaster<String>("test");
+        broadcaster.register(ui, "owner", message -> { });
+        assertEquals(1, broadcaster.getSubscriberCount());
+
+        broadcaster.unregister("owner");
+        broadcaster.broadcast("message");
+
+        verify(ui, never()).access(any(Command.class));
+        assertEquals(0, broadcaster.getSubscriberCount());
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.ui;
+
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.Test;
+import swiss.fihlon.apus.plugin.social.SocialService;
+import swiss.fihlon.apus.social.Post;
+import swiss.fihlon.apus.social.RenderedPost;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PostFragmentServiceTest {
+
+    private static final Post POST = new Post("TEST:1", ZonedDateTime.now(), "<b>Firstname</b> Lastname",
+            "https://localhost/avatar.png", "@nickname", "<p>Test</p><script>alert('x')</script>",
+            List.of("https://localhost/image1.png", "https://localhost/image2.png"), false, false,
+            "<svg width=\"100\" height=\"100\"><circle cx=\"50\" cy=\"50\" r=\"40\" /></svg>");
+
+    @Test
+    void rendersPostIntoFragments() {
+        final var socialService = mock(SocialService.class);
+        when(socialService.getRenderedPost(POST)).thenReturn(new RenderedPost("<p>Test</p>", "Test", "test"));
+        final var fragment = new PostFragmentService(socialService).getFragment(POST);
+
+        final var header = Jsoup.parseBodyFragment(fragment.header()).body().child(0);
+        assertEquals("header", header.className());
+        final var avatar = header.selectFirst("> vaadin-avatar.avatar");
+        assertEquals("https://localhost/avatar.png", avatar.attr("img"));
+        assertEquals("<b>Firstname</b> Lastname", avatar.attr("name"));
+        assertEquals("<b>Firstname</b> Lastname", header.selectFirst(".author-container > .author").text());
+        assertEquals("@nickname", header.selectFirst(".author-container > .profile").text());
+        assertTrue(header.select(".author b").isEmpty());
+
+        final var content = Jsoup.parseBodyFragment(fragment.content()).body().child(0);
+        assertEquals("content", content.className());
+        assertEquals("<p>Test</p>", content.html());
+        assertFalse(fragment.content().contains("<script>"));
+
+        assertEquals(List.of("<img src=\"https://localhost/image1.png\" alt=\"https://localhost/image1.png\">",
+                "<img src=\"https://localhost/image2.png\" alt=\"https://localhost/image2.png\">"), fragment.images());
+
+        final var sourceLogo = Jsoup.parseBodyFragment(fragment.sourceLogo()).body().child(0);
+        assertEquals("source-logo", sourceLogo.className());
+        assertEquals(1, sourceLogo.select("> svg").size());
+    }
+
+    @Test
+    void rendersEveryPostOnlyOnce() {
+        final var socialService = mock(SocialService.class);
+        when(socialService.getRenderedPost(any())).thenReturn(new RenderedPost("<p>Test</p>", "Test", "test"));
+        final var postFragmentService = new PostFragmentService(socialService);
+
+        final var fragment = postFragmentService.getFragment(POST);
+        assertSame(fragment, postFragmentService.getFragment(POST));
+        assertSame(fragment, postFragmentService.getFragment(withHtml(POST, POST.html())));
+        verify(socialService, times(1)).getRenderedPost(any());
+
+        assertNotSame(fragment, postFragmentService.getFragment(withHtml(POST, "<p>Edited</p>")));
+        verify(socialService, times(2)).getRenderedPost(any());
+    }
+
+    private static Post withHtml(final Post post, final String html) {
+        return new Post(post.id(), post.date().plusSeconds(1), post.author(), post.avatar(), post.profile(), html,
+                post.images(), post.isReply(), post.isSensitive(), post.sourceLogo());
+    }
+
+}
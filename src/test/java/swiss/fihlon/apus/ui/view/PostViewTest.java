@@ -7,7 +7,10 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.ocpsoft.prettytime.PrettyTime;
+import swiss.fihlon.apus.plugin.social.SocialService;
 import swiss.fihlon.apus.social.Post;
+import swiss.fihlon.apus.social.RenderedPost;
+import swiss.fihlon.apus.ui.PostFragmentService;
 import swiss.fihlon.apus.util.TestUtil;
 
 import java.time.ZoneId;
@@ -20,6 +23,8 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 import static swiss.fihlon.apus.util.TestUtil.getComponentsByClassName;
 import static swiss.fihlon.apus.util.TestUtil.getComponentsByTagName;
 
@@ -77,6 +82,34 @@ class PostViewTest {
         assertFooter(postView, sourceLogo, postDate, locale);
     }
 
+    @ParameterizedTest
+    @MethodSource("provideDataForPostViewTest")
+    void testLightweightPostView(final @NotNull String postId,
+                                 final @NotNull ZonedDateTime postDate,
+                                 final @NotNull String postAuthor,
+                                 final @NotNull String postAvatar,
+                                 final @NotNull String postProfile,
+                                 final @NotNull String postHtml,
+                                 final @NotNull List<String> postImages,
+                                 final @NotNull String sourceLogo) {
+        final var post = new Post(postId, postDate, postAuthor, postAvatar, postProfile, postHtml, postImages, false, false, sourceLogo);
+        final var socialService = mock(SocialService.class);
+        when(socialService.getRenderedPost(post)).thenReturn(new RenderedPost(postHtml, "", ""));
+        final var locale = Locale.ENGLISH;
+        final var postView = PostView.createLightweight(post, new PostFragmentService(socialService).getFragment(post), locale);
+
+        assertEquals("post-%s".formatted(postId), postView.getId().orElseThrow());
+        assertTrue(postView.getClassName().contains("post-view"));
+
+        // the same elements and classes as the full post view, the details of the header are part of its fragment
+        final var headers = getComponentsByClassName(postView, "header");
+        assertEquals(1, headers.size());
+        assertTrue(headers.getFirst().getElement().getOuterHTML().contains("class=\"author-container\""));
+        assertContent(postView, postHtml);
+        assertImage(postView, postImages);
+        assertFooter(postView, sourceLogo, postDate, locale);
+    }
+
     private static void assertHeader(final @NotNull PostView postView,
                                      final @NotNull String expectedAvatar,
                                      final @NotNull String expectedAuthor,
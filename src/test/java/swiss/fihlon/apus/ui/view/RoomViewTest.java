@@ -25,9 +25,11 @@ import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import swiss.fihlon.apus.event.Language;
 import swiss.fihlon.apus.event.Room;
+import swiss.fihlon.apus.event.RoomStyle;
 import swiss.fihlon.apus.event.Session;
 import swiss.fihlon.apus.event.Speaker;
 import swiss.fihlon.apus.event.Track;
+import swiss.fihlon.apus.plugin.event.RoomAgenda;
 import swiss.fihlon.apus.util.TestUtil;
 
 import java.time.LocalDate;
@@ -38,6 +40,9 @@ import java.util.List;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static swiss.fihlon.apus.util.TestUtil.getComponentsByClassName;
 
 class RoomViewTest {
@@ -161,6 +166,11 @@ class RoomViewTest {
         }
     }
 
+    private static @NotNull RoomAgenda runningSession(final @NotNull Session session) {
+        return new RoomAgenda(session.room(), RoomStyle.RUNNING, session, session.title(),
+                "Speaker One, Speaker Two", "!{event.session.countdown.minutes}!");
+    }
+
     private static Stream<Arguments> provideArgumentsForRoomTest() {
         return Stream.of(
                 Arguments.of("Room One"),
@@ -173,7 +183,7 @@ class RoomViewTest {
     @MethodSource("provideArgumentsForRoomTest")
     void constructorWithRoom(final @NotNull String roomName) {
         final var room = new Room(roomName);
-        final var roomView = new RoomView(TEST_TIMEZONE, room);
+        final var roomView = new RoomView(new RoomAgenda(room, RoomStyle.EMPTY, null, "!{event.room.empty}!", "", ""));
         assertEquals(5, roomView.getChildren().count());
         assertTitle(roomView, "!{event.room.empty}!", Language.UNKNOWN);
         assertSpeakers(roomView, "");
@@ -191,7 +201,7 @@ class RoomViewTest {
                 new Room("My Room"), "My Session",
                 List.of(new Speaker("Speaker One"), new Speaker("Speaker Two")),
                 Language.EN, Track.CORE);
-        final var roomView = new RoomView(TEST_TIMEZONE, session);
+        final var roomView = new RoomView(runningSession(session));
         assertEquals(5, roomView.getChildren().count());
         assertTitle(roomView, "My Session", Language.EN);
         assertSpeakers(roomView, "Speaker One, Speaker Two");
@@ -209,7 +219,7 @@ class RoomViewTest {
                 new Room("My Room"), "My Session",
                 List.of(new Speaker("Speaker One"), new Speaker("Speaker Two")),
                 Language.UNKNOWN, Track.CORE);
-        final var roomView = new RoomView(TEST_TIMEZONE, session);
+        final var roomView = new RoomView(runningSession(session));
         assertEquals(5, roomView.getChildren().count());
         assertTitle(roomView, "My Session", Language.UNKNOWN);
         assertSpeakers(roomView, "Speaker One, Speaker Two");
@@ -227,7 +237,7 @@ class RoomViewTest {
                 new Room("My Room"), "My Session",
                 List.of(new Speaker("Speaker One"), new Speaker("Speaker Two")),
                 Language.EN, Track.NONE);
-        final var roomView = new RoomView(TEST_TIMEZONE, session);
+        final var roomView = new RoomView(runningSession(session));
         assertEquals(5, roomView.getChildren().count());
         assertTitle(roomView, "My Session", Language.EN);
         assertSpeakers(roomView, "Speaker One, Speaker Two");
@@ -247,7 +257,7 @@ class RoomViewTest {
                         new Speaker("Speaker One", "https://localhost/avatar1.png"),
                         new Speaker("Speaker Two", "https://localhost/avatar2.svg")),
                 Language.EN, Track.CORE);
-        final var roomView = new RoomView(TEST_TIMEZONE, session);
+        final var roomView = new RoomView(runningSession(session));
         assertEquals(5, roomView.getChildren().count());
         assertTitle(roomView, "My Session", Language.EN);
         assertSpeakers(roomView, "Speaker One, Speaker Two");
@@ -268,7 +278,7 @@ class RoomViewTest {
                         new Speaker("Speaker One", "https://localhost/avatar1.png"),
                         new Speaker("Speaker Two", "https://localhost/avatar2.svg")),
                 Language.EN, Track.NONE);
-        final var roomView = new RoomView(TEST_TIMEZONE, session);
+        final var roomView = new RoomView(runningSession(session));
         assertEquals(5, roomView.getChildren().count());
         assertTitle(roomView, "My Session", Language.EN);
         assertSpeakers(roomView, "Speaker One, Speaker Two");
@@ -278,4 +288,35 @@ class RoomViewTest {
         assertAvatar(roomView, List.of("https://localhost/avatar1.png", "https://localhost/avatar2.svg"));
     }
 
+    @Test
+    void updateChangesOnlyModifiedParts() {
+        final var today = LocalDate.now(TEST_TIMEZONE);
+        final var session = new Session("42",
+                LocalDateTime.of(today, LocalTime.MIDNIGHT).atZone(TEST_TIMEZONE),
+                LocalDateTime.of(today, LocalTime.MAX).atZone(TEST_TIMEZONE),
+                new Room("My Room"), "My Session",
+                List.of(new Speaker("Speaker One"), new Speaker("Speaker Two")),
+                Language.EN, Track.CORE);
+        final var roomView = new RoomView(runningSession(session));
+        final var childrenBefore = roomView.getChildren().toList();
+        final var trackBefore = getComponentsByClassName(roomView, "track").getFirst();
+
+        roomView.update(new RoomAgenda(session.room(), RoomStyle.RUNNING, session, session.title(),
+                "Speaker One, Speaker Two", "!{event.session.countdown.one-minute}!"));
+        assertEquals(childrenBefore, roomView.getChildren().toList());
+        assertSame(trackBefore, getComponentsByClassName(roomView, "track").getFirst());
+        assertTime(roomView, "!{event.session.countdown.one-minute}!");
+        assertTrue(roomView.hasClassName(RoomStyle.RUNNING.getCssStyle()));
+
+        roomView.update(new RoomAgenda(session.room(), RoomStyle.EMPTY, null, "!{event.room.empty}!", "", ""));
+        assertEquals(5, roomView.getChildren().count());
+        assertTitle(roomView, "!{event.room.empty}!", Language.UNKNOWN);
+        assertSpeakers(roomView, "");
+        assertRoom(roomView, "My Room");
+        assertTime(roomView, "");
+        assertTrack(roomView, Track.NONE);
+        assertFalse(roomView.hasClassName(RoomStyle.RUNNING.getCssStyle()));
+        assertTrue(roomView.hasClassName(RoomStyle.EMPTY.getCssStyle()));
+    }
+
 }
@@ -0,0 +1,123 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.util;
+
+import org.json.JSONException;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonReaderTest {
+
+    @Test
+    void readArrayElementByElement() {
+        final var reader = new JsonReader(new StringReader("""
+                [ {"id": 1, "name": "foo"}, {"id": 2, "name": "bar"} ]
+                """));
+        final var names = new ArrayList<String>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            names.add(reader.nextObject().getString("name"));
+        }
+        reader.endArray();
+        assertEquals(List.of("foo", "bar"), names);
+        assertFalse(reader.hasNext());
+    }
+
+    @Test
+    void walkNestedObjects() {
+        final var reader = new JsonReader(new StringReader("""
+                {"meta": {"size": 3, "tags": ["a", "b"]}, "schedule": {"title": "Conference", "rooms": {"A": [1, 2], "B": []}}}
+                """));
+        reader.beginObject();
+        assertTrue(reader.skipTo("schedule"));
+        reader.beginObject();
+        assertEquals("title", reader.nextName());
+        assertEquals("Conference", reader.nextString());
+        assertEquals("rooms", reader.nextName());
+        reader.beginObject();
+        assertEquals("A", reader.nextName());
+        assertEquals(2, reader.nextArray().length());
+        assertEquals("B", reader.nextName());
+        reader.beginArray();
+        assertFalse(reader.hasNext());
+        reader.endArray();
+        assertFalse(reader.hasNext());
+        reader.endObject();
+        reader.endObject();
+        reader.endObject();
+    }
+
+    @Test
+    void skipNestedValues() {
+        final var reader = new JsonReader(new StringReader("""
+                {"number": -12.5e3, "flag": true, "nothing": null, "text": "a ]}\\" {[ b",
+                 "nested": [1, {"list": ["]", false, {}]}, []], "empty": "", "target": "found"}
+                """));
+        reader.beginObject();
+        assertTrue(reader.skipTo("target"));
+        assertEquals("found", reader.nextString());
+        assertFalse(reader.hasNext());
+        reader.endObject();
+    }
+
+    @Test
+    void skipUnterminatedValue() {
+        final var reader = new JsonReader(new StringReader("{\"foo\": [1, {\"bar\": 2}"));
+        reader.beginObject();
+        assertThrows(JSONException.class, () -> reader.skipTo("baz"));
+    }
+
+    @Test
+    void skipToMissingMember() {
+        final var reader = new JsonReader(new StringReader("{\"foo\": 1, \"bar\": {\"baz\": true}}"));
+        reader.beginObject();
+        assertFalse(reader.skipTo("sessions"));
+        reader.endObject();
+    }
+
+    @Test
+    void emptyArray() {
+        final var reader = new JsonReader(new StringReader("[]"));
+        reader.beginArray();
+        assertFalse(reader.hasNext());
+        reader.endArray();
+    }
+
+    @Test
+    void unexpectedToken() {
+        final var reader = new JsonReader(new StringReader("{\"foo\": 1}"));
+        final var exception = assertThrows(JSONException.class, reader::beginArray);
+        assertTrue(exception.getMessage().startsWith("Expected '[' but found '{'"));
+    }
+
+    @Test
+    void unexpectedValueType() {
+        final var reader = new JsonReader(new StringReader("[\"foo\"]"));
+        reader.beginArray();
+        assertThrows(JSONException.class, reader::nextObject);
+    }
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Apus - A social wall for conferences with additional features.
+ * Copyright (C) Marcus Fihlon and the individual contributors to Apus.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package swiss.fihlon.apus.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WordMatcherTest {
+
+    @Test
+    void findsWordsAnywhere() {
+        final var matcher = new WordMatcher(List.of("foo", "bar"));
+        assertTrue(matcher.containsAny("foo"));
+        assertTrue(matcher.containsAny("this is foobar!"));
+        assertTrue(matcher.containsAny("a crowbar"));
+        assertFalse(matcher.containsAny("fo ba"));
+        assertFalse(matcher.containsAny(""));
+    }
+
+    @Test
+    void findsOverlappingWords() {
+        final var matcher = new WordMatcher(List.of("she", "he", "hers", "abcd", "bc"));
+        assertTrue(matcher.containsAny("ushers"));
+        assertTrue(matcher.containsAny("xhex"));
+        assertTrue(matcher.containsAny("abce")); // "bc" is a suffix of the partial match "abc"
+        assertFalse(matcher.containsAny("sh abd"));
+    }
+
+    @Test
+    void isCaseSensitive() {
+        final var matcher = new WordMatcher(List.of("foo"));
+        assertFalse(matcher.containsAny("FOO"));
+    }
+
+    @Test
+    void ignoresBlankWords() {
+        final var matcher = new WordMatcher(List.of("", " "));
+        assertFalse(matcher.containsAny("anything"));
+    }
+
+    @Test
+    void matchesLikeContains() {
+        final var words = List.of("aab", "abab", "bba", "b", "aaa");
+        final var matcher = new WordMatcher(words);
+        for (final var text : List.of("", "a", "aa", "aaa", "abaa", "baab", "ababa", "aabba", "cccc")) {
+            final var expected = words.stream().anyMatch(text::contains);
+            assertEquals(expected, matcher.containsAny(text), text);
+        }
+    }
+
+}